@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Several threads writing to pages that are in the page cache. The writers either spread their writes over the
+ * whole file, where they will sometimes collide on the same pages, or they each stick to their own set of pages.
+ * The readers run alongside writers in the same file, and must retry their reads when they overlap with a write.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Threads( 4 )
+public class ConcurrentWriters
+{
+    public static class ResidentFile extends PageCacheBenchmarkState
+    {
+        @Override
+        protected long filePages( int cachePages )
+        {
+            return cachePages / 2;
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Writer
+    {
+        PageCursor reader;
+        PageCursor writer;
+        int threadIndex;
+        int threadCount;
+
+        @Setup
+        public void setUp( ResidentFile file, ThreadParams threadParams ) throws IOException
+        {
+            reader = file.pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            writer = file.pagedFile.io( 0, PF_SHARED_WRITE_LOCK );
+            threadIndex = threadParams.getThreadIndex();
+            threadCount = threadParams.getThreadCount();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            reader.close();
+            writer.close();
+        }
+    }
+
+    @Benchmark
+    public void writeToSharedPages( ResidentFile file, Writer writer ) throws IOException
+    {
+        long pageId = ThreadLocalRandom.current().nextLong( file.filePages );
+        PageCacheBenchmarkState.writePage( writer.writer, pageId, pageId );
+    }
+
+    @Benchmark
+    public void writeToOwnPages( ResidentFile file, Writer writer ) throws IOException
+    {
+        long pagesPerThread = Math.max( file.filePages / writer.threadCount, 1 );
+        long pageId = writer.threadIndex * pagesPerThread + ThreadLocalRandom.current().nextLong( pagesPerThread );
+        PageCacheBenchmarkState.writePage( writer.writer, Math.min( pageId, file.filePages - 1 ), pageId );
+    }
+
+    /**
+     * Half of the threads read while the other half write, to the same random pages.
+     */
+    @Benchmark
+    public long readWhileOthersWrite( ResidentFile file, Writer writer ) throws IOException
+    {
+        long pageId = ThreadLocalRandom.current().nextLong( file.filePages );
+        if ( (writer.threadIndex & 1) == 0 )
+        {
+            PageCacheBenchmarkState.writePage( writer.writer, pageId, pageId );
+            return pageId;
+        }
+        return PageCacheBenchmarkState.readPage( writer.reader, pageId );
+    }
+}
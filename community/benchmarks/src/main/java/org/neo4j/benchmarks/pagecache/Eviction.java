@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Random accesses to a file that is four times larger than the page cache, which keeps the eviction policy busy.
+ * Reads only ever evict clean pages, while writes make the eviction flush the dirty pages before they can be
+ * reused.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class Eviction
+{
+    public static class LargeFile extends PageCacheBenchmarkState
+    {
+        @Param( {"CLOCK", "TWO_QUEUE"} )
+        public EvictionPolicy evictionPolicy;
+
+        @Override
+        protected long filePages( int cachePages )
+        {
+            return cachePages * 4L;
+        }
+
+        @Override
+        protected EvictionPolicy evictionPolicy()
+        {
+            return evictionPolicy;
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Cursors
+    {
+        PageCursor reader;
+        PageCursor writer;
+
+        @Setup
+        public void setUp( LargeFile file ) throws IOException
+        {
+            reader = file.pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            writer = file.pagedFile.io( 0, PF_SHARED_WRITE_LOCK );
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            reader.close();
+            writer.close();
+        }
+    }
+
+    @Benchmark
+    public long evictCleanPages( LargeFile file, Cursors cursors ) throws IOException
+    {
+        long pageId = ThreadLocalRandom.current().nextLong( file.filePages );
+        return PageCacheBenchmarkState.readPage( cursors.reader, pageId );
+    }
+
+    @Benchmark
+    public void evictDirtyPages( LargeFile file, Cursors cursors ) throws IOException
+    {
+        long pageId = ThreadLocalRandom.current().nextLong( file.filePages );
+        PageCacheBenchmarkState.writePage( cursors.writer, pageId, pageId );
+    }
+
+    /**
+     * Mostly access a small set of hot pages, and occasionally a random page anywhere in the file, which shows how
+     * well the eviction policy keeps the hot pages in the cache.
+     */
+    @Benchmark
+    public long evictAroundHotPages( LargeFile file, Cursors cursors ) throws IOException
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long hotPages = Math.max( file.cachePages / 4, 1 );
+        long pageId = random.nextInt( 10 ) == 0 ? random.nextLong( file.filePages ) : random.nextLong( hotPages );
+        return PageCacheBenchmarkState.readPage( cursors.reader, pageId );
+    }
+}
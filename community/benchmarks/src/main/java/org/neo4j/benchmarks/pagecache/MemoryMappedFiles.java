@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.impl.mmap.MemoryMappedPageCache;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Compares reading a read only file through memory mappings, with reading it through the page cache. Memory mapping
+ * only works on a real file system, so this benchmark puts its file in a temporary directory. When the file is
+ * larger than the page cache, the page cache must fault pages in, while the memory mappings can rely on the file
+ * being in the operating system page cache.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class MemoryMappedFiles
+{
+    public static class ReadOnlyFile extends PageCacheBenchmarkState
+    {
+        @Param( {"false", "true"} )
+        public boolean memoryMapped;
+
+        @Param( {"0.5", "2"} )
+        public double fileSizeRatio;
+
+        private File directory;
+
+        @Override
+        protected long filePages( int cachePages )
+        {
+            return Math.max( (long) (cachePages * fileSizeRatio), 1 );
+        }
+
+        @Override
+        protected FileSystemAbstraction createFileSystem()
+        {
+            return new DefaultFileSystemAbstraction();
+        }
+
+        @Override
+        protected File file()
+        {
+            try
+            {
+                directory = Files.createTempDirectory( "neo4j-benchmark" ).toFile();
+                return new File( directory, "benchmark-file" );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        @Override
+        protected PageCache createPageCache( FileSystemAbstraction fs )
+        {
+            PageCache pageCache = super.createPageCache( fs );
+            return memoryMapped ? new MemoryMappedPageCache( pageCache ) : pageCache;
+        }
+
+        @TearDown
+        public void deleteDirectory() throws IOException
+        {
+            try ( FileSystemAbstraction fs = createFileSystem() )
+            {
+                fs.deleteRecursively( directory );
+            }
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Reader
+    {
+        PageCursor reader;
+
+        @Setup
+        public void setUp( ReadOnlyFile file ) throws IOException
+        {
+            reader = file.pagedFile.io( 0, PF_SHARED_READ_LOCK );
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public long randomRead( ReadOnlyFile file, Reader reader ) throws IOException
+    {
+        long pageId = ThreadLocalRandom.current().nextLong( file.filePages );
+        return PageCacheBenchmarkState.readPage( reader.reader, pageId );
+    }
+
+    @Benchmark
+    @BenchmarkMode( Mode.AverageTime )
+    @OutputTimeUnit( TimeUnit.MILLISECONDS )
+    public long sequentialScan( ReadOnlyFile file ) throws IOException
+    {
+        return Scans.scan( file.pagedFile, PF_SHARED_READ_LOCK );
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.pagecache;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.StandardOpenOption;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.PageCacheQuotas;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.memory.GlobalMemoryTracker;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * A page cache with a single mapped file, that the page cache benchmarks operate on.
+ * <p>
+ * The page cache and the file live on an {@link EphemeralFileSystemAbstraction} by default, so the benchmarks
+ * measure the page cache itself rather than the storage device. The size of the file is decided by the benchmark,
+ * relative to the {@link #cachePages size of the page cache}. The number of threads is given to JMH with
+ * {@code -t}, for instance {@code java -jar benchmarks.jar PinUnpin -t 8 -p cachePages=100000}.
+ */
+@State( Scope.Benchmark )
+public abstract class PageCacheBenchmarkState
+{
+    @Param( {"1000", "100000"} )
+    public int cachePages;
+
+    public FileSystemAbstraction fs;
+    public PageCache pageCache;
+    public PagedFile pagedFile;
+    public long filePages;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        filePages = filePages( cachePages );
+        fs = createFileSystem();
+        pageCache = createPageCache( fs );
+        File file = file();
+        try ( PagedFile creatingFile = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            fillFile( creatingFile, filePages );
+        }
+        pagedFile = pageCache.map( file, pageCache.pageSize() );
+    }
+
+    @TearDown
+    public void tearDown() throws Exception
+    {
+        pagedFile.close();
+        pageCache.close();
+        fs.close();
+    }
+
+    /**
+     * @return the number of pages the file should have, given the number of pages in the page cache.
+     */
+    protected abstract long filePages( int cachePages );
+
+    protected EvictionPolicy evictionPolicy()
+    {
+        return EvictionPolicy.CLOCK;
+    }
+
+    protected FileSystemAbstraction createFileSystem()
+    {
+        return new EphemeralFileSystemAbstraction();
+    }
+
+    protected File file()
+    {
+        return new File( "benchmark-file" );
+    }
+
+    protected PageCache createPageCache( FileSystemAbstraction fs )
+    {
+        SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.open( fs, Configuration.EMPTY );
+        MemoryAllocator memoryAllocator = MemoryAllocator.createAllocator(
+                Long.toString( MuninnPageCache.memoryRequiredForPages( cachePages ) ), GlobalMemoryTracker.INSTANCE );
+        return new MuninnPageCache( swapperFactory, memoryAllocator, PageCacheTracer.NULL,
+                PageCursorTracerSupplier.NULL, EmptyVersionContextSupplier.EMPTY, evictionPolicy(),
+                PageCacheQuotas.NONE );
+    }
+
+    /**
+     * Write a recognisable long at the start of every page, and then flush the file so the benchmark starts out
+     * with clean pages.
+     */
+    static void fillFile( PagedFile pagedFile, long filePages ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( long pageId = 0; pageId < filePages; pageId++ )
+            {
+                if ( !cursor.next() )
+                {
+                    throw new IOException( "Could not grow the file to " + filePages + " pages" );
+                }
+                cursor.putLong( 0, pageId );
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    static long readPage( PageCursor cursor, long pageId ) throws IOException
+    {
+        long value;
+        if ( !cursor.next( pageId ) )
+        {
+            throw new IllegalStateException( "Page " + pageId + " is beyond the end of the file" );
+        }
+        do
+        {
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+
+    static void writePage( PageCursor cursor, long pageId, long value ) throws IOException
+    {
+        if ( !cursor.next( pageId ) )
+        {
+            throw new IllegalStateException( "Page " + pageId + " is beyond the end of the file" );
+        }
+        cursor.putLong( 8, value );
+    }
+}
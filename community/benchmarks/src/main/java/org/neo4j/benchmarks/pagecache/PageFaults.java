@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * The latency of page faults. Each thread cycles through a file that is four times larger than the page cache,
+ * so every pin has to fault the page in, and evict some other page to make room for it.
+ */
+@BenchmarkMode( Mode.SampleTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class PageFaults
+{
+    public static class LargeFile extends PageCacheBenchmarkState
+    {
+        @Override
+        protected long filePages( int cachePages )
+        {
+            return cachePages * 4L;
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Cycle
+    {
+        PageCursor reader;
+        long nextPageId;
+        long filePages;
+
+        @Setup
+        public void setUp( LargeFile file, ThreadParams threadParams ) throws IOException
+        {
+            reader = file.pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            filePages = file.filePages;
+            // Start the threads at different places in the file, so they fault different pages.
+            nextPageId = filePages * threadParams.getThreadIndex() / threadParams.getThreadCount();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            reader.close();
+        }
+
+        long nextPageId()
+        {
+            long pageId = nextPageId;
+            nextPageId = pageId + 1 == filePages ? 0 : pageId + 1;
+            return pageId;
+        }
+    }
+
+    @Benchmark
+    public long pageFault( Cycle cycle ) throws IOException
+    {
+        return PageCacheBenchmarkState.readPage( cycle.reader, cycle.nextPageId() );
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * The cost of pinning and unpinning pages that are already in the page cache, which is what almost all page cache
+ * accesses amount to once the cache is warm.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class PinUnpin
+{
+    public static class ResidentFile extends PageCacheBenchmarkState
+    {
+        @Override
+        protected long filePages( int cachePages )
+        {
+            return cachePages / 2;
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Cursors
+    {
+        PageCursor reader;
+        PageCursor writer;
+
+        @Setup
+        public void setUp( ResidentFile file ) throws IOException
+        {
+            reader = file.pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            writer = file.pagedFile.io( 0, PF_SHARED_WRITE_LOCK );
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            reader.close();
+            writer.close();
+        }
+    }
+
+    @Benchmark
+    public long pinForRead( ResidentFile file, Cursors cursors ) throws IOException
+    {
+        long pageId = ThreadLocalRandom.current().nextLong( file.filePages );
+        return PageCacheBenchmarkState.readPage( cursors.reader, pageId );
+    }
+
+    @Benchmark
+    public void pinForWrite( ResidentFile file, Cursors cursors ) throws IOException
+    {
+        long pageId = ThreadLocalRandom.current().nextLong( file.filePages );
+        PageCacheBenchmarkState.writePage( cursors.writer, pageId, pageId );
+    }
+
+    /**
+     * Alternate between two pages, which measures the pin and unpin protocol without any cache misses, and with as
+     * little cache line traffic as possible.
+     */
+    @Benchmark
+    public long alternateBetweenTwoPages( ResidentFile file, Cursors cursors ) throws IOException
+    {
+        long pageId = cursors.reader.getCurrentPageId() == 0 ? 1 : 0;
+        return PageCacheBenchmarkState.readPage( cursors.reader, pageId );
+    }
+}
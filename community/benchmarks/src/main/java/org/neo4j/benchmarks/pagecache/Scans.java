@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Reading every page of a file, either from the start to the end, or in a random order. The file is either half
+ * the size of the page cache, or twice its size, in which case the scans must fault in most of the pages.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class Scans
+{
+    public static class ScannedFile extends PageCacheBenchmarkState
+    {
+        @Param( {"0.5", "2"} )
+        public double fileSizeRatio;
+
+        long[] randomOrder;
+
+        @Override
+        protected long filePages( int cachePages )
+        {
+            return Math.max( (long) (cachePages * fileSizeRatio), 1 );
+        }
+
+        @Setup
+        public void shufflePageIds()
+        {
+            randomOrder = new long[(int) filePages( cachePages )];
+            for ( int i = 0; i < randomOrder.length; i++ )
+            {
+                randomOrder[i] = i;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for ( int i = randomOrder.length - 1; i > 0; i-- )
+            {
+                int j = random.nextInt( i + 1 );
+                long pageId = randomOrder[i];
+                randomOrder[i] = randomOrder[j];
+                randomOrder[j] = pageId;
+            }
+        }
+    }
+
+    @Benchmark
+    public long sequentialScan( ScannedFile file ) throws IOException
+    {
+        return scan( file.pagedFile, PF_SHARED_READ_LOCK );
+    }
+
+    @Benchmark
+    public long sequentialScanWithReadAhead( ScannedFile file ) throws IOException
+    {
+        return scan( file.pagedFile, PF_SHARED_READ_LOCK | PF_READ_AHEAD );
+    }
+
+    @Benchmark
+    public long randomScan( ScannedFile file ) throws IOException
+    {
+        long sum = 0;
+        try ( PageCursor cursor = file.pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            for ( long pageId : file.randomOrder )
+            {
+                sum += PageCacheBenchmarkState.readPage( cursor, pageId );
+            }
+        }
+        return sum;
+    }
+
+    static long scan( PagedFile pagedFile, int pf_flags ) throws IOException
+    {
+        long sum = 0;
+        try ( PageCursor cursor = pagedFile.io( 0, pf_flags ) )
+        {
+            while ( cursor.next() )
+            {
+                long value;
+                do
+                {
+                    value = cursor.getLong( 0 );
+                }
+                while ( cursor.shouldRetry() );
+                sum += value;
+            }
+        }
+        return sum;
+    }
+}
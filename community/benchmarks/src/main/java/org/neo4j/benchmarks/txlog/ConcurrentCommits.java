@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.txlog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
+import org.neo4j.graphdb.mockfs.DelegatingStoreChannel;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.core.DatabasePanicEventGenerator;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotationImpl;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.util.IdOrderingQueue;
+import org.neo4j.kernel.internal.DatabaseHealth;
+import org.neo4j.kernel.internal.KernelEventHandlers;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.logging.NullLog;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Threads concurrently committing transactions through the {@link BatchingTransactionAppender}, with the commands
+ * of each transaction either serialized into the log while holding it, or serialized concurrently by the committing
+ * threads before appending them to the log.
+ * <p>
+ * The transaction log lives in a temporary directory, on a file system where forcing is a no-op, so that the
+ * benchmark measures how well appending to the log scales with the number of committing threads rather than the
+ * storage device. Rotated log files are deleted right away to keep the disk usage down. The number of committing
+ * threads is decided by the benchmark method, for instance {@code java -jar benchmarks.jar ConcurrentCommits}
+ * compares all of them.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class ConcurrentCommits
+{
+    @State( Scope.Benchmark )
+    public static class TransactionLog
+    {
+        @Param( {"false", "true"} )
+        public boolean concurrentSerialization;
+
+        FileSystemAbstraction fs;
+        File directory;
+        LifeSupport life;
+        TransactionAppender appender;
+
+        @Setup
+        public void setUp() throws IOException
+        {
+            fs = new NoForceFileSystem( new DefaultFileSystemAbstraction() );
+            directory = Files.createTempDirectory( "benchmark-logs" ).toFile();
+            life = new LifeSupport();
+            LogFiles logFiles = LogFilesBuilder.builder( directory, fs )
+                    .withLogVersionRepository( new SimpleLogVersionRepository() )
+                    .withTransactionIdStore( new SimpleTransactionIdStore() )
+                    .withRotationThreshold( ByteUnit.mebiBytes( 16 ) ).build();
+            life.add( logFiles );
+            DatabaseHealth databaseHealth = new DatabaseHealth(
+                    new DatabasePanicEventGenerator( new KernelEventHandlers( NullLog.getInstance() ) ),
+                    NullLog.getInstance() );
+            LogRotation logRotation = new LogRotationImpl( new LogRotation.Monitor()
+            {
+                @Override
+                public void startedRotating( long currentVersion )
+                {
+                }
+
+                @Override
+                public void finishedRotating( long currentVersion )
+                {
+                    fs.deleteFile( logFiles.getLogFileForVersion( currentVersion ) );
+                }
+            }, logFiles, databaseHealth );
+            appender = life.add( new BatchingTransactionAppender( logFiles, logRotation,
+                    new TransactionMetadataCache( 100_000 ), new SimpleTransactionIdStore(), IdOrderingQueue.BYPASS,
+                    databaseHealth, 0, false, concurrentSerialization ) );
+            life.start();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException
+        {
+            life.shutdown();
+            fs.deleteRecursively( directory );
+            fs.close();
+        }
+    }
+
+    private static class NoForceFileSystem extends DelegatingFileSystemAbstraction
+    {
+        NoForceFileSystem( FileSystemAbstraction delegate )
+        {
+            super( delegate );
+        }
+
+        @Override
+        public StoreChannel open( File fileName, OpenMode openMode ) throws IOException
+        {
+            return new NoForceStoreChannel( super.open( fileName, openMode ) );
+        }
+
+        @Override
+        public StoreChannel create( File fileName ) throws IOException
+        {
+            return new NoForceStoreChannel( super.create( fileName ) );
+        }
+    }
+
+    private static class NoForceStoreChannel extends DelegatingStoreChannel
+    {
+        NoForceStoreChannel( StoreChannel delegate )
+        {
+            super( delegate );
+        }
+
+        @Override
+        public void force( boolean metaData )
+        {
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Committer
+    {
+        @Param( {"10", "100"} )
+        public int commandsPerTransaction;
+
+        TransactionRepresentation transaction;
+
+        @Setup
+        public void setUp( ThreadParams threadParams )
+        {
+            List<StorageCommand> commands = new ArrayList<>( commandsPerTransaction );
+            long firstNodeId = (long) threadParams.getThreadIndex() * commandsPerTransaction;
+            for ( long nodeId = firstNodeId; nodeId < firstNodeId + commandsPerTransaction; nodeId++ )
+            {
+                NodeRecord before = new NodeRecord( nodeId );
+                NodeRecord after = new NodeRecord( nodeId, false, nodeId + 1, nodeId + 2 );
+                after.setInUse( true );
+                commands.add( new NodeCommand( before, after ) );
+            }
+            PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+            transaction.setHeader( new byte[0], -1, -1, System.currentTimeMillis(), 1,
+                    System.currentTimeMillis(), -1 );
+            this.transaction = transaction;
+        }
+
+        long commit( TransactionLog log ) throws IOException
+        {
+            return log.appender.append( new TransactionToApply( transaction ), LogAppendEvent.NULL );
+        }
+    }
+
+    @Benchmark
+    @Threads( 1 )
+    public long commitWith1Thread( TransactionLog log, Committer committer ) throws IOException
+    {
+        return committer.commit( log );
+    }
+
+    @Benchmark
+    @Threads( 4 )
+    public long commitWith4Threads( TransactionLog log, Committer committer ) throws IOException
+    {
+        return committer.commit( log );
+    }
+
+    @Benchmark
+    @Threads( 16 )
+    public long commitWith16Threads( TransactionLog log, Committer committer ) throws IOException
+    {
+        return committer.commit( log );
+    }
+
+    @Benchmark
+    @Threads( 64 )
+    public long commitWith64Threads( TransactionLog log, Committer committer ) throws IOException
+    {
+        return committer.commit( log );
+    }
+}
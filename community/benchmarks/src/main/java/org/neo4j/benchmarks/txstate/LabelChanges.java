@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks.txstate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.state.TxState;
+
+import static org.neo4j.collection.primitive.PrimitiveLongCollections.emptyIterator;
+
+/**
+ * Transactions creating nodes with labels, and reading the nodes with a label back through the transaction state
+ * as a label scan would. Run with {@code -prof gc} to see how much is allocated for each created node, for instance
+ * {@code java -jar benchmarks.jar LabelChanges -prof gc}.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class LabelChanges
+{
+    private static final int LABELS = 4;
+
+    @State( Scope.Thread )
+    public static class Transaction
+    {
+        @Param( {"100", "10000"} )
+        public int nodesPerTransaction;
+
+        TxState changes;
+
+        @Setup
+        public void setUp()
+        {
+            changes = createNodes( nodesPerTransaction );
+        }
+    }
+
+    @Benchmark
+    public TxState createLabeledNodes( Transaction transaction )
+    {
+        return createNodes( transaction.nodesPerTransaction );
+    }
+
+    @Benchmark
+    public long scanLabel( Transaction transaction )
+    {
+        long sum = 0;
+        PrimitiveLongIterator nodes =
+                transaction.changes.nodesWithLabelChanged( 0 ).augment( emptyIterator() );
+        while ( nodes.hasNext() )
+        {
+            sum += nodes.next();
+        }
+        return sum;
+    }
+
+    private static TxState createNodes( int nodes )
+    {
+        TxState txState = new TxState();
+        for ( long nodeId = 0; nodeId < nodes; nodeId++ )
+        {
+            txState.nodeDoCreate( nodeId );
+            txState.nodeDoAddLabel( (int) (nodeId % LABELS), nodeId );
+        }
+        return txState;
+    }
+}
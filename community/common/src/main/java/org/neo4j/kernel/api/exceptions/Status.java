@@ -141,6 +141,9 @@ public interface Status
         TransactionTimedOut( ClientError,
                 "The transaction has not completed within the specified timeout. You may want to retry with a longer " +
                 "timeout." ),
+        TransactionStateTooLarge( ClientError,
+                "The transaction has made more changes than the configured maximum size of the transaction state " +
+                "allows. You may want to split the changes into several smaller transactions." ),
         InvalidBookmark( ClientError,
                 "Supplied bookmark cannot be interpreted. You should only supply a bookmark previously that was " +
                 "previously generated by Neo4j. Maybe you have generated your own bookmark, " +
@@ -197,6 +197,11 @@ public interface JobScheduler extends Lifecycle
          */
         public static Group cypherWorker = new Group( "CypherWorker" );
 
+        /**
+         * Profiling and warmup of the page cache.
+         */
+        public static Group pageCacheIOHelper = new Group( "PageCacheIOHelper" );
+
         private Groups()
         {
         }
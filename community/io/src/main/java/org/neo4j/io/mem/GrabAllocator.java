@@ -139,7 +139,19 @@ public final class GrabAllocator implements MemoryAllocator
         }
     }
 
-    private void initCause( NativeMemoryAllocationRefusedError error, OutOfMemoryError cause )
+    @Override
+    public int partitions()
+    {
+        return 1;
+    }
+
+    @Override
+    public long allocateAligned( long bytes, long alignment, int partition )
+    {
+        return allocateAligned( bytes, alignment );
+    }
+
+    static void initCause( NativeMemoryAllocationRefusedError error, OutOfMemoryError cause )
     {
         try
         {
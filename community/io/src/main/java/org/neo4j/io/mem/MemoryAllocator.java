@@ -32,6 +32,16 @@ public interface MemoryAllocator
         return new GrabAllocator( ByteUnit.parse( expectedMemory ), memoryTracker );
     }
 
+    /**
+     * Create an allocator that allocates its memory in large slabs that are aligned to huge page boundaries, and
+     * that divides its memory into the given number of partitions, e.g. one per NUMA node.
+     */
+    static MemoryAllocator createSlabAllocator( String expectedMemory, int partitions,
+            MemoryAllocationTracker memoryTracker )
+    {
+        return new SlabAllocator( ByteUnit.parse( expectedMemory ), SlabAllocator.SLAB_SIZE, partitions, memoryTracker );
+    }
+
     /**
      * @return The sum, in bytes, of all the memory currently allocating through this allocator.
      */
@@ -50,4 +60,19 @@ public interface MemoryAllocator
      * @throws OutOfMemoryError if the requested memory could not be allocated.
      */
     long allocateAligned( long bytes, long alignment );
+
+    /**
+     * @return The number of partitions, e.g. NUMA nodes, that this allocator divides its memory into.
+     */
+    int partitions();
+
+    /**
+     * Allocate a contiguous, aligned region of memory of the given size in bytes, from the given partition.
+     * @param bytes the number of bytes to allocate.
+     * @param alignment The byte multiple that the allocated pointers have to be aligned at.
+     * @param partition The partition to allocate the memory from, between zero and {@link #partitions()}.
+     * @return A pointer to the allocated memory.
+     * @throws OutOfMemoryError if the requested memory could not be allocated.
+     */
+    long allocateAligned( long bytes, long alignment, int partition );
 }
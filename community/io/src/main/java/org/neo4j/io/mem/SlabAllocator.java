@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import org.neo4j.memory.MemoryAllocationTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.util.FeatureToggles.getLong;
+
+/**
+ * This memory allocator allocates memory in large slabs, that are aligned to huge page boundaries, such that the
+ * operating system can back them with transparent huge pages.
+ * <p>
+ * The memory can also be divided into a number of partitions, typically one per NUMA node, where each partition has
+ * its own share of the memory, its own slabs, and its own lock. The operating system places memory on the NUMA node
+ * of the thread that first touches it, so when the threads that use a partition mostly run on the same node, the
+ * memory of that partition will end up local to those threads.
+ */
+public final class SlabAllocator implements MemoryAllocator
+{
+    /**
+     * The boundary that slabs are aligned to, which is the size of a huge page on most platforms.
+     */
+    static final long HUGE_PAGE_SIZE = getLong( SlabAllocator.class, "HUGE_PAGE_SIZE", mebiBytes( 2 ) );
+
+    /**
+     * The default amount of memory, in bytes, to allocate in each slab.
+     */
+    static final long SLAB_SIZE = getLong( SlabAllocator.class, "SLAB_SIZE", mebiBytes( 32 ) );
+
+    private final long slabSize;
+    private final MemoryAllocationTracker memoryTracker;
+    private final Partition[] partitions;
+
+    /**
+     * Create a new SlabAllocator that will allocate the given amount of memory, divided evenly among the given number
+     * of partitions.
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate.
+     * @param slabSize The amount of memory to allocate in each slab. This is rounded up to a multiple of the huge page
+     * size.
+     * @param partitions The number of partitions to divide the memory into.
+     * @param memoryTracker memory usage tracker
+     */
+    SlabAllocator( long expectedMaxMemory, long slabSize, int partitions, MemoryAllocationTracker memoryTracker )
+    {
+        if ( partitions < 1 )
+        {
+            throw new IllegalArgumentException( "Invalid partition count: " + partitions + ". Must be positive." );
+        }
+        if ( slabSize < 1 )
+        {
+            throw new IllegalArgumentException( "Invalid slab size: " + slabSize + ". Must be positive." );
+        }
+        this.slabSize = alignToHugePage( slabSize );
+        this.memoryTracker = memoryTracker;
+        this.partitions = new Partition[partitions];
+        long reservePerPartition = expectedMaxMemory / partitions;
+        for ( int i = 0; i < partitions; i++ )
+        {
+            this.partitions[i] = new Partition( reservePerPartition );
+        }
+        this.partitions[0].memoryReserve += expectedMaxMemory % partitions;
+    }
+
+    private static long alignToHugePage( long size )
+    {
+        long mask = HUGE_PAGE_SIZE - 1;
+        return (size + mask) & ~mask;
+    }
+
+    @Override
+    public long usedMemory()
+    {
+        long sum = 0;
+        for ( Partition partition : partitions )
+        {
+            sum += partition.usedMemory();
+        }
+        return sum;
+    }
+
+    @Override
+    public long availableMemory()
+    {
+        long sum = 0;
+        for ( Partition partition : partitions )
+        {
+            sum += partition.availableMemory();
+        }
+        return sum;
+    }
+
+    @Override
+    public long allocateAligned( long bytes, long alignment )
+    {
+        return allocateAligned( bytes, alignment, (int) (Thread.currentThread().getId() % partitions.length) );
+    }
+
+    @Override
+    public int partitions()
+    {
+        return partitions.length;
+    }
+
+    @Override
+    public long allocateAligned( long bytes, long alignment, int partition )
+    {
+        if ( alignment <= 0 )
+        {
+            throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
+        }
+        if ( partition < 0 || partition >= partitions.length )
+        {
+            throw new IllegalArgumentException( "Invalid partition: " + partition + ". This allocator has " +
+                                                partitions.length + " partitions." );
+        }
+        return partitions[partition].allocate( bytes, alignment );
+    }
+
+    @Override
+    protected void finalize() throws Throwable
+    {
+        super.finalize();
+        for ( Partition partition : partitions )
+        {
+            partition.free();
+        }
+    }
+
+    private final class Partition
+    {
+        private long memoryReserve;
+        private Slab slabs;
+
+        Partition( long memoryReserve )
+        {
+            this.memoryReserve = memoryReserve;
+        }
+
+        synchronized long usedMemory()
+        {
+            long sum = 0;
+            Slab slab = slabs;
+            while ( slab != null )
+            {
+                sum += slab.nextPointer - slab.base;
+                slab = slab.next;
+            }
+            return sum;
+        }
+
+        synchronized long availableMemory()
+        {
+            long availableInCurrentSlab = slabs == null ? 0 : Math.max( slabs.limit - slabs.nextPointer, 0L );
+            return Math.max( memoryReserve, 0L ) + availableInCurrentSlab;
+        }
+
+        synchronized long allocate( long bytes, long alignment )
+        {
+            if ( slabs != null && slabs.canAllocate( bytes, alignment ) )
+            {
+                return slabs.allocate( bytes, alignment );
+            }
+
+            // Once the reserve is used up, we still allow allocations, but in slabs no bigger than a huge page.
+            long size = memoryReserve > 0 ? Math.min( slabSize, memoryReserve ) : HUGE_PAGE_SIZE;
+            size = Math.max( size, bytes + alignment - 1 );
+            Slab slab;
+            try
+            {
+                slab = new Slab( size, memoryTracker );
+            }
+            catch ( OutOfMemoryError oome )
+            {
+                NativeMemoryAllocationRefusedError error = new NativeMemoryAllocationRefusedError( size, usedMemory() );
+                GrabAllocator.initCause( error, oome );
+                throw error;
+            }
+            memoryReserve -= size;
+            if ( size > slabSize && slabs != null )
+            {
+                // This is a huge allocation. Keep the current slab at the head, so its remaining memory is not wasted.
+                slab.next = slabs.next;
+                slabs.next = slab;
+            }
+            else
+            {
+                slab.next = slabs;
+                slabs = slab;
+            }
+            return slab.allocate( bytes, alignment );
+        }
+
+        synchronized void free()
+        {
+            Slab slab = slabs;
+            while ( slab != null )
+            {
+                slab.free();
+                slab = slab.next;
+            }
+            slabs = null;
+        }
+    }
+
+    private static final class Slab
+    {
+        private final long address;
+        private final long size;
+        private final long base;
+        private final long limit;
+        private final MemoryAllocationTracker memoryTracker;
+        private long nextPointer;
+        private Slab next;
+
+        Slab( long usableSize, MemoryAllocationTracker memoryTracker )
+        {
+            // Over-allocate by one huge page, so we can align the usable part of the slab to a huge page boundary.
+            // Slabs that are smaller than a huge page cannot be backed by one anyway, so they are not aligned.
+            boolean hugePageAligned = usableSize >= HUGE_PAGE_SIZE;
+            this.size = hugePageAligned ? usableSize + HUGE_PAGE_SIZE : usableSize;
+            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
+            this.base = hugePageAligned ? alignToHugePage( address ) : address;
+            this.limit = base + usableSize;
+            this.memoryTracker = memoryTracker;
+            this.nextPointer = base;
+        }
+
+        private static long nextAligned( long pointer, long alignment )
+        {
+            long mask = alignment - 1;
+            if ( (pointer & ~mask) == pointer )
+            {
+                return pointer;
+            }
+            return (pointer + mask) & ~mask;
+        }
+
+        boolean canAllocate( long bytes, long alignment )
+        {
+            return nextAligned( nextPointer, alignment ) + bytes <= limit;
+        }
+
+        long allocate( long bytes, long alignment )
+        {
+            long allocation = nextAligned( nextPointer, alignment );
+            nextPointer = allocation + bytes;
+            return allocation;
+        }
+
+        void free()
+        {
+            UnsafeUtil.free( address, size, memoryTracker );
+        }
+    }
+}
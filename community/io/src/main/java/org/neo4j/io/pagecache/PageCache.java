@@ -109,6 +109,26 @@ public interface PageCache extends AutoCloseable
      */
     void flushAndForce( IOLimiter limiter ) throws IOException;
 
+    /**
+     * Write out some of the dirty pages, without forcing them to the storage device. The pages that have been dirty
+     * for the longest time are written first, as far as the page cache can tell.
+     * <p>
+     * This is meant to be called regularly between check points, such that the {@link #flushAndForce(IOLimiter)} of
+     * the next check point will have fewer pages to flush.
+     *
+     * @param maxPages The maximum number of pages to write.
+     * @param limiter The {@link IOLimiter} that determines if pauses or sleeps should be injected into the flushing
+     * process to keep the IO rate down.
+     * @return The number of pages that were written.
+     */
+    long flushDirtyPages( long maxPages, IOLimiter limiter ) throws IOException;
+
+    /**
+     * Count the dirty pages in the cache. The count is only a snapshot, since pages can be dirtied and flushed
+     * concurrently.
+     */
+    long countDirtyPages();
+
     /**
      * Close the page cache to prevent any future mapping of files.
      * This also releases any internal resources, including the {@link PageSwapperFactory} through its
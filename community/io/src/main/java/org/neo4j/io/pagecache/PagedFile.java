@@ -63,8 +63,15 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_GROW = 1 << 2;
     /**
      * Read-ahead hint for sequential forward scanning.
+     * <p>
+     * Once a read cursor with this flag has been observed to visit a number of consecutive pages, the page cache
+     * will start loading the pages ahead of the cursor in the background, using large vectored reads, such that the
+     * cursor can keep going without having to wait for page faults. Prefetched pages that the cursor ends up not
+     * visiting are counted as wasted by the {@link org.neo4j.io.pagecache.tracing.PageCacheTracer}.
+     * <p>
+     * The flag has no effect on write cursors.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
      * Do not load in the page if it is not loaded already. The methods {@link PageCursor#next()} and
      * {@link PageCursor#next(long)} will always return {@code true} for pages that are within the range of the file,
@@ -76,9 +83,10 @@ public interface PagedFile extends AutoCloseable
      */
     int PF_NO_FAULT = 1 << 4;
     /**
-     * Do not update page access statistics.
+     * Do not update page access statistics. Pages that are only accessed by cursors with this flag will not be kept
+     * in memory at the expense of other pages, which is useful for tools that inspect the page cache itself.
      */
-    int PF_TRANSIENT = 1 << 5; // TBD
+    int PF_TRANSIENT = 1 << 5;
     /**
      * Flush pages more aggressively, after they have been dirtied by a write cursor.
      */
@@ -149,6 +157,11 @@ public interface PagedFile extends AutoCloseable
      */
     long fileSize() throws IOException;
 
+    /**
+     * Get the file that this paged file is mapping.
+     */
+    File file();
+
     /**
      * Flush all dirty pages into the file channel, and force the file channel to disk.
      */
@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A PageSwapper implementation that moves pages in and out of a single file with an {@link AsynchronousFileChannel}.
+ * <p>
+ * The pages of a vectored read or write are all submitted to the channel before we wait for any of them to complete,
+ * so the IO threads of the channel can keep as many requests in flight, as there are pages in the batch. This lets a
+ * flush of a long run of dirty pages, or a read-ahead, make use of the deep request queues of modern SSDs, where the
+ * {@link SingleFilePageSwapper} would issue one request at a time.
+ * <p>
+ * Unlike file channels, asynchronous file channels are not closed when a thread doing IO on them is interrupted, so
+ * this swapper never needs to reopen its channel. We instead wait for all of our requests to complete, even if we are
+ * interrupted, because the pages of an outstanding request cannot be reused until the request is done with them.
+ */
+public class AsyncFilePageSwapper implements PageSwapper
+{
+    private final FileSystemAbstraction fs;
+    private final File file;
+    private final int filePageSize;
+    private volatile PageEvictionCallback onEviction;
+    private final AsynchronousFileChannel channel;
+    private final AtomicLong fileSize;
+    private FileLock fileLock;
+
+    public AsyncFilePageSwapper(
+            File file,
+            FileSystemAbstraction fs,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            ExecutorService ioExecutor ) throws IOException
+    {
+        this.fs = fs;
+        this.file = file;
+        this.filePageSize = filePageSize;
+        this.onEviction = onEviction;
+        this.channel = AsynchronousFileChannel.open( file.toPath(),
+                EnumSet.of( StandardOpenOption.READ, StandardOpenOption.WRITE ), ioExecutor );
+        try
+        {
+            this.fileSize = new AtomicLong( channel.size() );
+            acquireLock();
+        }
+        catch ( IOException e )
+        {
+            try
+            {
+                channel.close();
+            }
+            catch ( IOException closeException )
+            {
+                e.addSuppressed( closeException );
+            }
+            throw e;
+        }
+    }
+
+    private void acquireLock() throws IOException
+    {
+        if ( SystemUtils.IS_OS_WINDOWS )
+        {
+            // See SingleFilePageSwapper#acquireLock for why we don't lock store files on Windows.
+            return;
+        }
+
+        try
+        {
+            fileLock = channel.tryLock();
+            if ( fileLock == null )
+            {
+                throw new FileLockException( file );
+            }
+        }
+        catch ( OverlappingFileLockException e )
+        {
+            throw new FileLockException( file, e );
+        }
+    }
+
+    private void increaseFileSizeTo( long newFileSize )
+    {
+        long currentFileSize;
+        do
+        {
+            currentFileSize = fileSize.get();
+        }
+        while ( currentFileSize < newFileSize && !fileSize.compareAndSet( currentFileSize, newFileSize ) );
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress, int bufferSize ) throws IOException
+    {
+        return read( filePageId, new long[] {bufferAddress}, bufferSize, 0, 1 );
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset, int length )
+            throws IOException
+    {
+        checkBounds( bufferAddresses, arrayOffset, length );
+        long startFileOffset = pageIdToPosition( startFilePageId );
+        long currentFileSize = fileSize.get();
+        ByteBuffer[] buffers = new ByteBuffer[length];
+        Future<?>[] requests = new Future<?>[length];
+        Throwable failure = null;
+        for ( int i = 0; i < length && failure == null; i++ )
+        {
+            long fileOffset = startFileOffset + ((long) filePageSize) * i;
+            if ( fileOffset < currentFileSize )
+            {
+                try
+                {
+                    buffers[i] = proxy( bufferAddresses[arrayOffset + i] );
+                    requests[i] = channel.read( buffers[i], fileOffset );
+                }
+                catch ( Throwable e )
+                {
+                    failure = e;
+                }
+            }
+        }
+
+        long bytesRead = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            ByteBuffer buffer = buffers[i];
+            if ( requests[i] != null )
+            {
+                try
+                {
+                    int read = complete( requests[i] );
+                    long fileOffset = startFileOffset + ((long) filePageSize) * i;
+                    while ( read != -1 && buffer.hasRemaining() )
+                    {
+                        read = complete( channel.read( buffer, fileOffset + buffer.position() ) );
+                    }
+                }
+                catch ( Throwable e )
+                {
+                    failure = addFailure( failure, e );
+                }
+                bytesRead += buffer.position();
+            }
+            if ( failure == null )
+            {
+                // Zero-fill the rest, or the whole buffer if the page is beyond the end of the file.
+                long address = bufferAddresses[arrayOffset + i];
+                if ( buffer == null )
+                {
+                    UnsafeUtil.setMemory( address, bufferSize, MuninnPageCache.ZERO_BYTE );
+                }
+                else
+                {
+                    int readTotal = buffer.position();
+                    UnsafeUtil.setMemory( address + readTotal, filePageSize - readTotal, MuninnPageCache.ZERO_BYTE );
+                }
+            }
+        }
+        throwIfFailed( failure );
+        return bytesRead;
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress ) throws IOException
+    {
+        return write( filePageId, new long[] {bufferAddress}, 0, 1 );
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        checkBounds( bufferAddresses, arrayOffset, length );
+        long startFileOffset = pageIdToPosition( startFilePageId );
+        increaseFileSizeTo( startFileOffset + ((long) filePageSize) * length );
+        ByteBuffer[] buffers = new ByteBuffer[length];
+        Future<?>[] requests = new Future<?>[length];
+        Throwable failure = null;
+        for ( int i = 0; i < length && failure == null; i++ )
+        {
+            try
+            {
+                buffers[i] = proxy( bufferAddresses[arrayOffset + i] );
+                requests[i] = channel.write( buffers[i], startFileOffset + ((long) filePageSize) * i );
+            }
+            catch ( Throwable e )
+            {
+                failure = e;
+            }
+        }
+
+        long bytesWritten = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            if ( requests[i] != null )
+            {
+                ByteBuffer buffer = buffers[i];
+                try
+                {
+                    complete( requests[i] );
+                    long fileOffset = startFileOffset + ((long) filePageSize) * i;
+                    while ( buffer.hasRemaining() )
+                    {
+                        complete( channel.write( buffer, fileOffset + buffer.position() ) );
+                    }
+                }
+                catch ( Throwable e )
+                {
+                    failure = addFailure( failure, e );
+                }
+                bytesWritten += buffer.position();
+            }
+        }
+        throwIfFailed( failure );
+        return bytesWritten;
+    }
+
+    private static void checkBounds( long[] bufferAddresses, int arrayOffset, int length )
+    {
+        // Check this up front, so we don't start any IO that we then cannot wait for.
+        if ( arrayOffset < 0 || length < 0 || arrayOffset + length > bufferAddresses.length )
+        {
+            throw new ArrayIndexOutOfBoundsException( "Array offset " + arrayOffset + " and length " + length +
+                    " are out of bounds for an array of length " + bufferAddresses.length );
+        }
+    }
+
+    private ByteBuffer proxy( long bufferAddress ) throws IOException
+    {
+        try
+        {
+            return UnsafeUtil.newDirectByteBuffer( bufferAddress, filePageSize );
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( e );
+        }
+    }
+
+    /**
+     * Wait for the given request to complete, without giving up if we get interrupted. The interrupt status is
+     * restored before we return.
+     */
+    private static int complete( Future<?> request ) throws Throwable
+    {
+        boolean interrupted = false;
+        try
+        {
+            for ( ; ; )
+            {
+                try
+                {
+                    return (Integer) request.get();
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+                catch ( ExecutionException e )
+                {
+                    throw e.getCause();
+                }
+            }
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Throwable addFailure( Throwable failure, Throwable e )
+    {
+        if ( failure == null )
+        {
+            return e;
+        }
+        failure.addSuppressed( e );
+        return failure;
+    }
+
+    private static void throwIfFailed( Throwable failure ) throws IOException
+    {
+        if ( failure == null )
+        {
+            return;
+        }
+        if ( failure instanceof IOException )
+        {
+            throw (IOException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        throw new IOException( failure );
+    }
+
+    @Override
+    public void evicted( long filePageId )
+    {
+        PageEvictionCallback callback = this.onEviction;
+        if ( callback != null )
+        {
+            callback.onEvict( filePageId );
+        }
+    }
+
+    @Override
+    public File file()
+    {
+        return file;
+    }
+
+    private long pageIdToPosition( long pageId )
+    {
+        return filePageSize * pageId;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        AsyncFilePageSwapper that = (AsyncFilePageSwapper) o;
+
+        return file.equals( that.file );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return file.hashCode();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        try
+        {
+            // Closing the channel also releases the file lock.
+            channel.close();
+        }
+        finally
+        {
+            // See SingleFilePageSwapper#close for why we eagerly relinquish our reference to the callback.
+            onEviction = null;
+        }
+    }
+
+    @Override
+    public synchronized void closeAndDelete() throws IOException
+    {
+        close();
+        fs.deleteFile( file );
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        channel.force( false );
+    }
+
+    @Override
+    public long getLastPageId()
+    {
+        long channelSize = fileSize.get();
+        if ( channelSize == 0 )
+        {
+            return PageCursor.UNBOUND_PAGE_ID;
+        }
+        long div = channelSize / filePageSize;
+        long mod = channelSize % filePageSize;
+        return mod == 0 ? div - 1 : div;
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        fileSize.set( 0 );
+        channel.truncate( 0 );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AsyncFilePageSwapper{" +
+                "filePageSize=" + filePageSize +
+                ", file=" + file +
+                '}';
+    }
+}
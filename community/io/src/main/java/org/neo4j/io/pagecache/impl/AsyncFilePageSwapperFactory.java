@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+/**
+ * A factory for AsyncFilePageSwapper instances.
+ * <p>
+ * All the swappers created by a factory share a pool of IO threads, and the size of that pool is the queue depth; the
+ * number of page reads and writes that can be in flight at the same time. The queue depth can be configured with the
+ * {@code org.neo4j.io.pagecache.impl.AsyncFilePageSwapperFactory.queueDepth} system property.
+ * <p>
+ * Asynchronous file channels can only be opened on the real file system, so when this factory is given any other
+ * {@link FileSystemAbstraction}, it falls back to creating {@link SingleFilePageSwapper SingleFilePageSwappers}.
+ *
+ * @see org.neo4j.io.pagecache.impl.AsyncFilePageSwapper
+ */
+public class AsyncFilePageSwapperFactory implements PageSwapperFactory
+{
+    private static final int defaultQueueDepth = Integer.getInteger(
+            "org.neo4j.io.pagecache.impl.AsyncFilePageSwapperFactory.queueDepth", 32 );
+
+    private final int queueDepth;
+    private FileSystemAbstraction fs;
+    private ExecutorService ioExecutor;
+
+    public AsyncFilePageSwapperFactory()
+    {
+        this( defaultQueueDepth );
+    }
+
+    public AsyncFilePageSwapperFactory( int queueDepth )
+    {
+        if ( queueDepth < 1 )
+        {
+            throw new IllegalArgumentException( "Queue depth must be positive, but was " + queueDepth );
+        }
+        this.queueDepth = queueDepth;
+    }
+
+    @Override
+    public synchronized void open( FileSystemAbstraction fs, Configuration config )
+    {
+        this.fs = fs;
+        if ( ioExecutor == null )
+        {
+            AtomicInteger threadCounter = new AtomicInteger();
+            ioExecutor = Executors.newFixedThreadPool( queueDepth, runnable ->
+            {
+                Thread thread = new Thread( runnable, "PageSwapperIO-" + threadCounter.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            } );
+        }
+    }
+
+    @Override
+    public FileSystemAbstraction getFileSystemAbstraction()
+    {
+        return fs;
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist ) throws IOException
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            if ( createIfNotExist )
+            {
+                fs.create( file ).close();
+            }
+            else
+            {
+                throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
+            }
+        }
+        if ( fs instanceof DefaultFileSystemAbstraction )
+        {
+            return new AsyncFilePageSwapper( file, fs, filePageSize, onEviction, ioExecutor );
+        }
+        return new SingleFilePageSwapper( file, fs, filePageSize, onEviction );
+    }
+
+    @Override
+    public void syncDevice()
+    {
+        // Nothing do to, since we `fsync` files individually in `force()`.
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if ( ioExecutor != null )
+        {
+            ioExecutor.shutdown();
+            ioExecutor = null;
+        }
+    }
+
+    @Override
+    public String implementationName()
+    {
+        return "async";
+    }
+
+    @Override
+    public long getRequiredBufferAlignment()
+    {
+        return 1;
+    }
+}
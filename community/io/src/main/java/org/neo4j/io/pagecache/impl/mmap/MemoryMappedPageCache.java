@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.mmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PagedFile;
+
+/**
+ * A page cache for read only databases, that maps existing files directly into memory with
+ * {@link FileChannel#map(FileChannel.MapMode, long, long) mmap}, instead of loading their pages into page cache memory.
+ * <p>
+ * The page cursors of memory mapped files read straight out of the memory mapping, and leave the caching of the file
+ * contents to the operating system. This saves copying every page into the page cache when it is first accessed, and
+ * avoids keeping hot pages in memory twice: once in the operating system page cache, and once in ours.
+ * <p>
+ * Memory mapped files are strictly read only, and opening a write cursor on them will throw an
+ * {@link UnsupportedOperationException}. Since the page cache cannot tell which files will be written to, only the
+ * files that the given predicate accepts as read only are memory mapped. All other files, files that are mapped with
+ * the intent to create, truncate or delete them, and files that do not exist, are mapped by the delegate page cache
+ * instead. The same goes for every file, if the
+ * file system of the delegate is not the default file system. Flushing is passed on to the delegate, since memory
+ * mapped files never have anything to flush.
+ */
+public class MemoryMappedPageCache implements PageCache
+{
+    private final PageCache delegate;
+    private final Predicate<File> readOnlyFiles;
+    private final boolean defaultFileSystem;
+    private final Map<File,MemoryMappedPagedFile> mappedFiles = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Memory maps every existing file, so only use this when no file will ever be written to.
+     */
+    public MemoryMappedPageCache( PageCache delegate )
+    {
+        this( delegate, file -> true );
+    }
+
+    /**
+     * @param delegate the page cache of the files that are not memory mapped.
+     * @param readOnlyFiles accepts the files that will only ever be read, and may be memory mapped.
+     */
+    public MemoryMappedPageCache( PageCache delegate, Predicate<File> readOnlyFiles )
+    {
+        this.delegate = delegate;
+        this.readOnlyFiles = readOnlyFiles;
+        this.defaultFileSystem = delegate.getCachedFileSystem() instanceof DefaultFileSystemAbstraction;
+    }
+
+    @Override
+    public synchronized PagedFile map( File file, int pageSize, OpenOption... openOptions ) throws IOException
+    {
+        assertNotClosed();
+        file = file.getCanonicalFile();
+        MemoryMappedPagedFile pagedFile = mappedFiles.get( file );
+        if ( pagedFile != null )
+        {
+            if ( pagedFile.pageSize() != pageSize && !hasOption( openOptions, PageCacheOpenOptions.ANY_PAGE_SIZE ) )
+            {
+                throw new IllegalArgumentException( "Cannot map file " + file + " with filePageSize " + pageSize +
+                        " bytes, because it has already been mapped with a filePageSize of " + pagedFile.pageSize() +
+                        " bytes." );
+            }
+            if ( !canBeMemoryMapped( file, openOptions ) )
+            {
+                throw new UnsupportedOperationException(
+                        "Cannot map file " + file + " for writing, because it is already memory mapped read only" );
+            }
+            pagedFile.incrementRefCount();
+            return pagedFile;
+        }
+
+        if ( !canBeMemoryMapped( file, openOptions ) || isMappedByDelegate( file ) )
+        {
+            return delegate.map( file, pageSize, openOptions );
+        }
+        if ( pageSize < Long.BYTES )
+        {
+            throw new IllegalArgumentException( "Cannot map files with a filePageSize (" + pageSize + ") that is " +
+                    "less than " + Long.BYTES + " bytes" );
+        }
+        pagedFile = new MemoryMappedPagedFile( this, file, pageSize );
+        pagedFile.incrementRefCount();
+        mappedFiles.put( file, pagedFile );
+        return pagedFile;
+    }
+
+    private boolean canBeMemoryMapped( File file, OpenOption[] openOptions )
+    {
+        return defaultFileSystem &&
+               readOnlyFiles.test( file ) &&
+               file.isFile() &&
+               !hasOption( openOptions, StandardOpenOption.CREATE ) &&
+               !hasOption( openOptions, StandardOpenOption.TRUNCATE_EXISTING ) &&
+               !hasOption( openOptions, StandardOpenOption.DELETE_ON_CLOSE );
+    }
+
+    private static boolean hasOption( OpenOption[] openOptions, OpenOption option )
+    {
+        for ( OpenOption openOption : openOptions )
+        {
+            if ( openOption.equals( option ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isMappedByDelegate( File file ) throws IOException
+    {
+        Optional<PagedFile> existingMapping = delegate.getExistingMapping( file );
+        if ( existingMapping.isPresent() )
+        {
+            // The delegate might have pages of this file that are dirty, so we must keep using its mapping.
+            existingMapping.get().close();
+            return true;
+        }
+        return false;
+    }
+
+    synchronized void unmap( MemoryMappedPagedFile pagedFile )
+    {
+        if ( pagedFile.decrementRefCount() )
+        {
+            mappedFiles.remove( pagedFile.file() );
+            pagedFile.unmapMemory();
+        }
+    }
+
+    @Override
+    public synchronized Optional<PagedFile> getExistingMapping( File file ) throws IOException
+    {
+        assertNotClosed();
+        MemoryMappedPagedFile pagedFile = mappedFiles.get( file.getCanonicalFile() );
+        if ( pagedFile != null )
+        {
+            pagedFile.incrementRefCount();
+            return Optional.of( pagedFile );
+        }
+        return delegate.getExistingMapping( file );
+    }
+
+    @Override
+    public synchronized List<PagedFile> listExistingMappings() throws IOException
+    {
+        assertNotClosed();
+        List<PagedFile> list = new ArrayList<>();
+        for ( MemoryMappedPagedFile pagedFile : mappedFiles.values() )
+        {
+            pagedFile.incrementRefCount();
+            list.add( pagedFile );
+        }
+        list.addAll( delegate.listExistingMappings() );
+        return list;
+    }
+
+    @Override
+    public void flushAndForce() throws IOException
+    {
+        delegate.flushAndForce();
+    }
+
+    @Override
+    public void flushAndForce( IOLimiter limiter ) throws IOException
+    {
+        delegate.flushAndForce( limiter );
+    }
+
+    @Override
+    public long flushDirtyPages( long maxPages, IOLimiter limiter ) throws IOException
+    {
+        return delegate.flushDirtyPages( maxPages, limiter );
+    }
+
+    @Override
+    public long countDirtyPages()
+    {
+        return delegate.countDirtyPages();
+    }
+
+    @Override
+    public synchronized void close() throws IllegalStateException
+    {
+        if ( closed )
+        {
+            return;
+        }
+        if ( !mappedFiles.isEmpty() )
+        {
+            StringBuilder msg = new StringBuilder( "Cannot close the PageCache while files are still mapped:" );
+            for ( MemoryMappedPagedFile pagedFile : mappedFiles.values() )
+            {
+                int refCount = pagedFile.getRefCount();
+                msg.append( "\n\t" ).append( pagedFile.file() );
+                msg.append( " (" ).append( refCount ).append( refCount == 1 ? " mapping)" : " mappings)" );
+            }
+            throw new IllegalStateException( msg.toString() );
+        }
+        delegate.close();
+        closed = true;
+    }
+
+    private void assertNotClosed()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "The PageCache has been shut down" );
+        }
+    }
+
+    @Override
+    public int pageSize()
+    {
+        return delegate.pageSize();
+    }
+
+    @Override
+    public long maxCachedPages()
+    {
+        return delegate.maxCachedPages();
+    }
+
+    @Override
+    public FileSystemAbstraction getCachedFileSystem()
+    {
+        return delegate.getCachedFileSystem();
+    }
+}
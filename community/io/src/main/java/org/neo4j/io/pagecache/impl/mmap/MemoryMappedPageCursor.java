@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.mmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * A read cursor for a {@link MemoryMappedPagedFile}, that reads directly from the memory mapping of the file.
+ * <p>
+ * The file never changes while it is mapped, so there are no locks to take, and reads never need to be retried.
+ * Accesses that are out of bounds raise the bounds flag and read zeros, like they do in the other page cache
+ * implementations. Any attempt at writing throws an {@link UnsupportedOperationException}.
+ */
+final class MemoryMappedPageCursor extends PageCursor
+{
+    private final MemoryMappedPagedFile pagedFile;
+    private final int pf_flags;
+    private final long pageId;
+    private long nextPageId;
+    private long currentPageId = UNBOUND_PAGE_ID;
+    private ByteBuffer buffer;
+    private int base;
+    // Zero when no page is pinned, which makes all accesses go out of bounds.
+    private int pageSize;
+    private int offset;
+    private boolean outOfBounds;
+    private String cursorException;
+    private MemoryMappedPageCursor linkedCursor;
+    private boolean closed;
+
+    MemoryMappedPageCursor( MemoryMappedPagedFile pagedFile, long pageId, int pf_flags )
+    {
+        this.pagedFile = pagedFile;
+        this.pageId = pageId;
+        this.pf_flags = pf_flags;
+        this.nextPageId = pageId;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        unpin();
+        if ( closed || pagedFile.isUnmapped() )
+        {
+            throw new IllegalStateException( "File has been unmapped: " + pagedFile.file().getPath() );
+        }
+        if ( nextPageId > pagedFile.getLastPageId() | nextPageId < 0 )
+        {
+            return false;
+        }
+        currentPageId = nextPageId;
+        nextPageId++;
+        buffer = pagedFile.buffer( currentPageId );
+        base = pagedFile.bufferOffset( currentPageId );
+        pageSize = pagedFile.pageSize();
+        return true;
+    }
+
+    @Override
+    public boolean next( long pageId ) throws IOException
+    {
+        if ( currentPageId == pageId )
+        {
+            return true;
+        }
+        nextPageId = pageId;
+        return next();
+    }
+
+    private void unpin()
+    {
+        currentPageId = UNBOUND_PAGE_ID;
+        buffer = null;
+        pageSize = 0;
+        offset = 0;
+        cursorException = null;
+    }
+
+    @Override
+    public void rewind()
+    {
+        nextPageId = pageId;
+        currentPageId = UNBOUND_PAGE_ID;
+    }
+
+    @Override
+    public void close()
+    {
+        MemoryMappedPageCursor cursor = this;
+        while ( cursor != null && !cursor.closed )
+        {
+            cursor.unpin();
+            cursor.closed = true;
+            cursor = cursor.linkedCursor;
+        }
+    }
+
+    @Override
+    public boolean shouldRetry()
+    {
+        // Nothing can change the contents of a read only file, so our reads are always consistent.
+        return false;
+    }
+
+    @Override
+    public long getCurrentPageId()
+    {
+        return currentPageId;
+    }
+
+    @Override
+    public int getCurrentPageSize()
+    {
+        return currentPageId == UNBOUND_PAGE_ID ? UNBOUND_PAGE_SIZE : pagedFile.pageSize();
+    }
+
+    @Override
+    public File getCurrentFile()
+    {
+        return currentPageId == UNBOUND_PAGE_ID ? null : pagedFile.file();
+    }
+
+    /**
+     * @return the index into the buffer for an access of the given size at the given offset, or -1 if that access
+     * would be out of bounds, in which case the bounds flag is also raised.
+     */
+    private int index( int offset, int size )
+    {
+        if ( offset < 0 | offset + size > pageSize )
+        {
+            outOfBounds = true;
+            return -1;
+        }
+        return base + offset;
+    }
+
+    @Override
+    public byte getByte()
+    {
+        byte value = getByte( offset );
+        offset++;
+        return value;
+    }
+
+    @Override
+    public byte getByte( int offset )
+    {
+        int index = index( offset, Byte.BYTES );
+        return index == -1 ? 0 : buffer.get( index );
+    }
+
+    @Override
+    public short getShort()
+    {
+        short value = getShort( offset );
+        offset += Short.BYTES;
+        return value;
+    }
+
+    @Override
+    public short getShort( int offset )
+    {
+        int index = index( offset, Short.BYTES );
+        return index == -1 ? 0 : buffer.getShort( index );
+    }
+
+    @Override
+    public int getInt()
+    {
+        int value = getInt( offset );
+        offset += Integer.BYTES;
+        return value;
+    }
+
+    @Override
+    public int getInt( int offset )
+    {
+        int index = index( offset, Integer.BYTES );
+        return index == -1 ? 0 : buffer.getInt( index );
+    }
+
+    @Override
+    public long getLong()
+    {
+        long value = getLong( offset );
+        offset += Long.BYTES;
+        return value;
+    }
+
+    @Override
+    public long getLong( int offset )
+    {
+        int index = index( offset, Long.BYTES );
+        return index == -1 ? 0 : buffer.getLong( index );
+    }
+
+    @Override
+    public void getBytes( byte[] data )
+    {
+        getBytes( data, 0, data.length );
+    }
+
+    @Override
+    public void getBytes( byte[] data, int arrayOffset, int length )
+    {
+        int index = index( offset, length );
+        if ( index != -1 )
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                data[arrayOffset + i] = buffer.get( index + i );
+            }
+        }
+        offset += length;
+    }
+
+    @Override
+    public int copyTo( int sourceOffset, PageCursor targetCursor, int targetOffset, int lengthInBytes )
+    {
+        int sourcePageSize = getCurrentPageSize();
+        int targetPageSize = targetCursor.getCurrentPageSize();
+        if ( !targetCursor.isWriteLocked() )
+        {
+            throw new IllegalArgumentException( "Target cursor must be writable" );
+        }
+        if ( sourceOffset >= 0
+             & targetOffset >= 0
+             & sourceOffset < sourcePageSize
+             & targetOffset < targetPageSize
+             & lengthInBytes >= 0 )
+        {
+            int remainingSource = sourcePageSize - sourceOffset;
+            int remainingTarget = targetPageSize - targetOffset;
+            int bytes = Math.min( lengthInBytes, Math.min( remainingSource, remainingTarget ) );
+            for ( int i = 0; i < bytes; i++ )
+            {
+                targetCursor.putByte( targetOffset + i, buffer.get( base + sourceOffset + i ) );
+            }
+            return bytes;
+        }
+        outOfBounds = true;
+        return 0;
+    }
+
+    @Override
+    public void setOffset( int offset )
+    {
+        this.offset = offset;
+        if ( offset < 0 | offset > pagedFile.pageSize() )
+        {
+            this.offset = 0;
+            outOfBounds = true;
+        }
+    }
+
+    @Override
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    @Override
+    public boolean checkAndClearBoundsFlag()
+    {
+        MemoryMappedPageCursor cursor = this;
+        boolean result = false;
+        do
+        {
+            result |= cursor.outOfBounds;
+            cursor.outOfBounds = false;
+            cursor = cursor.linkedCursor;
+        }
+        while ( cursor != null );
+        return result;
+    }
+
+    @Override
+    public void checkAndClearCursorException() throws CursorException
+    {
+        MemoryMappedPageCursor cursor = this;
+        do
+        {
+            String message = cursor.cursorException;
+            if ( message != null )
+            {
+                clearCursorException();
+                throw new CursorException( message );
+            }
+            cursor = cursor.linkedCursor;
+        }
+        while ( cursor != null );
+    }
+
+    @Override
+    public void raiseOutOfBounds()
+    {
+        outOfBounds = true;
+    }
+
+    @Override
+    public void setCursorException( String message )
+    {
+        cursorException = Objects.requireNonNull( message );
+    }
+
+    @Override
+    public void clearCursorException()
+    {
+        MemoryMappedPageCursor cursor = this;
+        while ( cursor != null )
+        {
+            cursor.cursorException = null;
+            cursor = cursor.linkedCursor;
+        }
+    }
+
+    @Override
+    public PageCursor openLinkedCursor( long pageId )
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "Cannot open linked cursor on closed page cursor" );
+        }
+        if ( linkedCursor != null )
+        {
+            linkedCursor.close();
+        }
+        linkedCursor = new MemoryMappedPageCursor( pagedFile, pageId, pf_flags );
+        return linkedCursor;
+    }
+
+    @Override
+    public boolean isWriteLocked()
+    {
+        return false;
+    }
+
+    @Override
+    public void putByte( byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putByte( int offset, byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putShort( short value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putShort( int offset, short value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putInt( int value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putInt( int offset, int value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putLong( long value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putLong( int offset, long value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( byte[] data )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( byte[] data, int arrayOffset, int length )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( int bytes, byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void shiftBytes( int sourceOffset, int length, int shift )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void zapPage()
+    {
+        throw readOnly();
+    }
+
+    private UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException(
+                "Cannot write to " + pagedFile.file() + ", because it has been memory mapped read only" );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MemoryMappedPageCursor{currentPageId=" + currentPageId + ", offset=" + offset + "}";
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.mmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.PagedReadableByteChannel;
+
+/**
+ * A read only {@link PagedFile} whose pages are read straight out of a memory mapping of the file.
+ * <p>
+ * A single memory mapping cannot be larger than 2 GiB, so the file is mapped in segments that each hold a whole number
+ * of pages. If the file ends with a partial page, then that page is copied into a zero padded buffer of its own, such
+ * that reading past the end of the file gives zeros, like it does with the other page cache implementations.
+ */
+final class MemoryMappedPagedFile implements PagedFile
+{
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final MemoryMappedPageCache pageCache;
+    private final File file;
+    private final int pageSize;
+    private final long lastPageId;
+    private final int pagesPerSegment;
+    private final long fullPages;
+    private final ByteBuffer[] segments;
+    private final ByteBuffer partialLastPage;
+    // Guarded by the monitor of the page cache.
+    private int refCount;
+    private volatile boolean unmapped;
+
+    MemoryMappedPagedFile( MemoryMappedPageCache pageCache, File file, int pageSize ) throws IOException
+    {
+        this.pageCache = pageCache;
+        this.file = file;
+        this.pageSize = pageSize;
+        this.pagesPerSegment = (int) Math.max( 1, MAX_SEGMENT_SIZE / pageSize );
+        try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) )
+        {
+            long fileSize = channel.size();
+            fullPages = fileSize / pageSize;
+            int partialPageBytes = (int) (fileSize % pageSize);
+            lastPageId = fullPages + (partialPageBytes == 0 ? 0 : 1) - 1;
+
+            long segmentSize = (long) pagesPerSegment * pageSize;
+            long mappedBytes = fullPages * pageSize;
+            segments = new ByteBuffer[(int) ((fullPages + pagesPerSegment - 1) / pagesPerSegment)];
+            try
+            {
+                for ( int i = 0; i < segments.length; i++ )
+                {
+                    long position = i * segmentSize;
+                    long size = Math.min( segmentSize, mappedBytes - position );
+                    segments[i] = channel.map( FileChannel.MapMode.READ_ONLY, position, size );
+                }
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                unmapped = true;
+                throw e;
+            }
+
+            if ( partialPageBytes == 0 )
+            {
+                partialLastPage = null;
+            }
+            else
+            {
+                partialLastPage = ByteBuffer.allocate( pageSize );
+                partialLastPage.limit( partialPageBytes );
+                long position = mappedBytes;
+                while ( partialLastPage.hasRemaining() )
+                {
+                    int read = channel.read( partialLastPage, position );
+                    if ( read == -1 )
+                    {
+                        break; // The file got truncated, which leaves us with zeros.
+                    }
+                    position += read;
+                }
+                partialLastPage.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the buffer that holds the given file page.
+     */
+    ByteBuffer buffer( long pageId )
+    {
+        if ( pageId >= fullPages )
+        {
+            return partialLastPage;
+        }
+        return segments[(int) (pageId / pagesPerSegment)];
+    }
+
+    /**
+     * @return the offset of the given file page, into the {@link #buffer(long) buffer} that holds it.
+     */
+    int bufferOffset( long pageId )
+    {
+        if ( pageId >= fullPages )
+        {
+            return 0;
+        }
+        return (int) (pageId % pagesPerSegment) * pageSize;
+    }
+
+    @Override
+    public PageCursor io( long pageId, int pf_flags )
+    {
+        int lockMask = PF_SHARED_WRITE_LOCK | PF_SHARED_READ_LOCK;
+        if ( (pf_flags & lockMask) == 0 )
+        {
+            throw new IllegalArgumentException(
+                    "Must specify either PF_SHARED_WRITE_LOCK or PF_SHARED_READ_LOCK" );
+        }
+        if ( (pf_flags & lockMask) == lockMask )
+        {
+            throw new IllegalArgumentException(
+                    "Cannot specify both PF_SHARED_WRITE_LOCK and PF_SHARED_READ_LOCK" );
+        }
+        if ( (pf_flags & PF_SHARED_WRITE_LOCK) != 0 )
+        {
+            throw new UnsupportedOperationException(
+                    "Cannot write to " + file + ", because it has been memory mapped read only" );
+        }
+        assertMapped();
+        return new MemoryMappedPageCursor( this, pageId, pf_flags );
+    }
+
+    @Override
+    public int pageSize()
+    {
+        return pageSize;
+    }
+
+    @Override
+    public long fileSize()
+    {
+        long lastPageId = getLastPageId();
+        if ( lastPageId < 0 )
+        {
+            return 0L;
+        }
+        return (lastPageId + 1) * pageSize();
+    }
+
+    @Override
+    public File file()
+    {
+        return file;
+    }
+
+    @Override
+    public void flushAndForce()
+    {
+        // Nothing is ever written to a read only file, so there is nothing to flush.
+    }
+
+    @Override
+    public void flushAndForce( IOLimiter limiter )
+    {
+        // Nothing is ever written to a read only file, so there is nothing to flush.
+    }
+
+    @Override
+    public long getLastPageId()
+    {
+        assertMapped();
+        return lastPageId;
+    }
+
+    private void assertMapped()
+    {
+        if ( unmapped )
+        {
+            throw new IllegalStateException( "File has been unmapped: " + file.getPath() );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        pageCache.unmap( this );
+    }
+
+    @Override
+    public ReadableByteChannel openReadableByteChannel() throws IOException
+    {
+        return new PagedReadableByteChannel( this );
+    }
+
+    @Override
+    public WritableByteChannel openWritableByteChannel()
+    {
+        throw new UnsupportedOperationException(
+                "Cannot write to " + file + ", because it has been memory mapped read only" );
+    }
+
+    void incrementRefCount()
+    {
+        refCount++;
+    }
+
+    /**
+     * @return {@code true} if this was the last reference to the file, and the file should now be unmapped.
+     */
+    boolean decrementRefCount()
+    {
+        if ( refCount <= 0 )
+        {
+            throw new IllegalStateException( "File has already been closed and unmapped. " +
+                    "It cannot be closed any further." );
+        }
+        refCount--;
+        return refCount == 0;
+    }
+
+    int getRefCount()
+    {
+        return refCount;
+    }
+
+    /**
+     * Mark the file as unmapped, such that cursors can no longer move to any of its pages. The memory mappings
+     * themselves are released by the garbage collector, once no cursor can reach them anymore. Releasing them
+     * explicitly would crash the JVM, if a racing cursor were to read from them afterwards.
+     */
+    void unmapMemory()
+    {
+        unmapped = true;
+    }
+
+    boolean isUnmapped()
+    {
+        return unmapped;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[" + file + "]";
+    }
+}
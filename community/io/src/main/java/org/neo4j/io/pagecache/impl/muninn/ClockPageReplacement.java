@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The classic clock sweep, where every pin increments the usage stamp of a page, up to a maximum of 4, and every
+ * pass of the clock hand decrements it. A page is evicted when the clock hand finds it with a usage stamp of 0.
+ */
+final class ClockPageReplacement implements PageReplacement
+{
+    static final PageReplacement INSTANCE = new ClockPageReplacement();
+
+    private static final byte MAX_USAGE = 4;
+
+    private ClockPageReplacement()
+    {
+    }
+
+    @Override
+    public void faulted( PageList pages, long pageRef, short swapperId, long filePageId )
+    {
+    }
+
+    @Override
+    public void accessed( PageList pages, long pageRef )
+    {
+        byte usage = pages.getUsageCounter( pageRef );
+        if ( usage < MAX_USAGE ) // avoid cache sloshing by not doing a write if counter is already maxed out
+        {
+            usage++;
+            pages.setUsageCounter( pageRef, usage );
+        }
+    }
+
+    @Override
+    public boolean sweep( PageList pages, long pageRef )
+    {
+        byte usage = pages.getUsageCounter( pageRef );
+        if ( usage > 0 )
+        {
+            usage--;
+            pages.setUsageCounter( pageRef, usage );
+        }
+        return usage == 0;
+    }
+
+    @Override
+    public void evicted( PageList pages, long pageRef, short swapperId, long filePageId )
+    {
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The eviction policies that a {@link MuninnPageCache} can use, for deciding which pages to evict when it needs to
+ * free up memory for page faults.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The classic clock sweep, that evicts pages that have not recently been used. This is the default policy.
+     */
+    CLOCK
+    {
+        @Override
+        PageReplacement createPageReplacement( int pageCount )
+        {
+            return ClockPageReplacement.INSTANCE;
+        }
+    },
+    /**
+     * A scan resistant policy, modelled after the 2Q algorithm, that protects the pages that are repeatedly faulted
+     * in, from being evicted by pages that are only used once, such as by large scans.
+     */
+    TWO_QUEUE
+    {
+        @Override
+        PageReplacement createPageReplacement( int pageCount )
+        {
+            return new TwoQueuePageReplacement( pageCount );
+        }
+    };
+
+    abstract PageReplacement createPageReplacement( int pageCount );
+}
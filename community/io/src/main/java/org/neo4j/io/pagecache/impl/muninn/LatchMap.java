@@ -104,6 +104,28 @@ final class LatchMap
         return null;
     }
 
+    /**
+     * Like {@link #takeOrAwaitLatch(long)}, except this method never waits. If a latch is currently installed for the
+     * given (or any colliding) identifier, then {@code null} is returned right away.
+     *
+     * This is useful for speculative page faults, such as read-ahead, that would rather skip a page than wait for it.
+     */
+    Latch tryTakeLatch( long identifier )
+    {
+        int index = index( identifier );
+        if ( getLatch( index ) == null )
+        {
+            Latch latch = new Latch();
+            if ( compareAndSetLatch( index, null, latch ) )
+            {
+                latch.latchMap = this;
+                latch.index = index;
+                return latch;
+            }
+        }
+        return null;
+    }
+
     private int index( long identifier )
     {
         return (int) (mix( identifier ) & faultLockMask);
@@ -20,6 +20,7 @@
 package org.neo4j.io.pagecache.impl.muninn;
 
 import java.io.File;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.OpenOption;
@@ -28,12 +29,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -41,11 +48,11 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
-import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.memory.GlobalMemoryTracker;
 import org.neo4j.memory.MemoryAllocationTracker;
@@ -123,14 +130,34 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // The maximum number of read-ahead requests that can be waiting for the background read-ahead thread. Read-ahead is
+    // only ever a hint, so requests that do not fit in the queue are simply dropped.
+    private static final int readAheadQueueCapacity = getInteger(
+            MuninnPageCache.class, "readAheadQueueCapacity", 64 );
+
+    // The number of files that flushAndForce will flush concurrently, which overlaps the writing and forcing of the
+    // files during check points.
+    private static final int flushParallelism = getInteger( MuninnPageCache.class, "flushParallelism", 4 );
+
+    // The number of flushDirtyPages calls that a page can be seen dirty in, before it is considered as old as it gets.
+    private static final int maxDirtyPageAge = Byte.MAX_VALUE;
+
+    // The pages written by flushDirtyPages are only forced by the next flushAndForce, so the IOLimiter gets nothing
+    // to force with.
+    private static final Flushable noForce = () ->
+    {
+    };
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
+    // The array offsets to unsafely access the heads of the freelists. The heads are spread out in the array, so the
+    // freelists of different partitions do not share cache lines.
+    private static final long freelistsBase = UnsafeUtil.arrayBaseOffset( Object[].class );
+    private static final long freelistsScale = UnsafeUtil.arrayIndexScale( Object[].class );
+    private static final int freelistsStride = 16;
 
     // This is used as a poison-pill signal in the freelist, to inform any
     // page faulting thread that it is now no longer possible to queue up and
@@ -156,6 +183,7 @@ public class MuninnPageCache implements PageCache
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
     private final int keepFree;
+    private final PageCacheQuotas quotas;
     private final PageCacheTracer pageCacheTracer;
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final VersionContextSupplier versionContextSupplier;
@@ -165,14 +193,17 @@ public class MuninnPageCache implements PageCache
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
+    // There is a freelist for each partition of the page list, and each freelist is a thread-safe linked-list of
+    // FreePage objects, or an AtomicInteger, or null.
+    // Initially, the freelist is an AtomicInteger that counts from the first to the last page id of the partition, at
+    // which point all of the pages in the partition have been put in use. Once this happens, the freelist is set to
+    // null to allow the background eviction thread to start its work. From that point on, the freelist will operate as
+    // a concurrent stack of FreePage objects. The eviction thread pushes newly freed FreePage objects onto the stack of
+    // the partition the page belongs to, and page faulting threads pops FreePage objects from the stack of their home
+    // partition, before they look in the other partitions. The FreePage objects are single-use, to avoid running into
+    // the ABA-problem.
+    // The elements of this array are accessed via Unsafe.
+    private final Object[] freelists;
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
@@ -188,6 +219,12 @@ public class MuninnPageCache implements PageCache
     private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
+    // Pending requests from PF_READ_AHEAD cursors, for pages to be loaded in the background. The read-ahead thread is
+    // only started once the first request comes in, since most page caches never see any read-ahead cursors.
+    private final BlockingQueue<ReadAheadRequest> readAheadRequests;
+    private final AtomicBoolean readAheadThreadStarted;
+    private volatile Thread readAheadThread;
+
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
@@ -196,6 +233,11 @@ public class MuninnPageCache implements PageCache
 
     // 'true' (the default) if we should print any exceptions we get when unmapping a file.
     private boolean printExceptionsOnClose;
+
+    // For every page, the number of consecutive flushDirtyPages calls that have seen it dirty, or null until the first
+    // call. Guarded by synchronized(backgroundFlushLock).
+    private final Object backgroundFlushLock = new Object();
+    private byte[] dirtyPageAges;
     /**
      * Compute the amount of memory needed for a page cache with the given number of 8 KiB pages.
      * @param pageCount The number of pages
@@ -249,7 +291,33 @@ public class MuninnPageCache implements PageCache
             PageCursorTracerSupplier pageCursorTracerSupplier,
             VersionContextSupplier versionContextSupplier )
     {
-        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier );
+        this( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier,
+                EvictionPolicy.CLOCK, PageCacheQuotas.NONE );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param pageCursorTracerSupplier supplier of thread local (transaction local) page cursor tracer that will provide
+     * thread local page cache statistics
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide
+     *        access to thread local version context
+     * @param evictionPolicy the policy that decides which pages to evict, when memory is needed for page faults
+     * @param quotas the soft quotas on how much of the page cache the pages of individual files may occupy
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            EvictionPolicy evictionPolicy,
+            PageCacheQuotas quotas )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier,
+                versionContextSupplier, evictionPolicy, quotas );
     }
 
     /**
@@ -265,6 +333,24 @@ public class MuninnPageCache implements PageCache
             PageCacheTracer pageCacheTracer,
             PageCursorTracerSupplier pageCursorTracerSupplier,
             VersionContextSupplier versionContextSupplier )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, pageCursorTracerSupplier,
+                versionContextSupplier, EvictionPolicy.CLOCK, PageCacheQuotas.NONE );
+    }
+
+    /**
+     * Constructor variant that allows setting a non-standard cache page size, along with the eviction policy and quotas.
+     * Only ever use this for testing.
+     */
+    MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            int cachePageSize,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            EvictionPolicy evictionPolicy,
+            PageCacheQuotas quotas )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -272,21 +358,31 @@ public class MuninnPageCache implements PageCache
 
         // Expose the total number of pages
         pageCacheTracer.maxPages( maxPages );
+        pageCacheTracer.evictionPolicy( evictionPolicy.name() );
         MemoryAllocationTracker memoryTracker = GlobalMemoryTracker.INSTANCE;
 
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
         this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
+        this.quotas = quotas;
         this.pageCacheTracer = pageCacheTracer;
         this.pageCursorTracerSupplier = pageCursorTracerSupplier;
         this.versionContextSupplier = versionContextSupplier;
         this.printExceptionsOnClose = true;
         long alignment = swapperFactory.getRequiredBufferAlignment();
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
-        this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
-
-        setFreelistHead( new AtomicInteger() );
+        this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment,
+                evictionPolicy.createPageReplacement( maxPages ) );
+        this.readAheadRequests = new ArrayBlockingQueue<>( readAheadQueueCapacity );
+        this.readAheadThreadStarted = new AtomicBoolean();
+
+        int partitionCount = pages.getPartitionCount();
+        this.freelists = new Object[partitionCount * freelistsStride];
+        for ( int partition = 0; partition < partitionCount; partition++ )
+        {
+            setFreelistHead( partition, new AtomicInteger( pages.getPartitionStart( partition ) ) );
+        }
     }
 
     private static void verifyHacks()
@@ -412,6 +508,7 @@ public class MuninnPageCache implements PageCache
         current.next = mappedFiles;
         mappedFiles = current;
         pageCacheTracer.mappedFile( file );
+        pageCacheTracer.pagedFileCounters( pagedFile.counters );
         return pagedFile;
     }
 
@@ -468,6 +565,14 @@ public class MuninnPageCache implements PageCache
         return list;
     }
 
+    /**
+     * @return the maximum number of pages that the given file may have in this page cache, according to its quota.
+     */
+    long maxResidentPages( File file )
+    {
+        return quotas.maxResidentPages( file, pages.getPageCount() );
+    }
+
     /**
      * Note: Must be called while synchronizing on the MuninnPageCache instance.
      */
@@ -586,20 +691,197 @@ public class MuninnPageCache implements PageCache
     {
         try ( MajorFlushEvent cacheFlush = pageCacheTracer.beginCacheFlush() )
         {
+            List<MuninnPagedFile> files = new ArrayList<>();
             FileMapping fileMapping = mappedFiles;
             while ( fileMapping != null )
             {
-                try ( MajorFlushEvent fileFlush = pageCacheTracer.beginFileFlush( fileMapping.pagedFile.swapper ) )
+                files.add( fileMapping.pagedFile );
+                fileMapping = fileMapping.next;
+            }
+            if ( flushParallelism > 1 && files.size() > 1 )
+            {
+                flushInParallel( files, new SharedIOLimiter( limiter ) );
+            }
+            else
+            {
+                for ( MuninnPagedFile file : files )
                 {
-                    FlushEventOpportunity flushOpportunity = fileFlush.flushEventOpportunity();
-                    fileMapping.pagedFile.flushAndForceInternal( flushOpportunity, false, limiter );
+                    flushFile( file, limiter );
                 }
-                fileMapping = fileMapping.next;
             }
             syncDevice();
         }
     }
 
+    private void flushFile( MuninnPagedFile pagedFile, IOLimiter limiter ) throws IOException
+    {
+        try ( MajorFlushEvent fileFlush = pageCacheTracer.beginFileFlush( pagedFile.swapper ) )
+        {
+            FlushEventOpportunity flushOpportunity = fileFlush.flushEventOpportunity();
+            pagedFile.flushAndForceInternal( flushOpportunity, false, limiter );
+        }
+    }
+
+    private void flushInParallel( List<MuninnPagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        // The files are handed out one at a time to the background flushers and the calling thread, so the large files
+        // don't hold up the flushing of the small ones. We stop handing out files as soon as one of them fails.
+        AtomicInteger nextFile = new AtomicInteger();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        int backgroundFlushers = Math.min( flushParallelism, files.size() ) - 1;
+        CountDownLatch backgroundFlushersDone = new CountDownLatch( backgroundFlushers );
+        for ( int i = 0; i < backgroundFlushers; i++ )
+        {
+            backgroundThreadExecutor.execute( () ->
+            {
+                try
+                {
+                    flushFiles( files, nextFile, limiter, failures );
+                }
+                finally
+                {
+                    backgroundFlushersDone.countDown();
+                }
+            } );
+        }
+        flushFiles( files, nextFile, limiter, failures );
+
+        boolean interrupted = false;
+        for (;;)
+        {
+            try
+            {
+                backgroundFlushersDone.await();
+                break;
+            }
+            catch ( InterruptedException e )
+            {
+                interrupted = true;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if ( !failures.isEmpty() )
+        {
+            Throwable failure = failures.get( 0 );
+            for ( int i = 1; i < failures.size(); i++ )
+            {
+                failure.addSuppressed( failures.get( i ) );
+            }
+            Exceptions.throwIfUnchecked( failure );
+            Exceptions.throwIfInstanceOf( failure, IOException.class );
+            throw new IOException( failure );
+        }
+    }
+
+    private void flushFiles( List<MuninnPagedFile> files, AtomicInteger nextFile, IOLimiter limiter,
+            List<Throwable> failures )
+    {
+        int index;
+        while ( (index = nextFile.getAndIncrement()) < files.size() )
+        {
+            try
+            {
+                flushFile( files.get( index ), limiter );
+            }
+            catch ( Throwable e )
+            {
+                failures.add( e );
+                nextFile.set( files.size() );
+            }
+        }
+    }
+
+    @Override
+    public long flushDirtyPages( long maxPages, IOLimiter limiter ) throws IOException
+    {
+        if ( limiter == null )
+        {
+            throw new IllegalArgumentException( "IOLimiter cannot be null" );
+        }
+        assertNotClosed();
+        synchronized ( backgroundFlushLock )
+        {
+            int pageCount = pages.getPageCount();
+            if ( dirtyPageAges == null )
+            {
+                dirtyPageAges = new byte[pageCount];
+            }
+            byte[] ages = dirtyPageAges;
+
+            // Pages that are still dirty get one call older, and pages that have been flushed or evicted start over.
+            long[] pagesByAge = new long[maxDirtyPageAge + 1];
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                if ( pages.isModified( pages.deref( i ) ) )
+                {
+                    int age = Math.min( ages[i] + 1, maxDirtyPageAge );
+                    ages[i] = (byte) age;
+                    pagesByAge[age]++;
+                }
+                else
+                {
+                    ages[i] = 0;
+                }
+            }
+            if ( maxPages <= 0 )
+            {
+                return 0;
+            }
+
+            // All the pages older than the cut-off age fit within maxPages, and the pages at the cut-off age get the
+            // rest, in page order.
+            int cutOffAge = maxDirtyPageAge;
+            long olderPages = 0;
+            while ( cutOffAge > 1 && olderPages + pagesByAge[cutOffAge] < maxPages )
+            {
+                olderPages += pagesByAge[cutOffAge];
+                cutOffAge--;
+            }
+
+            long flushed = 0;
+            try ( MajorFlushEvent cacheFlush = pageCacheTracer.beginCacheFlush() )
+            {
+                FlushEventOpportunity flushOpportunity = cacheFlush.flushEventOpportunity();
+                long limiterStamp = IOLimiter.INITIAL_STAMP;
+                for ( int pass = 0; pass < 2 && flushed < maxPages; pass++ )
+                {
+                    boolean olderThanCutOff = pass == 0;
+                    for ( int i = 0; i < pageCount && flushed < maxPages; i++ )
+                    {
+                        int age = ages[i];
+                        boolean eligible = olderThanCutOff ? age > cutOffAge : age == cutOffAge;
+                        if ( eligible && pages.tryFlush( pages.deref( i ), flushOpportunity ) )
+                        {
+                            ages[i] = 0;
+                            flushed++;
+                            limiterStamp = limiter.maybeLimitIO( limiterStamp, 1, noForce );
+                        }
+                    }
+                }
+            }
+            return flushed;
+        }
+    }
+
+    @Override
+    public long countDirtyPages()
+    {
+        long dirtyPages = 0;
+        int pageCount = pages.getPageCount();
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            if ( pages.isModified( pages.deref( i ) ) )
+            {
+                dirtyPages++;
+            }
+        }
+        return dirtyPages;
+    }
+
     void syncDevice()
     {
         swapperFactory.syncDevice();
@@ -634,6 +916,9 @@ public class MuninnPageCache implements PageCache
 
         interrupt( evictionThread );
         evictionThread = null;
+        interrupt( readAheadThread );
+        readAheadThread = null;
+        readAheadRequests.clear();
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -695,7 +980,7 @@ public class MuninnPageCache implements PageCache
         return pageCacheId;
     }
 
-    long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
+    long grabFreeAndExclusivelyLockedPage( EvictionEventOpportunity evictionOpportunity ) throws IOException
     {
         // Review the comment on the freelist field before making changes to
         // this part of the code.
@@ -717,32 +1002,52 @@ public class MuninnPageCache implements PageCache
         // to check and see if it is the shutdownSignal instance. If that's the
         // case, then the page cache has been shut down, and we should throw an
         // exception from our page fault routine.
-        Object current;
+        // The freelists of all partitions have to be empty before we evict, but we look at the freelist of our
+        // home partition first, to keep our page faults on the memory of that partition.
+        int partitionCount = pages.getPartitionCount();
+        int homePartition = partitionCount == 1 ? 0 : (int) (Thread.currentThread().getId() % partitionCount);
         for (;;)
         {
             assertHealthy();
-            current = getFreelistHead();
-            if ( current == null )
+            for ( int i = 0; i < partitionCount; i++ )
             {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
+                long pageRef = grabFreePage( (homePartition + i) % partitionCount );
                 if ( pageRef != 0 )
                 {
                     return pageRef;
                 }
             }
+            unparkEvictor();
+            long pageRef = cooperativelyEvict( evictionOpportunity );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
+    }
+
+    private long grabFreePage( int partition )
+    {
+        Object current;
+        for (;;)
+        {
+            current = getFreelistHead( partition );
+            if ( current == null )
+            {
+                return 0;
+            }
             else if ( current instanceof AtomicInteger )
             {
-                int pageCount = pages.getPageCount();
+                int partitionEnd = pages.getPartitionEnd( partition );
                 AtomicInteger counter = (AtomicInteger) current;
                 int pageId = counter.get();
-                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
+                if ( pageId < partitionEnd && counter.compareAndSet( pageId, pageId + 1 ) )
                 {
                     return pages.deref( pageId );
                 }
-                if ( pageId >= pageCount )
+                if ( pageId >= partitionEnd )
                 {
-                    compareAndSetFreelistHead( current, null );
+                    compareAndSetFreelistHead( partition, current, null );
                 }
             }
             else if ( current instanceof FreePage )
@@ -753,7 +1058,7 @@ public class MuninnPageCache implements PageCache
                     throw new IllegalStateException( "The PageCache has been shut down." );
                 }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                if ( compareAndSetFreelistHead( partition, freePage, freePage.next ) )
                 {
                     return freePage.pageRef;
                 }
@@ -761,7 +1066,19 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private boolean hasFreePages()
+    {
+        for ( int partition = 0; partition < pages.getPartitionCount(); partition++ )
+        {
+            if ( getFreelistHead( partition ) != null )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long cooperativelyEvict( EvictionEventOpportunity evictionOpportunity ) throws IOException
     {
         int iterations = 0;
         int pageCount = pages.getPageCount();
@@ -771,7 +1088,7 @@ public class MuninnPageCache implements PageCache
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( hasFreePages() )
             {
                 return 0;
             }
@@ -787,9 +1104,9 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && isEvictionCandidate( pageRef ) )
             {
-                evicted = pages.tryEvict( pageRef, faultEvent );
+                evicted = pages.tryEvict( pageRef, evictionOpportunity );
             }
             clockArm++;
         }
@@ -797,6 +1114,12 @@ public class MuninnPageCache implements PageCache
         return pageRef;
     }
 
+    private boolean isEvictionCandidate( long pageRef )
+    {
+        // Pages of files that are over their quota are evicted, even if they have recently been used.
+        return pages.decrementUsage( pageRef ) || pages.isOverQuota( pageRef );
+    }
+
     private CacheLiveLockException cooperativeEvictionLiveLock()
     {
         return new CacheLiveLockException(
@@ -829,20 +1152,25 @@ public class MuninnPageCache implements PageCache
         evictorParked = false;
     }
 
-    private Object getFreelistHead()
+    private static long freelistOffset( int partition )
     {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+        return freelistsBase + partition * freelistsStride * freelistsScale;
     }
 
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
+    private Object getFreelistHead( int partition )
+    {
+        return UnsafeUtil.getObjectVolatile( freelists, freelistOffset( partition ) );
+    }
+
+    private boolean compareAndSetFreelistHead( int partition, Object expected, Object update )
     {
         return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
+                freelists, freelistOffset( partition ), expected, update );
     }
 
-    private void setFreelistHead( Object newFreelistHead )
+    private void setFreelistHead( int partition, Object newFreelistHead )
     {
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+        UnsafeUtil.putObjectVolatile( freelists, freelistOffset( partition ), newFreelistHead );
     }
 
     /**
@@ -867,8 +1195,11 @@ public class MuninnPageCache implements PageCache
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
-        // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        // the freelists. This signal is looked out for in grabFreePage.
+        for ( int partition = 0; partition < pages.getPartitionCount(); partition++ )
+        {
+            setFreelistHead( partition, shutdownSignal );
+        }
     }
 
     private int parkUntilEvictionRequired( int keepFree )
@@ -884,32 +1215,37 @@ public class MuninnPageCache implements PageCache
                 return 0;
             }
 
-            Object freelistHead = getFreelistHead();
-
-            if ( freelistHead == null )
-            {
-                return keepFree;
-            }
-            else if ( freelistHead.getClass() == FreePage.class )
+            long availablePages = 0;
+            for ( int partition = 0; partition < pages.getPartitionCount(); partition++ )
             {
-                int availablePages = ((FreePage) freelistHead).count;
-                if ( availablePages < keepFree )
-                {
-                    return keepFree - availablePages;
-                }
+                availablePages += countFreePages( partition );
             }
-            else if ( freelistHead.getClass() == AtomicInteger.class )
+            if ( availablePages < keepFree )
             {
-                AtomicInteger counter = (AtomicInteger) freelistHead;
-                long count = pages.getPageCount() - counter.get();
-                if ( count < keepFree )
-                {
-                    return count < 0 ? keepFree : (int) (keepFree - count);
-                }
+                return (int) (keepFree - availablePages);
             }
         }
     }
 
+    private long countFreePages( int partition )
+    {
+        Object freelistHead = getFreelistHead( partition );
+        if ( freelistHead == null )
+        {
+            return 0;
+        }
+        else if ( freelistHead.getClass() == FreePage.class )
+        {
+            return ((FreePage) freelistHead).count;
+        }
+        else if ( freelistHead.getClass() == AtomicInteger.class )
+        {
+            AtomicInteger counter = (AtomicInteger) freelistHead;
+            return Math.max( pages.getPartitionEnd( partition ) - counter.get(), 0 );
+        }
+        return 0;
+    }
+
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
         while ( pageCountToEvict > 0 && !closed )
@@ -926,7 +1262,7 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && isEvictionCandidate( pageRef ) )
             {
                 try
                 {
@@ -958,20 +1294,82 @@ public class MuninnPageCache implements PageCache
         return clockArm;
     }
 
+    /**
+     * Ask for the given range of file pages to be loaded into memory by the background read-ahead thread.
+     * @return {@code true} if the request was accepted, or {@code false} if it was dropped.
+     */
+    boolean requestReadAhead( MuninnPagedFile pagedFile, long startFilePageId, int pageCount )
+    {
+        if ( closed )
+        {
+            return false;
+        }
+        if ( !readAheadThreadStarted.get() && readAheadThreadStarted.compareAndSet( false, true ) )
+        {
+            try
+            {
+                backgroundThreadExecutor.execute( new ReadAheadTask( this ) );
+            }
+            catch ( Exception e )
+            {
+                // Read-ahead is only an optimisation, so we will just have to do without it.
+                return false;
+            }
+        }
+        return readAheadRequests.offer( new ReadAheadRequest( pagedFile, startFilePageId, pageCount ) );
+    }
+
+    /**
+     * Load pages into memory as requested by sequentially scanning cursors, until the page cache is closed.
+     */
+    void continuouslyReadAhead()
+    {
+        readAheadThread = Thread.currentThread();
+        long pollNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
+        while ( !closed )
+        {
+            ReadAheadRequest request;
+            try
+            {
+                request = readAheadRequests.poll( pollNanos, TimeUnit.NANOSECONDS );
+            }
+            catch ( InterruptedException e )
+            {
+                continue;
+            }
+            if ( request != null )
+            {
+                request.pagedFile.readAhead( request.startFilePageId, request.pageCount );
+            }
+        }
+        readAheadRequests.clear();
+    }
+
+    /**
+     * Give back a page that was grabbed from the freelist, but ended up not being used. The page must still be
+     * exclusively locked, and it must not be bound to any file page.
+     */
+    void releaseUnusedFreePage( long pageRef )
+    {
+        addFreePageToFreelist( pageRef );
+    }
+
     private void addFreePageToFreelist( long pageRef )
     {
         Object current;
         FreePage freePage = new FreePage( pageRef );
+        int partition = pages.getPartition( pageRef );
         do
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
+            current = getFreelistHead( partition );
+            if ( current instanceof AtomicInteger &&
+                 ((AtomicInteger) current).get() > pages.getPartitionEnd( partition ) )
             {
                 current = null;
             }
             freePage.setNext( current );
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        while ( !compareAndSetFreelistHead( partition, current, freePage ) );
     }
 
     void clearEvictorException()
@@ -982,6 +1380,53 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Lets several flushing threads share an {@link IOLimiter}, such that the limit applies to their combined IO.
+     */
+    private static final class SharedIOLimiter implements IOLimiter
+    {
+        private final IOLimiter limiter;
+        private long stamp = INITIAL_STAMP;
+
+        SharedIOLimiter( IOLimiter limiter )
+        {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public synchronized long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+        {
+            stamp = limiter.maybeLimitIO( stamp, recentlyCompletedIOs, flushable );
+            return stamp;
+        }
+
+        @Override
+        public void disableLimit()
+        {
+            limiter.disableLimit();
+        }
+
+        @Override
+        public void enableLimit()
+        {
+            limiter.enableLimit();
+        }
+    }
+
+    private static final class ReadAheadRequest
+    {
+        private final MuninnPagedFile pagedFile;
+        private final long startFilePageId;
+        private final int pageCount;
+
+        ReadAheadRequest( MuninnPagedFile pagedFile, long startFilePageId, int pageCount )
+        {
+            this.pagedFile = pagedFile;
+            this.startFilePageId = startFilePageId;
+            this.pageCount = pageCount;
+        }
+    }
+
     @Override
     public String toString()
     {
@@ -999,7 +1444,7 @@ public class MuninnPageCache implements PageCache
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger  && swappers.countAvailableIds() > 200 )
+        if ( getFreelistHead( 0 ) instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
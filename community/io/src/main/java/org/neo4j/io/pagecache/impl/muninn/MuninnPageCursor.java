@@ -36,9 +36,12 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 abstract class MuninnPageCursor extends PageCursor
 {
@@ -47,6 +50,9 @@ abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    // The number of times in a row that a pin will fail to lock its page, before it starts yielding between attempts.
+    private static final int pinSpinsBeforeYield = getInteger( MuninnPageCursor.class, "pinSpinsBeforeYield", 64 );
+
     // Size of the respective primitive types in bytes.
     private static final int SIZE_OF_BYTE = Byte.BYTES;
     private static final int SIZE_OF_SHORT = Short.BYTES;
@@ -65,6 +71,8 @@ abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    protected boolean readAhead;
+    protected boolean transientAccess;
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
@@ -103,6 +111,8 @@ abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault | isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.readAhead = isFlagRaised( pf_flags, PF_READ_AHEAD );
+        this.transientAccess = isFlagRaised( pf_flags, PF_TRANSIENT );
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -185,6 +195,7 @@ abstract class MuninnPageCursor extends PageCursor
         while ( cursor != null && cursor.pagedFile != null )
         {
             cursor.unpinCurrentPage();
+            cursor.onClose();
             // We null out the pagedFile field to allow it and its (potentially big) translation table to be garbage
             // collected when the file is unmapped, since the cursors can stick around in thread local caches, etc.
             cursor.pagedFile = null;
@@ -280,6 +291,7 @@ abstract class MuninnPageCursor extends PageCursor
             tt = expandTranslationTableCapacity( chunkId );
         }
         int[] chunk = tt[chunkId];
+        int failedLockAttempts = 0;
 
         // Now, if the reference in the chunk slot is a latch, we wait on it and look up again (in a loop, since the
         // page might get evicted right after the page fault completes). If we find a page, we lock it and check its
@@ -308,6 +320,10 @@ abstract class MuninnPageCursor extends PageCursor
                 {
                     unlockPage( pageRef );
                 }
+                else
+                {
+                    failedLockAttempts = backOffFromContendedPage( failedLockAttempts );
+                }
             }
             else
             {
@@ -319,6 +335,24 @@ abstract class MuninnPageCursor extends PageCursor
         }
     }
 
+    /**
+     * The page we want is locked by someone else. Those locks are usually short, so we start out by just trying again,
+     * but if that keeps failing, then we yield between our attempts, instead of continuing to pull the contended cache
+     * line away from the thread that holds the lock.
+     */
+    private int backOffFromContendedPage( int failedLockAttempts )
+    {
+        if ( failedLockAttempts == 0 )
+        {
+            pinEvent.contended();
+        }
+        else if ( failedLockAttempts >= pinSpinsBeforeYield )
+        {
+            Thread.yield();
+        }
+        return failedLockAttempts + 1;
+    }
+
     private int[][] expandTranslationTableCapacity( int chunkId )
     {
         return pagedFile.expandCapacity( chunkId );
@@ -395,6 +429,7 @@ abstract class MuninnPageCursor extends PageCursor
             assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
             pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            pagedFile.counters.pagesFaulted( 1 );
         }
         catch ( Throwable throwable )
         {
@@ -432,6 +467,14 @@ abstract class MuninnPageCursor extends PageCursor
 
     protected abstract void unpinCurrentPage();
 
+    /**
+     * Called when this cursor is being closed, after its current page has been unpinned, but before it is decoupled
+     * from its paged file. This gives the cursor a chance to report on any state it has accumulated while open.
+     */
+    protected void onClose()
+    {
+    }
+
     protected abstract void convertPageFaultLock( long pageRef );
 
     protected abstract void pinCursorToPage( long pageRef, long filePageId, PageSwapper swapper );
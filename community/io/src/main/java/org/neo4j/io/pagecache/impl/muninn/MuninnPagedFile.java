@@ -34,11 +34,12 @@ import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.PagedReadableByteChannel;
 import org.neo4j.io.pagecache.impl.PagedWritableByteChannel;
+import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
-import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PrefetchEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
@@ -48,6 +49,12 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     static final int UNMAPPED_TTE = -1;
     private static final int translationTableChunkSizePower = Integer.getInteger(
             "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.translationTableChunkSizePower", 12 );
+    private static final int quotaEvictionMaxSteps = Integer.getInteger(
+            "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.quotaEvictionMaxSteps", 1024 );
+    // The largest number of clean pages that a flush will include in a write, to combine the dirty pages on either side
+    // of them into a single write.
+    private static final int maxFlushGapPages = Integer.getInteger(
+            "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.maxFlushGapPages", 8 );
     private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( int[].class );
@@ -71,8 +78,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     final PageSwapper swapper;
     final short swapperId;
+    final MuninnPagedFileCounters counters;
     private final CursorPool cursorPool;
 
+    // The file page id where the next search for a page to evict, when this file is over its quota, will start.
+    // Only a hint, so races on this field are benign.
+    private long quotaEvictionArm;
+
     // Guarded by the monitor lock on MuninnPageCache (map and unmap)
     private boolean deleteOnClose;
 
@@ -160,7 +172,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
-        this.swapperId = getSwappers().allocate( swapper );
+        this.counters = new MuninnPagedFileCounters( file, pageCache.maxResidentPages( file ) );
+        this.swapperId = getSwappers().allocate( swapper, counters );
     }
 
     @Override
@@ -214,7 +227,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return (lastPageId + 1) * pageSize();
     }
 
-    File file()
+    @Override
+    public File file()
     {
         return swapper.file();
     }
@@ -349,18 +363,21 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
+        // The translation table is ordered by file page id, so we find the dirty pages in file order, and we combine
+        // the adjacent ones into large vectored writes. A write can span chunks of the translation table, and it can
+        // include a few clean pages, as long as they are loaded, if that allows the dirty pages on either side of
+        // them to go out in a single write. Any trailing clean pages are never written.
+        long startTime = System.nanoTime();
         long[] pages = new long[translationTableChunkSize];
         long[] flushStamps = forClosing ? null : new long[translationTableChunkSize];
         long[] bufferAddresses = new long[translationTableChunkSize];
+        int pagesGrabbed = 0;
+        int dirtyPagesGrabbed = 0; // The length of the vector up to, and including, the last dirty page.
         long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
         long limiterStamp = IOLimiter.INITIAL_STAMP;
         int[][] tt = this.translationTable;
         for ( int[] chunk : tt )
         {
-            // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
-            // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
-            // TODO garbage to the file.
-            int pagesGrabbed = 0;
             chunkLoop:
             for ( int i = 0; i < chunk.length; i++ )
             {
@@ -378,6 +395,27 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                         long stamp = tryOptimisticReadLock( pageRef );
                         if ( (!isModified( pageRef )) && validateReadLock( pageRef, stamp ) )
                         {
+                            if ( dirtyPagesGrabbed > 0 && pagesGrabbed - dirtyPagesGrabbed < maxFlushGapPages &&
+                                 pagesGrabbed + 1 < pages.length )
+                            {
+                                // The page is clean, but it might let us combine the dirty pages around it.
+                                long flushStamp = forClosing ? 0 : tryFlushLock( pageRef );
+                                if ( forClosing ? tryExclusiveLock( pageRef ) : flushStamp != 0 )
+                                {
+                                    if ( isBoundTo( pageRef, swapperId, filePageId ) )
+                                    {
+                                        pages[pagesGrabbed] = pageRef;
+                                        if ( !forClosing )
+                                        {
+                                            flushStamps[pagesGrabbed] = flushStamp;
+                                        }
+                                        bufferAddresses[pagesGrabbed] = getAddress( pageRef );
+                                        pagesGrabbed++;
+                                        continue chunkLoop;
+                                    }
+                                    unlockPageAfterFlush( pageRef, flushStamp, forClosing );
+                                }
+                            }
                             break;
                         }
 
@@ -398,34 +436,72 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                             }
                             bufferAddresses[pagesGrabbed] = getAddress( pageRef );
                             pagesGrabbed++;
+                            dirtyPagesGrabbed = pagesGrabbed;
+                            if ( pagesGrabbed == pages.length )
+                            {
+                                // The vector is full, so we write it out and start a new one.
+                                vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushOpportunity,
+                                        forClosing );
+                                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                                pagesGrabbed = 0;
+                                dirtyPagesGrabbed = 0;
+                            }
                             continue chunkLoop;
                         }
-                        else if ( forClosing )
-                        {
-                            unlockExclusive( pageRef );
-                        }
-                        else
-                        {
-                            unlockFlush( pageRef, flushStamp, false );
-                        }
+                        unlockPageAfterFlush( pageRef, flushStamp, forClosing );
                     }
                     break;
                 }
                 if ( pagesGrabbed > 0 )
                 {
-                    vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushOpportunity, forClosing );
-                    limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                    // The run of adjacent pages ended here, so we write out what we have.
+                    combinedFlush( pages, bufferAddresses, flushStamps, dirtyPagesGrabbed, pagesGrabbed,
+                            flushOpportunity, forClosing );
+                    limiterStamp = limiter.maybeLimitIO( limiterStamp, dirtyPagesGrabbed, this );
                     pagesGrabbed = 0;
+                    dirtyPagesGrabbed = 0;
                 }
             }
-            if ( pagesGrabbed > 0 )
+        }
+        if ( pagesGrabbed > 0 )
+        {
+            combinedFlush( pages, bufferAddresses, flushStamps, dirtyPagesGrabbed, pagesGrabbed,
+                    flushOpportunity, forClosing );
+            limiter.maybeLimitIO( limiterStamp, dirtyPagesGrabbed, this );
+        }
+
+        swapper.force();
+        counters.flushCompleted( System.nanoTime() - startTime );
+    }
+
+    private void combinedFlush(
+            long[] pages, long[] bufferAddresses, long[] flushStamps, int dirtyPagesGrabbed, int pagesGrabbed,
+            FlushEventOpportunity flushOpportunity, boolean forClosing ) throws IOException
+    {
+        try
+        {
+            vectoredFlush( pages, bufferAddresses, flushStamps, dirtyPagesGrabbed, flushOpportunity, forClosing );
+        }
+        finally
+        {
+            // The clean pages after the last dirty page were not written, so we only have to unlock them.
+            for ( int i = dirtyPagesGrabbed; i < pagesGrabbed; i++ )
             {
-                vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushOpportunity, forClosing );
-                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                unlockPageAfterFlush( pages[i], forClosing ? 0 : flushStamps[i], forClosing );
             }
         }
+    }
 
-        swapper.force();
+    private void unlockPageAfterFlush( long pageRef, long flushStamp, boolean forClosing )
+    {
+        if ( forClosing )
+        {
+            unlockExclusive( pageRef );
+        }
+        else
+        {
+            unlockFlush( pageRef, flushStamp, false );
+        }
     }
 
     private void vectoredFlush(
@@ -441,6 +517,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             long startFilePageId = getFilePageId( firstPageRef );
             flush = flushOpportunity.beginFlush( startFilePageId, toId( firstPageRef ), swapper );
             long bytesWritten = swapper.write( startFilePageId, bufferAddresses, 0, pagesGrabbed );
+            counters.pagesFlushed( bytesWritten );
 
             // Update the flush event
             flush.addBytesWritten( bytesWritten );
@@ -641,9 +718,223 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * none are immediately available.
      * @param faultEvent The trace event for the current page fault.
      */
-    long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
+    long grabFreeAndExclusivelyLockedPage( EvictionEventOpportunity evictionOpportunity ) throws IOException
+    {
+        if ( counters.isOverQuota() )
+        {
+            long pageRef = evictOwnPage( evictionOpportunity );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
+        return pageCache.grabFreeAndExclusivelyLockedPage( evictionOpportunity );
+    }
+
+    /**
+     * Files that have grown past their quota pay for their own page faults, by recycling one of their own pages
+     * instead of taking one from the free-list, or evicting a page that belongs to some other file.
+     * <p>
+     * The search is bounded, and looks at the translation table of this file, starting where the previous search
+     * left off.
+     *
+     * @return The exclusively locked and free page, or 0 if no page could be evicted within the bound.
+     */
+    private long evictOwnPage( EvictionEventOpportunity evictionOpportunity ) throws IOException
+    {
+        int[][] tt = translationTable;
+        long tableSize = ((long) tt.length) << translationTableChunkSizePower;
+        long filePageId = quotaEvictionArm;
+        for ( int i = 0; i < quotaEvictionMaxSteps; i++, filePageId++ )
+        {
+            if ( filePageId >= tableSize )
+            {
+                filePageId = 0;
+            }
+            int[] chunk = tt[computeChunkId( filePageId )];
+            int pageId = UnsafeUtil.getIntVolatile( chunk, computeChunkOffset( filePageId ) );
+            if ( pageId != UNMAPPED_TTE )
+            {
+                long pageRef = deref( pageId );
+                if ( tryEvict( pageRef, evictionOpportunity ) )
+                {
+                    quotaEvictionArm = filePageId + 1;
+                    return pageRef;
+                }
+            }
+        }
+        quotaEvictionArm = filePageId;
+        return 0;
+    }
+
+    /**
+     * Load the given range of file pages into memory, if they are not in memory already. This is the background half
+     * of {@link PagedFile#PF_READ_AHEAD}, and is called from the read-ahead thread of the page cache.
+     * <p>
+     * Consecutive runs of unmapped pages are faulted in with a single vectored read. Read-ahead is only a hint, so we
+     * never wait for latches held by concurrent page faults, and we silently give up if the file has been unmapped, or
+     * if anything else goes wrong.
+     *
+     * @param startFilePageId The first file page to load.
+     * @param pageCount The number of file pages to load.
+     */
+    void readAhead( long startFilePageId, int pageCount )
     {
-        return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
+        long lastPageId;
+        try
+        {
+            lastPageId = getLastPageId();
+        }
+        catch ( IllegalStateException e )
+        {
+            return; // The file has been unmapped.
+        }
+        long endFilePageId = Math.min( startFilePageId + pageCount, lastPageId + 1 );
+        if ( endFilePageId <= startFilePageId )
+        {
+            return;
+        }
+        // Never hold more than a quarter of the cache locked at a time, or we could starve the page faults of the
+        // very cursor we are reading ahead for, when the cache is tiny.
+        int maxRunLength = (int) Math.min( endFilePageId - startFilePageId, Math.max( getPageCount() / 4, 1 ) );
+        long[] pageRefs = new long[maxRunLength];
+        long[] bufferAddresses = new long[maxRunLength];
+        LatchMap.Latch[] latches = new LatchMap.Latch[maxRunLength];
+        try ( PrefetchEvent prefetchEvent = pageCacheTracer.beginPrefetch(
+                swapper, startFilePageId, (int) (endFilePageId - startFilePageId) ) )
+        {
+            long filePageId = startFilePageId;
+            while ( filePageId < endFilePageId )
+            {
+                int runLength = 0;
+                try
+                {
+                    long runEnd = Math.min( endFilePageId, filePageId + maxRunLength );
+                    runLength = grabRun( filePageId, runEnd, pageRefs, latches, prefetchEvent );
+                    if ( runLength > 0 )
+                    {
+                        faultRun( filePageId, runLength, pageRefs, bufferAddresses, latches, prefetchEvent );
+                    }
+                }
+                catch ( IOException e )
+                {
+                    prefetchEvent.threwException( e );
+                    return;
+                }
+                catch ( RuntimeException e )
+                {
+                    // The page cache is probably shutting down, or the file has been unmapped.
+                    return;
+                }
+                filePageId += Math.max( runLength, 1 );
+            }
+        }
+    }
+
+    /**
+     * Grab free pages for, and take the page fault latches of, the longest run of consecutive unmapped pages starting
+     * from the given file page id.
+     * @return the length of the run, which is zero if the given file page is mapped or being faulted in by someone else.
+     */
+    private int grabRun( long startFilePageId, long endFilePageId, long[] pageRefs, LatchMap.Latch[] latches,
+            PrefetchEvent prefetchEvent ) throws IOException
+    {
+        int runLength = 0;
+        for ( long filePageId = startFilePageId; filePageId < endFilePageId; filePageId++ )
+        {
+            int chunkId = computeChunkId( filePageId );
+            long chunkOffset = computeChunkOffset( filePageId );
+            int[][] tt = translationTable;
+            if ( tt.length <= chunkId )
+            {
+                tt = expandCapacity( chunkId );
+            }
+            int[] chunk = tt[chunkId];
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                break;
+            }
+            LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+            if ( latch == null )
+            {
+                break;
+            }
+            // Double-check that we did not race with a page fault, now that we have the latch.
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                latch.release();
+                break;
+            }
+            long pageRef;
+            try
+            {
+                pageRef = grabFreeAndExclusivelyLockedPage( prefetchEvent );
+            }
+            catch ( Throwable throwable )
+            {
+                latch.release();
+                abortRun( runLength, pageRefs, latches );
+                throw throwable;
+            }
+            pageRefs[runLength] = pageRef;
+            latches[runLength] = latch;
+            runLength++;
+        }
+        return runLength;
+    }
+
+    private void faultRun( long startFilePageId, int runLength, long[] pageRefs, long[] bufferAddresses,
+            LatchMap.Latch[] latches, PrefetchEvent prefetchEvent ) throws IOException
+    {
+        long bytesRead;
+        try
+        {
+            for ( int i = 0; i < runLength; i++ )
+            {
+                initBuffer( pageRefs[i] );
+                bufferAddresses[i] = getAddress( pageRefs[i] );
+            }
+            // Check if we're racing with unmapping, now that we have the pages locked. See MuninnPageCursor#pageFault.
+            getLastPageId();
+            bytesRead = vectoredFault( pageRefs, bufferAddresses, runLength, swapper, swapperId, startFilePageId );
+            counters.pagesFaulted( runLength );
+        }
+        catch ( Throwable throwable )
+        {
+            abortRun( runLength, pageRefs, latches );
+            throw throwable;
+        }
+        for ( int i = 0; i < runLength; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int[] chunk = translationTable[computeChunkId( filePageId )];
+            UnsafeUtil.putIntVolatile( chunk, computeChunkOffset( filePageId ), toId( pageRef ) );
+            // Give the page a chance to survive one sweep of the eviction clock, before the cursor gets to it.
+            incrementUsage( pageRef );
+            unlockExclusive( pageRef );
+            latches[i].release();
+        }
+        prefetchEvent.addBytesRead( bytesRead );
+        prefetchEvent.addPagesPrefetched( runLength );
+    }
+
+    private void abortRun( int runLength, long[] pageRefs, LatchMap.Latch[] latches )
+    {
+        for ( int i = 0; i < runLength; i++ )
+        {
+            long pageRef = pageRefs[i];
+            if ( isLoaded( pageRef ) )
+            {
+                // Loaded but unbound, so the eviction thread will pick it up.
+                unlockExclusive( pageRef );
+            }
+            else
+            {
+                pageCache.releaseUnusedFreePage( pageRef );
+            }
+            latches[i].release();
+        }
     }
 
     /**
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+
+/**
+ * Counts the pages of a mapped file that are faulted into, and evicted from, the page cache, and the writes made when
+ * flushing the file, and decides if the file is using more than its quota of the page cache.
+ */
+final class MuninnPagedFileCounters implements PagedFileCounters
+{
+    private final File file;
+    private final long maxResidentPages;
+    private final AtomicLong residentPages = new AtomicLong();
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder flushWrites = new LongAdder();
+    private final LongAdder flushedBytes = new LongAdder();
+    private final LongAdder flushTimeNanos = new LongAdder();
+
+    MuninnPagedFileCounters( File file, long maxResidentPages )
+    {
+        this.file = file;
+        this.maxResidentPages = maxResidentPages;
+    }
+
+    void pagesFaulted( int pageCount )
+    {
+        faults.add( pageCount );
+        residentPages.addAndGet( pageCount );
+    }
+
+    void pageEvicted()
+    {
+        evictions.increment();
+        residentPages.decrementAndGet();
+    }
+
+    void pagesFlushed( long bytesWritten )
+    {
+        flushWrites.increment();
+        flushedBytes.add( bytesWritten );
+    }
+
+    void flushCompleted( long elapsedNanos )
+    {
+        flushTimeNanos.add( elapsedNanos );
+    }
+
+    /**
+     * @return {@code true} if the file has more pages in the page cache than its quota allows.
+     */
+    boolean isOverQuota()
+    {
+        return maxResidentPages != Long.MAX_VALUE && residentPages.get() > maxResidentPages;
+    }
+
+    @Override
+    public File file()
+    {
+        return file;
+    }
+
+    @Override
+    public long residentPages()
+    {
+        return residentPages.get();
+    }
+
+    @Override
+    public long faults()
+    {
+        return faults.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    @Override
+    public long flushWrites()
+    {
+        return flushWrites.sum();
+    }
+
+    @Override
+    public long flushedBytes()
+    {
+        return flushedBytes.sum();
+    }
+
+    @Override
+    public long flushTimeNanos()
+    {
+        return flushTimeNanos.sum();
+    }
+}
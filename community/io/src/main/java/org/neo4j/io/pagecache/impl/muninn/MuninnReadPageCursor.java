@@ -23,14 +23,36 @@ import java.io.IOException;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
+import static org.neo4j.util.FeatureToggles.getInteger;
+
 final class MuninnReadPageCursor extends MuninnPageCursor
 {
+    // The number of pages that we try to keep loaded ahead of a sequentially scanning PF_READ_AHEAD cursor.
+    private static final int readAheadPageCount = getInteger( MuninnReadPageCursor.class, "readAheadPageCount", 32 );
+
+    // The number of consecutive pages a PF_READ_AHEAD cursor must visit, before we consider it to be scanning.
+    private static final int readAheadTrigger = getInteger( MuninnReadPageCursor.class, "readAheadTrigger", 2 );
+
+    // The number of times we check if a writer has left the page we want to read, before we read it anyway.
+    private static final int writerAwaitSpins = getInteger( MuninnReadPageCursor.class, "writerAwaitSpins", 64 );
+
     private final CursorPool.CursorSets cursorSets;
     private long lockStamp;
     MuninnReadPageCursor nextCursor;
 
+    // Read-ahead state. The read-ahead window is the range of file pages, from readAheadStart inclusive to
+    // readAheadEnd exclusive, that we have asked the page cache to load in the background on our behalf.
+    private boolean faulted;
+    private int sequentialPages;
+    private long lastVisitedPageId = UNBOUND_PAGE_ID;
+    private long readAheadStart;
+    private long readAheadEnd;
+    private long prefetchHits;
+    private long prefetchesWasted;
+
     MuninnReadPageCursor( CursorPool.CursorSets cursorSets, long victimPage, PageCursorTracer pageCursorTracer,
             VersionContextSupplier versionContextSupplier )
     {
@@ -60,18 +82,120 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         }
         currentPageId = nextPageId;
         nextPageId++;
+        faulted = false;
         pin( currentPageId, false );
+        if ( readAhead )
+        {
+            trackReadAhead( lastPageId );
+        }
         verifyContext();
         return true;
     }
 
+    private void trackReadAhead( long lastPageId )
+    {
+        long pageId = currentPageId;
+        if ( lastVisitedPageId != UNBOUND_PAGE_ID && pageId == lastVisitedPageId + 1 )
+        {
+            sequentialPages++;
+        }
+        else
+        {
+            // We jumped somewhere else, so whatever we had read ahead of us is most likely of no use to us now.
+            abandonReadAheadWindow();
+            sequentialPages = 0;
+        }
+        lastVisitedPageId = pageId;
+
+        if ( pageId >= readAheadStart && pageId < readAheadEnd )
+        {
+            if ( faulted )
+            {
+                // The page was evicted again before we got to it, or the read-ahead was too slow to help us.
+                prefetchesWasted++;
+            }
+            else
+            {
+                prefetchHits++;
+            }
+        }
+
+        // Top up the read-ahead window once we have consumed half of it.
+        if ( sequentialPages >= readAheadTrigger && readAheadEnd - pageId <= readAheadPageCount / 2 )
+        {
+            long start = Math.max( readAheadEnd, pageId + 1 );
+            long end = Math.min( pageId + 1 + readAheadPageCount, lastPageId + 1 );
+            if ( start < end && pagedFile.pageCache.requestReadAhead( pagedFile, start, (int) (end - start) ) )
+            {
+                if ( readAheadEnd <= pageId )
+                {
+                    readAheadStart = start;
+                }
+                readAheadEnd = end;
+            }
+        }
+    }
+
+    private void abandonReadAheadWindow()
+    {
+        long unvisited = readAheadEnd - Math.max( lastVisitedPageId + 1, readAheadStart );
+        if ( unvisited > 0 )
+        {
+            prefetchesWasted += unvisited;
+        }
+        readAheadStart = 0;
+        readAheadEnd = 0;
+    }
+
+    @Override
+    protected void onClose()
+    {
+        if ( readAhead )
+        {
+            abandonReadAheadWindow();
+            PageCacheTracer pageCacheTracer = pagedFile.pageCacheTracer;
+            if ( prefetchHits > 0 )
+            {
+                pageCacheTracer.prefetchHits( prefetchHits );
+            }
+            if ( prefetchesWasted > 0 )
+            {
+                pageCacheTracer.prefetchesWasted( prefetchesWasted );
+            }
+            prefetchHits = 0;
+            prefetchesWasted = 0;
+            sequentialPages = 0;
+            lastVisitedPageId = UNBOUND_PAGE_ID;
+        }
+    }
+
     @Override
     protected boolean tryLockPage( long pageRef )
     {
+        if ( pagedFile.isWriteOrExclusivelyLocked( pageRef ) )
+        {
+            pinEvent.contended();
+            awaitWriters( pageRef );
+        }
         lockStamp = pagedFile.tryOptimisticReadLock( pageRef );
         return true;
     }
 
+    /**
+     * A read that overlaps with a write lock is certain to fail validation, and would in the mean time only be pulling
+     * the cache lines of the page away from the writer. So, rather than reading a hot page while it is being written
+     * to, we give the writer a moment to finish first. We never take any lock here, and the wait is bounded, since the
+     * writer might be this very thread, through a write cursor on the same page.
+     */
+    private void awaitWriters( long pageRef )
+    {
+        int spins = 0;
+        while ( spins < writerAwaitSpins && pagedFile.isWriteOrExclusivelyLocked( pageRef ) )
+        {
+            spins++;
+        }
+    }
+
     @Override
     protected void unlockPage( long pageRef )
     {
@@ -81,12 +205,16 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( long pageRef, long filePageId, PageSwapper swapper )
     {
         reset( pageRef );
-        pagedFile.incrementUsage( pageRef );
+        if ( !transientAccess )
+        {
+            pagedFile.incrementUsage( pageRef );
+        }
     }
 
     @Override
     protected void convertPageFaultLock( long pageRef )
     {
+        faulted = true;
         lockStamp = pagedFile.unlockExclusive( pageRef );
     }
 
@@ -134,6 +262,8 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         setOffset( 0 );
         checkAndClearBoundsFlag();
         clearCursorException();
+        pinEvent.contended();
+        awaitWriters( pinnedPageRef );
         lockStamp = pagedFile.tryOptimisticReadLock( pinnedPageRef );
         // The page might have been evicted while we held the optimistic
         // read lock, so we need to check with page.pin that this is still
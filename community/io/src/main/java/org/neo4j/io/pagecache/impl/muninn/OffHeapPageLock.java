@@ -164,6 +164,15 @@ public final class OffHeapPageLock
         return (getState( address ) & EXL_MASK) == EXL_MASK;
     }
 
+    /**
+     * @return {@code true} if a write or exclusive lock is currently held, which means that any optimistic read lock
+     * taken right now is certain to fail validation.
+     */
+    public static boolean isWriteOrExclusivelyLocked( long address )
+    {
+        return (getState( address ) & (EXL_MASK | CNT_MASK)) != 0;
+    }
+
     /**
      * Try taking a concurrent write lock. Multiple write locks can be held at the same time. Write locks will
      * invalidate any optimistic read lock that overlaps with them, and write locks will make any attempt at grabbing
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Soft quotas on how large a portion of the page cache the pages of individual files may occupy.
+ * <p>
+ * Quotas are given for glob patterns, that are matched against the names of the mapped files. Every file that matches
+ * a pattern gets the quota of the first pattern that it matches, and files that don't match any pattern get no quota.
+ * When a file has more pages in the page cache than its quota allows, then its page faults recycle its own pages,
+ * rather than taking pages from other files, and its pages are evicted when the eviction clock hand finds them, even if
+ * they have recently been used. The quotas are soft, because a file may grow beyond its quota for short periods, for
+ * instance when all of its pages are pinned.
+ */
+public final class PageCacheQuotas
+{
+    public static final PageCacheQuotas NONE = new PageCacheQuotas( Collections.emptyList() );
+
+    private final List<Quota> quotas;
+
+    private PageCacheQuotas( List<Quota> quotas )
+    {
+        this.quotas = quotas;
+    }
+
+    /**
+     * Create a copy of these quotas, with an added quota for the files whose names match the given glob pattern.
+     * @param fileNamePattern the glob pattern to match file names against, e.g. {@code neostore.propertystore.db*}.
+     * @param fractionOfCache the maximum fraction of the page cache pages that each matching file may occupy, from
+     * zero to one.
+     * @return the new quotas.
+     */
+    public PageCacheQuotas withQuota( String fileNamePattern, double fractionOfCache )
+    {
+        if ( fractionOfCache < 0 || fractionOfCache > 1 )
+        {
+            throw new IllegalArgumentException( "The fraction of the page cache for the file name pattern '" +
+                    fileNamePattern + "' must be between 0 and 1, but was " + fractionOfCache );
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher( "glob:" + fileNamePattern );
+        List<Quota> newQuotas = new ArrayList<>( quotas );
+        newQuotas.add( new Quota( matcher, fractionOfCache ) );
+        return new PageCacheQuotas( newQuotas );
+    }
+
+    /**
+     * @return the maximum number of pages that the given file may have in a page cache with the given number of
+     * pages, or {@link Long#MAX_VALUE} if the file has no quota.
+     */
+    long maxResidentPages( File file, long maxPages )
+    {
+        for ( Quota quota : quotas )
+        {
+            if ( quota.fileNameMatcher.matches( file.toPath().getFileName() ) )
+            {
+                return (long) (maxPages * quota.fractionOfCache);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static final class Quota
+    {
+        private final PathMatcher fileNameMatcher;
+        private final double fractionOfCache;
+
+        Quota( PathMatcher fileNameMatcher, double fractionOfCache )
+        {
+            this.fileNameMatcher = fileNameMatcher;
+            this.fractionOfCache = fractionOfCache;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
+import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
@@ -44,7 +45,7 @@ import static org.neo4j.util.FeatureToggles.flag;
  *     <tr><td>8</td><td>Pointer to the memory page.</td></tr>
  *     <tr><td>8</td><td>Last modified transaction id.</td></tr>
  *     <tr><td>5</td><td>File page id.</td></tr>
- *     <tr><td>1</td><td>Usage stamp. Optimistically incremented; truncated to a max of 4.</td></tr>
+ *     <tr><td>1</td><td>Usage stamp. Optimistically updated, as decided by the {@link PageReplacement}.</td></tr>
  *     <tr><td>2</td><td>Page swapper id.</td></tr>
  * </table>
  */
@@ -121,9 +122,19 @@ class PageList
     private final long victimPageAddress;
     private final long baseAddress;
     private final long bufferAlignment;
+    private final PageReplacement pageReplacement;
+    private final int partitionCount;
+    private final int pagesPerPartition;
 
     PageList( int pageCount, int cachePageSize, MemoryAllocator memoryAllocator, SwapperSet swappers,
               long victimPageAddress, long bufferAlignment )
+    {
+        this( pageCount, cachePageSize, memoryAllocator, swappers, victimPageAddress, bufferAlignment,
+                ClockPageReplacement.INSTANCE );
+    }
+
+    PageList( int pageCount, int cachePageSize, MemoryAllocator memoryAllocator, SwapperSet swappers,
+              long victimPageAddress, long bufferAlignment, PageReplacement pageReplacement )
     {
         this.pageCount = pageCount;
         this.cachePageSize = cachePageSize;
@@ -133,6 +144,11 @@ class PageList
         long bytes = ((long) pageCount) * META_DATA_BYTES_PER_PAGE;
         this.baseAddress = memoryAllocator.allocateAligned( bytes, Long.BYTES );
         this.bufferAlignment = bufferAlignment;
+        this.pageReplacement = pageReplacement;
+        // The pages are divided into contiguous ranges, one for each partition of the memory allocator, and the
+        // buffers of the pages in each range are allocated from the memory of the corresponding partition.
+        this.partitionCount = Math.max( 1, Math.min( memoryAllocator.partitions(), pageCount ) );
+        this.pagesPerPartition = (pageCount + partitionCount - 1) / partitionCount;
         clearMemory( baseAddress, pageCount );
     }
 
@@ -152,6 +168,9 @@ class PageList
         this.victimPageAddress = pageList.victimPageAddress;
         this.baseAddress = pageList.baseAddress;
         this.bufferAlignment = pageList.bufferAlignment;
+        this.pageReplacement = pageList.pageReplacement;
+        this.partitionCount = pageList.partitionCount;
+        this.pagesPerPartition = pageList.pagesPerPartition;
     }
 
     private void clearMemory( long baseAddress, long pageCount )
@@ -282,6 +301,11 @@ class PageList
         return OffHeapPageLock.isExclusivelyLocked( offLock( pageRef ) );
     }
 
+    public boolean isWriteOrExclusivelyLocked( long pageRef )
+    {
+        return OffHeapPageLock.isWriteOrExclusivelyLocked( offLock( pageRef ) );
+    }
+
     public boolean tryWriteLock( long pageRef )
     {
         return OffHeapPageLock.tryWriteLock( offLock( pageRef ) );
@@ -332,6 +356,35 @@ class PageList
         return cachePageSize;
     }
 
+    /**
+     * @return The number of partitions that the pages are divided into.
+     */
+    int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    /**
+     * @return The id of the first page in the given partition.
+     */
+    int getPartitionStart( int partition )
+    {
+        return Math.min( partition * pagesPerPartition, pageCount );
+    }
+
+    /**
+     * @return The id of the first page after the given partition.
+     */
+    int getPartitionEnd( int partition )
+    {
+        return Math.min( (partition + 1) * pagesPerPartition, pageCount );
+    }
+
+    int getPartition( long pageRef )
+    {
+        return toId( pageRef ) / pagesPerPartition;
+    }
+
     public long getAddress( long pageRef )
     {
         return UnsafeUtil.getLong( offAddress( pageRef ) );
@@ -341,48 +394,37 @@ class PageList
     {
         if ( getAddress( pageRef ) == 0L )
         {
-            long addr = memoryAllocator.allocateAligned( getCachePageSize(), bufferAlignment );
+            long addr = memoryAllocator.allocateAligned( getCachePageSize(), bufferAlignment, getPartition( pageRef ) );
             UnsafeUtil.putLong( offAddress( pageRef ), addr );
         }
     }
 
-    private byte getUsageCounter( long pageRef )
+    byte getUsageCounter( long pageRef )
     {
         return UnsafeUtil.getByteVolatile( offUsage( pageRef ) );
     }
 
-    private void setUsageCounter( long pageRef, byte count )
+    void setUsageCounter( long pageRef, byte count )
     {
         UnsafeUtil.putByteVolatile( offUsage( pageRef ), count );
     }
 
     /**
-     * Increment the usage stamp to at most 4.
+     * Record that the given page has been pinned. With the default {@link EvictionPolicy#CLOCK} policy, this
+     * increments the usage stamp to at most 4.
      **/
     public void incrementUsage( long pageRef )
     {
-        // This is intentionally left benignly racy for performance.
-        byte usage = getUsageCounter( pageRef );
-        if ( usage < 4 ) // avoid cache sloshing by not doing a write if counter is already maxed out
-        {
-            usage++;
-            setUsageCounter( pageRef, usage );
-        }
+        pageReplacement.accessed( this, pageRef );
     }
 
     /**
-     * Decrement the usage stamp. Returns true if it reaches 0.
+     * Move the clock hand past the given page. With the default {@link EvictionPolicy#CLOCK} policy, this decrements
+     * the usage stamp. Returns true if the page should be evicted.
      **/
     public boolean decrementUsage( long pageRef )
     {
-        // This is intentionally left benignly racy for performance.
-        byte usage = getUsageCounter( pageRef );
-        if ( usage > 0 )
-        {
-            usage--;
-            setUsageCounter( pageRef, usage );
-        }
-        return usage == 0;
+        return pageReplacement.sweep( this, pageRef );
     }
 
     public long getFilePageId( long pageRef )
@@ -469,6 +511,65 @@ class PageList
         event.addBytesRead( bytesRead );
         event.setCachePageId( toId( pageRef ) );
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        pageReplacement.faulted( this, pageRef, swapperId, filePageId );
+    }
+
+    /**
+     * Fault in a run of consecutive file pages, starting from the given {@code startFilePageId}, with a single
+     * vectored read. The given pages must all be exclusively locked and unbound, and their buffers must have been
+     * initialised with {@link #initBuffer(long)}.
+     * <p>
+     * Like with {@link #fault(long, PageSwapper, short, long, PageFaultEvent)}, the file page ids are assigned before
+     * the pages are swapped in, and the swapper id is only assigned once the read has succeeded. Pages are therefor
+     * either bound or considered garbage for the eviction thread to clean up, if this method throws.
+     *
+     * @return the number of bytes read from the file.
+     */
+    public long vectoredFault( long[] pageRefs, long[] bufferAddresses, int length, PageSwapper swapper,
+            short swapperId, long startFilePageId ) throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 ||
+                 currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            setFilePageId( pageRefs[i], startFilePageId + i ); // Page now considered isLoaded()
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, cachePageSize, 0, length );
+        for ( int i = 0; i < length; i++ )
+        {
+            setSwapperId( pageRefs[i], swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+            pageReplacement.faulted( this, pageRefs[i], swapperId, startFilePageId + i );
+        }
+        return bytesRead;
+    }
+
+    /**
+     * @return {@code true} if the given page is bound to a file that has more pages in the page cache than its
+     * {@link PageCacheQuotas quota} allows.
+     */
+    public boolean isOverQuota( long pageRef )
+    {
+        short swapperId = getSwapperId( pageRef );
+        if ( swapperId == 0 )
+        {
+            return false;
+        }
+        SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+        return swapperMapping != null && swapperMapping.counters.isOverQuota();
     }
 
     private static IllegalArgumentException swapperCannotBeNull()
@@ -526,8 +627,10 @@ class PageList
                     flushModifiedPage( pageRef, evictionEvent, filePageId, swapper );
                 }
                 swapper.evicted( filePageId );
+                swapperMapping.counters.pageEvicted();
             }
         }
+        pageReplacement.evicted( this, pageRef, swapperId, filePageId );
         clearBinding( pageRef );
     }
 
@@ -553,6 +656,58 @@ class PageList
         }
     }
 
+    /**
+     * Write out the given page if it is bound and modified, without evicting it. The page is only flush locked while
+     * it is being written, so cursors can keep reading from, and writing to, the page in the mean time. If the page is
+     * written to while it is being flushed, then it stays modified.
+     *
+     * @return {@code true} if the page was written, {@code false} if it was clean, unbound, or already flush locked.
+     */
+    public boolean tryFlush( long pageRef, FlushEventOpportunity flushOpportunity ) throws IOException
+    {
+        long stamp = tryFlushLock( pageRef );
+        if ( stamp == 0 )
+        {
+            return false;
+        }
+        boolean success = false;
+        try
+        {
+            short swapperId = getSwapperId( pageRef );
+            if ( swapperId == 0 || !isModified( pageRef ) )
+            {
+                return false;
+            }
+            SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+            if ( swapperMapping == null )
+            {
+                return false;
+            }
+            PageSwapper swapper = swapperMapping.swapper;
+            long filePageId = getFilePageId( pageRef );
+            FlushEvent flushEvent = flushOpportunity.beginFlush( filePageId, toId( pageRef ), swapper );
+            try
+            {
+                long bytesWritten = swapper.write( filePageId, getAddress( pageRef ) );
+                swapperMapping.counters.pagesFlushed( bytesWritten );
+                flushEvent.addBytesWritten( bytesWritten );
+                flushEvent.addPagesFlushed( 1 );
+                flushEvent.done();
+                success = true;
+                return true;
+            }
+            catch ( IOException e )
+            {
+                flushEvent.done( e );
+                throw e;
+            }
+        }
+        finally
+        {
+            unlockFlush( pageRef, stamp, success );
+        }
+    }
+
     protected void clearBinding( long pageRef )
     {
         setFilePageId( pageRef, PageCursor.UNBOUND_PAGE_ID );
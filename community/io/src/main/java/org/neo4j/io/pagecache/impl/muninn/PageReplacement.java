@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The page replacement algorithm used by a {@link MuninnPageCache}, as selected by its {@link EvictionPolicy}.
+ * <p>
+ * The page replacement decides which pages the clock sweep of the eviction thread, and of cooperatively evicting
+ * page faulting threads, should pick as victims. It keeps its per-page state in the usage stamp byte of the
+ * {@link PageList}, which is intentionally accessed in a benignly racy manner.
+ */
+interface PageReplacement
+{
+    /**
+     * Called when the given page has been faulted in and bound to the given file page, while the page is still
+     * exclusively locked by the faulting thread.
+     */
+    void faulted( PageList pages, long pageRef, short swapperId, long filePageId );
+
+    /**
+     * Called every time a page cursor pins the given page.
+     */
+    void accessed( PageList pages, long pageRef );
+
+    /**
+     * Called when the clock sweep passes over the given loaded page.
+     * @return {@code true} if the page should be evicted, otherwise {@code false}.
+     */
+    boolean sweep( PageList pages, long pageRef );
+
+    /**
+     * Called when the given page is evicted, while it is still exclusively locked and bound to its file page.
+     * The swapper id is zero if the page was loaded, but never got bound to a file page.
+     */
+    void evicted( PageList pages, long pageRef, short swapperId, long filePageId );
+}
@@ -41,10 +41,10 @@ import static org.neo4j.helpers.Numbers.safeCastIntToShort;
 final class SwapperSet
 {
     // The sentinel is used to reserve swapper id 0 as a special value.
-    private static final SwapperMapping SENTINEL = new SwapperMapping( 0, null );
+    private static final SwapperMapping SENTINEL = new SwapperMapping( 0, null, null );
     // The tombstone is used as a marker to reserve allocation entries that have been freed, but not yet vacuumed.
     // An allocation cannot be reused until it has been vacuumed.
-    private static final SwapperMapping TOMBSTONE = new SwapperMapping( 0, null );
+    private static final SwapperMapping TOMBSTONE = new SwapperMapping( 0, null, null );
     private static final int MAX_SWAPPER_ID = Short.MAX_VALUE;
     private volatile SwapperMapping[] swapperMappings = new SwapperMapping[] { SENTINEL };
     private final PrimitiveIntSet free = Primitive.intSet();
@@ -58,11 +58,13 @@ final class SwapperSet
     {
         public final int id;
         public final PageSwapper swapper;
+        public final MuninnPagedFileCounters counters;
 
-        private SwapperMapping( int id, PageSwapper swapper )
+        private SwapperMapping( int id, PageSwapper swapper, MuninnPagedFileCounters counters )
         {
             this.id = id;
             this.swapper = swapper;
+            this.counters = counters;
         }
     }
 
@@ -89,9 +91,18 @@ final class SwapperSet
     }
 
     /**
-     * Allocate a new swapper id for the given {@link PageSwapper}.
+     * Allocate a new swapper id for the given {@link PageSwapper}, with counters that impose no quota.
      */
-    synchronized short allocate( PageSwapper swapper )
+    short allocate( PageSwapper swapper )
+    {
+        return allocate( swapper, new MuninnPagedFileCounters( swapper.file(), Long.MAX_VALUE ) );
+    }
+
+    /**
+     * Allocate a new swapper id for the given {@link PageSwapper}, whose pages in the page cache will be counted by
+     * the given {@link MuninnPagedFileCounters}.
+     */
+    synchronized short allocate( PageSwapper swapper, MuninnPagedFileCounters counters )
     {
         SwapperMapping[] swapperMappings = this.swapperMappings;
 
@@ -102,7 +113,7 @@ final class SwapperSet
             {
                 short id = safeCastIntToShort( free.iterator().next() );
                 free.remove( id );
-                swapperMappings[id] = new SwapperMapping( id, swapper );
+                swapperMappings[id] = new SwapperMapping( id, swapper, counters );
                 this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
                 return id;
             }
@@ -115,7 +126,7 @@ final class SwapperSet
             throw new IllegalStateException( "All swapper ids are allocated: " + MAX_SWAPPER_ID );
         }
         swapperMappings = Arrays.copyOf( swapperMappings, id + 1 );
-        swapperMappings[id] = new SwapperMapping( id, swapper );
+        swapperMappings[id] = new SwapperMapping( id, swapper, counters );
         this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
         return id;
     }
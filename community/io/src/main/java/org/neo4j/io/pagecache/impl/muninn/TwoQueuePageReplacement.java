@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A scan resistant variant of the clock sweep, modelled after the 2Q algorithm.
+ * <p>
+ * Pages start out <em>cold</em> when they are faulted in, and cold pages are evicted the first time the clock hand
+ * finds them, no matter how often they have been pinned in the mean time. When a cold page is evicted, a fingerprint
+ * of its file page is remembered in a fixed size <em>ghost table</em>. If the file page is faulted in again while
+ * its fingerprint is still in the ghost table, then the page is considered to be part of the working set, and it
+ * becomes <em>hot</em>. Hot pages keep a usage stamp like in the regular clock sweep, but the clock hand only ages
+ * them when it has passed over a number of hot pages in a row, without finding any cold pages to evict. A hot page
+ * whose usage stamp reaches zero is demoted to being cold.
+ * <p>
+ * The effect is that a large scan, which touches every page only once, will only ever cycle through the cold pages,
+ * and leave the hot working set in the cache alone.
+ */
+final class TwoQueuePageReplacement implements PageReplacement
+{
+    // The number of hot pages the clock hand must pass over in a row, before it starts aging hot pages.
+    // This effectively decides how small the portion of cold pages in the cache can get, before hot pages are demoted.
+    private static final int hotPagesBeforeAging = getInteger(
+            TwoQueuePageReplacement.class, "hotPagesBeforeAging", 16 );
+
+    private static final byte NEUTRAL = 0;
+    private static final byte COLD = 0x20;
+    private static final byte HOT = 0x10;
+    private static final byte HOT_USAGE_MASK = 0x0F;
+    private static final byte MAX_HOT_USAGE = 4;
+
+    private final int[] ghosts;
+    private final int ghostMask;
+    // This is intentionally left benignly racy, since it is shared among all sweeping threads.
+    private int hotStreak;
+
+    TwoQueuePageReplacement( int pageCount )
+    {
+        // Remember roughly half as many evicted pages, as there are pages in the cache.
+        int ghostCapacity = Integer.highestOneBit( Math.max( pageCount, 128 ) ) >>> 1;
+        ghosts = new int[ghostCapacity];
+        ghostMask = ghostCapacity - 1;
+    }
+
+    @Override
+    public void faulted( PageList pages, long pageRef, short swapperId, long filePageId )
+    {
+        long hash = hash( swapperId, filePageId );
+        int index = ghostIndex( hash );
+        int fingerprint = fingerprint( hash );
+        if ( ghosts[index] == fingerprint )
+        {
+            ghosts[index] = 0;
+            pages.setUsageCounter( pageRef, (byte) (HOT | 1) );
+        }
+        else
+        {
+            pages.setUsageCounter( pageRef, COLD );
+        }
+    }
+
+    @Override
+    public void accessed( PageList pages, long pageRef )
+    {
+        byte usage = pages.getUsageCounter( pageRef );
+        // Accesses to cold pages are ignored, since they might just be correlated references from a scan.
+        // Also avoid cache sloshing by not doing a write if counter is already maxed out.
+        if ( (usage & HOT) != 0 && (usage & HOT_USAGE_MASK) < MAX_HOT_USAGE )
+        {
+            pages.setUsageCounter( pageRef, (byte) (usage + 1) );
+        }
+    }
+
+    @Override
+    public boolean sweep( PageList pages, long pageRef )
+    {
+        byte usage = pages.getUsageCounter( pageRef );
+        if ( (usage & HOT) == 0 )
+        {
+            hotStreak = 0;
+            return true;
+        }
+        if ( hotStreak < hotPagesBeforeAging )
+        {
+            // There are still plenty of cold pages around, so leave the hot pages alone.
+            hotStreak++;
+            return false;
+        }
+        int hotUsage = (usage & HOT_USAGE_MASK) - 1;
+        pages.setUsageCounter( pageRef, hotUsage > 0 ? (byte) (HOT | hotUsage) : COLD );
+        return false;
+    }
+
+    @Override
+    public void evicted( PageList pages, long pageRef, short swapperId, long filePageId )
+    {
+        if ( swapperId != 0 && pages.getUsageCounter( pageRef ) == COLD )
+        {
+            long hash = hash( swapperId, filePageId );
+            ghosts[ghostIndex( hash )] = fingerprint( hash );
+        }
+        pages.setUsageCounter( pageRef, NEUTRAL );
+    }
+
+    private static long hash( short swapperId, long filePageId )
+    {
+        // File page ids are at most 40 bits, so the swapper id fits above them.
+        long hash = (((long) swapperId) << 40) | filePageId;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private int ghostIndex( long hash )
+    {
+        return ((int) (hash >>> 32)) & ghostMask;
+    }
+
+    private static int fingerprint( long hash )
+    {
+        // Zero marks an empty slot in the ghost table.
+        return ((int) hash) | 1;
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import java.util.List;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -80,6 +82,37 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of pages loaded into the cache by read-ahead, thus far.
+     */
+    long prefetches();
+
+    /**
+     * @return The number of pins that hit a page that had been loaded by read-ahead on behalf of the pinning cursor.
+     */
+    long prefetchHits();
+
+    /**
+     * @return The number of pages that were read ahead, but never used by the cursor that asked for them.
+     */
+    long prefetchesWasted();
+
+    /**
+     * @return The number of pins that found their page locked by a concurrent writer, flusher or evictor, thus far.
+     */
+    long contendedPins();
+
+    /**
+     * @return The name of the eviction policy of the page cache, that the hits, faults and hit ratio have been observed
+     * under, or an empty string if it cannot be determined.
+     */
+    String evictionPolicy();
+
+    /**
+     * @return The counters of the page cache usage of each of the currently mapped files.
+     */
+    List<PagedFileCounters> pagedFileCounters();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
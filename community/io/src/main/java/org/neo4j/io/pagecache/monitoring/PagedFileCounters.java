@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import java.io.File;
+
+/**
+ * The PagedFileCounters exposes the page cache usage of a single mapped file.
+ */
+public interface PagedFileCounters
+{
+    /**
+     * @return The file whose page cache usage is counted.
+     */
+    File file();
+
+    /**
+     * @return The number of pages of this file that are currently in the page cache.
+     */
+    long residentPages();
+
+    /**
+     * @return The number of pages of this file that have been faulted into the page cache thus far, including pages
+     * that were read ahead.
+     */
+    long faults();
+
+    /**
+     * @return The number of pages of this file that have been evicted from the page cache thus far.
+     */
+    long evictions();
+
+    /**
+     * @return The number of write calls that have been made to flush dirty pages of this file thus far, when the file,
+     * or the whole page cache, was flushed and forced. Adjacent pages are combined into a single write call.
+     */
+    long flushWrites();
+
+    /**
+     * @return The number of bytes written to this file by the write calls counted by {@link #flushWrites()}.
+     */
+    long flushedBytes();
+
+    /**
+     * @return The total time, in nanoseconds, that has been spent flushing and forcing this file thus far.
+     */
+    long flushTimeNanos();
+}
@@ -21,11 +21,16 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 import org.neo4j.helpers.MathUtil;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 
 /**
  * The default PageCacheTracer implementation, that just increments counters.
@@ -43,7 +48,13 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder prefetches = new LongAdder();
+    protected final LongAdder prefetchHits = new LongAdder();
+    protected final LongAdder prefetchesWasted = new LongAdder();
+    protected final LongAdder contendedPins = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    protected volatile String evictionPolicy = "";
+    protected final ConcurrentMap<File,PagedFileCounters> pagedFileCounters = new ConcurrentHashMap<>();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -137,6 +148,37 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         }
     };
 
+    private final PrefetchEvent prefetchEvent = new PrefetchEvent()
+    {
+        @Override
+        public EvictionEvent beginEviction()
+        {
+            return evictionEvent;
+        }
+
+        @Override
+        public void addBytesRead( long bytes )
+        {
+            bytesRead.add( bytes );
+        }
+
+        @Override
+        public void addPagesPrefetched( int pageCount )
+        {
+            prefetches.add( pageCount );
+        }
+
+        @Override
+        public void threwException( IOException exception )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
     @Override
     public void mappedFile( File file )
     {
@@ -147,6 +189,7 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     public void unmappedFile( File file )
     {
         filesUnmapped.increment();
+        pagedFileCounters.remove( file );
     }
 
     @Override
@@ -167,6 +210,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return majorFlushEvent;
     }
 
+    @Override
+    public PrefetchEvent beginPrefetch( PageSwapper swapper, long startFilePageId, int pageCount )
+    {
+        return prefetchEvent;
+    }
+
     @Override
     public long faults()
     {
@@ -233,6 +282,30 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long prefetches()
+    {
+        return prefetches.sum();
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return prefetchHits.sum();
+    }
+
+    @Override
+    public long prefetchesWasted()
+    {
+        return prefetchesWasted.sum();
+    }
+
+    @Override
+    public long contendedPins()
+    {
+        return contendedPins.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -242,7 +315,7 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     @Override
     public double usageRatio()
     {
-        return (faults.sum() - evictions.sum()) / (double) maxPages.get();
+        return (faults.sum() + prefetches.sum() - evictions.sum()) / (double) maxPages.get();
     }
 
     @Override
@@ -299,9 +372,51 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.flushes.add( flushes );
     }
 
+    @Override
+    public void prefetchHits( long prefetchHits )
+    {
+        this.prefetchHits.add( prefetchHits );
+    }
+
+    @Override
+    public void prefetchesWasted( long prefetchesWasted )
+    {
+        this.prefetchesWasted.add( prefetchesWasted );
+    }
+
+    @Override
+    public void contendedPins( long contendedPins )
+    {
+        this.contendedPins.add( contendedPins );
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public String evictionPolicy()
+    {
+        return evictionPolicy;
+    }
+
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    @Override
+    public List<PagedFileCounters> pagedFileCounters()
+    {
+        return new ArrayList<>( pagedFileCounters.values() );
+    }
+
+    @Override
+    public void pagedFileCounters( PagedFileCounters counters )
+    {
+        pagedFileCounters.put( counters.file(), counters );
+    }
 }
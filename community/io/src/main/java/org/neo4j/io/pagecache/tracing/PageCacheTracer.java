@@ -20,9 +20,12 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 
 /**
  * A PageCacheTracer receives a steady stream of events and data about what
@@ -64,6 +67,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return MajorFlushEvent.NULL;
         }
 
+        @Override
+        public PrefetchEvent beginPrefetch( PageSwapper swapper, long startFilePageId, int pageCount )
+        {
+            return PrefetchEvent.NULL;
+        }
+
         @Override
         public long faults()
         {
@@ -130,6 +139,30 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long prefetches()
+        {
+            return 0;
+        }
+
+        @Override
+        public long prefetchHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long prefetchesWasted()
+        {
+            return 0;
+        }
+
+        @Override
+        public long contendedPins()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -187,11 +220,48 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void prefetchHits( long prefetchHits )
+        {
+        }
+
+        @Override
+        public void prefetchesWasted( long prefetchesWasted )
+        {
+        }
+
+        @Override
+        public void contendedPins( long contendedPins )
+        {
+        }
+
         @Override
         public void maxPages( long maxPages )
         {
         }
 
+        @Override
+        public String evictionPolicy()
+        {
+            return "";
+        }
+
+        @Override
+        public void evictionPolicy( String evictionPolicy )
+        {
+        }
+
+        @Override
+        public List<PagedFileCounters> pagedFileCounters()
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void pagedFileCounters( PagedFileCounters counters )
+        {
+        }
+
         @Override
         public String toString()
         {
@@ -228,6 +298,12 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     MajorFlushEvent beginCacheFlush();
 
+    /**
+     * The PageCache wants to read ahead the given range of pages from the file of the given swapper.
+     * Called from the background read-ahead thread.
+     */
+    PrefetchEvent beginPrefetch( PageSwapper swapper, long startFilePageId, int pageCount );
+
     /**
      * Report number of observed pins
      * @param pins number of pins
@@ -282,9 +358,39 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void flushes( long flushes );
 
+    /**
+     * Report number of pins that hit pages that were read ahead
+     * @param prefetchHits number of prefetch hits
+     */
+    void prefetchHits( long prefetchHits );
+
+    /**
+     * Report number of pages that were read ahead, but not used
+     * @param prefetchesWasted number of wasted prefetches
+     */
+    void prefetchesWasted( long prefetchesWasted );
+
+    /**
+     * Report number of pins that found their page locked by someone else
+     * @param contendedPins number of contended pins
+     */
+    void contendedPins( long contendedPins );
+
     /**
      * Sets the number of available pages.
      * @param maxPages the total number of available pages.
      */
     void maxPages( long maxPages );
+
+    /**
+     * Sets the name of the eviction policy used by the page cache.
+     * @param evictionPolicy the name of the eviction policy.
+     */
+    void evictionPolicy( String evictionPolicy );
+
+    /**
+     * Makes the counters of a newly mapped file available, until the file is unmapped.
+     * @param counters the counters of the page cache usage of the mapped file.
+     */
+    void pagedFileCounters( PagedFileCounters counters );
 }
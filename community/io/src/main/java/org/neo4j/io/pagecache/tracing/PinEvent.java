@@ -45,6 +45,11 @@ public interface PinEvent
         {
         }
 
+        @Override
+        public void contended()
+        {
+        }
+
         @Override
         public void done()
         {
@@ -66,6 +71,13 @@ public interface PinEvent
      */
     void hit();
 
+    /**
+     * The page we want to pin was locked by a concurrent writer, flusher or evictor, and we had to wait for it, or
+     * retry our read of it. This can happen any number of times for a single pin, including after the page has been
+     * found and bound.
+     */
+    void contended();
+
     /**
      * The pinning has completed and the page is now unpinned.
      */
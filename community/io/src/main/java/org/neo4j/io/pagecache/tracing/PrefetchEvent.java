@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.io.IOException;
+
+/**
+ * A read-ahead of a range of file pages has begun. Read-aheads are performed by a background thread, in anticipation
+ * of a cursor sequentially scanning its way through a file. Free pages for the read-ahead may have to be found by
+ * evicting other pages, hence the eviction opportunity.
+ */
+public interface PrefetchEvent extends AutoCloseablePageCacheTracerEvent, EvictionEventOpportunity
+{
+    /**
+     * A PrefetchEvent that does nothing other than return the EvictionEvent.NULL.
+     */
+    PrefetchEvent NULL = new PrefetchEvent()
+    {
+        @Override
+        public EvictionEvent beginEviction()
+        {
+            return EvictionEvent.NULL;
+        }
+
+        @Override
+        public void addBytesRead( long bytes )
+        {
+        }
+
+        @Override
+        public void addPagesPrefetched( int pageCount )
+        {
+        }
+
+        @Override
+        public void threwException( IOException exception )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    /**
+     * Add up a number of bytes that have been read from the backing file into the page cache.
+     */
+    void addBytesRead( long bytes );
+
+    /**
+     * Add up a number of pages that have been loaded into the page cache by this read-ahead.
+     */
+    void addPagesPrefetched( int pageCount );
+
+    /**
+     * Indicates that the read-ahead caused an exception to be thrown.
+     * Read-ahead is only a hint, so the exception will not be propagated to anyone.
+     */
+    void threwException( IOException exception );
+}
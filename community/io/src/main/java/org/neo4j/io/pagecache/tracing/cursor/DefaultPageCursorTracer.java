@@ -19,6 +19,7 @@
  */
 package org.neo4j.io.pagecache.tracing.cursor;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.neo4j.helpers.MathUtil;
@@ -32,6 +33,8 @@ import org.neo4j.io.pagecache.tracing.PinEvent;
 
 public class DefaultPageCursorTracer implements PageCursorTracer
 {
+    private static final int CONTENTION_HISTOGRAM_BUCKETS = 16;
+
     private long pins;
     private long unpins;
     private long hits;
@@ -43,6 +46,11 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     private long evictions;
     private long evictionExceptions;
     private long flushes;
+    private long contendedPins;
+    private final long[] contentionHistogram = new long[CONTENTION_HISTOGRAM_BUCKETS];
+    private int mostContention;
+    private File mostContendedFile;
+    private long mostContendedFilePageId = -1;
 
     private PageCacheTracer pageCacheTracer = PageCacheTracer.NULL;
     private DefaultPinEvent pinTracingEvent = new DefaultPinEvent();
@@ -94,6 +102,10 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         {
             pageCacheTracer.flushes( flushes );
         }
+        if ( contendedPins > 0 )
+        {
+            pageCacheTracer.contendedPins( contendedPins );
+        }
         reset();
     }
 
@@ -109,6 +121,24 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return historicalFaults + faults;
     }
 
+    @Override
+    public long[] accumulatedContentionHistogram()
+    {
+        return contentionHistogram.clone();
+    }
+
+    @Override
+    public File mostContendedFile()
+    {
+        return mostContendedFile;
+    }
+
+    @Override
+    public long mostContendedFilePageId()
+    {
+        return mostContendedFilePageId;
+    }
+
     private void reset()
     {
         pins = 0;
@@ -120,6 +150,7 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         evictions = 0;
         evictionExceptions = 0;
         flushes = 0;
+        contendedPins = 0;
     }
 
     @Override
@@ -187,9 +218,25 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     {
         pins++;
         pinTracingEvent.eventHits = 1;
+        pinTracingEvent.eventContention = 0;
+        pinTracingEvent.filePageId = filePageId;
+        pinTracingEvent.swapper = swapper;
         return pinTracingEvent;
     }
 
+    private void contendedPin( int contention, PageSwapper swapper, long filePageId )
+    {
+        contendedPins++;
+        int bucket = Math.min( 31 - Integer.numberOfLeadingZeros( contention ), CONTENTION_HISTOGRAM_BUCKETS - 1 );
+        contentionHistogram[bucket]++;
+        if ( contention > mostContention )
+        {
+            mostContention = contention;
+            mostContendedFile = swapper == null ? null : swapper.file();
+            mostContendedFilePageId = filePageId;
+        }
+    }
+
     private final EvictionEvent evictionEvent = new EvictionEvent()
     {
         @Override
@@ -296,6 +343,9 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     private class DefaultPinEvent implements PinEvent
     {
         int eventHits = 1;
+        int eventContention;
+        long filePageId;
+        PageSwapper swapper;
 
         @Override
         public void setCachePageId( long cachePageId )
@@ -315,10 +365,21 @@ public class DefaultPageCursorTracer implements PageCursorTracer
             hits += eventHits;
         }
 
+        @Override
+        public void contended()
+        {
+            eventContention++;
+        }
+
         @Override
         public void done()
         {
             unpins++;
+            if ( eventContention > 0 )
+            {
+                contendedPin( eventContention, swapper, filePageId );
+                eventContention = 0;
+            }
         }
     }
 }
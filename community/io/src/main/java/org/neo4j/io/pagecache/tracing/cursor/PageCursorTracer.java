@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.tracing.cursor;
 
+import java.io.File;
+
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PinEvent;
@@ -126,6 +128,24 @@ public interface PageCursorTracer extends PageCursorCounters
         {
             return 0;
         }
+
+        @Override
+        public long[] accumulatedContentionHistogram()
+        {
+            return new long[0];
+        }
+
+        @Override
+        public File mostContendedFile()
+        {
+            return null;
+        }
+
+        @Override
+        public long mostContendedFilePageId()
+        {
+            return -1;
+        }
     };
 
     PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper );
@@ -157,4 +177,27 @@ public interface PageCursorTracer extends PageCursorCounters
      */
     long accumulatedFaults();
 
+    /**
+     * Histogram of the lock contention that tracer observed on its pins over all reporting cycles.
+     * The count in bucket {@code i} is the number of pins that found their page locked by someone else between
+     * {@code 2^i} and {@code 2^(i+1) - 1} times, with the last bucket also counting everything above that.
+     * Pins that saw no contention at all are not counted.
+     * @return accumulated contention histogram
+     */
+    long[] accumulatedContentionHistogram();
+
+    /**
+     * The file of the page that saw the most contention in a single pin, over all reporting cycles.
+     * Together with {@link #mostContendedFilePageId()}, this points out the hot pages that concurrent cursors are
+     * fighting over.
+     * @return the file of the most contended page, or {@code null} if no pin has seen any contention
+     */
+    File mostContendedFile();
+
+    /**
+     * The file page id of the page that saw the most contention in a single pin, over all reporting cycles.
+     * @return the file page id of the most contended page, or {@code -1} if no pin has seen any contention
+     */
+    long mostContendedFilePageId();
+
 }
@@ -104,6 +104,19 @@ public class AdversarialPageCache implements PageCache
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public long flushDirtyPages( long maxPages, IOLimiter limiter ) throws IOException
+    {
+        adversary.injectFailure( FileNotFoundException.class, IOException.class, SecurityException.class );
+        return delegate.flushDirtyPages( maxPages, limiter );
+    }
+
+    @Override
+    public long countDirtyPages()
+    {
+        return delegate.countDirtyPages();
+    }
+
     @Override
     public void close()
     {
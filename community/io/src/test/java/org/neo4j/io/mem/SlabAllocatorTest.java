@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import org.junit.Test;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.memory.LocalMemoryTracker;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+
+public class SlabAllocatorTest extends MemoryAllocatorTest
+{
+    @Override
+    protected MemoryAllocator createAllocator( String expectedMaxMemory )
+    {
+        return new SlabAllocator( ByteUnit.parse( expectedMaxMemory ), SlabAllocator.SLAB_SIZE, 1,
+                new LocalMemoryTracker() );
+    }
+
+    @Test
+    public void slabsMustBeAlignedToHugePages()
+    {
+        MemoryAllocator mman = new SlabAllocator( 4 * SlabAllocator.HUGE_PAGE_SIZE, SlabAllocator.HUGE_PAGE_SIZE, 1,
+                new LocalMemoryTracker() );
+        for ( int i = 0; i < 4; i++ )
+        {
+            long address = mman.allocateAligned( SlabAllocator.HUGE_PAGE_SIZE, 1 );
+            assertThat( address % SlabAllocator.HUGE_PAGE_SIZE, is( 0L ) );
+        }
+    }
+
+    @Test
+    public void mustDivideMemoryEvenlyBetweenPartitions()
+    {
+        long memory = 4 * PageCache.PAGE_SIZE;
+        MemoryAllocator mman = new SlabAllocator( memory, mebiBytes( 1 ), 4, new LocalMemoryTracker() );
+        assertThat( mman.partitions(), is( 4 ) );
+        assertThat( mman.availableMemory(), is( memory ) );
+
+        for ( int partition = 0; partition < 4; partition++ )
+        {
+            mman.allocateAligned( PageCache.PAGE_SIZE, 1, partition );
+        }
+        assertThat( mman.usedMemory(), is( memory ) );
+        assertThat( mman.availableMemory(), is( 0L ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void mustThrowWhenAllocatingFromNonExistingPartition()
+    {
+        new SlabAllocator( mebiBytes( 1 ), mebiBytes( 1 ), 2, new LocalMemoryTracker() ).allocateAligned( 8, 8, 2 );
+    }
+
+    @Test
+    public void mustTrackAndFreeSlabMemory() throws Throwable
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        SlabAllocator allocator = new SlabAllocator( mebiBytes( 4 ), mebiBytes( 2 ), 2, memoryTracker );
+
+        allocator.allocateAligned( PageCache.PAGE_SIZE, 1, 0 );
+        allocator.allocateAligned( PageCache.PAGE_SIZE, 1, 1 );
+        assertEquals( 2 * (mebiBytes( 2 ) + SlabAllocator.HUGE_PAGE_SIZE), memoryTracker.usedDirectMemory() );
+
+        //noinspection FinalizeCalledExplicitly
+        allocator.finalize();
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+    }
+}
@@ -84,6 +84,18 @@ public class DelegatingPageCache implements PageCache
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public long flushDirtyPages( long maxPages, IOLimiter limiter ) throws IOException
+    {
+        return delegate.flushDirtyPages( maxPages, limiter );
+    }
+
+    @Override
+    public long countDirtyPages()
+    {
+        return delegate.countDirtyPages();
+    }
+
     @Override
     public void flushAndForce() throws IOException
     {
@@ -19,6 +19,7 @@
  */
 package org.neo4j.io.pagecache;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
@@ -62,6 +63,12 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.fileSize();
     }
 
+    @Override
+    public File file()
+    {
+        return delegate.file();
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageSwapperTest;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AsyncFilePageSwapperTest extends PageSwapperTest
+{
+    private DefaultFileSystemAbstraction fileSystem;
+
+    @Before
+    public void setUp()
+    {
+        fileSystem = new DefaultFileSystemAbstraction();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        IOUtils.closeAll( fileSystem );
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory()
+    {
+        AsyncFilePageSwapperFactory factory = new AsyncFilePageSwapperFactory( 4 );
+        factory.open( fileSystem, Configuration.EMPTY );
+        return factory;
+    }
+
+    @Override
+    protected void mkdirs( File dir ) throws IOException
+    {
+        fileSystem.mkdirs( dir );
+    }
+
+    @Override
+    protected File baseDirectory()
+    {
+        return testDir.directory();
+    }
+
+    @Override
+    protected boolean isRootAccessible()
+    {
+        return false;
+    }
+
+    @Test
+    public void mustCreateAsyncFilePageSwappersOnTheRealFileSystem() throws Exception
+    {
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, testDir.file( "a" ), 4, NO_CALLBACK, true );
+
+        assertThat( swapper, instanceOf( AsyncFilePageSwapper.class ) );
+    }
+
+    @Test
+    public void mustFallBackToSingleFilePageSwappersOnOtherFileSystems() throws Exception
+    {
+        try ( EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction() )
+        {
+            AsyncFilePageSwapperFactory factory = new AsyncFilePageSwapperFactory();
+            factory.open( fs, Configuration.EMPTY );
+            File file = new File( "a" ).getCanonicalFile();
+            fs.mkdirs( file.getParentFile() );
+            PageSwapper swapper = factory.createPageSwapper( file, 4, NO_CALLBACK, true );
+            try
+            {
+                assertThat( swapper, instanceOf( SingleFilePageSwapper.class ) );
+            }
+            finally
+            {
+                swapper.close();
+                factory.close();
+            }
+        }
+    }
+
+    @Test
+    public void mustReadAndWriteBatchesLargerThanTheQueueDepth() throws Exception
+    {
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, testDir.file( "a" ), cachePageSize, NO_CALLBACK, true );
+
+        int pageCount = 64;
+        long[] pages = new long[pageCount];
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            pages[i] = createPage();
+            putInt( pages[i], 0, i );
+        }
+        assertThat( swapper.write( 0, pages, 0, pageCount ), is( (long) cachePageSize * pageCount ) );
+
+        for ( long page : pages )
+        {
+            UnsafeUtil.setMemory( page, cachePageSize, (byte) 0 );
+        }
+        assertThat( swapper.read( 0, pages, cachePageSize, 0, pageCount ), is( (long) cachePageSize * pageCount ) );
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            assertThat( getInt( pages[i], 0 ), is( i ) );
+        }
+    }
+}
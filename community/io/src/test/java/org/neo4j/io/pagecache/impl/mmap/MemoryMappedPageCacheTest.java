@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.mmap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+public class MemoryMappedPageCacheTest
+{
+    private static final int PAGE_SIZE = 32;
+    private static final int FILE_SIZE = 3 * PAGE_SIZE + 10;
+
+    @Rule
+    public final PageCacheAndDependenciesRule storage =
+            new PageCacheAndDependenciesRule( DefaultFileSystemRule::new, MemoryMappedPageCacheTest.class );
+
+    private MemoryMappedPageCache pageCache;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        FileSystemAbstraction fs = storage.fileSystem();
+        pageCache = new MemoryMappedPageCache( storage.pageCacheRule().getPageCache( fs ) );
+        file = storage.directory().file( "a" );
+        try ( OutputStream out = fs.openAsOutputStream( file, false ) )
+        {
+            for ( int i = 0; i < FILE_SIZE; i++ )
+            {
+                out.write( i );
+            }
+        }
+    }
+
+    @Test
+    public void mustReadTheContentsOfTheFile() throws Exception
+    {
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE );
+              PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            assertThat( pf, instanceOf( MemoryMappedPagedFile.class ) );
+            assertEquals( 3, pf.getLastPageId() );
+            assertEquals( 4 * PAGE_SIZE, pf.fileSize() );
+            for ( int pageId = 0; pageId < 3; pageId++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( pageId, cursor.getCurrentPageId() );
+                for ( int i = 0; i < PAGE_SIZE; i++ )
+                {
+                    assertEquals( (byte) (pageId * PAGE_SIZE + i), cursor.getByte() );
+                }
+            }
+            assertTrue( cursor.next() );
+            ByteBuffer expected = ByteBuffer.allocate( PAGE_SIZE );
+            for ( int i = 0; i < 10; i++ )
+            {
+                expected.put( (byte) (3 * PAGE_SIZE + i) );
+            }
+            byte[] data = new byte[PAGE_SIZE];
+            cursor.getBytes( data );
+            assertArrayEquals( expected.array(), data );
+            assertFalse( cursor.next() );
+            assertFalse( cursor.checkAndClearBoundsFlag() );
+        }
+    }
+
+    @Test
+    public void mustReadMultiByteValuesInBigEndianByteOrder() throws Exception
+    {
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE );
+              PageCursor cursor = pf.io( 1, PF_SHARED_READ_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+            ByteBuffer page = ByteBuffer.allocate( PAGE_SIZE );
+            for ( int i = 0; i < PAGE_SIZE; i++ )
+            {
+                page.put( (byte) (PAGE_SIZE + i) );
+            }
+            assertEquals( page.getShort( 2 ), cursor.getShort( 2 ) );
+            assertEquals( page.getInt( 4 ), cursor.getInt( 4 ) );
+            assertEquals( page.getLong( 24 ), cursor.getLong( 24 ) );
+            assertFalse( cursor.checkAndClearBoundsFlag() );
+        }
+    }
+
+    @Test
+    public void mustRaiseBoundsFlagOnOutOfBoundsAccess() throws Exception
+    {
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE );
+              PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+            assertEquals( 0, cursor.getLong( PAGE_SIZE - 4 ) );
+            assertTrue( cursor.checkAndClearBoundsFlag() );
+            assertFalse( cursor.checkAndClearBoundsFlag() );
+            cursor.getByte( -1 );
+            assertTrue( cursor.checkAndClearBoundsFlag() );
+        }
+    }
+
+    @Test
+    public void mustMoveToSpecificPagesAndRewind() throws Exception
+    {
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE );
+              PageCursor cursor = pf.io( 1, PF_SHARED_READ_LOCK ) )
+        {
+            assertTrue( cursor.next( 2 ) );
+            assertEquals( (byte) (2 * PAGE_SIZE), cursor.getByte( 0 ) );
+            assertFalse( cursor.next( 4 ) );
+            cursor.rewind();
+            assertTrue( cursor.next() );
+            assertEquals( 1, cursor.getCurrentPageId() );
+            assertEquals( file.getCanonicalFile(), cursor.getCurrentFile() );
+        }
+    }
+
+    @Test
+    public void linkedCursorsMustReadOtherPages() throws Exception
+    {
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE );
+              PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+            PageCursor linked = cursor.openLinkedCursor( 2 );
+            assertTrue( linked.next() );
+            assertEquals( (byte) (2 * PAGE_SIZE + 1), linked.getByte( 1 ) );
+            linked.getInt( PAGE_SIZE );
+            assertTrue( cursor.checkAndClearBoundsFlag() );
+        }
+    }
+
+    @Test
+    public void mustNotAllowWrites() throws Exception
+    {
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE ) )
+        {
+            try
+            {
+                pf.io( 0, PF_SHARED_WRITE_LOCK );
+                fail( "Should not be able to write to a memory mapped file" );
+            }
+            catch ( UnsupportedOperationException ignore )
+            {
+                // Good
+            }
+            try ( PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( 0, 1 );
+                fail( "Should not be able to write through a read cursor" );
+            }
+            catch ( UnsupportedOperationException ignore )
+            {
+                // Good
+            }
+        }
+    }
+
+    @Test
+    public void mustReadAllBytesThroughReadableChannel() throws Exception
+    {
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE );
+              ReadableByteChannel channel = pf.openReadableByteChannel() )
+        {
+            // The channel reads whole pages, so the partial last page is padded with zeros.
+            ByteBuffer buffer = ByteBuffer.allocate( 4 * PAGE_SIZE );
+            while ( channel.read( buffer ) != -1 )
+            {
+                assertTrue( buffer.position() <= 4 * PAGE_SIZE );
+            }
+            assertEquals( 4 * PAGE_SIZE, buffer.position() );
+            for ( int i = 0; i < 4 * PAGE_SIZE; i++ )
+            {
+                assertEquals( i < FILE_SIZE ? (byte) i : 0, buffer.get( i ) );
+            }
+        }
+    }
+
+    @Test
+    public void mustLetDelegateMapFilesThatAreCreatedOrDoNotExist() throws Exception
+    {
+        File other = storage.directory().file( "b" );
+        try ( PagedFile pf = pageCache.map( other, PAGE_SIZE, StandardOpenOption.CREATE ) )
+        {
+            assertThat( pf, not( instanceOf( MemoryMappedPagedFile.class ) ) );
+            try ( PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( 42 );
+            }
+        }
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE, StandardOpenOption.CREATE ) )
+        {
+            assertThat( pf, not( instanceOf( MemoryMappedPagedFile.class ) ) );
+        }
+    }
+
+    @Test
+    public void mustLetDelegateMapFilesThatAreNotReadOnly() throws Exception
+    {
+        MemoryMappedPageCache cache =
+                new MemoryMappedPageCache( storage.pageCacheRule().getPageCache( storage.fileSystem() ), f -> false );
+        try ( PagedFile pf = cache.map( file, PAGE_SIZE ) )
+        {
+            assertThat( pf, not( instanceOf( MemoryMappedPagedFile.class ) ) );
+            try ( PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( 42 );
+            }
+        }
+    }
+
+    @Test
+    public void mustShareMappingsOfTheSameFileAndUnmapOnLastClose() throws Exception
+    {
+        PagedFile first = pageCache.map( file, PAGE_SIZE );
+        PagedFile second = pageCache.map( file, PAGE_SIZE );
+        assertSame( first, second );
+        Optional<PagedFile> existing = pageCache.getExistingMapping( file );
+        assertTrue( existing.isPresent() );
+        existing.get().close();
+        first.close();
+        assertEquals( 3, second.getLastPageId() );
+        second.close();
+        assertFalse( pageCache.getExistingMapping( file ).isPresent() );
+        try
+        {
+            second.getLastPageId();
+            fail( "Should have thrown because the file is unmapped" );
+        }
+        catch ( IllegalStateException ignore )
+        {
+            // Good
+        }
+    }
+
+    @Test
+    public void cursorMustBeUnboundAfterClose() throws Exception
+    {
+        try ( PagedFile pf = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK );
+            assertTrue( cursor.next() );
+            cursor.close();
+            assertEquals( PageCursor.UNBOUND_PAGE_ID, cursor.getCurrentPageId() );
+            assertEquals( PageCursor.UNBOUND_PAGE_SIZE, cursor.getCurrentPageSize() );
+            assertNull( cursor.getCurrentFile() );
+        }
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void closingWithMappedFilesMustThrow() throws Exception
+    {
+        try ( PagedFile ignore = pageCache.map( file, PAGE_SIZE ) )
+        {
+            pageCache.close();
+        }
+    }
+
+    @Test
+    public void closeMustCloseDelegate() throws Exception
+    {
+        pageCache.close();
+        try
+        {
+            pageCache.map( file, PAGE_SIZE );
+            fail( "Should have thrown because the page cache is closed" );
+        }
+        catch ( IllegalStateException ignore )
+        {
+            // Good
+        }
+    }
+}
@@ -81,6 +81,25 @@ public class LatchMapTest
         latch.release();
     }
 
+    @Test
+    public void tryTakeLatchMustReturnLatchIfAvailable()
+    {
+        BinaryLatch latch = latches.tryTakeLatch( 42 );
+        assertThat( latch, is( notNullValue() ) );
+        latch.release();
+    }
+
+    @Test
+    public void tryTakeLatchMustReturnNullWithoutWaitingIfLatchIsTaken()
+    {
+        BinaryLatch latch = latches.takeOrAwaitLatch( 42 );
+        assertThat( latches.tryTakeLatch( 42 ), is( nullValue() ) );
+        latch.release();
+        BinaryLatch secondLatch = latches.tryTakeLatch( 42 );
+        assertThat( secondLatch, is( notNullValue() ) );
+        secondLatch.release();
+    }
+
     @Test
     public void latchMustBeAvailableAfterRelease()
     {
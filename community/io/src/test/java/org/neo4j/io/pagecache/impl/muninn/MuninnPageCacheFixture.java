@@ -33,6 +33,9 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnPageCache>
 {
     CountDownLatch backgroundFlushLatch;
+    EvictionPolicy evictionPolicy = EvictionPolicy.CLOCK;
+    PageCacheQuotas quotas = PageCacheQuotas.NONE;
+    int memoryPartitions = 1;
 
     @Override
     public MuninnPageCache createPageCache( PageSwapperFactory swapperFactory, int maxPages,
@@ -40,9 +43,12 @@ public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnP
             VersionContextSupplier contextSupplier )
     {
         long memory = MuninnPageCache.memoryRequiredForPages( maxPages );
-        MemoryAllocator allocator = MemoryAllocator.createAllocator( String.valueOf( memory ),
-                new LocalMemoryTracker() );
-        return new MuninnPageCache( swapperFactory, allocator, tracer, cursorTracerSupplier, contextSupplier );
+        MemoryAllocator allocator = memoryPartitions == 1
+                ? MemoryAllocator.createAllocator( String.valueOf( memory ), new LocalMemoryTracker() )
+                : MemoryAllocator.createSlabAllocator( String.valueOf( memory ), memoryPartitions,
+                        new LocalMemoryTracker() );
+        return new MuninnPageCache( swapperFactory, allocator, tracer, cursorTracerSupplier, contextSupplier,
+                evictionPolicy, quotas );
     }
 
     @Override
@@ -36,15 +36,19 @@ import org.neo4j.graphdb.mockfs.DelegatingStoreChannel;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.ConfigurablePageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
@@ -52,7 +56,10 @@ import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -60,6 +67,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
@@ -622,6 +630,331 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void mustReadAheadOfSequentiallyScanningReadAheadCursor() throws Exception
+    {
+        File file = file( "a" );
+        writePageIdsTo( file, 60 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = pageCache.map( file, 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                long expectedPageId = 0;
+                for ( ; expectedPageId < 3; expectedPageId++ )
+                {
+                    assertTrue( cursor.next() );
+                }
+                awaitPrefetches( tracer, 32 );
+                while ( cursor.next() )
+                {
+                    long pageId;
+                    do
+                    {
+                        pageId = cursor.getLong();
+                    }
+                    while ( cursor.shouldRetry() );
+                    assertThat( pageId, is( expectedPageId ) );
+                    expectedPageId++;
+                }
+                assertThat( expectedPageId, is( 60L ) );
+            }
+        }
+        assertThat( tracer.prefetchHits(), greaterThanOrEqualTo( 32L ) );
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void mustCountUnvisitedReadAheadPagesAsWasted() throws Exception
+    {
+        File file = file( "a" );
+        writePageIdsTo( file, 60 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = pageCache.map( file, 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                for ( int i = 0; i < 3; i++ )
+                {
+                    assertTrue( cursor.next() );
+                }
+                awaitPrefetches( tracer, 32 );
+            }
+        }
+        assertThat( tracer.prefetchHits(), is( 0L ) );
+        assertThat( tracer.prefetchesWasted(), is( 32L ) );
+    }
+
+    @Test
+    public void mustNotReadAheadWithoutReadAheadFlag() throws Exception
+    {
+        File file = file( "a" );
+        writePageIdsTo( file, 60 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = pageCache.map( file, 8 );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            //noinspection StatementWithEmptyBody
+            while ( cursor.next() )
+            {
+            }
+        }
+        assertThat( tracer.prefetches(), is( 0L ) );
+        assertThat( tracer.prefetchHits(), is( 0L ) );
+    }
+
+    @Test
+    public void mustReportEvictionPolicyToTracer() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache ignore = createPageCache( fs, 10, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            assertThat( tracer.evictionPolicy(), is( fixture.evictionPolicy.name() ) );
+        }
+    }
+
+    @Test
+    public void mustCountFaultsAndEvictionsPerFile() throws Exception
+    {
+        File file = file( "a" );
+        writePageIdsTo( file, 60 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = pageCache.map( file, 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                //noinspection StatementWithEmptyBody
+                while ( cursor.next() )
+                {
+                }
+            }
+            assertThat( tracer.pagedFileCounters().size(), is( 1 ) );
+            PagedFileCounters counters = tracer.pagedFileCounters().get( 0 );
+            assertThat( counters.file(), is( file ) );
+            assertThat( counters.faults(), is( 60L ) );
+            assertThat( counters.evictions(), greaterThanOrEqualTo( 40L ) );
+            assertThat( counters.residentPages() + counters.evictions(), is( counters.faults() ) );
+        }
+        assertTrue( tracer.pagedFileCounters().isEmpty() );
+    }
+
+    @Test
+    public void mustKeepFilesWithQuotasWithinTheirQuota() throws Exception
+    {
+        fixture.quotas = PageCacheQuotas.NONE.withQuota( "b*", 0.25 );
+        File fileA = file( "a" );
+        File fileB = file( "b" );
+        writePageIdsTo( fileA, 10 );
+        writePageIdsTo( fileB, 200 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFileA = pageCache.map( fileA, 8 );
+              PagedFile pagedFileB = pageCache.map( fileB, 8 );
+              PageCursor cursor = pagedFileB.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            assertFalse( ((MuninnPagedFile) pagedFileA).counters.isOverQuota() );
+            MuninnPagedFileCounters counters = ((MuninnPagedFile) pagedFileB).counters;
+            while ( cursor.next() )
+            {
+                assertThat( counters.residentPages(), lessThanOrEqualTo( 11L ) );
+            }
+            assertThat( counters.faults(), is( 200L ) );
+        }
+    }
+
+    @Test
+    public void readersMustCountPinsOfPagesThatAreBeingWrittenToAsContended() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        PageCursorTracer cursorTracer = DefaultPageCursorTracerSupplier.INSTANCE.get();
+        cursorTracer.reportEvents();
+        long[] histogramBefore = cursorTracer.accumulatedContentionHistogram();
+        CountDownLatch writeLocked = new CountDownLatch( 1 );
+        CountDownLatch releaseWriteLock = new CountDownLatch( 1 );
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, tracer, DefaultPageCursorTracerSupplier.INSTANCE );
+              PagedFile pagedFile = pageCache.map( file( "a" ), 8 ) )
+        {
+            Future<?> writer = executor.submit( () ->
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( 42L );
+                    writeLocked.countDown();
+                    releaseWriteLock.await();
+                }
+                return null;
+            } );
+            writeLocked.await();
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.shouldRetry() );
+                releaseWriteLock.countDown();
+                writer.get();
+                long value;
+                do
+                {
+                    value = cursor.getLong();
+                }
+                while ( cursor.shouldRetry() );
+                assertThat( value, is( 42L ) );
+            }
+            cursorTracer.reportEvents();
+        }
+
+        // The pin itself, the retry while the writer was still there, and the retry after it left.
+        long[] histogramAfter = cursorTracer.accumulatedContentionHistogram();
+        assertEquals( histogramBefore[1] + 1, histogramAfter[1] );
+        assertEquals( 1, tracer.contendedPins() );
+    }
+
+    @Test
+    public void flushMustCombineAdjacentDirtyPagesIntoSingleWrites() throws Exception
+    {
+        File file = file( "a" );
+        writePageIdsTo( file, 20 );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = pageCache.map( file, 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                // Pages 0, 1, 3 and 4 are dirty, and page 2 is loaded but clean, so they can all go in one write.
+                // Pages 5 to 9 are not loaded, so page 10 must go in a write of its own.
+                for ( long pageId : new long[]{0, 1, 3, 4, 10} )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    cursor.putLong( 100 + pageId );
+                }
+            }
+            try ( PageCursor cursor = pagedFile.io( 2, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            pagedFile.flushAndForce();
+            MuninnPagedFileCounters counters = ((MuninnPagedFile) pagedFile).counters;
+            assertThat( counters.flushWrites(), is( 2L ) );
+            assertThat( counters.flushedBytes(), is( 6L * 8 ) );
+            assertThat( counters.flushTimeNanos(), greaterThan( 0L ) );
+        }
+
+        ByteBuffer buf = readIntoBuffer( "a", 20 * 8 );
+        for ( long pageId = 0; pageId < 20; pageId++ )
+        {
+            boolean written = pageId == 0 || pageId == 1 || pageId == 3 || pageId == 4 || pageId == 10;
+            assertThat( buf.getLong(), is( written ? 100 + pageId : pageId ) );
+        }
+    }
+
+    @Test
+    public void flushingThePageCacheMustFlushAllFilesInParallel() throws Exception
+    {
+        int fileCount = 7;
+        File[] files = new File[fileCount];
+        PagedFile[] pagedFiles = new PagedFile[fileCount];
+        try ( MuninnPageCache pageCache = createPageCache( fs, 200, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            for ( int i = 0; i < fileCount; i++ )
+            {
+                files[i] = file( "file" + i );
+                writePageIdsTo( files[i], 4 );
+                pagedFiles[i] = pageCache.map( files[i], 8 );
+                try ( PageCursor cursor = pagedFiles[i].io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( long pageId = 0; pageId < 4; pageId++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i * 100 + pageId );
+                    }
+                }
+            }
+
+            pageCache.flushAndForce();
+            for ( int i = 0; i < fileCount; i++ )
+            {
+                MuninnPagedFileCounters counters = ((MuninnPagedFile) pagedFiles[i]).counters;
+                assertThat( counters.flushWrites(), is( 1L ) );
+                assertThat( counters.flushedBytes(), is( 4L * 8 ) );
+                ByteBuffer buf = readIntoBuffer( files[i].getName(), 4 * 8 );
+                for ( long pageId = 0; pageId < 4; pageId++ )
+                {
+                    assertThat( buf.getLong(), is( i * 100 + pageId ) );
+                }
+                pagedFiles[i].close();
+            }
+        }
+    }
+
+    @Test
+    public void flushDirtyPagesMustWriteThePagesThatHaveBeenDirtyTheLongestFirst() throws Exception
+    {
+        File file = file( "a" );
+        writePageIdsTo( file, 20 );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = pageCache.map( file, 8 ) )
+        {
+            writeToPages( pagedFile, 10, 11, 12, 13 );
+            assertThat( pageCache.flushDirtyPages( 0, IOLimiter.unlimited() ), is( 0L ) );
+            writeToPages( pagedFile, 0, 1, 2, 3 );
+            assertThat( pageCache.countDirtyPages(), is( 8L ) );
+
+            // Pages 10 to 13 were already dirty the last time we looked, so they must go before pages 0 to 3.
+            assertThat( pageCache.flushDirtyPages( 4, IOLimiter.unlimited() ), is( 4L ) );
+            assertThat( pageCache.countDirtyPages(), is( 4L ) );
+            ByteBuffer buf = readIntoBuffer( "a", 20 * 8 );
+            for ( long pageId = 0; pageId < 20; pageId++ )
+            {
+                boolean written = pageId >= 10 && pageId <= 13;
+                assertThat( buf.getLong(), is( written ? 100 + pageId : pageId ) );
+            }
+
+            assertThat( pageCache.flushDirtyPages( 100, IOLimiter.unlimited() ), is( 4L ) );
+            assertThat( pageCache.countDirtyPages(), is( 0L ) );
+            assertThat( pageCache.flushDirtyPages( 100, IOLimiter.unlimited() ), is( 0L ) );
+        }
+    }
+
+    private void writeToPages( PagedFile pagedFile, long... pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertTrue( cursor.next( pageId ) );
+                cursor.putLong( 100 + pageId );
+            }
+        }
+    }
+
+    protected void writePageIdsTo( File file, int pageCount ) throws IOException
+    {
+        try ( StoreChannel channel = fs.create( file ) )
+        {
+            ByteBuffer buf = ByteBuffer.allocate( 8 * pageCount );
+            for ( long pageId = 0; pageId < pageCount; pageId++ )
+            {
+                buf.putLong( pageId );
+            }
+            buf.flip();
+            channel.writeAll( buf );
+        }
+    }
+
+    private static void awaitPrefetches( PageCacheTracer tracer, long prefetches ) throws InterruptedException
+    {
+        while ( tracer.prefetches() < prefetches )
+        {
+            Thread.sleep( 1 );
+        }
+    }
+
     private void writeInitialDataTo( File file ) throws IOException
     {
         try ( StoreChannel channel = fs.create( file ) )
@@ -636,7 +969,12 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
 
     private ByteBuffer readIntoBuffer( String fileName ) throws IOException
     {
-        ByteBuffer buffer = ByteBuffer.allocate( 16 );
+        return readIntoBuffer( fileName, 16 );
+    }
+
+    private ByteBuffer readIntoBuffer( String fileName, int size ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( size );
         try ( StoreChannel channel = fs.open( file( fileName ), OpenMode.READ ) )
         {
             channel.readAll( buffer );
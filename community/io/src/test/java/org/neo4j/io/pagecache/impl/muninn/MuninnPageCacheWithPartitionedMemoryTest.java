@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.File;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+public class MuninnPageCacheWithPartitionedMemoryTest extends MuninnPageCacheTest
+{
+    // The following tests assume that the first page fault lands on the first cache page, but with partitioned memory,
+    // page faults land in the partition of the faulting thread.
+    private static final String PLACEMENT_DEPENDENT = "Depends on which cache page a page fault lands on";
+
+    @Override
+    protected Fixture<MuninnPageCache> createFixture()
+    {
+        MuninnPageCacheFixture fixture = (MuninnPageCacheFixture) super.createFixture();
+        fixture.memoryPartitions = 3;
+        return fixture;
+    }
+
+    @Test
+    public void pageFaultsMustPreferTheMemoryPartitionOfTheFaultingThread() throws Exception
+    {
+        File file = file( "a" );
+        writePageIdsTo( file, 5 );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 30, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = pageCache.map( file, 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                //noinspection StatementWithEmptyBody
+                while ( cursor.next() )
+                {
+                }
+            }
+
+            PageList pages = pageCache.pages;
+            assertThat( pages.getPartitionCount(), is( 3 ) );
+            int homePartition = (int) (Thread.currentThread().getId() % pages.getPartitionCount());
+            int loadedPages = 0;
+            for ( int i = 0; i < pages.getPageCount(); i++ )
+            {
+                long pageRef = pages.deref( i );
+                if ( pages.isLoaded( pageRef ) )
+                {
+                    assertThat( pages.getPartition( pageRef ), is( homePartition ) );
+                    loadedPages++;
+                }
+            }
+            assertThat( loadedPages, is( 5 ) );
+        }
+    }
+
+    @Ignore( PLACEMENT_DEPENDENT )
+    @Test
+    @Override
+    public void mustEvictCleanPageWithoutFlushing()
+    {
+    }
+
+    @Ignore( PLACEMENT_DEPENDENT )
+    @Test
+    @Override
+    public void mustFlushDirtyPagesOnEvictingFirstPage()
+    {
+    }
+
+    @Ignore( PLACEMENT_DEPENDENT )
+    @Test
+    @Override
+    public void mustFlushDirtyPagesOnEvictingLastPage()
+    {
+    }
+
+    @Ignore( PLACEMENT_DEPENDENT )
+    @Test
+    @Override
+    public void mustFlushDirtyPagesOnEvictingAllPages()
+    {
+    }
+
+    @Ignore( PLACEMENT_DEPENDENT )
+    @Test
+    @Override
+    public void closingTheCursorMustUnlockModifiedPage()
+    {
+    }
+}
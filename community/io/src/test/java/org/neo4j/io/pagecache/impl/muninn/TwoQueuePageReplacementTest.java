@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class TwoQueuePageReplacementTest
+{
+    private static final int PAGE_COUNT = 10;
+    private static final short SWAPPER_ID = 1;
+
+    private static MemoryAllocator mman;
+
+    @BeforeClass
+    public static void setUpStatics()
+    {
+        mman = MemoryAllocator.createAllocator( "1 MiB", GlobalMemoryTracker.INSTANCE );
+    }
+
+    @AfterClass
+    public static void tearDownStatics()
+    {
+        mman = null;
+    }
+
+    private TwoQueuePageReplacement replacement;
+    private PageList pageList;
+    private long pageRef;
+    private long otherPageRef;
+
+    @Before
+    public void setUp()
+    {
+        int pageSize = UnsafeUtil.pageSize();
+        long victimPage = VictimPageReference.getVictimPage( pageSize, GlobalMemoryTracker.INSTANCE );
+        replacement = new TwoQueuePageReplacement( PAGE_COUNT );
+        pageList = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, 8, replacement );
+        pageRef = pageList.deref( 0 );
+        otherPageRef = pageList.deref( 1 );
+    }
+
+    @Test
+    public void newlyFaultedPageMustBeEvictedOnFirstSweepNoMatterHowOftenItIsAccessed()
+    {
+        replacement.faulted( pageList, pageRef, SWAPPER_ID, 42 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            pageList.incrementUsage( pageRef );
+        }
+        assertTrue( pageList.decrementUsage( pageRef ) );
+    }
+
+    @Test
+    public void pageFaultedBackInShortlyAfterEvictionMustBecomeHot()
+    {
+        makeHot( pageRef, 42 );
+        replacement.faulted( pageList, otherPageRef, SWAPPER_ID, 43 );
+
+        // As long as the clock hand keeps finding cold pages, the hot page is left alone.
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertFalse( pageList.decrementUsage( pageRef ) );
+            assertTrue( pageList.decrementUsage( otherPageRef ) );
+        }
+    }
+
+    @Test
+    public void pageFromOtherFileMustNotBecomeHot()
+    {
+        replacement.faulted( pageList, pageRef, SWAPPER_ID, 42 );
+        replacement.evicted( pageList, pageRef, SWAPPER_ID, 42 );
+        replacement.faulted( pageList, pageRef, (short) (SWAPPER_ID + 1), 42 );
+        assertTrue( pageList.decrementUsage( pageRef ) );
+    }
+
+    @Test
+    public void pageEvictedWhileHotMustNotBeRememberedAsEvicted()
+    {
+        makeHot( pageRef, 42 );
+        replacement.evicted( pageList, pageRef, SWAPPER_ID, 42 );
+        replacement.faulted( pageList, pageRef, SWAPPER_ID, 42 );
+        assertTrue( pageList.decrementUsage( pageRef ) );
+    }
+
+    @Test
+    public void hotPagesMustBeAgedAndDemotedWhenThereAreNoColdPagesToEvict()
+    {
+        makeHot( pageRef, 42 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            pageList.incrementUsage( pageRef );
+        }
+
+        int sweeps = 1;
+        while ( !pageList.decrementUsage( pageRef ) )
+        {
+            sweeps++;
+        }
+        // 16 passes before the clock hand starts aging hot pages, 4 passes to age the usage stamp down to cold,
+        // and then one last pass to evict the now cold page.
+        assertThat( sweeps, is( 16 + 4 + 1 ) );
+    }
+
+    @Test
+    public void evictedPagesMustBeNeutral()
+    {
+        makeHot( pageRef, 42 );
+        replacement.evicted( pageList, pageRef, SWAPPER_ID, 42 );
+        assertThat( pageList.getUsageCounter( pageRef ), is( (byte) 0 ) );
+    }
+
+    private void makeHot( long pageRef, long filePageId )
+    {
+        replacement.faulted( pageList, pageRef, SWAPPER_ID, filePageId );
+        assertTrue( pageList.decrementUsage( pageRef ) );
+        replacement.evicted( pageList, pageRef, SWAPPER_ID, filePageId );
+        replacement.faulted( pageList, pageRef, SWAPPER_ID, filePageId );
+    }
+}
@@ -29,6 +29,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class DefaultPageCursorTracerTest
@@ -260,6 +261,41 @@ public class DefaultPageCursorTracerTest
         assertEquals( 3.0 / 7, cacheTracer.hitRatio(), 0.0001 );
     }
 
+    @Test
+    public void countContendedPinsInHistogramAndRememberTheMostContendedPage()
+    {
+        pinAndHit();
+        pinWithContention( 3, 1 );
+        pinWithContention( 1, 2 );
+        pinWithContention( 2, 3 );
+        pinWithContention( 40, 4 );
+
+        assertArrayEquals( new long[]{1, 2, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+                pageCursorTracer.accumulatedContentionHistogram() );
+        assertEquals( 4, pageCursorTracer.mostContendedFilePageId() );
+        assertEquals( swapper.file(), pageCursorTracer.mostContendedFile() );
+
+        pageCursorTracer.reportEvents();
+        assertEquals( 4, cacheTracer.contendedPins() );
+
+        pinWithContention( 1, 5 );
+        pageCursorTracer.reportEvents();
+        assertEquals( 5, cacheTracer.contendedPins() );
+        assertEquals( 2, pageCursorTracer.accumulatedContentionHistogram()[0] );
+        assertEquals( 4, pageCursorTracer.mostContendedFilePageId() );
+    }
+
+    private void pinWithContention( int contention, long filePageId )
+    {
+        PinEvent pinEvent = pageCursorTracer.beginPin( false, filePageId, swapper );
+        for ( int i = 0; i < contention; i++ )
+        {
+            pinEvent.contended();
+        }
+        pinEvent.hit();
+        pinEvent.done();
+    }
+
     private void generateEventSet()
     {
         PinEvent pinEvent = pageCursorTracer.beginPin( false, 0, swapper );
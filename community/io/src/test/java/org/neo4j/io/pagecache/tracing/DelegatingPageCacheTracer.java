@@ -20,8 +20,10 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 
 /**
  * A PageCacheTracer that delegates all calls to a wrapped instance.
@@ -79,6 +81,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.beginCacheFlush();
     }
 
+    @Override
+    public PrefetchEvent beginPrefetch( PageSwapper swapper, long startFilePageId, int pageCount )
+    {
+        return delegate.beginPrefetch( swapper, startFilePageId, pageCount );
+    }
+
     @Override
     public long bytesWritten()
     {
@@ -109,6 +117,30 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long prefetches()
+    {
+        return delegate.prefetches();
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return delegate.prefetchHits();
+    }
+
+    @Override
+    public long prefetchesWasted()
+    {
+        return delegate.prefetchesWasted();
+    }
+
+    @Override
+    public long contendedPins()
+    {
+        return delegate.contendedPins();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -163,6 +195,24 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.evictionExceptions( evictionExceptions );
     }
 
+    @Override
+    public void prefetchHits( long prefetchHits )
+    {
+        delegate.prefetchHits( prefetchHits );
+    }
+
+    @Override
+    public void prefetchesWasted( long prefetchesWasted )
+    {
+        delegate.prefetchesWasted( prefetchesWasted );
+    }
+
+    @Override
+    public void contendedPins( long contendedPins )
+    {
+        delegate.contendedPins( contendedPins );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -181,6 +231,30 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.maxPages( maxPages );
     }
 
+    @Override
+    public String evictionPolicy()
+    {
+        return delegate.evictionPolicy();
+    }
+
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+        delegate.evictionPolicy( evictionPolicy );
+    }
+
+    @Override
+    public List<PagedFileCounters> pagedFileCounters()
+    {
+        return delegate.pagedFileCounters();
+    }
+
+    @Override
+    public void pagedFileCounters( PagedFileCounters counters )
+    {
+        delegate.pagedFileCounters( counters );
+    }
+
     @Override
     public long filesMapped()
     {
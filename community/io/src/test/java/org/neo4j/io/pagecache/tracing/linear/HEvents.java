@@ -260,6 +260,11 @@ class HEvents
         {
         }
 
+        @Override
+        public void contended()
+        {
+        }
+
         @Override
         public void done()
         {
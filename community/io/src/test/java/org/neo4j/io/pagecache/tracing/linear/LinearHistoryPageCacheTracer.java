@@ -20,11 +20,15 @@
 package org.neo4j.io.pagecache.tracing.linear;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PrefetchEvent;
 
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.EvictionRunHEvent;
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.MajorFlushHEvent;
@@ -78,6 +82,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return tracer.add( new MajorFlushHEvent( tracer, null ) );
     }
 
+    @Override
+    public PrefetchEvent beginPrefetch( PageSwapper swapper, long startFilePageId, int pageCount )
+    {
+        return PrefetchEvent.NULL;
+    }
+
     @Override
     public long faults()
     {
@@ -144,6 +154,30 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long prefetches()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchesWasted()
+    {
+        return 0;
+    }
+
+    @Override
+    public long contendedPins()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -191,6 +225,21 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void prefetchHits( long prefetchHits )
+    {
+    }
+
+    @Override
+    public void prefetchesWasted( long prefetchesWasted )
+    {
+    }
+
+    @Override
+    public void contendedPins( long contendedPins )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -205,4 +254,26 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     public void maxPages( long maxPages )
     {
     }
+
+    @Override
+    public String evictionPolicy()
+    {
+        return "";
+    }
+
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+    }
+
+    @Override
+    public List<PagedFileCounters> pagedFileCounters()
+    {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void pagedFileCounters( PagedFileCounters counters )
+    {
+    }
 }
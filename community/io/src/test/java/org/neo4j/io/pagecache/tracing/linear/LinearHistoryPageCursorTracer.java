@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.tracing.linear;
 
+import java.io.File;
+
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PinEvent;
@@ -130,4 +132,22 @@ public class LinearHistoryPageCursorTracer implements PageCursorTracer
     {
         return 0;
     }
+
+    @Override
+    public long[] accumulatedContentionHistogram()
+    {
+        return new long[0];
+    }
+
+    @Override
+    public File mostContendedFile()
+    {
+        return null;
+    }
+
+    @Override
+    public long mostContendedFilePageId()
+    {
+        return -1;
+    }
 }
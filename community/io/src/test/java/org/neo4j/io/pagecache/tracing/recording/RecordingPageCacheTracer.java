@@ -21,14 +21,18 @@ package org.neo4j.io.pagecache.tracing.recording;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PrefetchEvent;
 
 public class RecordingPageCacheTracer extends RecordingTracer implements PageCacheTracer
 {
@@ -83,6 +87,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return MajorFlushEvent.NULL;
     }
 
+    @Override
+    public PrefetchEvent beginPrefetch( PageSwapper swapper, long startFilePageId, int pageCount )
+    {
+        return PrefetchEvent.NULL;
+    }
+
     @Override
     public long faults()
     {
@@ -149,6 +159,30 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long prefetches()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchesWasted()
+    {
+        return 0;
+    }
+
+    @Override
+    public long contendedPins()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -199,6 +233,21 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void prefetchHits( long prefetchHits )
+    {
+    }
+
+    @Override
+    public void prefetchesWasted( long prefetchesWasted )
+    {
+    }
+
+    @Override
+    public void contendedPins( long contendedPins )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -214,6 +263,28 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public String evictionPolicy()
+    {
+        return "";
+    }
+
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+    }
+
+    @Override
+    public List<PagedFileCounters> pagedFileCounters()
+    {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void pagedFileCounters( PagedFileCounters counters )
+    {
+    }
+
     private void evicted( long filePageId, PageSwapper swapper )
     {
         record( new Evict( swapper, filePageId ) );
@@ -19,6 +19,7 @@
  */
 package org.neo4j.io.pagecache.tracing.recording;
 
+import java.io.File;
 import java.util.Objects;
 
 import org.neo4j.io.pagecache.PageSwapper;
@@ -163,6 +164,11 @@ public class RecordingPageCursorTracer extends RecordingTracer implements PageCu
             {
             }
 
+            @Override
+            public void contended()
+            {
+            }
+
             @Override
             public void done()
             {
@@ -234,4 +240,21 @@ public class RecordingPageCursorTracer extends RecordingTracer implements PageCu
         }
     }
 
+    @Override
+    public long[] accumulatedContentionHistogram()
+    {
+        return new long[0];
+    }
+
+    @Override
+    public File mostContendedFile()
+    {
+        return null;
+    }
+
+    @Override
+    public long mostContendedFilePageId()
+    {
+        return -1;
+    }
 }
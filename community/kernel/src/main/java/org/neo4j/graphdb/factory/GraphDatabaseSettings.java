@@ -33,6 +33,7 @@ import org.neo4j.graphdb.config.Setting;
 import org.neo4j.helpers.AdvertisedSocketAddress;
 import org.neo4j.helpers.ListenSocketAddress;
 import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.kernel.configuration.BoltConnectorValidator;
 import org.neo4j.kernel.configuration.ConfigurationMigrator;
 import org.neo4j.kernel.configuration.GraphDatabaseConfigurationMigrator;
@@ -334,6 +335,41 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Duration> transaction_timeout = setting( "dbms.transaction.timeout", DURATION, String
             .valueOf( UNSPECIFIED_TIMEOUT ) );
 
+    @Description( "If a write transaction takes longer than this threshold to commit, the time it spent in each " +
+                  "phase of the commit, such as acquiring locks, appending to and forcing the transaction log, and " +
+                  "applying to the store, is logged. Zero disables the logging." )
+    @Internal
+    public static final Setting<Duration> slow_commit_log_threshold =
+            setting( "unsupported.dbms.logs.slow_commit_threshold", DURATION, "0s" );
+
+    @Description( "The maximum estimated heap memory that the changes of a single transaction may take up. The " +
+                  "change that makes a transaction grow larger than this fails, and the transaction is terminated, " +
+                  "which keeps very large write transactions from exhausting the heap. It also bounds the native " +
+                  "memory that each transaction keeps its changes in, when " +
+                  "unsupported.dbms.transaction.state.memory_allocation is OFF_HEAP. Zero means no limit." )
+    @Internal
+    public static final Setting<Long> transaction_state_max_size =
+            buildSetting( "unsupported.dbms.transaction.state.max_size", BYTES, "0" )
+                    .constraint( range( 0L, Long.MAX_VALUE ) ).build();
+
+    @Description( "Where transactions keep the sets of nodes and relationships that they create, delete, label or " +
+                  "index by property value. ON_HEAP keeps them on the heap, where they count towards " +
+                  "unsupported.dbms.transaction.state.max_size. OFF_HEAP keeps them in native memory instead, and " +
+                  "once they take up more than unsupported.dbms.transaction.state.max_size of it, spills the sets " +
+                  "that grow after that to temporary files in the database directory, through the page cache." )
+    @Internal
+    public static final Setting<TransactionStateMemoryAllocation> transaction_state_memory_allocation =
+            setting( "unsupported.dbms.transaction.state.memory_allocation",
+                    options( TransactionStateMemoryAllocation.class, true ), "ON_HEAP" );
+
+    @Description( "Let transactions that have not written anything read the schema without taking shared locks on the " +
+                  "labels and relationship types involved, so that they do not wait behind concurrent schema changes. " +
+                  "A transaction that goes on to write takes the skipped locks at that point, and fails with a " +
+                  "transient error if the schema changed after it was read." )
+    @Internal
+    public static final Setting<Boolean> lock_free_schema_reads =
+            setting( "unsupported.dbms.transaction.lock_free_schema_reads", BOOLEAN, FALSE );
+
     @Description( "The maximum time interval within which lock should be acquired." )
     public static final Setting<Duration> lock_acquisition_timeout = setting( "dbms.lock.acquisition.timeout", DURATION,
             String.valueOf( UNSPECIFIED_TIMEOUT ) );
@@ -436,6 +472,15 @@ public class GraphDatabaseSettings implements LoadableConfig
                   "Set this to -1 to disable the IOPS limit." )
     public static final Setting<Integer> check_point_iops_limit = setting( "dbms.checkpoint.iops.limit", INTEGER, "300" );
 
+    @Description( "Write out dirty pages in the background between check-points, starting with the pages that have " +
+                  "been dirty the longest, and at a pace that spreads the writes over the check-point interval. " +
+                  "Each check-point then only has to flush and force the pages that were dirtied recently, instead " +
+                  "of all the pages dirtied since the previous check-point. The background writes are limited by " +
+                  "'dbms.checkpoint.iops.limit', like the check-points themselves." )
+    @Internal
+    public static final Setting<Boolean> check_point_background_flush =
+            setting( "unsupported.dbms.checkpoint.background_flush", BOOLEAN, FALSE );
+
     // Auto Indexing
     @Description( "Controls the auto indexing feature for nodes. Setting it to `false` shuts it down, " +
             "while `true` enables it by default for properties listed in the dbms.auto_index.nodes.keys setting." )
@@ -528,6 +573,62 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Long> logical_log_rotation_threshold =
             buildSetting( "dbms.tx_log.rotation.size", BYTES, "250M" ).constraint( min( ByteUnit.mebiBytes( 1 ) ) ).build();
 
+    @Description( "Commit transactions in two stages, where the committing threads append their transactions to the " +
+            "transaction log concurrently, and then hand them to a store apply stage that applies all the " +
+            "transactions handed to it so far in one batch. This lets the next group of transactions be appended " +
+            "to, and forced in, the transaction log while the previous group is being applied to the store." )
+    @Internal
+    public static final Setting<Boolean> pipelined_commit =
+            setting( "unsupported.dbms.tx.pipelined_commit", BOOLEAN, FALSE );
+
+    @Description( "The longest time, in microseconds, that the thread forcing the transaction log may hold the force " +
+            "back in order to gather more concurrently committing transactions into the same force. The actual " +
+            "delay adapts to the observed commit arrival rate and force latency, and is zero whenever waiting is " +
+            "not expected to grow the group. A value of 0 disables the delay altogether." )
+    @Internal
+    public static final Setting<Integer> group_commit_max_delay =
+            buildSetting( "unsupported.dbms.tx_log.group_commit.max_delay_us", INTEGER, "0" )
+                    .constraint( min( 0 ) ).build();
+
+    @Description( "Write the commands of each committed transaction as one compressed block in the transaction log. " +
+            "Transaction logs may contain both compressed and uncompressed transactions, so this setting can be " +
+            "changed between restarts, although transaction logs containing compressed transactions cannot be " +
+            "read by versions of Neo4j not supporting this format." )
+    @Internal
+    public static final Setting<Boolean> tx_log_compression =
+            setting( "unsupported.dbms.tx_log.compression", BOOLEAN, FALSE );
+
+    @Description( "Preallocate each transaction log file to the size of `dbms.tx_log.rotation.size` when it is " +
+            "created, and keep a pruned log file around, zero filled, for reuse as a future log file instead of " +
+            "deleting it. Appending into an already allocated file spares every force of the log from also having " +
+            "to persist the changed file size." )
+    @Internal
+    public static final Setting<Boolean> preallocate_logical_logs =
+            setting( "unsupported.dbms.tx_log.preallocate", BOOLEAN, FALSE );
+
+    @Description( "Let committing threads serialize the commands of their transactions concurrently, into pooled " +
+            "buffers, before appending them to the transaction log. Only copying the already serialized commands " +
+            "into the log is then done while holding the transaction log exclusively, which shortens the time " +
+            "concurrent committers wait for each other. The format of the transaction log is not affected." )
+    @Internal
+    public static final Setting<Boolean> tx_log_concurrent_serialization =
+            setting( "unsupported.dbms.tx_log.concurrent_serialization", BOOLEAN, FALSE );
+
+    @Description( "Keep a sparse index from transaction id to position alongside each transaction log file, written " +
+            "when the log file is rotated, or when first needed for log files without one. Looking up where an old " +
+            "transaction starts, for instance when a backup or another cluster member asks for transactions, then " +
+            "takes a search in the index of its log file instead of reading the log file up to that transaction." )
+    @Internal
+    public static final Setting<Boolean> tx_log_position_index =
+            setting( "unsupported.dbms.tx_log.position_index", BOOLEAN, FALSE );
+
+    @Description( "The number of threads used for applying recovered transactions to the store. Transactions that " +
+            "touch disjoint sets of records and entities are applied concurrently, while others are applied in the " +
+            "order they appear in the transaction log. A value of 1 applies all recovered transactions one by one." )
+    @Internal
+    public static final Setting<Integer> recovery_threads =
+            buildSetting( "unsupported.dbms.recovery.threads", INTEGER, "1" ).constraint( min( 1 ) ).build();
+
     @Description( "Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities." )
     @Internal
@@ -563,11 +664,60 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<String> pagecache_memory =
             buildSetting( "dbms.memory.pagecache.size", STRING, null ).build();
 
-    @Description( "Specify which page swapper to use for doing paged IO. " +
-                  "This is only used when integrating with proprietary storage technology." )
+    @Description( "Specify which page swapper to use for doing paged IO. The `async` page swapper keeps many page " +
+                  "reads and writes in flight at the same time, which can improve the throughput of page cache " +
+                  "flushing on SSDs with deep request queues. Other page swappers are only used when integrating " +
+                  "with proprietary storage technology." )
     public static final Setting<String> pagecache_swapper =
             setting( "dbms.memory.pagecache.swapper", STRING, null );
 
+    @Description( "Specify which policy the page cache should use for deciding which pages to evict, when it needs to " +
+                  "free up memory. The CLOCK policy evicts the pages that have not recently been used. The TWO_QUEUE " +
+                  "policy is scan resistant, and protects the pages that are repeatedly loaded from being evicted by " +
+                  "large scans that only touch each page once." )
+    public static final Setting<EvictionPolicy> pagecache_eviction_policy =
+            setting( "dbms.memory.pagecache.eviction_policy", options( EvictionPolicy.class, true ), "CLOCK" );
+
+    @Description( "Soft quotas on how large a percentage of the page cache each file may occupy, given as a comma " +
+                  "separated list of `file name pattern=percentage` entries, e.g. `neostore.propertystore.db*=30%`. " +
+                  "The file name patterns are globs, and each mapped file gets the quota of the first pattern that " +
+                  "matches its name. Pages of files that exceed their quota are evicted first, which can be used to " +
+                  "protect index and relationship group pages from being evicted by large property store scans." )
+    public static final Setting<List<String>> pagecache_file_quotas =
+            setting( "dbms.memory.pagecache.file_quotas", STRING_LIST, "" );
+
+    @Description( "Allocate the page cache memory in large slabs that are aligned to huge page boundaries, so the " +
+                  "operating system can back the page cache with transparent huge pages. This reduces the pressure " +
+                  "on the TLB when the page cache is large." )
+    public static final Setting<Boolean> pagecache_huge_pages =
+            setting( "dbms.memory.pagecache.huge_pages", BOOLEAN, FALSE );
+
+    @Description( "The number of partitions to divide the page cache memory into, which should be the number of NUMA " +
+                  "nodes in the system. Each partition has its own memory and its own list of free pages, and page " +
+                  "faulting threads prefer the free pages of their own partition. Set this to 0 to use the number of " +
+                  "NUMA nodes reported by the operating system, or 1 to not partition the page cache memory." )
+    public static final Setting<Integer> pagecache_numa_partitions =
+            buildSetting( "dbms.memory.pagecache.numa_partitions", INTEGER, "1" ).constraint( min( 0 ) ).build();
+
+    @Description( "Access the existing record store files through memory mappings of the files, instead of loading " +
+                  "their pages into the page cache. The operating system then caches the store files, and reads have " +
+                  "no page cache overhead. Index files, and files that must be created, still go through the page " +
+                  "cache. " +
+                  "This only takes effect when the database is started in read only mode, with `dbms.read_only`." )
+    public static final Setting<Boolean> pagecache_memory_mapped =
+            setting( "dbms.memory.pagecache.memory_mapped", BOOLEAN, FALSE );
+
+    @Description( "Periodically save a profile of the pages that are in the page cache, and load those pages back " +
+                  "into the page cache in the background when the database starts, to shorten the time it takes " +
+                  "for the page cache to warm up after a restart. The profiles are saved next to the store files, " +
+                  "in files with the `.cacheprof` suffix." )
+    public static final Setting<Boolean> pagecache_warmup_enabled =
+            setting( "dbms.memory.pagecache.warmup.enable", BOOLEAN, FALSE );
+
+    @Description( "How often the profile of the pages in the page cache is saved, for page cache warmup." )
+    public static final Setting<Duration> pagecache_warmup_profiling_interval =
+            setting( "dbms.memory.pagecache.warmup.profile.interval", DURATION, "1m" );
+
     /**
      * Block size properties values depends from selected record format.
      * We can't figured out record format until it will be selected by corresponding edition.
@@ -700,6 +850,12 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Integer> batch_inserter_batch_size = setting( "unsupported.tools.batch_inserter.batch_size", INTEGER,
             "10000" );
 
+    public enum TransactionStateMemoryAllocation
+    {
+        ON_HEAP,
+        OFF_HEAP
+    }
+
     /**
      * @deprecated - lucene label index has been removed.
      */
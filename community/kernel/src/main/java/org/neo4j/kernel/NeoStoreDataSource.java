@@ -50,6 +50,7 @@ import org.neo4j.kernel.impl.api.CommitProcessFactory;
 import org.neo4j.kernel.impl.api.ConstraintEnforcingEntityOperations;
 import org.neo4j.kernel.impl.api.DataIntegrityValidatingStatementOperations;
 import org.neo4j.kernel.impl.api.DatabaseSchemaState;
+import org.neo4j.kernel.impl.api.DefaultTransactionTracer;
 import org.neo4j.kernel.impl.api.ExplicitIndexProviderLookup;
 import org.neo4j.kernel.impl.api.Kernel;
 import org.neo4j.kernel.impl.api.KernelTransactionMonitorScheduler;
@@ -57,6 +58,7 @@ import org.neo4j.kernel.impl.api.KernelTransactionTimeoutMonitor;
 import org.neo4j.kernel.impl.api.KernelTransactions;
 import org.neo4j.kernel.impl.api.KernelTransactionsSnapshot;
 import org.neo4j.kernel.impl.api.LockingStatementOperations;
+import org.neo4j.kernel.impl.api.LoggingCommitMonitor;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.kernel.impl.api.SchemaStateConcern;
 import org.neo4j.kernel.impl.api.SchemaWriteGuard;
@@ -85,6 +87,9 @@ import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.newapi.KernelToken;
 import org.neo4j.kernel.impl.newapi.DefaultCursors;
+import org.neo4j.kernel.impl.pagecache.LoggingPageCacheWarmerMonitor;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmerMonitor;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngine;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.id.IdController;
@@ -109,6 +114,7 @@ import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChanne
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.BackgroundPageFlusher;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
@@ -131,6 +137,8 @@ import org.neo4j.kernel.impl.transaction.state.DefaultSchemaIndexProviderMap;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreFileListing;
 import org.neo4j.kernel.impl.util.Dependencies;
 import org.neo4j.kernel.impl.util.SynchronizedArrayIdOrderingQueue;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
 import org.neo4j.kernel.impl.util.monitoring.LogProgressReporter;
 import org.neo4j.kernel.impl.util.monitoring.ProgressReporter;
 import org.neo4j.kernel.info.DiagnosticsExtractor;
@@ -164,6 +172,8 @@ import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 import org.neo4j.storageengine.api.StoreReadLayer;
 import org.neo4j.time.SystemNanoClock;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
+import org.neo4j.unsafe.impl.batchimport.cache.PageCachedNumberArrayFactory;
 import org.neo4j.util.FeatureToggles;
 
 import static org.neo4j.helpers.Exceptions.throwIfUnchecked;
@@ -501,6 +511,21 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
             throw new RuntimeException( e );
         }
 
+        long slowCommitThresholdNanos = config.get( GraphDatabaseSettings.slow_commit_log_threshold ).toNanos();
+        if ( slowCommitThresholdNanos > 0 )
+        {
+            monitors.addMonitorListener( new LoggingCommitMonitor(
+                    logService.getInternalLog( DefaultTransactionTracer.class ), slowCommitThresholdNanos ) );
+        }
+
+        if ( config.get( GraphDatabaseSettings.pagecache_warmup_enabled ) )
+        {
+            monitors.addMonitorListener(
+                    new LoggingPageCacheWarmerMonitor( logService.getInternalLog( PageCacheWarmer.class ) ) );
+            life.add( new PageCacheWarmer( fs, pageCache, scheduler, monitors.newMonitor( PageCacheWarmerMonitor.class ),
+                    config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ) ) );
+        }
+
         // NOTE: please make sure this is performed after having added everything to the life, in fact we would like
         // to perform the checkpointing as first step when the life is shutdown.
         life.add( lifecycleToTriggerCheckPointOnShutdown() );
@@ -597,9 +622,12 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
         final LogRotation logRotation =
                 new LogRotationImpl( monitors.newMonitor( LogRotation.Monitor.class ), logFiles, databaseHealth );
 
+        long maxGroupCommitDelayNanos =
+                TimeUnit.MICROSECONDS.toNanos( config.get( GraphDatabaseSettings.group_commit_max_delay ) );
         final TransactionAppender appender = life.add( new BatchingTransactionAppender(
                 logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
-                databaseHealth ) );
+                databaseHealth, maxGroupCommitDelayNanos, config.get( GraphDatabaseSettings.tx_log_compression ),
+                config.get( GraphDatabaseSettings.tx_log_concurrent_serialization ) ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors,
                         failOnCorruptedLogFiles );
@@ -616,6 +644,12 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
 
         life.add( checkPointer );
         life.add( checkPointScheduler );
+        if ( config.get( GraphDatabaseSettings.check_point_background_flush ) )
+        {
+            life.add( new BackgroundPageFlusher( pageCache, checkPointer, ioLimiter, scheduler, clock,
+                    config.get( GraphDatabaseSettings.check_point_interval_time ).toMillis(),
+                    tracers.checkPointTracer, logProvider ) );
+        }
 
         return new NeoStoreTransactionLogModule( logicalTransactionStore, logFiles,
                 logRotation, checkPointer, appender, explicitIndexTransactionOrdering );
@@ -634,7 +668,8 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
             LogVersionRepository logVersionRepository )
     {
         RecoveryService recoveryService = new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
-                logicalTransactionStore, logVersionRepository, positionMonitor );
+                logicalTransactionStore, logVersionRepository, positionMonitor,
+                config.get( GraphDatabaseSettings.recovery_threads ), recoveryMonitor );
         CorruptedLogsTruncator logsTruncator = new CorruptedLogsTruncator( storeDir, logFiles, fileSystemAbstraction );
         ProgressReporter progressReporter = new LogProgressReporter( logService.getInternalLog( Recovery.class ) );
         Recovery recovery = new Recovery( recoveryService, startupStatistics, logsTruncator, recoveryMonitor,
@@ -677,7 +712,7 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
                 transactionCommitProcess, indexConfigStore, explicitIndexProviderLookup, hooks, transactionMonitor,
                 availabilityGuard, tracers, storageEngine, procedures, transactionIdStore, clock,
                 cpuClockRef, heapAllocationRef, accessCapability, token, new DefaultCursors(), autoIndexing,
-                        explicitIndexStore, versionContextSupplier ) );
+                        explicitIndexStore, versionContextSupplier, buildTxStateCollections( config ), config ) );
 
         buildTransactionMonitor( kernelTransactions, clock, config );
 
@@ -743,6 +778,18 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
         life.add( transactionMonitorScheduler );
     }
 
+    private CollectionsFactorySupplier buildTxStateCollections( Config config )
+    {
+        if ( config.get( GraphDatabaseSettings.transaction_state_memory_allocation ) ==
+             GraphDatabaseSettings.TransactionStateMemoryAllocation.OFF_HEAP )
+        {
+            long maxMemory = config.get( GraphDatabaseSettings.transaction_state_max_size );
+            NumberArrayFactory spillFactory = new PageCachedNumberArrayFactory( pageCache, storeDir );
+            return () -> new OffHeapCollectionsFactory( maxMemory, spillFactory );
+        }
+        return CollectionsFactorySupplier.ON_HEAP;
+    }
+
     @Override
     public synchronized void stop()
     {
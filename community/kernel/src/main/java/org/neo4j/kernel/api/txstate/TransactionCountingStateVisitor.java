@@ -19,8 +19,6 @@
  */
 package org.neo4j.kernel.api.txstate;
 
-import java.util.Set;
-
 import org.neo4j.collection.primitive.PrimitiveIntCollection;
 import org.neo4j.collection.primitive.PrimitiveIntSet;
 import org.neo4j.collection.primitive.PrimitiveIntVisitor;
@@ -108,27 +106,29 @@ public class TransactionCountingStateVisitor extends TxStateVisitor.Delegator
     }
 
     @Override
-    public void visitNodeLabelChanges( long id, final Set<Integer> added, final Set<Integer> removed )
+    public void visitNodeLabelChanges( long id, final PrimitiveIntSet added, final PrimitiveIntSet removed )
             throws ConstraintValidationException
     {
         // update counts
         if ( !(added.isEmpty() && removed.isEmpty()) )
         {
-            for ( Integer label : added )
+            added.visitKeys( label ->
             {
                 counts.incrementNodeCount( label, 1 );
-            }
-            for ( Integer label : removed )
+                return false;
+            } );
+            removed.visitKeys( label ->
             {
                 counts.incrementNodeCount( label, -1 );
-            }
+                return false;
+            } );
             // get the relationship counts from *before* this transaction,
             // the relationship changes will compensate for what happens during the transaction
             statement.acquireSingleNodeCursor( id )
                     .forAll( node -> storeLayer.degrees( statement, node, ( type, out, in ) ->
                     {
-                        added.forEach( label -> updateRelationshipsCountsFromDegrees( type, label, out, in ) );
-                        removed.forEach( label -> updateRelationshipsCountsFromDegrees( type, label, -out, -in ) );
+                        updateRelationshipsCountsFromDegrees( added, type, out, in );
+                        updateRelationshipsCountsFromDegrees( removed, type, -out, -in );
                     } ) );
         }
         super.visitNodeLabelChanges( id, added, removed );
@@ -93,4 +93,12 @@ public interface TransactionState extends ReadableTransactionState
 
     void indexDoUpdateEntry( LabelSchemaDescriptor descriptor, long nodeId, ValueTuple before, ValueTuple after );
 
+    // MEMORY
+
+    /**
+     * @return a rough estimate of the memory, in bytes, taken up by the changes in this transaction state, i.e. of
+     * the heap plus the native memory they use. Changes spilled to disk are not counted.
+     */
+    long estimatedMemoryUsage();
+
 }
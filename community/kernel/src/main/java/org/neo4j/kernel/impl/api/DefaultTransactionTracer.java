@@ -22,7 +22,9 @@ package org.neo4j.kernel.impl.api;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.neo4j.kernel.impl.transaction.tracing.CommandExtractionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LockAcquisitionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
@@ -42,75 +44,59 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         void lastLogRotationEventDuration( long millis );
     }
 
-    private final SystemNanoClock clock;
-    private final Monitor monitor;
-    private final JobScheduler jobScheduler;
-
-    private final AtomicLong counter = new AtomicLong();
-    private final AtomicLong accumulatedTotalTimeNanos = new AtomicLong();
-
-    private long startTimeNanos;
-
-    private final LogRotateEvent logRotateEvent = this::updateCountersAndNotifyListeners;
-
-    private final LogAppendEvent logAppendEvent = new LogAppendEvent()
+    public interface LogForceMonitor
     {
-        @Override
-        public void close()
-        {
-        }
-
-        @Override
-        public void setLogRotated( boolean logRotated )
+        LogForceMonitor NULL = ( forceNanos, groupSize ) ->
         {
+        };
 
-        }
-
-        @Override
-        public LogRotateEvent beginLogRotate()
-        {
-            startTimeNanos = clock.nanos();
-            return logRotateEvent;
-        }
+        /**
+         * Called by the thread that forced the transaction log, right after the force completed.
+         *
+         * @param forceNanos the time spent forcing the transaction log.
+         * @param groupSize the number of committers whose transactions were made durable by the force.
+         */
+        void logForced( long forceNanos, int groupSize );
+    }
 
-        @Override
-        public SerializeTransactionEvent beginSerializeTransaction()
+    public interface CommitMonitor
+    {
+        CommitMonitor NULL = ( lockAcquisitionNanos, commandExtractionNanos, logAppendNanos, logForceWaitNanos,
+                storeApplyNanos, totalNanos ) ->
         {
-            return SerializeTransactionEvent.NULL;
-        }
+        };
 
-        @Override
-        public LogForceWaitEvent beginLogForceWait()
-        {
-            return LogForceWaitEvent.NULL;
-        }
+        /**
+         * Called by the committing thread when the commit of a transaction that was appended to the transaction log
+         * has ended, with the time spent in each phase of the commit. The phases do not overlap, but do not add up
+         * to the total time either, since some of the commit process, like the transaction hooks, is not part of
+         * any phase.
+         *
+         * @param lockAcquisitionNanos the time spent acquiring the locks that were deferred until commit.
+         * @param commandExtractionNanos the time spent turning the transaction state into commands.
+         * @param logAppendNanos the time spent serializing and appending the commands to the transaction log, not
+         * counting the time spent waiting for the log to be forced.
+         * @param logForceWaitNanos the time spent waiting for the transaction log to be forced, either by this
+         * committer or by another one that included this transaction in its force.
+         * @param storeApplyNanos the time spent applying the transaction to the store and indexes.
+         * @param totalNanos the time the commit took from beginning to end.
+         */
+        void transactionCommitted( long lockAcquisitionNanos, long commandExtractionNanos, long logAppendNanos,
+                long logForceWaitNanos, long storeApplyNanos, long totalNanos );
+    }
 
-        @Override
-        public LogForceEvent beginLogForce()
-        {
-            return LogForceEvent.NULL;
-        }
-    };
+    private final SystemNanoClock clock;
+    private final Monitor monitor;
+    private final LogForceMonitor logForceMonitor;
+    private final CommitMonitor commitMonitor;
+    private final JobScheduler jobScheduler;
 
-    private final CommitEvent commitEvent = new CommitEvent()
-    {
-        @Override
-        public void close()
-        {
-        }
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicLong accumulatedTotalTimeNanos = new AtomicLong();
 
-        @Override
-        public LogAppendEvent beginLogAppend()
-        {
-            return logAppendEvent;
-        }
+    private long startTimeNanos;
 
-        @Override
-        public StoreApplyEvent beginStoreApply()
-        {
-            return StoreApplyEvent.NULL;
-        }
-    };
+    private final LogRotateEvent logRotateEvent = this::updateCountersAndNotifyListeners;
 
     private final TransactionEvent transactionEvent = new TransactionEvent()
     {
@@ -128,7 +114,7 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         @Override
         public CommitEvent beginCommitEvent()
         {
-            return commitEvent;
+            return new TimedCommitEvent( clock.nanos() );
         }
 
         @Override
@@ -149,13 +135,38 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
 
     public DefaultTransactionTracer( Monitor monitor, JobScheduler jobScheduler )
     {
-        this( Clocks.nanoClock(), monitor, jobScheduler );
+        this( monitor, LogForceMonitor.NULL, jobScheduler );
+    }
+
+    public DefaultTransactionTracer( Monitor monitor, LogForceMonitor logForceMonitor, JobScheduler jobScheduler )
+    {
+        this( Clocks.nanoClock(), monitor, logForceMonitor, jobScheduler );
     }
 
     public DefaultTransactionTracer( SystemNanoClock clock, Monitor monitor, JobScheduler jobScheduler )
+    {
+        this( clock, monitor, LogForceMonitor.NULL, jobScheduler );
+    }
+
+    public DefaultTransactionTracer( Monitor monitor, LogForceMonitor logForceMonitor, CommitMonitor commitMonitor,
+            JobScheduler jobScheduler )
+    {
+        this( Clocks.nanoClock(), monitor, logForceMonitor, commitMonitor, jobScheduler );
+    }
+
+    public DefaultTransactionTracer( SystemNanoClock clock, Monitor monitor, LogForceMonitor logForceMonitor,
+            JobScheduler jobScheduler )
+    {
+        this( clock, monitor, logForceMonitor, CommitMonitor.NULL, jobScheduler );
+    }
+
+    public DefaultTransactionTracer( SystemNanoClock clock, Monitor monitor, LogForceMonitor logForceMonitor,
+            CommitMonitor commitMonitor, JobScheduler jobScheduler )
     {
         this.clock = clock;
         this.monitor = monitor;
+        this.logForceMonitor = logForceMonitor;
+        this.commitMonitor = commitMonitor;
         this.jobScheduler = jobScheduler;
     }
 
@@ -188,4 +199,138 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
             monitor.lastLogRotationEventDuration( millis );
         } );
     }
+
+    /**
+     * Keeps the timeline of a single commit. Everything but the store apply phase happens in the committing thread.
+     * The store apply phase can be run by another committer, when pipelined commits are enabled, but it then hands
+     * the result back to the committing thread through the apply stage lock.
+     */
+    private class TimedCommitEvent implements CommitEvent
+    {
+        private final long startNanos;
+        private long lockAcquisitionNanos;
+        private long commandExtractionNanos;
+        private long logAppendNanos;
+        private long logForceWaitNanos;
+        private long storeApplyNanos;
+        private boolean appended;
+
+        TimedCommitEvent( long startNanos )
+        {
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public LockAcquisitionEvent beginLockAcquisition()
+        {
+            long phaseStartNanos = clock.nanos();
+            return () -> lockAcquisitionNanos += clock.nanos() - phaseStartNanos;
+        }
+
+        @Override
+        public CommandExtractionEvent beginCommandExtraction()
+        {
+            long phaseStartNanos = clock.nanos();
+            return () -> commandExtractionNanos += clock.nanos() - phaseStartNanos;
+        }
+
+        @Override
+        public LogAppendEvent beginLogAppend()
+        {
+            appended = true;
+            return new TimedLogAppendEvent( this, clock.nanos() );
+        }
+
+        @Override
+        public StoreApplyEvent beginStoreApply()
+        {
+            long phaseStartNanos = clock.nanos();
+            return () -> storeApplyNanos += clock.nanos() - phaseStartNanos;
+        }
+
+        @Override
+        public void close()
+        {
+            // Read only transactions and transactions that turned out to have no changes are not interesting here
+            if ( appended )
+            {
+                commitMonitor.transactionCommitted( lockAcquisitionNanos, commandExtractionNanos,
+                        logAppendNanos - logForceWaitNanos, logForceWaitNanos, storeApplyNanos,
+                        clock.nanos() - startNanos );
+            }
+        }
+    }
+
+    private class TimedLogAppendEvent implements LogAppendEvent
+    {
+        private final TimedCommitEvent commitEvent;
+        private final long startNanos;
+
+        TimedLogAppendEvent( TimedCommitEvent commitEvent, long startNanos )
+        {
+            this.commitEvent = commitEvent;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void setLogRotated( boolean logRotated )
+        {
+        }
+
+        @Override
+        public LogRotateEvent beginLogRotate()
+        {
+            startTimeNanos = clock.nanos();
+            return logRotateEvent;
+        }
+
+        @Override
+        public SerializeTransactionEvent beginSerializeTransaction()
+        {
+            return SerializeTransactionEvent.NULL;
+        }
+
+        @Override
+        public LogForceWaitEvent beginLogForceWait()
+        {
+            long waitStartNanos = clock.nanos();
+            return () -> commitEvent.logForceWaitNanos += clock.nanos() - waitStartNanos;
+        }
+
+        @Override
+        public LogForceEvent beginLogForce()
+        {
+            return new TimedLogForceEvent( clock.nanos() );
+        }
+
+        @Override
+        public void close()
+        {
+            commitEvent.logAppendNanos += clock.nanos() - startNanos;
+        }
+    }
+
+    private class TimedLogForceEvent implements LogForceEvent
+    {
+        private final long startTimeNanos;
+        private int groupSize = 1;
+
+        TimedLogForceEvent( long startTimeNanos )
+        {
+            this.startTimeNanos = startTimeNanos;
+        }
+
+        @Override
+        public void setGroupSize( int groupSize )
+        {
+            this.groupSize = groupSize;
+        }
+
+        @Override
+        public void close()
+        {
+            // Reported straight from the forcing thread, since log forces are far too frequent to warrant a job each
+            logForceMonitor.logForced( clock.nanos() - startTimeNanos, groupSize );
+        }
+    }
 }
@@ -34,6 +34,10 @@ import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.neo4j.collection.pool.Pool;
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.graphdb.TransactionTerminatedException;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.ExplicitIndexRead;
@@ -65,6 +69,7 @@ import org.neo4j.kernel.api.schema.index.IndexDescriptor;
 import org.neo4j.kernel.api.txstate.ExplicitIndexTransactionState;
 import org.neo4j.kernel.api.txstate.TransactionState;
 import org.neo4j.kernel.api.txstate.TxStateHolder;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.state.TxState;
 import org.neo4j.kernel.impl.factory.AccessCapability;
@@ -82,15 +87,20 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.tracing.CommandExtractionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LockAcquisitionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.resources.CpuClock;
 import org.neo4j.resources.HeapAllocation;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StorageStatement;
 import org.neo4j.storageengine.api.StoreReadLayer;
+import org.neo4j.storageengine.api.lock.ResourceType;
 import org.neo4j.storageengine.api.txstate.TxStateVisitor;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
@@ -133,10 +143,14 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private final StoreReadLayer storeLayer;
     private final Clock clock;
     private final AccessCapability accessCapability;
+    private final boolean lockFreeSchemaReads;
+    private final long maxTxStateBytes;
+    private final CollectionsFactorySupplier collectionsFactorySupplier;
 
     // State that needs to be reset between uses. Most of these should be cleared or released in #release(),
     // whereas others, such as timestamp or txId when transaction starts, even locks, needs to be set in #initialize().
     private TransactionState txState;
+    private CollectionsFactory txStateCollections;
     private ExplicitIndexTransactionState explicitIndexTransactionState;
     private TransactionWriteState writeState;
     private TransactionHooks.TransactionHooksState hooksState;
@@ -164,6 +178,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private volatile int reuseCount;
     private volatile Map<String,Object> userMetaData;
     private final Operations operations;
+    private Map<ResourceType,PrimitiveLongSet> skippedSchemaLocks;
+    private long schemaVersionWhenLocksSkipped;
 
     /**
      * Lock prevents transaction {@link #markForTermination(Status)}  transaction termination} from interfering with
@@ -182,7 +198,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             Pool<KernelTransactionImplementation> pool, Clock clock, AtomicReference<CpuClock> cpuClockRef, AtomicReference<HeapAllocation> heapAllocationRef,
             TransactionTracer transactionTracer, LockTracer lockTracer, PageCursorTracerSupplier cursorTracerSupplier,
             StorageEngine storageEngine, AccessCapability accessCapability, KernelToken token, DefaultCursors cursors, AutoIndexing autoIndexing,
-            ExplicitIndexStore explicitIndexStore, VersionContextSupplier versionContextSupplier )
+            ExplicitIndexStore explicitIndexStore, VersionContextSupplier versionContextSupplier,
+            CollectionsFactorySupplier collectionsFactorySupplier, Config config )
     {
         this.statementOperations = statementOperations;
         this.schemaWriteGuard = schemaWriteGuard;
@@ -199,11 +216,14 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.transactionTracer = transactionTracer;
         this.cursorTracerSupplier = cursorTracerSupplier;
         this.versionContextSupplier = versionContextSupplier;
+        this.collectionsFactorySupplier = collectionsFactorySupplier;
         this.storageStatement = storeLayer.newStatement();
         this.currentStatement = new KernelStatement( this, this, storageStatement,
                 procedures, accessCapability, lockTracer, statementOperations, new ClockContext( clock ),
                 versionContextSupplier );
         this.accessCapability = accessCapability;
+        this.lockFreeSchemaReads = config.get( GraphDatabaseSettings.lock_free_schema_reads );
+        this.maxTxStateBytes = config.get( GraphDatabaseSettings.transaction_state_max_size );
         this.statistics = new Statistics( this, cpuClockRef, heapAllocationRef );
         this.userMetaData = new HashMap<>();
         AllStoreHolder allStoreHolder =
@@ -234,6 +254,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.failure = false;
         this.success = false;
         this.writeState = TransactionWriteState.NONE;
+        this.skippedSchemaLocks = null;
         this.startTimeMillis = clock.millis();
         this.timeoutMillis = transactionTimeout;
         this.lastTransactionIdWhenStarted = lastCommittedTx;
@@ -383,12 +404,60 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     void upgradeToDataWrites() throws InvalidTransactionTypeKernelException
     {
         writeState = writeState.upgradeToDataWrites();
+        acquireSkippedSchemaLocks();
     }
 
     void upgradeToSchemaWrites() throws InvalidTransactionTypeKernelException
     {
         schemaWriteGuard.assertSchemaWritesAllowed();
         writeState = writeState.upgradeToSchemaWrites();
+        acquireSkippedSchemaLocks();
+    }
+
+    /**
+     * Called before taking a shared lock on a label or relationship type, to read the schema of it. With
+     * {@link GraphDatabaseSettings#lock_free_schema_reads lock free schema reads}, a transaction that has not written
+     * anything skips the lock, and remembers the version of the schema that it read instead.
+     *
+     * @return {@code true} if the lock is skipped, otherwise the caller takes the lock as usual.
+     */
+    public boolean skipSharedSchemaLock( ResourceType resourceType, long resourceId )
+    {
+        if ( !lockFreeSchemaReads || writeState != TransactionWriteState.NONE )
+        {
+            return false;
+        }
+        if ( skippedSchemaLocks == null )
+        {
+            skippedSchemaLocks = new HashMap<>();
+            schemaVersionWhenLocksSkipped = storeLayer.schemaVersion();
+        }
+        skippedSchemaLocks.computeIfAbsent( resourceType, type -> Primitive.longSet() ).add( resourceId );
+        return true;
+    }
+
+    /**
+     * A transaction that read the schema without locks is about to write, possibly based on what it read. It takes
+     * the skipped locks now, and is terminated if the schema has changed since it was read.
+     */
+    private void acquireSkippedSchemaLocks()
+    {
+        if ( skippedSchemaLocks == null )
+        {
+            return;
+        }
+        Map<ResourceType,PrimitiveLongSet> locks = skippedSchemaLocks;
+        skippedSchemaLocks = null;
+        for ( Map.Entry<ResourceType,PrimitiveLongSet> lock : locks.entrySet() )
+        {
+            long[] resourceIds = PrimitiveLongCollections.asArray( lock.getValue().iterator() );
+            statementLocks.optimistic().acquireShared( lockTracer(), lock.getKey(), resourceIds );
+        }
+        if ( storeLayer.schemaVersion() != schemaVersionWhenLocksSkipped )
+        {
+            markForTermination( Status.Transaction.Outdated );
+            throw new TransactionTerminatedException( Status.Transaction.Outdated );
+        }
     }
 
     private void dropCreatedConstraintIndexes() throws TransactionFailureException
@@ -409,7 +478,9 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         if ( txState == null )
         {
             transactionMonitor.upgradeToWriteTransaction();
-            txState = new TxState();
+            txStateCollections = collectionsFactorySupplier.create();
+            txState = new TxState( txStateCollections, maxTxStateBytes,
+                    () -> markForTermination( Status.Transaction.TransactionStateTooLarge ) );
         }
         return txState;
     }
@@ -591,22 +662,28 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             // Convert changes into commands and commit
             if ( hasChanges() )
             {
-                // grab all optimistic locks now, locks can't be deferred any further
-                statementLocks.prepareForCommit( currentStatement.lockTracer() );
+                try ( LockAcquisitionEvent lockAcquisitionEvent = commitEvent.beginLockAcquisition() )
+                {
+                    // grab all optimistic locks now, locks can't be deferred any further
+                    statementLocks.prepareForCommit( currentStatement.lockTracer() );
+                }
                 // use pessimistic locks for the rest of the commit process, locks can't be deferred any further
                 Locks.Client commitLocks = statementLocks.pessimistic();
 
                 // Gather up commands from the various sources
                 Collection<StorageCommand> extractedCommands = new ArrayList<>();
-                storageEngine.createCommands(
-                        extractedCommands,
-                        txState,
-                        storageStatement,
-                        commitLocks,
-                        lastTransactionIdWhenStarted );
-                if ( hasExplicitIndexChanges() )
+                try ( CommandExtractionEvent commandExtractionEvent = commitEvent.beginCommandExtraction() )
                 {
-                    explicitIndexTransactionState.extractCommands( extractedCommands );
+                    storageEngine.createCommands(
+                            extractedCommands,
+                            txState,
+                            storageStatement,
+                            commitLocks,
+                            lastTransactionIdWhenStarted );
+                    if ( hasExplicitIndexChanges() )
+                    {
+                        explicitIndexTransactionState.extractCommands( extractedCommands );
+                    }
                 }
 
                 /* Here's the deal: we track a quick-to-access hasChanges in transaction state which is true
@@ -843,6 +920,11 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             transactionEvent = null;
             explicitIndexTransactionState = null;
             txState = null;
+            if ( txStateCollections != null )
+            {
+                txStateCollections.release();
+                txStateCollections = null;
+            }
             hooksState = null;
             closeListeners.clear();
             reuseCount++;
@@ -1001,6 +1083,16 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             return heapAllocation.allocatedBytes( transactionThreadId ) - heapAllocatedBytesWhenQueryStarted;
         }
 
+        /**
+         * Return estimated heap memory taken up by the transaction state of current transaction.
+         * @return estimated size of the transaction state, in bytes.
+         */
+        long estimatedTxStateBytes()
+        {
+            TransactionState txState = transaction.txState;
+            return txState != null ? txState.estimatedMemoryUsage() : 0;
+        }
+
         /**
          * Return CPU time used by current transaction in milliseconds
          * @return the current CPU time used by the transaction, in milliseconds.
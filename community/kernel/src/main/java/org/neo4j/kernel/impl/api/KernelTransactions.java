@@ -40,6 +40,7 @@ import org.neo4j.kernel.api.KernelTransactionHandle;
 import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.api.explicitindex.AutoIndexing;
 import org.neo4j.kernel.api.txstate.ExplicitIndexTransactionState;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.state.ExplicitIndexTransactionStateImpl;
 import org.neo4j.kernel.impl.factory.AccessCapability;
@@ -55,6 +56,7 @@ import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.util.MonotonicCounter;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.kernel.monitoring.tracing.Tracers;
 import org.neo4j.resources.CpuClock;
@@ -94,6 +96,8 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
     private final Supplier<ExplicitIndexTransactionState> explicitIndexTxStateSupplier;
     private final SystemNanoClock clock;
     private final VersionContextSupplier versionContextSupplier;
+    private final CollectionsFactorySupplier collectionsFactorySupplier;
+    private final Config config;
     private final ReentrantReadWriteLock newTransactionsLock = new ReentrantReadWriteLock();
     private final MonotonicCounter userTransactionIdCounter = MonotonicCounter.newAtomicMonotonicCounter();
     private final DefaultCursors cursors;
@@ -140,7 +144,8 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
             AtomicReference<CpuClock> cpuClockRef, AtomicReference<HeapAllocation> heapAllocationRef, AccessCapability accessCapability,
             KernelToken token, DefaultCursors cursors,
             AutoIndexing autoIndexing,
-            ExplicitIndexStore explicitIndexStore, VersionContextSupplier versionContextSupplier )
+            ExplicitIndexStore explicitIndexStore, VersionContextSupplier versionContextSupplier,
+            CollectionsFactorySupplier collectionsFactorySupplier, Config config )
     {
         this.statementLocksFactory = statementLocksFactory;
         this.constraintIndexCreator = constraintIndexCreator;
@@ -164,6 +169,8 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
                 new CachingExplicitIndexTransactionState(
                         new ExplicitIndexTransactionStateImpl( indexConfigStore, explicitIndexProviderLookup ) );
         this.versionContextSupplier = versionContextSupplier;
+        this.collectionsFactorySupplier = collectionsFactorySupplier;
+        this.config = config;
         this.clock = clock;
         blockNewTransactions();
         this.cursors = cursors;
@@ -355,7 +362,7 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
                             transactionCommitProcess, transactionMonitor, explicitIndexTxStateSupplier, localTxPool,
                             clock, cpuClockRef, heapAllocationRef, tracers.transactionTracer, tracers.lockTracer,
                             tracers.pageCursorTracerSupplier, storageEngine, accessCapability, token, cursors, autoIndexing,
-                            explicitIndexStore, versionContextSupplier );
+                            explicitIndexStore, versionContextSupplier, collectionsFactorySupplier, config );
             this.transactions.add( tx );
             return tx;
         }
@@ -309,11 +309,22 @@ public class LockingStatementOperations implements
 
     private void lockRelationshipNodes( KernelStatement state, long startNodeId, long endNodeId )
     {
-        // Order the locks to lower the risk of deadlocks with other threads creating/deleting rels concurrently
-        acquireExclusiveNodeLock( state, min( startNodeId, endNodeId ) );
-        if ( startNodeId != endNodeId )
+        // Take the locks in one batch, in node id order, to lower the risk of deadlocks with other threads
+        // creating/deleting rels concurrently
+        long lowNodeId = min( startNodeId, endNodeId );
+        long highNodeId = max( startNodeId, endNodeId );
+        if ( lowNodeId == highNodeId || nodeIsAddedInThisTx( state, highNodeId ) )
         {
-            acquireExclusiveNodeLock( state, max( startNodeId, endNodeId ) );
+            acquireExclusiveNodeLock( state, lowNodeId );
+        }
+        else if ( nodeIsAddedInThisTx( state, lowNodeId ) )
+        {
+            acquireExclusiveNodeLock( state, highNodeId );
+        }
+        else
+        {
+            state.locks().optimistic().acquireExclusive( state.lockTracer(), ResourceTypes.NODE,
+                    lowNodeId, highNodeId );
         }
     }
 
@@ -361,7 +372,7 @@ public class LockingStatementOperations implements
     @Override
     public Iterator<ConstraintDescriptor> constraintsGetForSchema( KernelStatement state, SchemaDescriptor descriptor )
     {
-        sharedOptimisticLock( state, descriptor.keyType(), descriptor.keyId() );
+        sharedSchemaLock( state, descriptor.keyType(), descriptor.keyId() );
         state.assertOpen();
         return schemaReadDelegate.constraintsGetForSchema( state, descriptor );
     }
@@ -370,7 +381,7 @@ public class LockingStatementOperations implements
     public boolean constraintExists( KernelStatement state, ConstraintDescriptor descriptor )
     {
         SchemaDescriptor schema = descriptor.schema();
-        sharedOptimisticLock( state, schema.keyType(), schema.keyId() );
+        sharedSchemaLock( state, schema.keyType(), schema.keyId() );
         state.assertOpen();
         return schemaReadDelegate.constraintExists( state, descriptor );
     }
@@ -399,7 +410,14 @@ public class LockingStatementOperations implements
         return Iterators.map( constraintDescriptor ->
         {
             SchemaDescriptor schema = constraintDescriptor.schema();
-            acquireShared( state, schema.keyType(), schema.keyId() );
+            if ( state.getTransaction().skipSharedSchemaLock( schema.keyType(), schema.keyId() ) )
+            {
+                state.assertOpen();
+            }
+            else
+            {
+                acquireShared( state, schema.keyType(), schema.keyId() );
+            }
             return constraintDescriptor;
         }, schemaReadDelegate.constraintsGetAll( state ) );
     }
@@ -504,12 +522,17 @@ public class LockingStatementOperations implements
 
     private void acquireExclusiveNodeLock( KernelStatement state, long nodeId )
     {
-        if ( !state.hasTxStateWithChanges() || !state.txState().nodeIsAddedInThisTx( nodeId ) )
+        if ( !nodeIsAddedInThisTx( state, nodeId ) )
         {
             exclusiveOptimisticLock( state, ResourceTypes.NODE, nodeId );
         }
     }
 
+    private boolean nodeIsAddedInThisTx( KernelStatement state, long nodeId )
+    {
+        return state.hasTxStateWithChanges() && state.txState().nodeIsAddedInThisTx( nodeId );
+    }
+
     private void acquireExclusiveRelationshipLock( KernelStatement state, long relationshipId )
     {
         if ( !state.hasTxStateWithChanges() || !state.txState().relationshipIsAddedInThisTx( relationshipId ) )
@@ -525,7 +548,7 @@ public class LockingStatementOperations implements
 
     private void sharedLabelLock( KernelStatement state, long labelId )
     {
-        sharedOptimisticLock( state, ResourceTypes.LABEL, labelId );
+        sharedSchemaLock( state, ResourceTypes.LABEL, labelId );
     }
 
     private void exclusiveRelationshipTypeLock( KernelStatement state, long typeId )
@@ -535,12 +558,15 @@ public class LockingStatementOperations implements
 
     private void sharedRelationshipTypeLock( KernelStatement state, long typeId )
     {
-        sharedOptimisticLock( state, ResourceTypes.RELATIONSHIP_TYPE, typeId );
+        sharedSchemaLock( state, ResourceTypes.RELATIONSHIP_TYPE, typeId );
     }
 
-    private void sharedOptimisticLock( KernelStatement statement, ResourceType resource, long resourceId )
+    private void sharedSchemaLock( KernelStatement statement, ResourceType resource, long resourceId )
     {
-        statement.locks().optimistic().acquireShared( statement.lockTracer(), resource, resourceId );
+        if ( !statement.getTransaction().skipSharedSchemaLock( resource, resourceId ) )
+        {
+            statement.locks().optimistic().acquireShared( statement.lockTracer(), resource, resourceId );
+        }
     }
 
     private void exclusiveOptimisticLock( KernelStatement statement, ResourceType resource, long resourceId )
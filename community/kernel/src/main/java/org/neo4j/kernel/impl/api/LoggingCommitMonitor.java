@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.neo4j.logging.Log;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Logs the time spent in each phase of the commits that take longer than a given threshold.
+ */
+public class LoggingCommitMonitor implements DefaultTransactionTracer.CommitMonitor
+{
+    private final Log log;
+    private final long thresholdNanos;
+
+    public LoggingCommitMonitor( Log log, long thresholdNanos )
+    {
+        this.log = log;
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    @Override
+    public void transactionCommitted( long lockAcquisitionNanos, long commandExtractionNanos, long logAppendNanos,
+            long logForceWaitNanos, long storeApplyNanos, long totalNanos )
+    {
+        if ( totalNanos >= thresholdNanos )
+        {
+            log.info( String.format( "Slow commit took %d ms: lock acquisition %d ms, command extraction %d ms, " +
+                                     "log append %d ms, log force wait %d ms, store apply %d ms.",
+                    NANOSECONDS.toMillis( totalNanos ), NANOSECONDS.toMillis( lockAcquisitionNanos ),
+                    NANOSECONDS.toMillis( commandExtractionNanos ), NANOSECONDS.toMillis( logAppendNanos ),
+                    NANOSECONDS.toMillis( logForceWaitNanos ), NANOSECONDS.toMillis( storeApplyNanos ) ) );
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionLogError;
+
+/**
+ * A {@link TransactionCommitProcess} that commits in two pipelined stages: a log append stage and a store apply
+ * stage.
+ * <p>
+ * Committing threads append their transactions to the log concurrently, and the {@link BatchingTransactionAppender}
+ * lets them share log forces. Then they hand their transactions to the store apply stage, and wait for them to be
+ * applied. The apply stage is run by one of the waiting threads at a time, which applies all the transactions that
+ * have been handed to the stage so far, as one batch. This way the next group of transactions can be appended to, and
+ * forced in, the log while the previous group is being applied to the store, and the store gets to apply the
+ * transactions in batches, like it does for transactions from a {@link TransactionQueue}.
+ */
+public class PipelinedTransactionCommitProcess implements TransactionCommitProcess
+{
+    public interface Monitor
+    {
+        /**
+         * A batch of transactions has been appended to the log, and the log has been forced.
+         */
+        void logAppended( long appendNanos );
+
+        /**
+         * A batch of transactions has waited for the apply stage to get around to applying it.
+         */
+        void applyStageWaited( long waitNanos );
+
+        /**
+         * A group of transactions, from one or more batches, has been applied to the store.
+         */
+        void storeApplied( int transactions, long applyNanos );
+    }
+
+    private final TransactionAppender appender;
+    private final StorageEngine storageEngine;
+    private final Monitor monitor;
+    private final Queue<PendingApply> pendingApplies = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock applyStage = new ReentrantLock();
+
+    public PipelinedTransactionCommitProcess( TransactionAppender appender, StorageEngine storageEngine,
+            Monitor monitor )
+    {
+        this.appender = appender;
+        this.storageEngine = storageEngine;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public long commit( TransactionToApply batch, CommitEvent commitEvent,
+            TransactionApplicationMode mode ) throws TransactionFailureException
+    {
+        long lastTxId = appendToLog( batch, commitEvent );
+        try
+        {
+            applyToStore( batch, commitEvent, mode );
+            return lastTxId;
+        }
+        finally
+        {
+            close( batch );
+        }
+    }
+
+    private long appendToLog( TransactionToApply batch, CommitEvent commitEvent ) throws TransactionFailureException
+    {
+        long startNanos = System.nanoTime();
+        try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+        {
+            return appender.append( batch, logAppendEvent );
+        }
+        catch ( Throwable cause )
+        {
+            throw new TransactionFailureException( TransactionLogError, cause,
+                    "Could not append transaction representation to log" );
+        }
+        finally
+        {
+            monitor.logAppended( System.nanoTime() - startNanos );
+        }
+    }
+
+    private void applyToStore( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+            throws TransactionFailureException
+    {
+        PendingApply pending = new PendingApply( batch, commitEvent, mode );
+        pendingApplies.offer( pending );
+        applyStage.lock();
+        try
+        {
+            // Whoever held the apply stage before us might already have applied our batch, along with their own.
+            if ( !pending.applied )
+            {
+                applyPendingBatches();
+            }
+        }
+        finally
+        {
+            applyStage.unlock();
+        }
+        if ( pending.failure != null )
+        {
+            throw new TransactionFailureException( TransactionCommitFailed, pending.failure,
+                    "Could not apply the transaction to the store after written to log" );
+        }
+    }
+
+    /**
+     * Apply all the batches that are waiting in the queue. Consecutive batches with the same application mode are
+     * linked together and applied as one group.
+     */
+    private void applyPendingBatches()
+    {
+        List<PendingApply> group = new ArrayList<>();
+        PendingApply pending;
+        while ( (pending = pendingApplies.poll()) != null )
+        {
+            if ( !group.isEmpty() && group.get( 0 ).mode != pending.mode )
+            {
+                applyGroup( group );
+                group.clear();
+            }
+            group.add( pending );
+        }
+        if ( !group.isEmpty() )
+        {
+            applyGroup( group );
+        }
+    }
+
+    private void applyGroup( List<PendingApply> group )
+    {
+        long startNanos = System.nanoTime();
+        int transactions = 0;
+        List<StoreApplyEvent> storeApplyEvents = new ArrayList<>( group.size() );
+        for ( int i = 0; i < group.size(); i++ )
+        {
+            PendingApply pending = group.get( i );
+            monitor.applyStageWaited( startNanos - pending.queuedNanos );
+            storeApplyEvents.add( pending.commitEvent.beginStoreApply() );
+            transactions += pending.transactions;
+            if ( i > 0 )
+            {
+                group.get( i - 1 ).last.next( pending.first );
+            }
+        }
+
+        Throwable failure = null;
+        try
+        {
+            storageEngine.apply( group.get( 0 ).first, group.get( 0 ).mode );
+        }
+        catch ( Throwable cause )
+        {
+            failure = cause;
+        }
+        finally
+        {
+            // Unlink the batches again, so each committing thread only closes its own transactions.
+            for ( PendingApply pending : group )
+            {
+                pending.last.next( null );
+                pending.failure = failure;
+                pending.applied = true;
+            }
+            for ( StoreApplyEvent storeApplyEvent : storeApplyEvents )
+            {
+                storeApplyEvent.close();
+            }
+            monitor.storeApplied( transactions, System.nanoTime() - startNanos );
+        }
+    }
+
+    private void close( TransactionToApply batch )
+    {
+        while ( batch != null )
+        {
+            if ( batch.commitment().markedAsCommitted() )
+            {
+                batch.commitment().publishAsClosed();
+            }
+            batch.close();
+            batch = batch.next();
+        }
+    }
+
+    /**
+     * A batch of transactions that has been appended to the log, and is waiting to be applied to the store. The
+     * fields that are written by the apply stage are read by the committing thread after it has been through the
+     * apply stage lock.
+     */
+    private static class PendingApply
+    {
+        final TransactionToApply first;
+        final TransactionToApply last;
+        final int transactions;
+        final CommitEvent commitEvent;
+        final TransactionApplicationMode mode;
+        final long queuedNanos;
+        boolean applied;
+        Throwable failure;
+
+        PendingApply( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+        {
+            TransactionToApply last = batch;
+            int transactions = 1;
+            while ( last.next() != null )
+            {
+                last = last.next();
+                transactions++;
+            }
+            this.first = batch;
+            this.last = last;
+            this.transactions = transactions;
+            this.commitEvent = commitEvent;
+            this.mode = mode;
+            this.queuedNanos = System.nanoTime();
+        }
+    }
+}
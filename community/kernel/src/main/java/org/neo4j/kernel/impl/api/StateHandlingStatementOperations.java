@@ -538,7 +538,7 @@ public class StateHandlingStatementOperations implements
         PrimitiveLongResourceIterator committed = storeLayer.nodesGetForLabel( state.getStoreStatement(), labelId );
         if ( state.hasTxStateWithChanges() )
         {
-            PrimitiveLongResourceIterator wLabelChanges = state.txState().nodesWithLabelChanged( labelId ).augment( committed );
+            PrimitiveLongIterator wLabelChanges = state.txState().nodesWithLabelChanged( labelId ).augment( committed );
             return state.txState().addedAndRemovedNodes().augmentWithRemovals( wLabelChanges );
         }
 
@@ -950,7 +950,7 @@ public class StateHandlingStatementOperations implements
         {
             PrimitiveLongReadableDiffSets labelPropertyChanges =
                     state.txState().indexUpdatesForScan( index );
-            ReadableDiffSets<Long> nodes = state.txState().addedAndRemovedNodes();
+            PrimitiveLongReadableDiffSets nodes = state.txState().addedAndRemovedNodes();
 
             // Apply to actual index lookup
             return nodes.augmentWithRemovals( labelPropertyChanges.augment( nodeIds ) );
@@ -966,7 +966,7 @@ public class StateHandlingStatementOperations implements
         {
             PrimitiveLongReadableDiffSets labelPropertyChanges =
                     state.txState().indexUpdatesForSeek( index, propertyValues );
-            ReadableDiffSets<Long> nodes = state.txState().addedAndRemovedNodes();
+            PrimitiveLongReadableDiffSets nodes = state.txState().addedAndRemovedNodes();
 
             // Apply to actual index lookup
             return nodes.augmentWithRemovals( labelPropertyChanges.augment( nodeIds ) );
@@ -985,7 +985,7 @@ public class StateHandlingStatementOperations implements
             TransactionState txState = state.txState();
             PrimitiveLongReadableDiffSets labelPropertyChangesForNumber =
                     txState.indexUpdatesForRangeSeekByNumber( index, lower, includeLower, upper, includeUpper );
-            ReadableDiffSets<Long> nodes = txState.addedAndRemovedNodes();
+            PrimitiveLongReadableDiffSets nodes = txState.addedAndRemovedNodes();
 
             // Apply to actual index lookup
             return nodes.augmentWithRemovals( labelPropertyChangesForNumber.augment( nodeIds ) );
@@ -1004,7 +1004,7 @@ public class StateHandlingStatementOperations implements
             TransactionState txState = state.txState();
             PrimitiveLongReadableDiffSets labelPropertyChangesForGeometry =
                     txState.indexUpdatesForRangeSeekByGeometry( index, lower, includeLower, upper, includeUpper );
-            ReadableDiffSets<Long> nodes = txState.addedAndRemovedNodes();
+            PrimitiveLongReadableDiffSets nodes = txState.addedAndRemovedNodes();
 
             // Apply to actual index lookup
             return nodes.augmentWithRemovals( labelPropertyChangesForGeometry.augment( nodeIds ) );
@@ -1023,7 +1023,7 @@ public class StateHandlingStatementOperations implements
             TransactionState txState = state.txState();
             PrimitiveLongReadableDiffSets labelPropertyChangesForString = txState.indexUpdatesForRangeSeekByString(
                             index, lower, includeLower, upper, includeUpper );
-            ReadableDiffSets<Long> nodes = txState.addedAndRemovedNodes();
+            PrimitiveLongReadableDiffSets nodes = txState.addedAndRemovedNodes();
 
             // Apply to actual index lookup
             return nodes.augmentWithRemovals( labelPropertyChangesForString.augment( nodeIds ) );
@@ -1041,7 +1041,7 @@ public class StateHandlingStatementOperations implements
             TransactionState txState = state.txState();
             PrimitiveLongReadableDiffSets labelPropertyChangesForPrefix =
                     txState.indexUpdatesForRangeSeekByPrefix( index, prefix );
-            ReadableDiffSets<Long> nodes = txState.addedAndRemovedNodes();
+            PrimitiveLongReadableDiffSets nodes = txState.addedAndRemovedNodes();
 
             // Apply to actual index lookup
             return nodes.augmentWithRemovals( labelPropertyChangesForPrefix.augment( nodeIds ) );
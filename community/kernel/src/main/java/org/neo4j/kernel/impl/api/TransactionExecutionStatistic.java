@@ -34,6 +34,7 @@ public class TransactionExecutionStatistic
     private final Long idleTimeMillis;
     private final long pageFaults;
     private final long pageHits;
+    private final long estimatedTxStateBytes;
 
     private TransactionExecutionStatistic()
     {
@@ -44,6 +45,7 @@ public class TransactionExecutionStatistic
         idleTimeMillis = null;
         pageFaults = 0;
         pageHits = 0;
+        estimatedTxStateBytes = 0;
     }
 
     public TransactionExecutionStatistic( KernelTransactionImplementation tx, SystemNanoClock clock, long startTimeMillis )
@@ -58,6 +60,7 @@ public class TransactionExecutionStatistic
         this.cpuTimeMillis = cpuTimeMillis >= 0 ? cpuTimeMillis : null;
         this.pageFaults = statistics.totalTransactionPageCacheFaults();
         this.pageHits = statistics.totalTransactionPageCacheHits();
+        this.estimatedTxStateBytes = statistics.estimatedTxStateBytes();
         this.elapsedTimeMillis = nowMillis - startTimeMillis;
         this.idleTimeMillis = this.cpuTimeMillis != null ? elapsedTimeMillis - this.cpuTimeMillis - waitTimeMillis : null;
     }
@@ -96,4 +99,9 @@ public class TransactionExecutionStatistic
     {
         return pageFaults;
     }
+
+    public long getEstimatedTxStateBytes()
+    {
+        return estimatedTxStateBytes;
+    }
 }
@@ -29,13 +29,14 @@ import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.internal.kernel.api.exceptions.schema.ConstraintValidationException;
 import org.neo4j.kernel.impl.api.state.RelationshipChangesForNode.DiffStrategy;
 import org.neo4j.kernel.impl.newapi.RelationshipDirection;
-import org.neo4j.kernel.impl.util.diffsets.DiffSets;
+import org.neo4j.kernel.impl.util.diffsets.EmptyPrimitiveIntReadableDiffSets;
+import org.neo4j.kernel.impl.util.diffsets.PrimitiveIntDiffSets;
 import org.neo4j.kernel.impl.util.diffsets.PrimitiveLongDiffSets;
 import org.neo4j.storageengine.api.Direction;
 import org.neo4j.storageengine.api.StorageProperty;
 import org.neo4j.storageengine.api.txstate.NodeState;
+import org.neo4j.storageengine.api.txstate.PrimitiveIntReadableDiffSets;
 import org.neo4j.storageengine.api.txstate.PropertyContainerState;
-import org.neo4j.storageengine.api.txstate.ReadableDiffSets;
 
 import static java.util.Collections.emptyIterator;
 import static org.neo4j.collection.primitive.Primitive.intSet;
@@ -80,9 +81,9 @@ class NodeStateImpl extends PropertyContainerStateImpl implements NodeState
         }
 
         @Override
-        public ReadableDiffSets<Integer> labelDiffSets()
+        public PrimitiveIntReadableDiffSets labelDiffSets()
         {
-            return ReadableDiffSets.Empty.instance();
+            return EmptyPrimitiveIntReadableDiffSets.INSTANCE;
         }
 
         @Override
@@ -175,7 +176,7 @@ class NodeStateImpl extends PropertyContainerStateImpl implements NodeState
         }
     };
 
-    private DiffSets<Integer> labelDiffSets;
+    private PrimitiveIntDiffSets labelDiffSets;
     private RelationshipChangesForNode relationshipsAdded;
     private RelationshipChangesForNode relationshipsRemoved;
 
@@ -189,16 +190,16 @@ class NodeStateImpl extends PropertyContainerStateImpl implements NodeState
     }
 
     @Override
-    public ReadableDiffSets<Integer> labelDiffSets()
+    public PrimitiveIntReadableDiffSets labelDiffSets()
     {
-        return ReadableDiffSets.Empty.ifNull( labelDiffSets );
+        return labelDiffSets == null ? EmptyPrimitiveIntReadableDiffSets.INSTANCE : labelDiffSets;
     }
 
-    DiffSets<Integer> getOrCreateLabelDiffSets()
+    PrimitiveIntDiffSets getOrCreateLabelDiffSets()
     {
         if ( null == labelDiffSets )
         {
-            labelDiffSets = new DiffSets<>();
+            labelDiffSets = new PrimitiveIntDiffSets();
         }
         return labelDiffSets;
     }
@@ -22,6 +22,8 @@ package org.neo4j.kernel.impl.api.state;
 import java.util.Map;
 
 import org.neo4j.kernel.impl.util.VersionedHashMap;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
 import org.neo4j.kernel.impl.util.diffsets.EmptyPrimitiveLongReadableDiffSets;
 import org.neo4j.kernel.impl.util.diffsets.PrimitiveLongDiffSets;
 import org.neo4j.storageengine.api.txstate.PrimitiveLongReadableDiffSets;
@@ -31,8 +33,19 @@ import org.neo4j.storageengine.api.txstate.PrimitiveLongReadableDiffSets;
  */
 public class PropertyChanges
 {
+    private final CollectionsFactory collectionsFactory;
     private VersionedHashMap<Integer, Map<Object,PrimitiveLongDiffSets>> changes;
 
+    public PropertyChanges()
+    {
+        this( OnHeapCollectionsFactory.INSTANCE );
+    }
+
+    public PropertyChanges( CollectionsFactory collectionsFactory )
+    {
+        this.collectionsFactory = collectionsFactory;
+    }
+
     public PrimitiveLongReadableDiffSets changesForProperty( int propertyKeyId, Object value )
     {
         if ( changes != null )
@@ -79,6 +92,6 @@ public class PropertyChanges
 
     private PrimitiveLongDiffSets valueChanges( Object newValue, Map<Object, PrimitiveLongDiffSets> keyChanges )
     {
-        return keyChanges.computeIfAbsent( newValue, k -> new PrimitiveLongDiffSets() );
+        return keyChanges.computeIfAbsent( newValue, k -> new PrimitiveLongDiffSets( collectionsFactory ) );
     }
 }
@@ -21,15 +21,14 @@ package org.neo4j.kernel.impl.api.state;
 
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Consumer;
 
 import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveIntObjectMap;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveIntObjectVisitor;
 import org.neo4j.collection.primitive.PrimitiveIntSet;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
@@ -37,6 +36,7 @@ import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
 import org.neo4j.collection.primitive.PrimitiveLongResourceIterator;
 import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.cursor.Cursor;
+import org.neo4j.graphdb.TransactionTerminatedException;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.internal.kernel.api.exceptions.schema.ConstraintValidationException;
 import org.neo4j.internal.kernel.api.schema.LabelSchemaDescriptor;
@@ -44,6 +44,7 @@ import org.neo4j.internal.kernel.api.schema.SchemaDescriptor;
 import org.neo4j.internal.kernel.api.schema.SchemaDescriptorPredicates;
 import org.neo4j.internal.kernel.api.schema.constraints.ConstraintDescriptor;
 import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.api.exceptions.schema.CreateConstraintFailureException;
 import org.neo4j.kernel.api.schema.constaints.IndexBackedConstraintDescriptor;
 import org.neo4j.kernel.api.schema.index.IndexDescriptor;
@@ -57,10 +58,13 @@ import org.neo4j.kernel.impl.api.cursor.TxSinglePropertyCursor;
 import org.neo4j.kernel.impl.api.cursor.TxSingleRelationshipCursor;
 import org.neo4j.kernel.impl.api.store.RelationshipIterator;
 import org.neo4j.kernel.impl.util.InstanceCache;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.diffsets.DiffApplyingRelationshipIterator;
 import org.neo4j.kernel.impl.util.diffsets.DiffSets;
 import org.neo4j.kernel.impl.util.diffsets.EmptyPrimitiveLongReadableDiffSets;
+import org.neo4j.kernel.impl.util.diffsets.PrimitiveIntDiffSets;
 import org.neo4j.kernel.impl.util.diffsets.PrimitiveLongDiffSets;
-import org.neo4j.kernel.impl.util.diffsets.RelationshipDiffSets;
 import org.neo4j.storageengine.api.Direction;
 import org.neo4j.storageengine.api.NodeItem;
 import org.neo4j.storageengine.api.PropertyItem;
@@ -68,20 +72,21 @@ import org.neo4j.storageengine.api.RelationshipItem;
 import org.neo4j.storageengine.api.StorageProperty;
 import org.neo4j.storageengine.api.txstate.DiffSetsVisitor;
 import org.neo4j.storageengine.api.txstate.NodeState;
+import org.neo4j.storageengine.api.txstate.PrimitiveIntReadableDiffSets;
+import org.neo4j.storageengine.api.txstate.PrimitiveLongDiffSetsVisitor;
 import org.neo4j.storageengine.api.txstate.PrimitiveLongReadableDiffSets;
 import org.neo4j.storageengine.api.txstate.PropertyContainerState;
 import org.neo4j.storageengine.api.txstate.ReadableDiffSets;
-import org.neo4j.storageengine.api.txstate.ReadableRelationshipDiffSets;
 import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
 import org.neo4j.storageengine.api.txstate.RelationshipState;
 import org.neo4j.storageengine.api.txstate.TxStateVisitor;
+import org.neo4j.values.storable.ArrayValue;
 import org.neo4j.values.storable.PointValue;
 import org.neo4j.values.storable.TextValue;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueTuple;
 import org.neo4j.values.storable.Values;
 
-import static org.neo4j.collection.primitive.PrimitiveLongCollections.toPrimitiveIterator;
 import static org.neo4j.helpers.collection.Iterables.map;
 
 /**
@@ -97,7 +102,16 @@ import static org.neo4j.helpers.collection.Iterables.map;
  */
 public class TxState implements TransactionState, RelationshipVisitor.Home
 {
-    private PrimitiveIntObjectMap<DiffSets<Long>> labelStatesMap;
+    /**
+     * Rough heap cost of recording one entity id in the state of a node or relationship, e.g. an added label or
+     * relationship. The diff sets of nodes, relationships, labels and property values have the cost of their
+     * {@link CollectionsFactory} instead.
+     */
+    private static final long ENTITY_ID_BYTES = 24;
+    /** Rough heap cost of recording one property change, not counting the value itself. */
+    private static final long PROPERTY_CHANGE_BYTES = 80;
+
+    private PrimitiveIntObjectMap<PrimitiveLongDiffSets> labelStatesMap;
     private PrimitiveLongObjectMap<NodeStateImpl> nodeStatesMap;
     private PrimitiveLongObjectMap<RelationshipStateImpl> relationshipStatesMap;
 
@@ -112,7 +126,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     private PropertyChanges propertyChangesForNodes;
 
     private RemovalsCountingDiffSets nodes;
-    private RemovalsCountingRelationshipsDiffSets relationships;
+    private RemovalsCountingDiffSets relationships;
 
     private Map<IndexBackedConstraintDescriptor, Long> createdConstraintIndexesByConstraint;
 
@@ -126,9 +140,39 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
 
     private boolean hasChanges;
     private boolean hasDataChanges;
+    // Written by the transaction thread only, but read by other threads, e.g. when listing transactions
+    private volatile long estimatedMemoryUsage;
+    private final long maxEstimatedMemoryUsage;
+    private final Runnable onMaxEstimatedMemoryUsageExceeded;
+    private final CollectionsFactory collectionsFactory;
+    private final long diffSetElementBytes;
 
     public TxState()
     {
+        this( 0, () -> {} );
+    }
+
+    public TxState( long maxEstimatedMemoryUsage, Runnable onMaxEstimatedMemoryUsageExceeded )
+    {
+        this( OnHeapCollectionsFactory.INSTANCE, maxEstimatedMemoryUsage, onMaxEstimatedMemoryUsageExceeded );
+    }
+
+    /**
+     * @param collectionsFactory makes the diff sets of nodes, relationships, labels and property values. The
+     * caller releases it once this state is no longer used.
+     * @param maxEstimatedMemoryUsage the maximum estimated heap memory usage, in bytes, or {@code 0} for no limit.
+     * The change that makes the estimate exceed it fails with a {@link TransactionTerminatedException}. Diff sets
+     * kept outside of the heap do not count towards it, their factory bounds their memory itself.
+     * @param onMaxEstimatedMemoryUsageExceeded called right before such a change fails, e.g. to terminate the
+     * transaction.
+     */
+    public TxState( CollectionsFactory collectionsFactory, long maxEstimatedMemoryUsage,
+            Runnable onMaxEstimatedMemoryUsageExceeded )
+    {
+        this.collectionsFactory = collectionsFactory;
+        this.diffSetElementBytes = collectionsFactory.heapBytesPerElement();
+        this.maxEstimatedMemoryUsage = maxEstimatedMemoryUsage;
+        this.onMaxEstimatedMemoryUsageExceeded = onMaxEstimatedMemoryUsageExceeded;
         singleNodeCursor = new InstanceCache<TxSingleNodeCursor>()
         {
             @Override
@@ -179,22 +223,22 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         // Created nodes
         if ( nodes != null )
         {
-            nodes.accept( createdNodesVisitor( visitor ) );
+            nodes.visit( createdNodesVisitor( visitor ) );
         }
 
         if ( relationships != null )
         {
             // Created relationships
-            relationships.accept( createdRelationshipsVisitor( this, visitor ) );
+            relationships.visit( createdRelationshipsVisitor( this, visitor ) );
 
             // Deleted relationships
-            relationships.accept( deletedRelationshipsVisitor( visitor ) );
+            relationships.visit( deletedRelationshipsVisitor( visitor ) );
         }
 
         // Deleted nodes
         if ( nodes != null )
         {
-            nodes.accept( deletedNodesVisitor( visitor ) );
+            nodes.visit( deletedNodesVisitor( visitor ) );
         }
 
         for ( NodeState node : modifiedNodes() )
@@ -238,43 +282,44 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         }
     }
 
-    private static DiffSetsVisitor<Long> deletedNodesVisitor( final TxStateVisitor visitor )
+    private static PrimitiveLongDiffSetsVisitor deletedNodesVisitor( final TxStateVisitor visitor )
     {
-        return new DiffSetsVisitor.Adapter<Long>()
+        return new PrimitiveLongDiffSetsVisitor.Adapter()
         {
             @Override
-            public void visitRemoved( Long element )
+            public void visitRemoved( long element )
             {
                 visitor.visitDeletedNode( element );
             }
         };
     }
 
-    private static DiffSetsVisitor<Long> createdNodesVisitor( final TxStateVisitor visitor )
+    private static PrimitiveLongDiffSetsVisitor createdNodesVisitor( final TxStateVisitor visitor )
     {
-        return new DiffSetsVisitor.Adapter<Long>()
+        return new PrimitiveLongDiffSetsVisitor.Adapter()
         {
             @Override
-            public void visitAdded( Long element )
+            public void visitAdded( long element )
             {
                 visitor.visitCreatedNode( element );
             }
         };
     }
 
-    private static DiffSetsVisitor<Long> deletedRelationshipsVisitor( final TxStateVisitor visitor )
+    private static PrimitiveLongDiffSetsVisitor deletedRelationshipsVisitor( final TxStateVisitor visitor )
     {
-        return new DiffSetsVisitor.Adapter<Long>()
+        return new PrimitiveLongDiffSetsVisitor.Adapter()
         {
             @Override
-            public void visitRemoved( Long id )
+            public void visitRemoved( long id )
             {
                 visitor.visitDeletedRelationship( id );
             }
         };
     }
 
-    private static DiffSetsVisitor<Long> createdRelationshipsVisitor( ReadableTransactionState tx, final TxStateVisitor visitor )
+    private static PrimitiveLongDiffSetsVisitor createdRelationshipsVisitor( ReadableTransactionState tx,
+            final TxStateVisitor visitor )
     {
         return new RelationshipChangeVisitorAdapter( tx )
         {
@@ -315,7 +360,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         return new NodeState.Visitor()
         {
             @Override
-            public void visitLabelChanges( long nodeId, Set<Integer> added, Set<Integer> removed )
+            public void visitLabelChanges( long nodeId, PrimitiveIntSet added, PrimitiveIntSet removed )
                     throws ConstraintValidationException
             {
                 visitor.visitNodeLabelChanges( nodeId, added, removed );
@@ -353,32 +398,32 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         return nodeStatesMap == null ? Iterables.empty() : Iterables.cast( nodeStatesMap.values() );
     }
 
-    private DiffSets<Long> getOrCreateLabelStateNodeDiffSets( int labelId )
+    private PrimitiveLongDiffSets getOrCreateLabelStateNodeDiffSets( int labelId )
     {
         if ( labelStatesMap == null )
         {
             labelStatesMap = Primitive.intObjectMap();
         }
-        return labelStatesMap.computeIfAbsent( labelId, unused -> new DiffSets<>() );
+        return labelStatesMap.computeIfAbsent( labelId, unused -> new PrimitiveLongDiffSets( collectionsFactory ) );
     }
 
-    private ReadableDiffSets<Long> getLabelStateNodeDiffSets( int labelId )
+    private PrimitiveLongReadableDiffSets getLabelStateNodeDiffSets( int labelId )
     {
         if ( labelStatesMap == null )
         {
-            return ReadableDiffSets.Empty.instance();
+            return EmptyPrimitiveLongReadableDiffSets.INSTANCE;
         }
-        final DiffSets<Long> nodeDiffSets = labelStatesMap.get( labelId );
-        return ReadableDiffSets.Empty.ifNull( nodeDiffSets );
+        final PrimitiveLongDiffSets nodeDiffSets = labelStatesMap.get( labelId );
+        return nodeDiffSets == null ? EmptyPrimitiveLongReadableDiffSets.INSTANCE : nodeDiffSets;
     }
 
     @Override
-    public ReadableDiffSets<Integer> nodeStateLabelDiffSets( long nodeId )
+    public PrimitiveIntReadableDiffSets nodeStateLabelDiffSets( long nodeId )
     {
         return getNodeState( nodeId ).labelDiffSets();
     }
 
-    private DiffSets<Integer> getOrCreateNodeStateLabelDiffSets( long nodeId )
+    private PrimitiveIntDiffSets getOrCreateNodeStateLabelDiffSets( long nodeId )
     {
         return getOrCreateNodeState( nodeId ).getOrCreateLabelDiffSets();
     }
@@ -416,11 +461,61 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         hasDataChanges = true;
     }
 
+    /**
+     * The estimate only ever grows, also when changes cancel each other out, since the memory of the diff sets is
+     * not necessarily reclaimed when that happens either.
+     */
+    private void dataChanged( long estimatedBytes )
+    {
+        dataChanged();
+        memoryUsed( estimatedBytes );
+    }
+
+    private void memoryUsed( long estimatedBytes )
+    {
+        long estimate = estimatedMemoryUsage + estimatedBytes;
+        estimatedMemoryUsage = estimate;
+        if ( maxEstimatedMemoryUsage > 0 && estimate > maxEstimatedMemoryUsage )
+        {
+            onMaxEstimatedMemoryUsageExceeded.run();
+            throw new TransactionTerminatedException( Status.Transaction.TransactionStateTooLarge );
+        }
+    }
+
+    private static long estimatedSize( Value value )
+    {
+        if ( value instanceof TextValue )
+        {
+            return 40 + 2L * ((TextValue) value).length();
+        }
+        if ( value instanceof ArrayValue )
+        {
+            return 24 + 8L * ((ArrayValue) value).length();
+        }
+        return 24;
+    }
+
+    private static long estimatedSize( ValueTuple values )
+    {
+        long size = 16;
+        for ( int i = 0; i < values.size(); i++ )
+        {
+            size += estimatedSize( values.valueAt( i ) );
+        }
+        return size;
+    }
+
+    @Override
+    public long estimatedMemoryUsage()
+    {
+        return estimatedMemoryUsage + collectionsFactory.memoryUsage();
+    }
+
     @Override
     public void nodeDoCreate( long id )
     {
         nodes().add( id );
-        dataChanged();
+        dataChanged( diffSetElementBytes );
     }
 
     @Override
@@ -433,16 +528,16 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
             NodeStateImpl nodeState = nodeStatesMap.remove( nodeId );
             if ( nodeState != null )
             {
-                ReadableDiffSets<Integer> diff = nodeState.labelDiffSets();
-                for ( Integer label : diff.getAdded() )
+                PrimitiveIntIterator addedLabels = nodeState.labelDiffSets().getAdded().iterator();
+                while ( addedLabels.hasNext() )
                 {
-                    getOrCreateLabelStateNodeDiffSets( label ).remove( nodeId );
+                    getOrCreateLabelStateNodeDiffSets( addedLabels.next() ).remove( nodeId );
                 }
                 nodeState.clearIndexDiffs( nodeId );
                 nodeState.clear();
             }
         }
-        dataChanged();
+        dataChanged( diffSetElementBytes );
     }
 
     @Override
@@ -462,7 +557,8 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
 
         getOrCreateRelationshipState( id ).setMetaData( startNodeId, endNodeId, relationshipTypeId );
 
-        dataChanged();
+        // The relationship id is kept in the relationship diff sets, in its own state and in the state of both nodes
+        dataChanged( diffSetElementBytes + 3 * ENTITY_ID_BYTES );
     }
 
     @Override
@@ -501,7 +597,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
             }
         }
 
-        dataChanged();
+        dataChanged( diffSetElementBytes + 2 * ENTITY_ID_BYTES );
     }
 
     @Override
@@ -522,7 +618,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
         nodeState.addProperty( newPropertyKeyId, value );
         nodePropertyChanges().addProperty( nodeId, newPropertyKeyId, value );
-        dataChanged();
+        dataChanged( 2 * PROPERTY_CHANGE_BYTES + estimatedSize( value ) );
     }
 
     @Override
@@ -530,7 +626,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     {
         getOrCreateNodeState( nodeId ).changeProperty( propertyKeyId, newValue );
         nodePropertyChanges().changeProperty( nodeId, propertyKeyId, replacedValue, newValue );
-        dataChanged();
+        dataChanged( 2 * PROPERTY_CHANGE_BYTES + estimatedSize( newValue ) );
     }
 
     @Override
@@ -545,7 +641,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         {
             getOrCreateRelationshipState( relationshipId ).addProperty( propertyKeyId, newValue );
         }
-        dataChanged();
+        dataChanged( PROPERTY_CHANGE_BYTES + estimatedSize( newValue ) );
     }
 
     @Override
@@ -559,7 +655,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         {
             getOrCreateGraphState().addProperty( propertyKeyId, newValue );
         }
-        dataChanged();
+        dataChanged( PROPERTY_CHANGE_BYTES + estimatedSize( newValue ) );
     }
 
     @Override
@@ -567,21 +663,21 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     {
         getOrCreateNodeState( nodeId ).removeProperty( propertyKeyId, removedValue );
         nodePropertyChanges().removeProperty( nodeId, propertyKeyId, removedValue );
-        dataChanged();
+        dataChanged( 2 * PROPERTY_CHANGE_BYTES );
     }
 
     @Override
     public void relationshipDoRemoveProperty( long relationshipId, int propertyKeyId, Value removedValue )
     {
         getOrCreateRelationshipState( relationshipId ).removeProperty( propertyKeyId, removedValue );
-        dataChanged();
+        dataChanged( PROPERTY_CHANGE_BYTES );
     }
 
     @Override
     public void graphDoRemoveProperty( int propertyKeyId, Value removedValue )
     {
         getOrCreateGraphState().removeProperty( propertyKeyId, removedValue );
-        dataChanged();
+        dataChanged( PROPERTY_CHANGE_BYTES );
     }
 
     @Override
@@ -589,7 +685,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     {
         getOrCreateLabelStateNodeDiffSets( labelId ).add( nodeId );
         getOrCreateNodeStateLabelDiffSets( nodeId ).add( labelId );
-        dataChanged();
+        dataChanged( diffSetElementBytes + ENTITY_ID_BYTES );
     }
 
     @Override
@@ -597,7 +693,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     {
         getOrCreateLabelStateNodeDiffSets( labelId ).remove( nodeId );
         getOrCreateNodeStateLabelDiffSets( nodeId ).remove( labelId );
-        dataChanged();
+        dataChanged( diffSetElementBytes + ENTITY_ID_BYTES );
     }
 
     @Override
@@ -680,11 +776,19 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public PrimitiveIntSet augmentLabels( PrimitiveIntSet labels, NodeState nodeState )
     {
-        ReadableDiffSets<Integer> labelDiffSets = nodeState.labelDiffSets();
+        PrimitiveIntReadableDiffSets labelDiffSets = nodeState.labelDiffSets();
         if ( !labelDiffSets.isEmpty() )
         {
-            labelDiffSets.getRemoved().forEach( labels::remove );
-            labelDiffSets.getAdded().forEach( labels::add );
+            labelDiffSets.getRemoved().visitKeys( label ->
+            {
+                labels.remove( label );
+                return false;
+            } );
+            labelDiffSets.getAdded().visitKeys( label ->
+            {
+                labels.add( label );
+                return false;
+            } );
         }
         return labels;
     }
@@ -720,47 +824,57 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     public Cursor<RelationshipItem> augmentRelationshipsGetAllCursor( Cursor<RelationshipItem> cursor )
     {
         return hasChanges && relationships != null && !relationships.isEmpty()
-               ? iteratorRelationshipCursor.get().init( cursor, toPrimitiveIterator( relationships.getAdded().iterator() ) )
+               ? iteratorRelationshipCursor.get().init( cursor, relationships.getAdded().iterator() )
                : cursor;
     }
 
     @Override
-    public ReadableDiffSets<Long> nodesWithLabelChanged( int label )
+    public PrimitiveLongReadableDiffSets nodesWithLabelChanged( int label )
     {
         return getLabelStateNodeDiffSets( label );
     }
 
     @Override
-    public ReadableDiffSets<Long> nodesWithAnyOfLabelsChanged( int... labels )
+    public PrimitiveLongReadableDiffSets nodesWithAnyOfLabelsChanged( int... labels )
     {
         //It is enough that one of the labels is added
         //It is necessary for all the labels are removed
-        Set<Long> added = new HashSet<>();
-        Set<Long> removed = new HashSet<>();
+        PrimitiveLongSet added = Primitive.longSet();
+        PrimitiveLongSet removed = Primitive.longSet();
         for ( int i = 0; i < labels.length; i++ )
         {
-            ReadableDiffSets<Long> nodeDiffSets = getLabelStateNodeDiffSets( labels[i] );
+            PrimitiveLongReadableDiffSets nodeDiffSets = getLabelStateNodeDiffSets( labels[i] );
             if ( i == 0 )
             {
-                removed.addAll( nodeDiffSets.getRemoved() );
+                removed.addAll( nodeDiffSets.getRemoved().iterator() );
             }
             else
             {
-                removed.retainAll( nodeDiffSets.getRemoved() );
+                PrimitiveLongSet removedFromAll = Primitive.longSet();
+                PrimitiveLongIterator candidates = removed.iterator();
+                while ( candidates.hasNext() )
+                {
+                    long node = candidates.next();
+                    if ( nodeDiffSets.isRemoved( node ) )
+                    {
+                        removedFromAll.add( node );
+                    }
+                }
+                removed = removedFromAll;
             }
-            added.addAll( nodeDiffSets.getAdded() );
+            added.addAll( nodeDiffSets.getAdded().iterator() );
         }
 
-        return new DiffSets<>( added, removed );
+        return new PrimitiveLongDiffSets( added, removed );
     }
 
     @Override
-    public ReadableDiffSets<Long> nodesWithAllLabelsChanged( int... labels )
+    public PrimitiveLongReadableDiffSets nodesWithAllLabelsChanged( int... labels )
     {
-        DiffSets<Long> changes = new DiffSets<>();
+        PrimitiveLongDiffSets changes = new PrimitiveLongDiffSets();
         for ( int label : labels )
         {
-            final ReadableDiffSets<Long> nodeDiffSets = getLabelStateNodeDiffSets( label );
+            final PrimitiveLongReadableDiffSets nodeDiffSets = getLabelStateNodeDiffSets( label );
             changes.addAll( nodeDiffSets.getAdded().iterator() );
             changes.removeAll( nodeDiffSets.getRemoved().iterator() );
         }
@@ -813,16 +927,16 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     }
 
     @Override
-    public ReadableDiffSets<Long> addedAndRemovedNodes()
+    public PrimitiveLongReadableDiffSets addedAndRemovedNodes()
     {
-        return ReadableDiffSets.Empty.ifNull( nodes );
+        return nodes == null ? EmptyPrimitiveLongReadableDiffSets.INSTANCE : nodes;
     }
 
     private RemovalsCountingDiffSets nodes()
     {
         if ( nodes == null )
         {
-            nodes = new RemovalsCountingDiffSets();
+            nodes = new RemovalsCountingDiffSets( collectionsFactory );
         }
         return nodes;
     }
@@ -846,16 +960,16 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     }
 
     @Override
-    public ReadableRelationshipDiffSets<Long> addedAndRemovedRelationships()
+    public PrimitiveLongReadableDiffSets addedAndRemovedRelationships()
     {
-        return ReadableRelationshipDiffSets.Empty.ifNull( relationships );
+        return relationships == null ? EmptyPrimitiveLongReadableDiffSets.INSTANCE : relationships;
     }
 
-    private RemovalsCountingRelationshipsDiffSets relationships()
+    private RemovalsCountingDiffSets relationships()
     {
         if ( relationships == null )
         {
-            relationships = new RemovalsCountingRelationshipsDiffSets( this );
+            relationships = new RemovalsCountingDiffSets( collectionsFactory );
         }
         return relationships;
     }
@@ -1236,6 +1350,11 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
             {
                 nodeState.removeIndexDiff( after );
             }
+            memoryUsed( diffSetElementBytes + estimatedSize( propertiesAfter ) );
+        }
+        if ( propertiesBefore != null )
+        {
+            memoryUsed( diffSetElementBytes + estimatedSize( propertiesBefore ) );
         }
     }
 
@@ -1253,7 +1372,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     private PrimitiveLongDiffSets getIndexUpdatesForSeek( Map<ValueTuple,PrimitiveLongDiffSets> updates,
             ValueTuple values, boolean create )
     {
-        return create ? updates.computeIfAbsent( values, value -> new PrimitiveLongDiffSets() ) : updates.get( values );
+        return create ? updates.computeIfAbsent( values, value -> new PrimitiveLongDiffSets( collectionsFactory ) ) : updates.get( values );
     }
 
     private Map<ValueTuple,PrimitiveLongDiffSets> getIndexUpdatesByDescriptor( LabelSchemaDescriptor schema,
@@ -1302,7 +1421,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     private PropertyChanges nodePropertyChanges()
     {
         return propertyChangesForNodes == null ?
-                propertyChangesForNodes = new PropertyChanges() : propertyChangesForNodes;
+                propertyChangesForNodes = new PropertyChanges( collectionsFactory ) : propertyChangesForNodes;
     }
 
     @Override
@@ -1314,7 +1433,8 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public RelationshipIterator augmentRelationshipsGetAll( RelationshipIterator committed )
     {
-        return addedAndRemovedRelationships().augment( committed );
+        return relationships == null ? committed : new DiffApplyingRelationshipIterator( committed,
+                relationships.getAdded(), relationships.getRemoved(), this );
     }
 
     @Override
@@ -1403,60 +1523,32 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     }
 
     /**
-     * This class works around the fact that create-delete in the same transaction is a no-op in {@link DiffSets},
-     * whereas we need to know total number of explicit removals.
-     */
-    private static class RemovalsCountingDiffSets extends DiffSets<Long>
-    {
-        private PrimitiveLongSet removedFromAdded;
-
-        @Override
-        public boolean remove( Long elem )
-        {
-            if ( added( false ).remove( elem ) )
-            {
-                if ( removedFromAdded == null )
-                {
-                    removedFromAdded = Primitive.longSet();
-                }
-                removedFromAdded.add( elem );
-                return true;
-            }
-            return removed( true ).add( elem );
-        }
-
-        private boolean wasRemoved( long id )
-        {
-            return (removedFromAdded != null && removedFromAdded.contains( id )) || super.isRemoved( id );
-        }
-    }
-
-    /**
-     * This class works around the fact that create-delete in the same transaction is a no-op in {@link DiffSets},
-     * whereas we need to know total number of explicit removals.
+     * This class works around the fact that create-delete in the same transaction is a no-op in
+     * {@link PrimitiveLongDiffSets}, whereas we need to know total number of explicit removals.
      */
-    private static class RemovalsCountingRelationshipsDiffSets extends RelationshipDiffSets<Long>
+    private static class RemovalsCountingDiffSets extends PrimitiveLongDiffSets
     {
+        private final CollectionsFactory collectionsFactory;
         private PrimitiveLongSet removedFromAdded;
 
-        private RemovalsCountingRelationshipsDiffSets( RelationshipVisitor.Home txStateRelationshipHome )
+        RemovalsCountingDiffSets( CollectionsFactory collectionsFactory )
         {
-            super( txStateRelationshipHome );
+            super( collectionsFactory );
+            this.collectionsFactory = collectionsFactory;
         }
 
         @Override
-        public boolean remove( Long elem )
+        public boolean remove( long element )
         {
-            if ( added( false ).remove( elem ) )
+            if ( isAdded( element ) )
             {
                 if ( removedFromAdded == null )
                 {
-                    removedFromAdded = Primitive.longSet();
+                    removedFromAdded = collectionsFactory.newLongSet();
                 }
-                removedFromAdded.add( elem );
-                return true;
+                removedFromAdded.add( element );
             }
-            return removed( true ).add( elem );
+            return super.remove( element );
         }
 
         private boolean wasRemoved( long id )
@@ -59,7 +59,15 @@ public class SchemaCache
 
     public SchemaCache( ConstraintSemantics constraintSemantics, Iterable<SchemaRule> initialRules )
     {
-        this.schemaCacheState = new SchemaCacheState( constraintSemantics, initialRules );
+        this.schemaCacheState = new SchemaCacheState( constraintSemantics, initialRules, 0 );
+    }
+
+    /**
+     * @return a number that changes every time the cached schema changes.
+     */
+    public long version()
+    {
+        return schemaCacheState.version;
     }
 
     public Iterable<IndexRule> indexRules()
@@ -113,7 +121,7 @@ public class SchemaCache
         try
         {
             ConstraintSemantics constraintSemantics = schemaCacheState.constraintSemantics;
-            this.schemaCacheState = new SchemaCacheState( constraintSemantics, rules );
+            this.schemaCacheState = new SchemaCacheState( constraintSemantics, rules, schemaCacheState.version + 1 );
         }
         finally
         {
@@ -168,6 +176,7 @@ public class SchemaCache
 
     private static class SchemaCacheState
     {
+        private final long version;
         private final ConstraintSemantics constraintSemantics;
         private final Set<ConstraintDescriptor> constraints;
         private final PrimitiveLongObjectMap<IndexRule> indexRuleById;
@@ -179,8 +188,9 @@ public class SchemaCache
         private final Map<Class<?>,Object> dependantState;
         private final PrimitiveIntObjectMap<List<IndexDescriptor>> indexByProperty;
 
-        SchemaCacheState( ConstraintSemantics constraintSemantics, Iterable<SchemaRule> rules )
+        SchemaCacheState( ConstraintSemantics constraintSemantics, Iterable<SchemaRule> rules, long version )
         {
+            this.version = version;
             this.constraintSemantics = constraintSemantics;
             this.constraints = new HashSet<>();
             this.indexRuleById = Primitive.longObjectMap();
@@ -195,6 +205,7 @@ public class SchemaCache
 
         SchemaCacheState( SchemaCacheState schemaCacheState )
         {
+            this.version = schemaCacheState.version + 1;
             this.constraintSemantics = schemaCacheState.constraintSemantics;
             this.indexRuleById = PrimitiveLongCollections.copy( schemaCacheState.indexRuleById );
             this.constraintRuleById = PrimitiveLongCollections.copy( schemaCacheState.constraintRuleById );
@@ -189,6 +189,12 @@ public class StorageLayer implements StoreReadLayer
         return schemaCache.indexDescriptor( descriptor );
     }
 
+    @Override
+    public long schemaVersion()
+    {
+        return schemaCache.version();
+    }
+
     @Override
     public Iterator<IndexDescriptor> indexesGetForLabel( int labelId )
     {
@@ -26,6 +26,9 @@ import java.util.Iterator;
 import java.util.Map;
 
 import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
 import org.neo4j.cursor.Cursor;
 import org.neo4j.graphdb.Label;
@@ -34,7 +37,6 @@ import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.event.LabelEntry;
 import org.neo4j.graphdb.event.PropertyEntry;
 import org.neo4j.graphdb.event.TransactionData;
-import org.neo4j.helpers.collection.IterableWrapper;
 import org.neo4j.internal.kernel.api.exceptions.LabelNotFoundKernelException;
 import org.neo4j.internal.kernel.api.exceptions.PropertyKeyIdNotFoundKernelException;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -51,12 +53,13 @@ import org.neo4j.storageengine.api.StorageProperty;
 import org.neo4j.storageengine.api.StorageStatement;
 import org.neo4j.storageengine.api.StoreReadLayer;
 import org.neo4j.storageengine.api.txstate.NodeState;
-import org.neo4j.storageengine.api.txstate.ReadableDiffSets;
+import org.neo4j.storageengine.api.txstate.PrimitiveIntReadableDiffSets;
 import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
 import org.neo4j.storageengine.api.txstate.RelationshipState;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 
+import static org.neo4j.collection.primitive.PrimitiveLongCollections.map;
 import static org.neo4j.kernel.api.AssertOpen.ALWAYS_OPEN;
 
 /**
@@ -201,8 +204,10 @@ public class TxStateTransactionDataSnapshot implements TransactionData
     {
         try
         {
-            for ( long nodeId : state.addedAndRemovedNodes().getRemoved() )
+            PrimitiveLongIterator removedNodes = state.addedAndRemovedNodes().getRemoved().iterator();
+            while ( removedNodes.hasNext() )
             {
+                long nodeId = removedNodes.next();
                 try ( Cursor<NodeItem> node = storeStatement.acquireSingleNodeCursor( nodeId ) )
                 {
                     if ( node.next() )
@@ -227,8 +232,10 @@ public class TxStateTransactionDataSnapshot implements TransactionData
                     }
                 }
             }
-            for ( long relId : state.addedAndRemovedRelationships().getRemoved() )
+            PrimitiveLongIterator removedRelationships = state.addedAndRemovedRelationships().getRemoved().iterator();
+            while ( removedRelationships.hasNext() )
             {
+                long relId = removedRelationships.next();
                 Relationship relationshipProxy = relationship( relId );
                 try ( Cursor<RelationshipItem> relationship = storeStatement.acquireSingleRelationshipCursor( relId ) )
                 {
@@ -267,14 +274,18 @@ public class TxStateTransactionDataSnapshot implements TransactionData
                             store.propertyKeyGetName( property ), null,
                             committedValue( nodeState, property ) ) );
                 }
-                ReadableDiffSets<Integer> labels = nodeState.labelDiffSets();
-                for ( Integer label : labels.getAdded() )
+                PrimitiveIntReadableDiffSets labels = nodeState.labelDiffSets();
+                PrimitiveIntIterator addedLabels = labels.getAdded().iterator();
+                while ( addedLabels.hasNext() )
                 {
-                    assignedLabels.add( new LabelEntryView( nodeState.getId(), store.labelGetName( label ) ) );
+                    assignedLabels.add( new LabelEntryView( nodeState.getId(),
+                            store.labelGetName( addedLabels.next() ) ) );
                 }
-                for ( Integer label : labels.getRemoved() )
+                PrimitiveIntIterator removedLabelIds = labels.getRemoved().iterator();
+                while ( removedLabelIds.hasNext() )
                 {
-                    removedLabels.add( new LabelEntryView( nodeState.getId(), store.labelGetName( label ) ) );
+                    removedLabels.add( new LabelEntryView( nodeState.getId(),
+                            store.labelGetName( removedLabelIds.next() ) ) );
                 }
             }
             for ( RelationshipState relState : state.modifiedRelationships() )
@@ -329,28 +340,14 @@ public class TxStateTransactionDataSnapshot implements TransactionData
         return relationship;
     }
 
-    private Iterable<Node> map2Nodes( Iterable<Long> added )
+    private Iterable<Node> map2Nodes( PrimitiveLongIterable ids )
     {
-        return new IterableWrapper<Node, Long>( added )
-        {
-            @Override
-            protected Node underlyingObjectToObject( Long id )
-            {
-                return new NodeProxy( proxySpi, id );
-            }
-        };
+        return () -> map( id -> new NodeProxy( proxySpi, id ), ids.iterator() );
     }
 
-    private Iterable<Relationship> map2Rels( Iterable<Long> ids )
+    private Iterable<Relationship> map2Rels( PrimitiveLongIterable ids )
     {
-        return new IterableWrapper<Relationship, Long>( ids )
-        {
-            @Override
-            protected Relationship underlyingObjectToObject( Long id )
-            {
-                return relationship( id );
-            }
-        };
+        return () -> map( this::relationship, ids.iterator() );
     }
 
     private Value committedValue( NodeState nodeState, int property )
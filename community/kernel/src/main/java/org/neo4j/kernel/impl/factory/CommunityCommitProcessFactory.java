@@ -22,14 +22,28 @@ package org.neo4j.kernel.impl.factory;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.CommitProcessFactory;
+import org.neo4j.kernel.impl.api.PipelinedTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.storageengine.api.StorageEngine;
 
 public class CommunityCommitProcessFactory implements CommitProcessFactory
 {
+    private final Monitors monitors;
+
+    public CommunityCommitProcessFactory()
+    {
+        this( new Monitors() );
+    }
+
+    public CommunityCommitProcessFactory( Monitors monitors )
+    {
+        this.monitors = monitors;
+    }
+
     @Override
     public TransactionCommitProcess create( TransactionAppender appender, StorageEngine storageEngine,
             Config config )
@@ -38,6 +52,11 @@ public class CommunityCommitProcessFactory implements CommitProcessFactory
         {
             return new ReadOnlyTransactionCommitProcess();
         }
+        if ( config.get( GraphDatabaseSettings.pipelined_commit ) )
+        {
+            return new PipelinedTransactionCommitProcess( appender, storageEngine,
+                    monitors.newMonitor( PipelinedTransactionCommitProcess.Monitor.class ) );
+        }
         return new TransactionRepresentationCommitProcess( appender, storageEngine );
     }
 }
@@ -122,7 +122,7 @@ public class CommunityEditionModule extends EditionModule
         dependencies.satisfyDependency(
                 createKernelData( fileSystem, pageCache, storeDir, config, graphDatabaseFacade, life ) );
 
-        commitProcessFactory = new CommunityCommitProcessFactory();
+        commitProcessFactory = new CommunityCommitProcessFactory( platformModule.monitors );
 
         headerInformationFactory = createHeaderInformationFactory();
 
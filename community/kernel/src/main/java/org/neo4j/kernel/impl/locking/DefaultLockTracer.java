@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * Times each wait for a lock and reports it, along with the type of the waited for resource, to a {@link Monitor}.
+ * Locks that are granted right away are never waited for, and cost nothing here. Waits that would deadlock are
+ * reported too.
+ */
+public class DefaultLockTracer implements LockTracer
+{
+    public interface Monitor
+    {
+        Monitor NULL = new Monitor()
+        {
+            @Override
+            public void lockWaited( ResourceType resourceType, boolean exclusive, long waitNanos )
+            {
+            }
+
+            @Override
+            public void deadlockDetected( ResourceType resourceType )
+            {
+            }
+        };
+
+        /**
+         * Called by the waiting thread once it got the lock it waited for, or gave up waiting.
+         *
+         * @param resourceType the type of the resource that was waited for.
+         * @param exclusive whether or not the wait was for an exclusive lock.
+         * @param waitNanos the time spent waiting.
+         */
+        void lockWaited( ResourceType resourceType, boolean exclusive, long waitNanos );
+
+        /**
+         * Called by a thread that is about to fail its transaction, because waiting for a lock would deadlock.
+         *
+         * @param resourceType the type of the resource that could not be locked.
+         */
+        void deadlockDetected( ResourceType resourceType );
+    }
+
+    private final SystemNanoClock clock;
+    private final Monitor monitor;
+
+    public DefaultLockTracer( Monitor monitor )
+    {
+        this( Clocks.nanoClock(), monitor );
+    }
+
+    public DefaultLockTracer( SystemNanoClock clock, Monitor monitor )
+    {
+        this.clock = clock;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public LockWaitEvent waitForLock( boolean exclusive, ResourceType resourceType, long... resourceIds )
+    {
+        long startNanos = clock.nanos();
+        return () -> monitor.lockWaited( resourceType, exclusive, clock.nanos() - startNanos );
+    }
+
+    @Override
+    public void deadlockDetected( ResourceType resourceType, long resourceId )
+    {
+        monitor.deadlockDetected( resourceType );
+    }
+}
@@ -25,6 +25,17 @@ public interface LockTracer
 {
     LockWaitEvent waitForLock( boolean exclusive, ResourceType resourceType, long... resourceIds );
 
+    /**
+     * Called when waiting for the lock on the given resource would deadlock, right before the waiting transaction
+     * fails with a {@link org.neo4j.kernel.DeadlockDetectedException}.
+     *
+     * @param resourceType the type of the resource that could not be locked.
+     * @param resourceId the id of the resource that could not be locked.
+     */
+    default void deadlockDetected( ResourceType resourceType, long resourceId )
+    {
+    }
+
     default LockTracer combine( LockTracer tracer )
     {
         if ( tracer == NONE )
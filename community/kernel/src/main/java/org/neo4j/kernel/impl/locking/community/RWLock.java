@@ -205,7 +205,7 @@ class RWLock
             while ( !tle.isTerminated() && (totalWriteCount > tle.writeCount) )
             {
                 assertNotExpired( lockAcquisitionTimeBoundary );
-                ragManager.checkWaitOn( this, tx );
+                checkWaitOn( tracer, tx );
 
                 if ( addLockRequest )
                 {
@@ -393,7 +393,7 @@ class RWLock
             while ( !tle.isTerminated() && (totalWriteCount > tle.writeCount || totalReadCount > tle.readCount) )
             {
                 assertNotExpired( lockAcquisitionTimeBoundary );
-                ragManager.checkWaitOn( this, tx );
+                checkWaitOn( tracer, tx );
 
                 if ( addLockRequest )
                 {
@@ -724,6 +724,19 @@ class RWLock
         }
     }
 
+    private void checkWaitOn( LockTracer tracer, Object tx )
+    {
+        try
+        {
+            ragManager.checkWaitOn( this, tx );
+        }
+        catch ( DeadlockDetectedException e )
+        {
+            tracer.deadlockDetected( resource.type(), resource.resourceId() );
+            throw e;
+        }
+    }
+
     synchronized Object getTxLockElementCount()
     {
         return txLockElementMap.size();
@@ -229,7 +229,7 @@ public class AllStoreHolder extends Read
     @Override
     public Iterator<ConstraintDescriptor> constraintsGetForSchema( SchemaDescriptor descriptor )
     {
-        sharedOptimisticLock( descriptor.keyType(), descriptor.keyId() );
+        sharedSchemaLock( descriptor.keyType(), descriptor.keyId() );
         ktx.assertOpen();
         Iterator<ConstraintDescriptor> constraints = storeReadLayer.constraintsGetForSchema( descriptor );
         if ( ktx.hasTxStateWithChanges() )
@@ -243,7 +243,7 @@ public class AllStoreHolder extends Read
     public boolean constraintExists( ConstraintDescriptor descriptor )
     {
         SchemaDescriptor schema = descriptor.schema();
-        sharedOptimisticLock( schema.keyType(), schema.keyId() );
+        sharedSchemaLock( schema.keyType(), schema.keyId() );
         ktx.assertOpen();
         boolean inStore = storeReadLayer.constraintExists( descriptor );
         if ( ktx.hasTxStateWithChanges() )
@@ -259,7 +259,7 @@ public class AllStoreHolder extends Read
     @Override
     public Iterator<ConstraintDescriptor> constraintsGetForLabel( int labelId )
     {
-        sharedOptimisticLock( ResourceTypes.LABEL, labelId );
+        sharedSchemaLock( ResourceTypes.LABEL, labelId );
         ktx.assertOpen();
         Iterator<ConstraintDescriptor> constraints = storeReadLayer.constraintsGetForLabel( labelId );
         if ( ktx.hasTxStateWithChanges() )
@@ -281,7 +281,10 @@ public class AllStoreHolder extends Read
         return Iterators.map( constraintDescriptor ->
         {
             SchemaDescriptor schema = constraintDescriptor.schema();
-            ktx.locks().pessimistic().acquireShared( ktx.lockTracer(), schema.keyType(), schema.keyId() );
+            if ( !ktx.skipSharedSchemaLock( schema.keyType(), schema.keyId() ) )
+            {
+                ktx.locks().pessimistic().acquireShared( ktx.lockTracer(), schema.keyType(), schema.keyId() );
+            }
             return constraintDescriptor;
         }, constraints );
     }
@@ -585,12 +585,17 @@ public class Operations implements Write, ExplicitIndexWrite
 
     private void acquireExclusiveNodeLock( long node )
     {
-        if ( !ktx.hasTxStateWithChanges() || !ktx.txState().nodeIsAddedInThisTx( node ) )
+        if ( !nodeIsAddedInThisTx( node ) )
         {
             ktx.locks().optimistic().acquireExclusive( ktx.lockTracer(), ResourceTypes.NODE, node );
         }
     }
 
+    private boolean nodeIsAddedInThisTx( long node )
+    {
+        return ktx.hasTxStateWithChanges() && ktx.txState().nodeIsAddedInThisTx( node );
+    }
+
     private void acquireExclusiveRelationshipLock( long relationshipId )
     {
         if ( !ktx.hasTxStateWithChanges() || !ktx.txState().relationshipIsAddedInThisTx( relationshipId ) )
@@ -611,11 +616,21 @@ public class Operations implements Write, ExplicitIndexWrite
 
     private void lockRelationshipNodes( long startNodeId, long endNodeId )
     {
-        // Order the locks to lower the risk of deadlocks with other threads creating/deleting rels concurrently
-        acquireExclusiveNodeLock( min( startNodeId, endNodeId ) );
-        if ( startNodeId != endNodeId )
+        // Take the locks in one batch, in node id order, to lower the risk of deadlocks with other threads
+        // creating/deleting rels concurrently
+        long lowNodeId = min( startNodeId, endNodeId );
+        long highNodeId = max( startNodeId, endNodeId );
+        if ( lowNodeId == highNodeId || nodeIsAddedInThisTx( highNodeId ) )
+        {
+            acquireExclusiveNodeLock( lowNodeId );
+        }
+        else if ( nodeIsAddedInThisTx( lowNodeId ) )
+        {
+            acquireExclusiveNodeLock( highNodeId );
+        }
+        else
         {
-            acquireExclusiveNodeLock( max( startNodeId, endNodeId ) );
+            ktx.locks().optimistic().acquireExclusive( ktx.lockTracer(), ResourceTypes.NODE, lowNodeId, highNodeId );
         }
     }
 
@@ -557,8 +557,11 @@ abstract class Read implements TxStateHolder,
         return ktx.hasTxStateWithChanges();
     }
 
-    void sharedOptimisticLock( ResourceType resource, long resourceId )
+    void sharedSchemaLock( ResourceType resource, long resourceId )
     {
-        ktx.locks().optimistic().acquireShared( ktx.lockTracer(), resource, resourceId );
+        if ( !ktx.skipSharedSchemaLock( resource, resourceId ) )
+        {
+            ktx.locks().optimistic().acquireShared( ktx.lockTracer(), resource, resourceId );
+        }
     }
 }
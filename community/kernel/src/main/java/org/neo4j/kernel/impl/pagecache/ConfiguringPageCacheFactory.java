@@ -19,6 +19,10 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.io.File;
+import java.util.List;
+
+import org.neo4j.graphdb.config.InvalidSettingException;
 import org.neo4j.helpers.Service;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -27,17 +31,26 @@ import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.mmap.MemoryMappedPageCache;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.PageCacheQuotas;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.store.StoreType;
 import org.neo4j.logging.Log;
 import org.neo4j.memory.GlobalMemoryTracker;
 
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_eviction_policy;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_file_quotas;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_pages;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory_mapped;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_numa_partitions;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.read_only;
 import static org.neo4j.kernel.configuration.Settings.BYTES;
 
 public class ConfiguringPageCacheFactory
@@ -87,8 +100,60 @@ public class ConfiguringPageCacheFactory
     {
         checkPageSize( config );
         MemoryAllocator memoryAllocator = buildMemoryAllocator( config );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier,
-                versionContextSupplier );
+        PageCache pageCache = new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer,
+                pageCursorTracerSupplier, versionContextSupplier, config.get( pagecache_eviction_policy ),
+                buildQuotas( config ) );
+        if ( config.get( pagecache_memory_mapped ) )
+        {
+            if ( config.get( read_only ) )
+            {
+                log.info( "Existing record store files will be memory mapped read only, " +
+                          "instead of being loaded into the page cache" );
+                // Only the record stores are left untouched by read only databases. Index files, like those of
+                // the GBPTree based label scan store and schema indexes, still have their state written on open
+                // and close, and must go through the page cache.
+                return new MemoryMappedPageCache( pageCache, ConfiguringPageCacheFactory::isRecordStoreFile );
+            }
+            log.warn( "The " + pagecache_memory_mapped.name() + " setting only takes effect when " + read_only.name() +
+                      " is enabled, and will be ignored" );
+        }
+        return pageCache;
+    }
+
+    static boolean isRecordStoreFile( File file )
+    {
+        return StoreType.typeOf( file.getName() ).map( StoreType::isRecordStore ).orElse( false );
+    }
+
+    static PageCacheQuotas buildQuotas( Config config )
+    {
+        PageCacheQuotas quotas = PageCacheQuotas.NONE;
+        List<String> entries = config.get( pagecache_file_quotas );
+        for ( String entry : entries )
+        {
+            int separator = entry.lastIndexOf( '=' );
+            if ( separator < 1 )
+            {
+                throw new InvalidSettingException( pagecache_file_quotas.name(), entry,
+                        "Expected an entry on the form `file name pattern=percentage`" );
+            }
+            String pattern = entry.substring( 0, separator ).trim();
+            String percentage = entry.substring( separator + 1 ).trim();
+            if ( percentage.endsWith( "%" ) )
+            {
+                percentage = percentage.substring( 0, percentage.length() - 1 ).trim();
+            }
+            try
+            {
+                quotas = quotas.withQuota( pattern, Double.parseDouble( percentage ) / 100 );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                throw new InvalidSettingException( pagecache_file_quotas.name(), entry,
+                        "Expected a percentage between 0 and 100, and a valid glob pattern" );
+            }
+        }
+        return quotas;
     }
 
     private MemoryAllocator buildMemoryAllocator( Config config )
@@ -104,9 +169,29 @@ public class ConfiguringPageCacheFactory
             pageCacheMemorySetting = "" + heuristic;
         }
 
+        int partitions = config.get( pagecache_numa_partitions );
+        if ( partitions == 0 )
+        {
+            partitions = numaNodeCount();
+        }
+        if ( config.get( pagecache_huge_pages ) || partitions > 1 )
+        {
+            return MemoryAllocator.createSlabAllocator( pageCacheMemorySetting, partitions,
+                    GlobalMemoryTracker.INSTANCE );
+        }
         return MemoryAllocator.createAllocator( pageCacheMemorySetting, GlobalMemoryTracker.INSTANCE );
     }
 
+    /**
+     * @return The number of NUMA nodes reported by the operating system, or 1 if this cannot be determined.
+     */
+    static int numaNodeCount()
+    {
+        File[] nodes = new File( "/sys/devices/system/node" ).listFiles(
+                ( dir, name ) -> name.matches( "node[0-9]+" ) );
+        return nodes == null || nodes.length == 0 ? 1 : nodes.length;
+    }
+
     public static long defaultHeuristicPageCacheMemory()
     {
         // First check if we have a default override...
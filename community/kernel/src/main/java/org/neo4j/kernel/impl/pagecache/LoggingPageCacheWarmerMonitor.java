@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.IOException;
+
+import org.neo4j.logging.Log;
+
+public class LoggingPageCacheWarmerMonitor implements PageCacheWarmerMonitor
+{
+    private final Log log;
+
+    public LoggingPageCacheWarmerMonitor( Log log )
+    {
+        this.log = log;
+    }
+
+    @Override
+    public void warmupStarted( long pagesToLoad )
+    {
+        log.info( String.format( "Page cache warmup started, loading %d pages.", pagesToLoad ) );
+    }
+
+    @Override
+    public void warmupProgress( long pagesLoaded, long pagesToLoad, long pagesPerSecond )
+    {
+        log.debug( String.format( "Page cache warmup loaded %d of %d pages, at %d pages per second.",
+                pagesLoaded, pagesToLoad, pagesPerSecond ) );
+    }
+
+    @Override
+    public void warmupCompleted( long pagesLoaded, long elapsedMillis )
+    {
+        log.info( String.format( "Page cache warmup completed. %d pages loaded in %d ms.", pagesLoaded, elapsedMillis ) );
+    }
+
+    @Override
+    public void profileCompleted( long pagesInMemory, long elapsedMillis )
+    {
+        log.debug( String.format( "Page cache profile saved. %d pages in memory, profiled in %d ms.",
+                pagesInMemory, elapsedMillis ) );
+    }
+
+    @Override
+    public void warmupFailed( IOException e )
+    {
+        log.warn( "Page cache warmup could not load a profile.", e );
+    }
+
+    @Override
+    public void profileFailed( IOException e )
+    {
+        log.warn( "Page cache profile could not be saved.", e );
+    }
+}
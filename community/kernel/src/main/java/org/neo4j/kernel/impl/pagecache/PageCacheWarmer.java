@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
+
+/**
+ * Warms up the page cache after a restart, by loading the pages that were in memory before the restart.
+ * <p>
+ * While the database is running, we periodically save a profile of which pages of each mapped file are in memory. The
+ * profile is a compressed bitmap with one bit per file page, that is saved next to the mapped file, in a file with the
+ * {@link #PROFILE_SUFFIX} suffix. When the database starts, the profiled pages are loaded back into memory on a
+ * background thread, in file order, with read-ahead cursors such that runs of consecutive pages are loaded with large
+ * vectored reads.
+ * <p>
+ * Profiles are only hints, so files that have no profile, or whose profile cannot be read, are skipped. Profiles that
+ * cannot be read or saved are reported to the {@link PageCacheWarmerMonitor}.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String PROFILE_SUFFIX = ".cacheprof";
+    private static final String TEMP_PROFILE_SUFFIX = ".cacheprof.tmp";
+    private static final long PROGRESS_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final PageCacheWarmerMonitor monitor;
+    private final Duration profilingInterval;
+
+    private volatile boolean stopped;
+    // Profiles are not saved until the warmup is done, because we would otherwise overwrite the profiles that we are
+    // loading, with profiles of a page cache that is only partially warmed up.
+    private volatile boolean warmupDone;
+    private JobScheduler.JobHandle warmupJob;
+    private JobScheduler.JobHandle profilingJob;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler,
+            PageCacheWarmerMonitor monitor, Duration profilingInterval )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.monitor = monitor;
+        this.profilingInterval = profilingInterval;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        stopped = false;
+        warmupDone = false;
+        warmupJob = scheduler.schedule( JobScheduler.Groups.pageCacheIOHelper, this::warmupQuietly );
+        long intervalMillis = profilingInterval.toMillis();
+        profilingJob = scheduler.scheduleRecurring( JobScheduler.Groups.pageCacheIOHelper, this::profileQuietly,
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public synchronized void stop() throws Throwable
+    {
+        stopped = true;
+        profilingJob.cancel( false );
+        try
+        {
+            warmupJob.waitTermination();
+        }
+        catch ( Exception ignore )
+        {
+            // The warmup is only an optimisation, so we don't care how it ended.
+        }
+        if ( warmupDone )
+        {
+            // Save the most recent profile before the files are unmapped.
+            profile();
+        }
+    }
+
+    private void warmupQuietly()
+    {
+        try
+        {
+            reheat();
+        }
+        catch ( IOException e )
+        {
+            // The page cache could not list its mappings, so there is nothing we can warm up.
+            monitor.warmupFailed( e );
+        }
+        finally
+        {
+            // A warmup that was cut short by a shutdown leaves the page cache only partially warm.
+            warmupDone = !stopped;
+        }
+    }
+
+    private void profileQuietly()
+    {
+        if ( !warmupDone )
+        {
+            return;
+        }
+        try
+        {
+            profile();
+        }
+        catch ( IOException e )
+        {
+            // We will try again at the next interval.
+            monitor.profileFailed( e );
+        }
+    }
+
+    /**
+     * Load the profiled pages of all the mapped files into the page cache.
+     *
+     * @return the number of pages that were loaded.
+     */
+    long reheat() throws IOException
+    {
+        long startTime = System.nanoTime();
+        List<PagedFile> files = pageCache.listExistingMappings();
+        try
+        {
+            long pagesToLoad = 0;
+            for ( PagedFile file : files )
+            {
+                pagesToLoad += countProfiledPages( file );
+            }
+            monitor.warmupStarted( pagesToLoad );
+
+            Progress progress = new Progress( pagesToLoad, startTime );
+            for ( PagedFile file : files )
+            {
+                if ( stopped )
+                {
+                    break;
+                }
+                reheat( file, progress );
+            }
+            monitor.warmupCompleted( progress.pagesLoaded, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startTime ) );
+            return progress.pagesLoaded;
+        }
+        finally
+        {
+            IOUtils.closeAllSilently( files );
+        }
+    }
+
+    private long countProfiledPages( PagedFile file )
+    {
+        File profile = profileFile( file );
+        if ( !fs.fileExists( profile ) )
+        {
+            return 0;
+        }
+        long pages = 0;
+        try ( InputStream in = openProfile( profile ) )
+        {
+            int bits;
+            while ( (bits = in.read()) != -1 )
+            {
+                pages += Integer.bitCount( bits );
+            }
+        }
+        catch ( IOException e )
+        {
+            // The profile is damaged, and will be skipped.
+            monitor.warmupFailed( e );
+            return 0;
+        }
+        return pages;
+    }
+
+    private void reheat( PagedFile file, Progress progress )
+    {
+        File profile = profileFile( file );
+        if ( !fs.fileExists( profile ) )
+        {
+            return;
+        }
+        try ( InputStream in = openProfile( profile );
+              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+        {
+            long pageId = 0;
+            int bits;
+            while ( !stopped && (bits = in.read()) != -1 )
+            {
+                for ( int i = 0; i < Byte.SIZE; i++, pageId++ )
+                {
+                    if ( (bits & (1 << i)) != 0 )
+                    {
+                        if ( !cursor.next( pageId ) )
+                        {
+                            // The file has shrunk since it was profiled.
+                            return;
+                        }
+                        progress.pageLoaded();
+                    }
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            // The profile is damaged, so we give up on this file.
+            monitor.warmupFailed( e );
+        }
+    }
+
+    /**
+     * Save profiles of which pages are currently in memory, for all the mapped files.
+     *
+     * @return the number of pages that were in memory.
+     */
+    synchronized long profile() throws IOException
+    {
+        long startTime = System.nanoTime();
+        long pagesInMemory = 0;
+        List<PagedFile> files = pageCache.listExistingMappings();
+        try
+        {
+            for ( PagedFile file : files )
+            {
+                pagesInMemory += profile( file );
+            }
+        }
+        finally
+        {
+            IOUtils.closeAllSilently( files );
+        }
+        monitor.profileCompleted( pagesInMemory, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startTime ) );
+        return pagesInMemory;
+    }
+
+    private long profile( PagedFile file )
+    {
+        File profile = profileFile( file );
+        File tempProfile = new File( file.file().getParentFile(), file.file().getName() + TEMP_PROFILE_SUFFIX );
+        long pagesInMemory = 0;
+        // Transient cursors don't count as accesses, so the profiling does not influence which pages get evicted.
+        try ( PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT | PF_TRANSIENT );
+              OutputStream out = new BufferedOutputStream(
+                      new GZIPOutputStream( fs.openAsOutputStream( tempProfile, false ) ) ) )
+        {
+            int bits = 0;
+            int bitCount = 0;
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    bits |= 1 << bitCount;
+                    pagesInMemory++;
+                }
+                if ( ++bitCount == Byte.SIZE )
+                {
+                    out.write( bits );
+                    bits = 0;
+                    bitCount = 0;
+                }
+            }
+            if ( bitCount > 0 )
+            {
+                out.write( bits );
+            }
+        }
+        catch ( IOException e )
+        {
+            // The file may have been deleted, or we might not be allowed to write next to it.
+            fs.deleteFile( tempProfile );
+            monitor.profileFailed( e );
+            return 0;
+        }
+        try
+        {
+            fs.renameFile( tempProfile, profile, StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch ( IOException e )
+        {
+            fs.deleteFile( tempProfile );
+            monitor.profileFailed( e );
+            return 0;
+        }
+        return pagesInMemory;
+    }
+
+    private InputStream openProfile( File profile ) throws IOException
+    {
+        return new BufferedInputStream( new GZIPInputStream( fs.openAsInputStream( profile ) ) );
+    }
+
+    static File profileFile( PagedFile file )
+    {
+        return new File( file.file().getParentFile(), file.file().getName() + PROFILE_SUFFIX );
+    }
+
+    private class Progress
+    {
+        private final long pagesToLoad;
+        private final long startTime;
+        private long pagesLoaded;
+        private long lastReportTime;
+
+        Progress( long pagesToLoad, long startTime )
+        {
+            this.pagesToLoad = pagesToLoad;
+            this.startTime = startTime;
+            this.lastReportTime = startTime;
+        }
+
+        void pageLoaded()
+        {
+            pagesLoaded++;
+            // Only look at the clock once in a while.
+            if ( (pagesLoaded & 1023) == 0 )
+            {
+                long now = System.nanoTime();
+                if ( now - lastReportTime >= PROGRESS_REPORT_INTERVAL_NANOS )
+                {
+                    lastReportTime = now;
+                    long pagesPerSecond = pagesLoaded * TimeUnit.SECONDS.toNanos( 1 ) / Math.max( 1, now - startTime );
+                    monitor.warmupProgress( pagesLoaded, pagesToLoad, pagesPerSecond );
+                }
+            }
+        }
+    }
+}
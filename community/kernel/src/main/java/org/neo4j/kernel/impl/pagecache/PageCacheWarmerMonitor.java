@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.IOException;
+
+/**
+ * Monitors the progress of the {@link PageCacheWarmer}.
+ */
+public interface PageCacheWarmerMonitor
+{
+    /**
+     * The warmup has started loading the pages from the saved page cache profiles.
+     * @param pagesToLoad the number of pages in the profiles.
+     */
+    void warmupStarted( long pagesToLoad );
+
+    /**
+     * Called periodically while the warmup is loading pages.
+     * @param pagesLoaded the number of pages that have been loaded so far.
+     * @param pagesToLoad the number of pages in the profiles.
+     * @param pagesPerSecond the average number of pages loaded per second, so far.
+     */
+    void warmupProgress( long pagesLoaded, long pagesToLoad, long pagesPerSecond );
+
+    /**
+     * The warmup has finished, or has been stopped.
+     * @param pagesLoaded the number of pages that were loaded.
+     * @param elapsedMillis the time it took to load the pages.
+     */
+    void warmupCompleted( long pagesLoaded, long elapsedMillis );
+
+    /**
+     * A profile of the page cache contents has been saved.
+     * @param pagesInMemory the number of pages that were in memory, and thus included in the profile.
+     * @param elapsedMillis the time it took to profile the page cache.
+     */
+    void profileCompleted( long pagesInMemory, long elapsedMillis );
+
+    /**
+     * The pages of a profile could not be loaded, or the mapped files could not be listed.
+     * @param e the failure, for which the warmup skipped the profile.
+     */
+    void warmupFailed( IOException e );
+
+    /**
+     * A profile could not be saved, or the mapped files could not be listed.
+     * @param e the failure, after which the previously saved profile, if any, is left in place.
+     */
+    void profileFailed( IOException e );
+}
@@ -20,8 +20,9 @@
 package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
 
 import java.util.Iterator;
-import java.util.Set;
 
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.collection.primitive.PrimitiveIntSet;
 import org.neo4j.internal.kernel.api.exceptions.schema.ConstraintValidationException;
 import org.neo4j.internal.kernel.api.schema.constraints.ConstraintDescriptor;
 import org.neo4j.kernel.api.exceptions.schema.CreateConstraintFailureException;
@@ -164,16 +165,18 @@ public class TransactionToRecordStateVisitor extends TxStateVisitor.Adapter
     }
 
     @Override
-    public void visitNodeLabelChanges( long id, final Set<Integer> added, final Set<Integer> removed )
+    public void visitNodeLabelChanges( long id, final PrimitiveIntSet added, final PrimitiveIntSet removed )
     {
         // record the state changes to be made to the store
-        for ( Integer label : removed )
+        PrimitiveIntIterator removedLabels = removed.iterator();
+        while ( removedLabels.hasNext() )
         {
-            recordState.removeLabelFromNode( label, id );
+            recordState.removeLabelFromNode( removedLabels.next(), id );
         }
-        for ( Integer label : added )
+        PrimitiveIntIterator addedLabels = added.iterator();
+        while ( addedLabels.hasNext() )
         {
-            recordState.addLabelToNode( label, id );
+            recordState.addLabelToNode( addedLabels.next(), id );
         }
     }
 
@@ -23,11 +23,15 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.neo4j.collection.pool.LinkedQueuePool;
+import org.neo4j.collection.pool.MarshlandPool;
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
@@ -44,15 +48,30 @@ import org.neo4j.kernel.impl.util.IdOrderingQueue;
 import org.neo4j.kernel.internal.DatabaseHealth;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SPECIFIED;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart.checksum;
 
 /**
  * Concurrently appends transactions to the transaction log, while coordinating with the log rotation and forcing the
  * log file in batches for higher throughput in a concurrent scenario.
+ * <p>
+ * Committers that arrive while the log is being forced piggy-back on the next force. In addition to that the thread
+ * that is about to force the log can be allowed to hold the force back for a short while, up to a configured maximum
+ * delay, to deliberately gather a bigger group of committers into it. The delay adapts to the observed commit arrival
+ * rate and force latency: the force is only held back when more committers are expected to arrive within the time
+ * it takes to force the log, and only until the expected number of them have arrived.
+ * <p>
+ * Optionally the commands of the appended transactions are serialized by the committing threads concurrently, into
+ * pooled heap buffers, before the log is synchronized on. Only copying the serialized commands into the log,
+ * together with writing the small start and commit entries, is then left to be done while holding the log.
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
+    private static final long MAX_ARRIVAL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+    private static final int MOVING_AVERAGE_WEIGHT_SHIFT = 3;
+
     // For the graph store and schema indexes order-of-updates are managed by the high level entity locks
     // such that changes are applied to the affected records in the same order that they are written to the
     // log. For the explicit indexes there are no such locks, and hence no such ordering. This queue below
@@ -67,14 +86,61 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final DatabaseHealth databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final boolean compressCommands;
+    private final boolean concurrentSerialization;
+
+    // Group commit delay state. The averages are exponentially weighted moving averages, updated with benign races,
+    // that only serve to steer the delay. None of it is touched when the delay is disabled.
+    private final long maxGroupCommitDelayNanos;
+    private final AtomicLong lastArrivalNanos = new AtomicLong();
+    private final AtomicInteger arrivalsSinceForce = new AtomicInteger();
+    private volatile long averageArrivalIntervalNanos;
+    private volatile long averageForceNanos;
 
     private FlushablePositionAwareChannel writer;
+    private LogEntryWriter logEntryWriter;
     private TransactionLogWriter transactionLogWriter;
     private IndexCommandDetector indexCommandDetector;
+    private SerializationBufferPool globalSerializationBuffers;
+    private MarshlandPool<CommandSerializationBuffer> serializationBuffers;
 
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
             IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
+                databaseHealth, 0 );
+    }
+
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth,
+            long maxGroupCommitDelayNanos )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
+                databaseHealth, maxGroupCommitDelayNanos, false );
+    }
+
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth,
+            long maxGroupCommitDelayNanos, boolean compressCommands )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
+                databaseHealth, maxGroupCommitDelayNanos, compressCommands, false );
+    }
+
+    /**
+     * @param maxGroupCommitDelayNanos the longest time the forcing thread may hold back a force in order to gather
+     * more committers into it, or {@code 0} to always force right away.
+     * @param compressCommands whether or not to write the commands of each transaction as one compressed block.
+     * @param concurrentSerialization whether or not committing threads serialize the commands of their transactions
+     * before synchronizing on the log, instead of while holding it.
+     */
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth,
+            long maxGroupCommitDelayNanos, boolean compressCommands, boolean concurrentSerialization )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
@@ -82,6 +148,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.explicitIndexTransactionOrdering = explicitIndexTransactionOrdering;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.maxGroupCommitDelayNanos = maxGroupCommitDelayNanos;
+        this.compressCommands = compressCommands;
+        this.concurrentSerialization = concurrentSerialization;
     }
 
     @Override
@@ -89,11 +158,61 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     {
         this.writer = logFile.getWriter();
         this.indexCommandDetector = new IndexCommandDetector();
-        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        this.logEntryWriter = new LogEntryWriter( writer, compressCommands );
+        this.transactionLogWriter = new TransactionLogWriter( logEntryWriter );
+        if ( concurrentSerialization )
+        {
+            this.globalSerializationBuffers = new SerializationBufferPool( compressCommands );
+            this.serializationBuffers = new MarshlandPool<>( globalSerializationBuffers );
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if ( serializationBuffers != null )
+        {
+            serializationBuffers.disposeAll();
+            globalSerializationBuffers.disposeAll();
+            serializationBuffers = null;
+            globalSerializationBuffers = null;
+        }
+        if ( logEntryWriter != null )
+        {
+            logEntryWriter.close();
+            logEntryWriter = null;
+        }
     }
 
     @Override
     public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        MarshlandPool<CommandSerializationBuffer> buffers = serializationBuffers;
+        if ( buffers == null )
+        {
+            return append( batch, null, logAppendEvent );
+        }
+
+        // Serializing the commands needs no coordination with other committers, so do that before entering the
+        // synchronized block. Failing to do so leaves the log untouched and so doesn't call for a panic.
+        CommandSerializationBuffer serializedCommands = buffers.acquire();
+        try
+        {
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                serializedCommands.serialize( tx.transactionRepresentation() );
+            }
+            return append( batch, serializedCommands, logAppendEvent );
+        }
+        finally
+        {
+            serializedCommands.clear();
+            buffers.release( serializedCommands );
+        }
+    }
+
+    private long append( TransactionToApply batch, CommandSerializationBuffer serializedCommands,
+            LogAppendEvent logAppendEvent ) throws IOException
     {
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
@@ -116,7 +235,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                     // really recover from and would point to a bug somewhere.
                     matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
 
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
+                    TransactionCommitment commitment =
+                            appendToLog( tx.transactionRepresentation(), transactionId, serializedCommands );
                     tx.commitment( commitment, transactionId );
                     tx.logPosition( commitment.logPosition() );
                     tx = tx.next();
@@ -193,8 +313,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any explicit index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId,
+            CommandSerializationBuffer serializedCommands ) throws IOException
     {
         // Reset command writer so that we, after we've written the transaction, can ask it whether or
         // not any explicit index command was written. If so then there's additional ordering to care about below.
@@ -209,8 +329,16 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
-            transactionLogWriter.append( transaction, transactionId );
+            if ( serializedCommands == null )
+            {
+                transactionLogWriter.append( transaction, transactionId );
+            }
+            else
+            {
+                transactionLogWriter.append( transaction, transactionId, serializedCommands, writer );
+            }
             LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
+            logFile.transactionAppended( transactionId, logPositionBeforeCommit );
 
             long transactionChecksum =
                     checksum( transaction.additionalHeader(), transaction.getMasterId(), transaction.getAuthorId() );
@@ -248,6 +376,10 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         ThreadLink threadLink = new ThreadLink( Thread.currentThread() );
         threadLink.next = threadLinkHead.getAndSet( threadLink );
         boolean attemptedForce = false;
+        if ( maxGroupCommitDelayNanos > 0 )
+        {
+            recordArrival();
+        }
 
         try ( LogForceWaitEvent logForceWaitEvent = logForceEvents.beginLogForceWait() )
         {
@@ -293,10 +425,21 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
 
     private void forceLog( LogForceEvents logForceEvents ) throws IOException
     {
+        if ( maxGroupCommitDelayNanos > 0 )
+        {
+            awaitGroup();
+            arrivalsSinceForce.set( 0 );
+        }
         ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
         try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
         {
+            long startNanos = System.nanoTime();
             force();
+            if ( maxGroupCommitDelayNanos > 0 )
+            {
+                averageForceNanos = movingAverage( averageForceNanos, System.nanoTime() - startNanos );
+            }
+            logForceEvent.setGroupSize( groupSize( links ) );
         }
         catch ( final Throwable panic )
         {
@@ -309,6 +452,66 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
+    private void recordArrival()
+    {
+        long now = System.nanoTime();
+        long previousArrival = lastArrivalNanos.getAndSet( now );
+        if ( previousArrival != 0 )
+        {
+            // Cap the interval so that a single commit after an idle period doesn't dominate the average.
+            long interval = min( now - previousArrival, MAX_ARRIVAL_INTERVAL_NANOS );
+            averageArrivalIntervalNanos = movingAverage( averageArrivalIntervalNanos, interval );
+        }
+        arrivalsSinceForce.incrementAndGet();
+    }
+
+    /**
+     * Holds back the force, which is about to happen, for as long as it is expected to grow the group of committers
+     * taking part in it, but never longer than the configured maximum group commit delay.
+     */
+    private void awaitGroup()
+    {
+        long arrivalIntervalNanos = averageArrivalIntervalNanos;
+        long forceNanos = averageForceNanos;
+        if ( arrivalIntervalNanos == 0 || arrivalIntervalNanos >= forceNanos )
+        {
+            // Committers arrive more seldom than a force takes, so waiting for them would only add latency.
+            return;
+        }
+
+        // Aim for the number of committers that would otherwise have arrived while the log was being forced.
+        long expectedGroupSize = forceNanos / arrivalIntervalNanos;
+        long deadline = System.nanoTime() + min( maxGroupCommitDelayNanos, forceNanos );
+        long remainingNanos;
+        while ( arrivalsSinceForce.get() < expectedGroupSize && (remainingNanos = deadline - System.nanoTime()) > 0 )
+        {
+            LockSupport.parkNanos( this, min( remainingNanos, arrivalIntervalNanos ) );
+        }
+    }
+
+    private static long movingAverage( long average, long sample )
+    {
+        return average == 0 ? sample : max( 1, average + ((sample - average) >> MOVING_AVERAGE_WEIGHT_SHIFT) );
+    }
+
+    private static int groupSize( ThreadLink links )
+    {
+        int size = 0;
+        while ( links != ThreadLink.END )
+        {
+            size++;
+            ThreadLink next;
+            do
+            {
+                // Spin because of the race:y update when consing, just like in unparkAll.
+                next = links.next;
+            }
+            while ( next == null );
+            links = next;
+        }
+        return size;
+    }
+
     private void unparkAll( ThreadLink links )
     {
         do
@@ -358,4 +561,19 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             // we emptied into the channel, and thus it is already flushed by that thread.
         }
     }
+
+    private static class SerializationBufferPool extends LinkedQueuePool<CommandSerializationBuffer>
+    {
+        SerializationBufferPool( boolean compressCommands )
+        {
+            super( 4, () -> new CommandSerializationBuffer( compressCommands ) );
+        }
+
+        @Override
+        protected void dispose( CommandSerializationBuffer buffer )
+        {
+            buffer.close();
+            super.dispose( buffer );
+        }
+    }
 }
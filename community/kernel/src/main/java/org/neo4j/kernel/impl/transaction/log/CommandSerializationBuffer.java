@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+
+/**
+ * Growing heap {@link FlushableChannel} into which committing threads serialize the commands of their
+ * transactions before entering the synchronized section of the {@link BatchingTransactionAppender}, where the
+ * serialized commands are then copied as they are into the log. Serialized commands of multiple transactions
+ * are kept in order, one segment per transaction.
+ * Instances are not thread safe and are meant to be reused for one batch of transactions after the other.
+ * The buffer lives on the heap, so that growing it for a large transaction and giving that memory back
+ * afterwards is left to the garbage collector rather than churning direct memory.
+ */
+class CommandSerializationBuffer implements FlushableChannel, Flushable
+{
+    static final int INITIAL_CAPACITY = (int) ByteUnit.kibiBytes( 64 );
+    static final int MAX_RETAINED_CAPACITY = (int) ByteUnit.mebiBytes( 1 );
+
+    private final LogEntryWriter writer;
+    private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+    private int[] segmentEnds = new int[4];
+    private int segments;
+    private int nextSegment;
+
+    CommandSerializationBuffer( boolean compressCommands )
+    {
+        this.writer = new LogEntryWriter( this, compressCommands );
+    }
+
+    /**
+     * Serializes the commands of the given transaction into a new segment, exactly as {@link LogEntryWriter} would
+     * have written them into the log.
+     */
+    void serialize( TransactionRepresentation transaction ) throws IOException
+    {
+        writer.serialize( transaction );
+        if ( segments == segmentEnds.length )
+        {
+            segmentEnds = Arrays.copyOf( segmentEnds, segments * 2 );
+        }
+        segmentEnds[segments++] = buffer.position();
+    }
+
+    /**
+     * Copies the next segment, in the order they were serialized, into the given channel.
+     */
+    void transferNextSegment( FlushablePositionAwareChannel channel ) throws IOException
+    {
+        if ( nextSegment == segments )
+        {
+            throw new IllegalStateException( "All " + segments + " serialized segments have already been transferred" );
+        }
+        ByteBuffer segment = buffer.duplicate();
+        segment.limit( segmentEnds[nextSegment] );
+        segment.position( nextSegment == 0 ? 0 : segmentEnds[nextSegment - 1] );
+        nextSegment++;
+        channel.putAll( segment );
+    }
+
+    /**
+     * Prepares this buffer for the next batch of transactions, giving back memory that a single large transaction
+     * may have made it grow into.
+     */
+    void clear()
+    {
+        if ( buffer.capacity() > MAX_RETAINED_CAPACITY )
+        {
+            buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+        }
+        buffer.clear();
+        segments = 0;
+        nextSegment = 0;
+    }
+
+    int capacity()
+    {
+        return buffer.capacity();
+    }
+
+    private ByteBuffer ensureCapacity( int bytes )
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            long capacity = buffer.capacity() * 2L;
+            while ( capacity - buffer.position() < bytes )
+            {
+                capacity *= 2;
+            }
+            ByteBuffer grown = ByteBuffer.allocate( (int) Math.min( capacity, Integer.MAX_VALUE ) );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+        return buffer;
+    }
+
+    @Override
+    public Flushable prepareForFlush()
+    {
+        return this;
+    }
+
+    @Override
+    public FlushableChannel put( byte value )
+    {
+        ensureCapacity( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putShort( short value )
+    {
+        ensureCapacity( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putInt( int value )
+    {
+        ensureCapacity( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putLong( long value )
+    {
+        ensureCapacity( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putFloat( float value )
+    {
+        ensureCapacity( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putDouble( double value )
+    {
+        ensureCapacity( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel put( byte[] value, int length )
+    {
+        ensureCapacity( length ).put( value, 0, length );
+        return this;
+    }
+
+    @Override
+    public void flush()
+    {
+    }
+
+    /**
+     * Releases the compressor of the writer and the serialized commands. This buffer can't be used after that.
+     */
+    @Override
+    public void close()
+    {
+        writer.close();
+        buffer = null;
+        segmentEnds = null;
+    }
+}
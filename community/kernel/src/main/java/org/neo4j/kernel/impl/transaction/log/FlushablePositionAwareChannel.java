@@ -19,6 +19,17 @@
  */
 package org.neo4j.kernel.impl.transaction.log;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 public interface FlushablePositionAwareChannel extends FlushableChannel, PositionAwareChannel
 {
+    /**
+     * Writes all remaining bytes of the given buffer, as they are, to this channel.
+     *
+     * @param source buffer with the bytes to write, which will have no remaining bytes when this method returns.
+     * @return this channel.
+     * @throws IOException if the underlying channel throws {@link IOException}.
+     */
+    FlushableChannel putAll( ByteBuffer source ) throws IOException;
 }
@@ -150,6 +150,30 @@ public class PhysicalFlushableChannel implements FlushableChannel
         return this;
     }
 
+    /**
+     * Writes all remaining bytes of the given buffer, as they are, to this channel.
+     *
+     * @param source buffer with the bytes to write, which will have no remaining bytes when this method returns.
+     * @return this channel.
+     * @throws IOException if underlying channel throws {@link IOException}.
+     */
+    public FlushableChannel putAll( ByteBuffer source ) throws IOException
+    {
+        int limit = source.limit();
+        while ( source.hasRemaining() )
+        {
+            if ( !buffer.hasRemaining() )
+            {
+                prepareForFlush();
+            }
+            int chunkSize = min( source.remaining(), buffer.remaining() );
+            source.limit( source.position() + chunkSize );
+            buffer.put( source );
+            source.limit( limit );
+        }
+        return this;
+    }
+
     private ByteBuffer bufferWithGuaranteedSpace( int spaceInBytes ) throws IOException
     {
         assert spaceInBytes < buffer.capacity();
@@ -61,9 +61,9 @@ public class PhysicalLogVersionedStoreChannel implements LogVersionedStoreChanne
     }
 
     @Override
-    public int read( ByteBuffer dst, long position )
+    public int read( ByteBuffer dst, long position ) throws IOException
     {
-        throw new UnsupportedOperationException( "Not needed" );
+        return delegateChannel.read( dst, position );
     }
 
     @Override
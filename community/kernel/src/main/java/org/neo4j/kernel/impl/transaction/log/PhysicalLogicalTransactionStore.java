@@ -103,10 +103,20 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             LogVersionLocator headerVisitor = new LogVersionLocator( transactionIdToStartFrom );
             logFiles.accept( headerVisitor );
 
+            // ask the index of the log file where to start looking, if it is indexed
+            LogPosition logStart = headerVisitor.getLogPosition();
+            LogPosition searchStart = logFiles.closestIndexedPosition( transactionIdToStartFrom, logStart );
+
             // ask LogFile
             TransactionPositionLocator transactionPositionLocator =
                     new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
-            logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
+            logFile.accept( transactionPositionLocator, searchStart );
+            if ( !transactionPositionLocator.hasFoundTransaction() && !searchStart.equals( logStart ) )
+            {
+                // The index led us astray, which it shouldn't, but the whole log file can still be searched
+                transactionPositionLocator = new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
+                logFile.accept( transactionPositionLocator, logStart );
+            }
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
             return new PhysicalTransactionCursor<>( logFile.getReader( position ), logEntryReader );
         }
@@ -200,6 +210,11 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             return true;
         }
 
+        boolean hasFoundTransaction()
+        {
+            return startEntryForFoundTransaction != null;
+        }
+
         public LogPosition getAndCacheFoundLogPosition( TransactionMetadataCache transactionMetadataCache )
                 throws NoSuchTransactionException
         {
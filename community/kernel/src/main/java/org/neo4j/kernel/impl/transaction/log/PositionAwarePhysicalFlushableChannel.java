@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.Flushable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Decorator around a {@link LogVersionedStoreChannel} making it expose {@link FlushablePositionAwareChannel}. This
@@ -99,6 +100,12 @@ public class PositionAwarePhysicalFlushableChannel implements FlushablePositionA
         return channel.put( value, length );
     }
 
+    @Override
+    public FlushableChannel putAll( ByteBuffer source ) throws IOException
+    {
+        return channel.putAll( source );
+    }
+
     @Override
     public void close() throws IOException
     {
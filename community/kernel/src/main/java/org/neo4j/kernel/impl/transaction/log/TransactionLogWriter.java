@@ -35,9 +35,7 @@ public class TransactionLogWriter
 
     public void append( TransactionRepresentation transaction, long transactionId ) throws IOException
     {
-        writer.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(),
-                transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(),
-                transaction.additionalHeader() );
+        writeStartEntry( transaction );
 
         // Write all the commands to the log channel
         writer.serialize( transaction );
@@ -46,6 +44,30 @@ public class TransactionLogWriter
         writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
     }
 
+    /**
+     * Appends the given transaction exactly like {@link #append(TransactionRepresentation, long)} does, except
+     * that its commands have already been serialized, into the next segment of the given buffer, and are copied
+     * from there into the given channel, which is the channel this writer writes to.
+     */
+    void append( TransactionRepresentation transaction, long transactionId,
+            CommandSerializationBuffer serializedCommands, FlushablePositionAwareChannel channel ) throws IOException
+    {
+        writeStartEntry( transaction );
+
+        // Copy the already serialized commands to the log channel
+        serializedCommands.transferNextSegment( channel );
+
+        // Write commit record
+        writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
+    }
+
+    private void writeStartEntry( TransactionRepresentation transaction ) throws IOException
+    {
+        writer.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(),
+                transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(),
+                transaction.additionalHeader() );
+    }
+
     public void checkPoint( LogPosition logPosition ) throws IOException
     {
         writer.writeCheckPointEntry( logPosition );
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.time.Clock;
+
+import org.neo4j.function.Predicates;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.util.FeatureToggles;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.scheduler.JobScheduler.Groups.checkPoint;
+
+/**
+ * Writes out the dirty pages of the page cache in the background, in between check points, such that a check point
+ * only has to flush and force the pages that were dirtied recently, instead of every page that was dirtied since the
+ * previous check point.
+ * <p>
+ * Every {@link #FLUSH_PERIOD_MILLIS}, the dirty pages are counted, and enough of them are written out, oldest first,
+ * that all of them would have been written out by the time the next check point is expected. The next check point is
+ * expected one check point interval after the previous one, where the interval is the configured time interval, or
+ * the time between the two most recent check points, if that is shorter.
+ * <p>
+ * The pages are written out through the check point {@link IOLimiter}, until this flusher is stopped. From then on,
+ * a flush that is still in progress writes out its remaining pages without waiting on the limiter, so that stopping
+ * doesn't have to wait for a throttled flush, nor touch the limiting of concurrent check points.
+ */
+public class BackgroundPageFlusher extends LifecycleAdapter
+{
+    static final long FLUSH_PERIOD_MILLIS = FeatureToggles.getLong( BackgroundPageFlusher.class, "period", 1000 );
+
+    private final PageCache pageCache;
+    private final CheckPointer checkPointer;
+    private final IOLimiter ioLimiter;
+    private final JobScheduler scheduler;
+    private final Clock clock;
+    private final long checkPointIntervalMillis;
+    private final CheckPointTracer tracer;
+    private final Log log;
+
+    // Only accessed by the flushing job, which never runs concurrently with itself.
+    private long lastCheckPointedTx;
+    private long lastCheckPointMillis;
+    private long expectedIntervalMillis;
+
+    private final IOLimiter flushLimiter = new IOLimiter()
+    {
+        @Override
+        public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+        {
+            return stopped ? previousStamp : ioLimiter.maybeLimitIO( previousStamp, recentlyCompletedIOs, flushable );
+        }
+    };
+
+    private final Runnable job = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                flushing = true;
+                if ( stopped )
+                {
+                    return;
+                }
+                flush();
+            }
+            catch ( Throwable t )
+            {
+                // The next check point will flush whatever we did not get to, and report the failure if it persists.
+                log.warn( "Failed to flush dirty pages in the background", t );
+            }
+            finally
+            {
+                flushing = false;
+            }
+
+            if ( !stopped )
+            {
+                handle = scheduler.schedule( checkPoint, job, FLUSH_PERIOD_MILLIS, MILLISECONDS );
+            }
+        }
+    };
+
+    private volatile JobScheduler.JobHandle handle;
+    private volatile boolean stopped;
+    private volatile boolean flushing;
+
+    public BackgroundPageFlusher( PageCache pageCache, CheckPointer checkPointer, IOLimiter ioLimiter,
+            JobScheduler scheduler, Clock clock, long checkPointIntervalMillis, CheckPointTracer tracer,
+            LogProvider logProvider )
+    {
+        this.pageCache = pageCache;
+        this.checkPointer = checkPointer;
+        this.ioLimiter = ioLimiter;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.checkPointIntervalMillis = checkPointIntervalMillis;
+        this.tracer = tracer;
+        this.log = logProvider.getLog( getClass() );
+    }
+
+    @Override
+    public void start()
+    {
+        lastCheckPointedTx = checkPointer.lastCheckPointedTransactionId();
+        lastCheckPointMillis = clock.millis();
+        expectedIntervalMillis = checkPointIntervalMillis;
+        handle = scheduler.schedule( checkPoint, job, FLUSH_PERIOD_MILLIS, MILLISECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        if ( handle != null )
+        {
+            handle.cancel( false );
+        }
+        Predicates.awaitForever( () -> !flushing, 100, MILLISECONDS );
+    }
+
+    void flush() throws IOException
+    {
+        long now = clock.millis();
+        long checkPointedTx = checkPointer.lastCheckPointedTransactionId();
+        if ( checkPointedTx != lastCheckPointedTx )
+        {
+            long observedIntervalMillis = now - lastCheckPointMillis;
+            expectedIntervalMillis = Math.min( checkPointIntervalMillis,
+                    Math.max( observedIntervalMillis, FLUSH_PERIOD_MILLIS ) );
+            lastCheckPointedTx = checkPointedTx;
+            lastCheckPointMillis = now;
+        }
+
+        long dirtyPages = pageCache.countDirtyPages();
+        long flushedPages = 0;
+        if ( dirtyPages > 0 )
+        {
+            long millisLeft = Math.max( lastCheckPointMillis + expectedIntervalMillis - now, FLUSH_PERIOD_MILLIS );
+            long periodsLeft = (millisLeft + FLUSH_PERIOD_MILLIS - 1) / FLUSH_PERIOD_MILLIS;
+            long pagesToFlush = (dirtyPages + periodsLeft - 1) / periodsLeft;
+            flushedPages = pageCache.flushDirtyPages( pagesToFlush, flushLimiter );
+        }
+        tracer.backgroundFlush( dirtyPages, flushedPages );
+    }
+}
@@ -35,6 +35,7 @@ import org.neo4j.logging.LogProvider;
 import org.neo4j.storageengine.api.StorageEngine;
 
 import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
 
 import static org.neo4j.helpers.Format.duration;
 
@@ -51,7 +52,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
     private final CheckPointTracer tracer;
     private final StoreCopyCheckPointMutex mutex;
 
-    private long lastCheckPointedTx;
+    private volatile long lastCheckPointedTx;
 
     public CheckPointerImpl(
             TransactionIdStore transactionIdStore,
@@ -161,7 +162,9 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
              */
             msgLog.info( prefix + " checkpoint started..." );
             long startTime = currentTimeMillis();
+            long flushStartNanos = nanoTime();
             storageEngine.flushAndForce( ioLimiter );
+            logCheckPointEvent.storeFlushed( nanoTime() - flushStartNanos );
             /*
              * Check kernel health before going to write the next check point.  In case of a panic this check point
              * will be aborted, which is the safest alternative so that the next recovery will have a chance to
@@ -19,12 +19,42 @@
  */
 package org.neo4j.kernel.impl.transaction.log.checkpoint;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
 public interface CheckPointerMonitor
 {
     long numberOfCheckPointEvents();
 
     long checkPointAccumulatedTotalTimeMillis();
 
+    /**
+     * @return The average number of bytes written per write call, when the store files were flushed by check points.
+     */
+    long checkPointBytesPerWrite();
+
+    /**
+     * @return The time, in milliseconds, spent flushing each of the store files in the most recent check point.
+     */
+    Map<File,Long> lastCheckPointFileFlushTimeMillis();
+
+    /**
+     * @return The time, in milliseconds, that the most recent check point spent flushing and forcing the store.
+     */
+    long lastCheckPointStoreFlushTimeMillis();
+
+    /**
+     * @return The number of dirty pages in the page cache, as last counted by the background flushing in between
+     * check points.
+     */
+    long dirtyPages();
+
+    /**
+     * @return The total number of pages written by the background flushing in between check points.
+     */
+    long backgroundFlushedPages();
+
     CheckPointerMonitor NULL = new CheckPointerMonitor()
     {
         @Override
@@ -38,5 +68,35 @@ public interface CheckPointerMonitor
         {
             return 0;
         }
+
+        @Override
+        public long checkPointBytesPerWrite()
+        {
+            return 0;
+        }
+
+        @Override
+        public Map<File,Long> lastCheckPointFileFlushTimeMillis()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public long lastCheckPointStoreFlushTimeMillis()
+        {
+            return 0;
+        }
+
+        @Override
+        public long dirtyPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long backgroundFlushedPages()
+        {
+            return 0;
+        }
     };
 }
@@ -19,9 +19,16 @@
  */
 package org.neo4j.kernel.impl.transaction.log.checkpoint;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
@@ -40,11 +47,19 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
     private final SystemNanoClock clock;
     private final Monitor monitor;
     private final JobScheduler jobScheduler;
+    private final PageCacheCounters pageCacheCounters;
 
     private final AtomicLong counter = new AtomicLong();
     private final AtomicLong accumulatedTotalTimeNanos = new AtomicLong();
+    private final AtomicLong accumulatedFlushWrites = new AtomicLong();
+    private final AtomicLong accumulatedFlushedBytes = new AtomicLong();
+    private final AtomicLong backgroundFlushedPages = new AtomicLong();
 
     private volatile long startTimeNanos;
+    private volatile Map<File,FileFlushSnapshot> fileFlushesAtStart = Collections.emptyMap();
+    private volatile Map<File,Long> lastFileFlushTimeMillis = Collections.emptyMap();
+    private volatile long lastStoreFlushTimeNanos;
+    private volatile long dirtyPages;
 
     private LogCheckPointEvent logCheckPointEvent = new LogCheckPointEvent()
     {
@@ -65,27 +80,58 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
         {
             return LogForceEvent.NULL;
         }
+
+        @Override
+        public void storeFlushed( long elapsedNanos )
+        {
+            lastStoreFlushTimeNanos = elapsedNanos;
+        }
     };
 
     public DefaultCheckPointerTracer( Monitor monitor, JobScheduler jobScheduler )
     {
-        this( Clocks.nanoClock(), monitor, jobScheduler );
+        this( monitor, jobScheduler, PageCacheTracer.NULL );
+    }
+
+    public DefaultCheckPointerTracer( Monitor monitor, JobScheduler jobScheduler, PageCacheCounters pageCacheCounters )
+    {
+        this( Clocks.nanoClock(), monitor, jobScheduler, pageCacheCounters );
     }
 
     public DefaultCheckPointerTracer( SystemNanoClock clock, Monitor monitor, JobScheduler jobScheduler )
+    {
+        this( clock, monitor, jobScheduler, PageCacheTracer.NULL );
+    }
+
+    public DefaultCheckPointerTracer( SystemNanoClock clock, Monitor monitor, JobScheduler jobScheduler,
+            PageCacheCounters pageCacheCounters )
     {
         this.clock = clock;
         this.monitor = monitor;
         this.jobScheduler = jobScheduler;
+        this.pageCacheCounters = pageCacheCounters;
     }
 
     @Override
     public LogCheckPointEvent beginCheckPoint()
     {
+        Map<File,FileFlushSnapshot> snapshots = new HashMap<>();
+        for ( PagedFileCounters counters : pageCacheCounters.pagedFileCounters() )
+        {
+            snapshots.put( counters.file(), new FileFlushSnapshot( counters ) );
+        }
+        fileFlushesAtStart = snapshots;
         startTimeNanos = clock.nanos();
         return logCheckPointEvent;
     }
 
+    @Override
+    public void backgroundFlush( long dirtyPages, long flushedPages )
+    {
+        this.dirtyPages = dirtyPages;
+        backgroundFlushedPages.addAndGet( flushedPages );
+    }
+
     @Override
     public long numberOfCheckPointEvents()
     {
@@ -98,6 +144,37 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
         return TimeUnit.NANOSECONDS.toMillis( accumulatedTotalTimeNanos.get() );
     }
 
+    @Override
+    public long checkPointBytesPerWrite()
+    {
+        long writes = accumulatedFlushWrites.get();
+        return writes == 0 ? 0 : accumulatedFlushedBytes.get() / writes;
+    }
+
+    @Override
+    public Map<File,Long> lastCheckPointFileFlushTimeMillis()
+    {
+        return lastFileFlushTimeMillis;
+    }
+
+    @Override
+    public long lastCheckPointStoreFlushTimeMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( lastStoreFlushTimeNanos );
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return dirtyPages;
+    }
+
+    @Override
+    public long backgroundFlushedPages()
+    {
+        return backgroundFlushedPages.get();
+    }
+
     private void updateCountersAndNotifyListeners()
     {
         final long lastEventTime = clock.nanos() - startTimeNanos;
@@ -105,6 +182,7 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
         // update counters
         counter.incrementAndGet();
         accumulatedTotalTimeNanos.addAndGet( lastEventTime );
+        updateFileFlushCounters();
 
         // notify async
         jobScheduler.schedule( JobScheduler.Groups.metricsEvent, () ->
@@ -113,4 +191,43 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
             monitor.lastCheckPointEventDuration( millis );
         } );
     }
+
+    private void updateFileFlushCounters()
+    {
+        Map<File,FileFlushSnapshot> snapshots = fileFlushesAtStart;
+        Map<File,Long> fileFlushTimeMillis = new HashMap<>();
+        for ( PagedFileCounters counters : pageCacheCounters.pagedFileCounters() )
+        {
+            FileFlushSnapshot start = snapshots.getOrDefault( counters.file(), FileFlushSnapshot.NONE );
+            long flushTimeNanos = counters.flushTimeNanos() - start.flushTimeNanos;
+            if ( flushTimeNanos > 0 )
+            {
+                fileFlushTimeMillis.put( counters.file(), TimeUnit.NANOSECONDS.toMillis( flushTimeNanos ) );
+            }
+            accumulatedFlushWrites.addAndGet( counters.flushWrites() - start.flushWrites );
+            accumulatedFlushedBytes.addAndGet( counters.flushedBytes() - start.flushedBytes );
+        }
+        lastFileFlushTimeMillis = Collections.unmodifiableMap( fileFlushTimeMillis );
+    }
+
+    private static final class FileFlushSnapshot
+    {
+        static final FileFlushSnapshot NONE = new FileFlushSnapshot( 0, 0, 0 );
+
+        private final long flushTimeNanos;
+        private final long flushWrites;
+        private final long flushedBytes;
+
+        FileFlushSnapshot( PagedFileCounters counters )
+        {
+            this( counters.flushTimeNanos(), counters.flushWrites(), counters.flushedBytes() );
+        }
+
+        FileFlushSnapshot( long flushTimeNanos, long flushWrites, long flushedBytes )
+        {
+            this.flushTimeNanos = flushTimeNanos;
+            this.flushWrites = flushWrites;
+            this.flushedBytes = flushedBytes;
+        }
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.neo4j.kernel.impl.transaction.log.FlushableChannel;
+
+/**
+ * Growing in-memory {@link FlushableChannel} which collects the command entries of a transaction so that
+ * they can be compressed and written as one {@link LogEntryByteCodes#COMPRESSED_COMMANDS} entry.
+ * Instances are not thread safe and are meant to be reused for one transaction after the other.
+ */
+class CommandBlockChannel implements FlushableChannel, Flushable
+{
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+    private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+    private byte[] compressed = new byte[INITIAL_CAPACITY];
+
+    void clear()
+    {
+        buffer.clear();
+    }
+
+    int size()
+    {
+        return buffer.position();
+    }
+
+    byte[] array()
+    {
+        return buffer.array();
+    }
+
+    byte[] compressed()
+    {
+        return compressed;
+    }
+
+    /**
+     * Compresses the content written since the last {@link #clear()} into {@link #compressed()}.
+     *
+     * @return the number of compressed bytes, or {@code -1} if compressing didn't make the content any smaller.
+     */
+    int compress()
+    {
+        int size = size();
+        deflater.reset();
+        deflater.setInput( buffer.array(), 0, size );
+        deflater.finish();
+        int length = 0;
+        while ( !deflater.finished() )
+        {
+            if ( length >= size )
+            {
+                return -1;
+            }
+            if ( length == compressed.length )
+            {
+                compressed = Arrays.copyOf( compressed, compressed.length * 2 );
+            }
+            length += deflater.deflate( compressed, length, compressed.length - length );
+        }
+        return length < size ? length : -1;
+    }
+
+    static ByteBuffer decompress( byte[] compressed, int compressedLength, int length ) throws IOException
+    {
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput( compressed, 0, compressedLength );
+            byte[] content = new byte[length];
+            int inflated = 0;
+            while ( inflated < length && !inflater.finished() )
+            {
+                int count = inflater.inflate( content, inflated, length - inflated );
+                if ( count == 0 && (inflater.needsInput() || inflater.needsDictionary()) )
+                {
+                    break;
+                }
+                inflated += count;
+            }
+            if ( inflated != length || !inflater.finished() )
+            {
+                throw new IOException( "Compressed command block expected to contain " + length +
+                        " bytes, but inflated into " + inflated + " bytes" );
+            }
+            return ByteBuffer.wrap( content );
+        }
+        catch ( DataFormatException e )
+        {
+            throw new IOException( "Unable to inflate compressed command block", e );
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    private ByteBuffer ensureCapacity( int bytes )
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            int capacity = buffer.capacity() * 2;
+            while ( capacity - buffer.position() < bytes )
+            {
+                capacity *= 2;
+            }
+            ByteBuffer grown = ByteBuffer.allocate( capacity );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+        return buffer;
+    }
+
+    @Override
+    public Flushable prepareForFlush()
+    {
+        return this;
+    }
+
+    @Override
+    public FlushableChannel put( byte value )
+    {
+        ensureCapacity( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putShort( short value )
+    {
+        ensureCapacity( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putInt( int value )
+    {
+        ensureCapacity( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putLong( long value )
+    {
+        ensureCapacity( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putFloat( float value )
+    {
+        ensureCapacity( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putDouble( double value )
+    {
+        ensureCapacity( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel put( byte[] value, int length )
+    {
+        ensureCapacity( length ).put( value, 0, length );
+        return this;
+    }
+
+    @Override
+    public void flush()
+    {
+    }
+
+    @Override
+    public void close()
+    {
+        deflater.end();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.util.List;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
+
+/**
+ * The {@link LogEntryCommand command entries} of a transaction, written compressed as one block.
+ * {@link org.neo4j.kernel.impl.transaction.log.LogEntryCursor} expands this entry into the command entries
+ * it contains, so that transaction cursors read compressed and uncompressed transactions alike.
+ */
+public class LogEntryCompressedCommands extends AbstractLogEntry
+{
+    private final List<LogEntryCommand> commands;
+
+    public LogEntryCompressedCommands( LogEntryVersion version, List<LogEntryCommand> commands )
+    {
+        super( version, COMPRESSED_COMMANDS );
+        this.commands = commands;
+    }
+
+    public List<LogEntryCommand> getCommands()
+    {
+        return commands;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressedCommands[" + commands + "]";
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public <T extends LogEntry> T as()
+    {
+        return (T) this;
+    }
+}
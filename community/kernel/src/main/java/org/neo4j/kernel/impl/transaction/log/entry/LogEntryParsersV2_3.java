@@ -20,6 +20,8 @@
 package org.neo4j.kernel.impl.transaction.log.entry;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
@@ -125,6 +127,51 @@ public enum LogEntryParsersV2_3 implements LogEntryParser<LogEntry>
                     return LogEntryByteCodes.CHECK_POINT;
                 }
 
+                @Override
+                public boolean skip()
+                {
+                    return false;
+                }
+            },
+
+    COMPRESSED_COMMANDS
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableClosableChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    int length = channel.getInt();
+                    int compressedLength = channel.getInt();
+                    byte[] compressed = new byte[compressedLength];
+                    channel.get( compressed, compressedLength );
+
+                    // The block contains regular command entries, exactly as they would have been written uncompressed
+                    CommandBlockReadableChannel blockChannel = new CommandBlockReadableChannel(
+                            CommandBlockChannel.decompress( compressed, compressedLength, length ) );
+                    List<LogEntryCommand> commands = new ArrayList<>();
+                    while ( blockChannel.hasRemaining() )
+                    {
+                        LogEntryVersion commandVersion = LogEntryVersion.byVersion( blockChannel.get() );
+                        byte type = blockChannel.get();
+                        if ( type != LogEntryByteCodes.COMMAND )
+                        {
+                            throw new IOException( "Unexpected entry type " + type + " in compressed command block" );
+                        }
+                        LogEntry entry = COMMAND.parse( commandVersion, blockChannel, marker, commandReader );
+                        if ( entry != null )
+                        {
+                            commands.add( entry.as() );
+                        }
+                    }
+                    return new LogEntryCompressedCommands( version, commands );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMPRESSED_COMMANDS;
+                }
+
                 @Override
                 public boolean skip()
                 {
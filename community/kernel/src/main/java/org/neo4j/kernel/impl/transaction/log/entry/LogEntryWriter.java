@@ -30,26 +30,54 @@ import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.CHECK_POINT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMMAND;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_START;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.CURRENT;
 
-public class LogEntryWriter
+public class LogEntryWriter implements AutoCloseable
 {
+    /**
+     * Command blocks smaller than this are written uncompressed since there's hardly anything to gain from
+     * compressing them.
+     */
+    static final int MIN_COMPRESSED_BLOCK_SIZE = 256;
+
     private final FlushableChannel channel;
     private final Visitor<StorageCommand,IOException> serializer;
+    private final CommandBlockChannel commandBlock;
+    private final Visitor<StorageCommand,IOException> commandBlockSerializer;
 
     /**
      * Create a writer that uses {@link LogEntryVersion#CURRENT} for versioning.
      * @param channel underlying channel
      */
     public LogEntryWriter( FlushableChannel channel )
+    {
+        this( channel, false );
+    }
+
+    /**
+     * Create a writer that uses {@link LogEntryVersion#CURRENT} for versioning.
+     * @param channel underlying channel
+     * @param compressCommands whether or not to write the commands of each
+     * {@link #serialize(TransactionRepresentation) serialized transaction} compressed, as one
+     * {@link LogEntryCompressedCommands} entry, instead of as one {@link LogEntryCommand} entry per command.
+     */
+    public LogEntryWriter( FlushableChannel channel, boolean compressCommands )
     {
         this.channel = channel;
         this.serializer = new StorageCommandSerializer( channel );
+        this.commandBlock = compressCommands ? new CommandBlockChannel() : null;
+        this.commandBlockSerializer = compressCommands ? new StorageCommandSerializer( commandBlock ) : null;
     }
 
     protected void writeLogEntryHeader( byte type ) throws IOException
+    {
+        writeLogEntryHeader( channel, type );
+    }
+
+    private static void writeLogEntryHeader( FlushableChannel channel, byte type ) throws IOException
     {
         channel.put( CURRENT.byteCode() ).put( type );
     }
@@ -70,7 +98,26 @@ public class LogEntryWriter
 
     public void serialize( TransactionRepresentation tx ) throws IOException
     {
-        tx.accept( serializer );
+        if ( commandBlock == null )
+        {
+            tx.accept( serializer );
+            return;
+        }
+
+        commandBlock.clear();
+        tx.accept( commandBlockSerializer );
+        int length = commandBlock.size();
+        int compressedLength = length >= MIN_COMPRESSED_BLOCK_SIZE ? commandBlock.compress() : -1;
+        if ( compressedLength == -1 )
+        {
+            // The block already contains the command entries in their uncompressed form
+            channel.put( commandBlock.array(), length );
+        }
+        else
+        {
+            writeLogEntryHeader( COMPRESSED_COMMANDS );
+            channel.putInt( length ).putInt( compressedLength ).put( commandBlock.compressed(), compressedLength );
+        }
     }
 
     public void serialize( Collection<StorageCommand> commands ) throws IOException
@@ -88,6 +135,19 @@ public class LogEntryWriter
                 putLong( logPosition.getByteOffset() );
     }
 
+    /**
+     * Releases the compressor of a writer that {@link #LogEntryWriter(FlushableChannel, boolean) compresses
+     * commands}. The underlying channel is left open, since it belongs to whoever created this writer.
+     */
+    @Override
+    public void close()
+    {
+        if ( commandBlock != null )
+        {
+            commandBlock.close();
+        }
+    }
+
     private class StorageCommandSerializer implements Visitor<StorageCommand,IOException>
     {
         private final FlushableChannel channel;
@@ -100,7 +160,7 @@ public class LogEntryWriter
         @Override
         public boolean visit( StorageCommand command ) throws IOException
         {
-            writeLogEntryHeader( COMMAND );
+            writeLogEntryHeader( channel, COMMAND );
             command.serialize( channel );
             return false;
         }
@@ -43,6 +43,12 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.byVers
  */
 public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionAwareChannel> implements LogEntryReader<SOURCE>
 {
+    /**
+     * Number of zero bytes, at the position of the next entry, that mark the end of the entries in a
+     * preallocated log file.
+     */
+    private static final int ZERO_FILLED_REMAINDER_PEEK = 64;
+
     private final CommandReaderFactory commandReaderFactory;
     private final InvalidLogEntryHandler invalidLogEntryHandler;
 
@@ -70,6 +76,18 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
                 channel.getCurrentPosition( positionMarker );
 
                 byte versionCode = channel.get();
+                if ( versionCode == 0 && skipped == 0 && channelSupportsPositioning( channel ) )
+                {
+                    boolean endOfLog = isZeroFilledRemainder( channel );
+                    if ( endOfLog )
+                    {
+                        // This is where the entries of a preallocated log file end and its zero filled remainder
+                        // begins, so leave the channel right here, at the end of the log
+                        ((PositionableChannel) channel).setCurrentPosition( positionMarker.getByteOffset() );
+                        return null;
+                    }
+                    ((PositionableChannel) channel).setCurrentPosition( positionMarker.getByteOffset() + 1 );
+                }
                 byte typeCode = channel.get();
 
                 LogEntryVersion version = null;
@@ -127,6 +145,30 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
         }
     }
 
+    /**
+     * No log entry starts with a zero byte, but corrupt data may still happen to have one where an entry
+     * should have started. The two are told apart by peeking at the bytes that follow, which is a lot cheaper
+     * than checking the whole remainder of the log.
+     */
+    private boolean isZeroFilledRemainder( SOURCE channel ) throws IOException
+    {
+        try
+        {
+            for ( int i = 1; i < ZERO_FILLED_REMAINDER_PEEK; i++ )
+            {
+                if ( channel.get() != 0 )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch ( ReadPastEndException e )
+        {
+            return true;
+        }
+    }
+
     private boolean channelSupportsPositioning( SOURCE channel )
     {
         return channel instanceof PositionableChannel;
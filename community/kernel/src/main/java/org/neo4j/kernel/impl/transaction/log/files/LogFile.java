@@ -74,4 +74,13 @@ public interface LogFile
     boolean rotationNeeded();
 
     void rotate() throws IOException;
+
+    /**
+     * Called for every transaction appended to this log, while holding the log, so that the position of the
+     * transaction can be indexed when the current log file is rotated.
+     *
+     * @param transactionId id of the appended transaction.
+     * @param startPosition position of the start entry of the appended transaction.
+     */
+    void transactionAppended( long transactionId, LogPosition startPosition );
 }
@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction.log.files;
 import java.io.File;
 import java.io.IOException;
 
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.lifecycle.Lifecycle;
@@ -59,6 +60,37 @@ public interface LogFiles extends Lifecycle
 
     boolean hasAnyEntries( long version );
 
+    /**
+     * Keeps the log file of the given version around, zero filled, for a future rotation to reuse instead of having
+     * to create and allocate a new log file. Only done if log files are preallocated, and only for one log file
+     * at a time.
+     *
+     * @param version the version of a log file which is no longer needed.
+     * @return {@code true} if the log file was kept for reuse, otherwise {@code false}, in which case the log file
+     * is left as it is, for the caller to delete.
+     * @throws IOException on failure to prepare the log file for reuse.
+     */
+    boolean recycle( long version ) throws IOException;
+
+    /**
+     * @param version the version of a log file.
+     * @return the file keeping the index of transaction positions in the log file of the given version.
+     */
+    File getPositionIndexFileForVersion( long version );
+
+    /**
+     * Looks up, in the index of transaction positions in the log file the given position is in, where to start
+     * looking for the given transaction. Log files which are not indexed yet get indexed on the way, unless they're
+     * the current log file.
+     *
+     * @param transactionId the id of a transaction in the log file that {@code logStart} is in.
+     * @param logStart the position of the first entry of the log file.
+     * @return the position of the start entry of the closest indexed transaction at or before the given one,
+     * or {@code logStart} if there's no such transaction, or if transaction positions are not indexed.
+     * @throws IOException on failure to read the log file.
+     */
+    LogPosition closestIndexedPosition( long transactionId, LogPosition logStart ) throws IOException;
+
     void accept( LogVersionVisitor visitor );
 
     void accept( LogHeaderVisitor visitor ) throws IOException;
@@ -41,6 +41,8 @@ import org.neo4j.kernel.impl.util.Dependencies;
 import static java.util.Objects.requireNonNull;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.database_path;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.logical_log_rotation_threshold;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.preallocate_logical_logs;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.tx_log_position_index;
 
 /**
  * Transactional log files facade class builder.
@@ -227,8 +229,12 @@ public class LogFilesBuilder
         // Register listener for rotation threshold
         AtomicLong rotationThreshold = getRotationThresholdAndRegisterForUpdates();
 
-        return new TransactionLogFilesContext( rotationThreshold, logEntryReader,
-                lastCommittedIdSupplier, committingTransactionIdSupplier, logFileCreationMonitor, logVersionRepositorySupplier, fileSystem );
+        boolean preallocate = !readOnly && config != null && config.get( preallocate_logical_logs );
+        boolean indexPositions = !readOnly && config != null && config.get( tx_log_position_index );
+
+        return new TransactionLogFilesContext( rotationThreshold, logEntryReader, lastCommittedIdSupplier,
+                committingTransactionIdSupplier, logFileCreationMonitor, logVersionRepositorySupplier, fileSystem,
+                preallocate, indexPositions );
     }
 
     private AtomicLong getRotationThresholdAndRegisterForUpdates()
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+
+/**
+ * Sparse, persistent index from transaction id to the byte offset of its start entry in one log file. Only
+ * transactions that start at least {@link #INDEX_INTERVAL} bytes after the previously indexed one are indexed,
+ * so finding the start of any transaction in the log file takes a binary search in the index followed by reading
+ * at most about that many bytes of the log file.
+ * <p>
+ * The index file consists of a header, with the version of the log file and the id of the last transaction
+ * committed before it, as found in the header of the log file, followed by the number of indexed transactions
+ * and then the id and byte offset of each of them, in ascending order. The index is only a hint, an index which
+ * doesn't match its log file is simply not used.
+ */
+class LogPositionIndex
+{
+    static final int INDEX_INTERVAL = (int) ByteUnit.kibiBytes( 64 );
+    static final long NO_INDEX = -1;
+
+    private static final int HEADER_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int ENTRY_SIZE = Long.BYTES + Long.BYTES;
+
+    private LogPositionIndex()
+    {
+    }
+
+    /**
+     * Collects the transactions to index, while a log file is being appended to or read through.
+     */
+    static class Builder
+    {
+        private long[] transactionIds = new long[16];
+        private long[] byteOffsets = new long[16];
+        private int size;
+
+        void add( long transactionId, long byteOffset )
+        {
+            if ( size > 0 && (transactionId <= transactionIds[size - 1] ||
+                              byteOffset - byteOffsets[size - 1] < INDEX_INTERVAL) )
+            {
+                return;
+            }
+            if ( size == transactionIds.length )
+            {
+                transactionIds = Arrays.copyOf( transactionIds, size * 2 );
+                byteOffsets = Arrays.copyOf( byteOffsets, size * 2 );
+            }
+            transactionIds[size] = transactionId;
+            byteOffsets[size] = byteOffset;
+            size++;
+        }
+
+        /**
+         * Writes the index under a temporary name first and then renames it, so that an index file is never seen
+         * half written.
+         */
+        void write( FileSystemAbstraction fs, File indexFile, File temporaryIndexFile, long logVersion,
+                long previousCommittedTxId ) throws IOException
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE + size * ENTRY_SIZE );
+            buffer.putLong( logVersion ).putLong( previousCommittedTxId ).putInt( size );
+            for ( int i = 0; i < size; i++ )
+            {
+                buffer.putLong( transactionIds[i] ).putLong( byteOffsets[i] );
+            }
+            buffer.flip();
+            try ( StoreChannel channel = fs.create( temporaryIndexFile ) )
+            {
+                channel.writeAll( buffer );
+            }
+            fs.renameFile( temporaryIndexFile, indexFile, REPLACE_EXISTING );
+        }
+    }
+
+    /**
+     * @return the byte offset of the start entry of the closest indexed transaction at or before the given one,
+     * the offset of the first entry of the log file if there's no such transaction, or {@link #NO_INDEX} if there's
+     * no usable index for the given log file.
+     */
+    static long lookup( FileSystemAbstraction fs, File indexFile, long logVersion, long previousCommittedTxId,
+            long logFileSize, long transactionId ) throws IOException
+    {
+        if ( !fs.fileExists( indexFile ) )
+        {
+            return NO_INDEX;
+        }
+        try ( StoreChannel channel = fs.open( indexFile, OpenMode.READ ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE );
+            if ( channel.read( buffer, 0 ) != HEADER_SIZE )
+            {
+                return NO_INDEX;
+            }
+            buffer.flip();
+            boolean matchesLogFile = buffer.getLong() == logVersion && buffer.getLong() == previousCommittedTxId;
+            int size = buffer.getInt();
+            if ( !matchesLogFile || size < 0 || channel.size() != HEADER_SIZE + (long) size * ENTRY_SIZE )
+            {
+                return NO_INDEX;
+            }
+
+            // Binary search for the last indexed transaction at or before the given one
+            ByteBuffer entry = ByteBuffer.allocate( ENTRY_SIZE );
+            long byteOffset = LOG_HEADER_SIZE;
+            int low = 0;
+            int high = size - 1;
+            while ( low <= high )
+            {
+                int middle = (low + high) >>> 1;
+                entry.clear();
+                channel.read( entry, HEADER_SIZE + (long) middle * ENTRY_SIZE );
+                entry.flip();
+                if ( entry.getLong() <= transactionId )
+                {
+                    byteOffset = entry.getLong();
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle - 1;
+                }
+            }
+            return byteOffset < logFileSize ? byteOffset : NO_INDEX;
+        }
+    }
+}
@@ -21,22 +21,28 @@ package org.neo4j.kernel.impl.transaction.log.files;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.kernel.impl.transaction.log.FlushablePositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.LogVersionBridge;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
 import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PositionAwarePhysicalFlushableChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReaderLogVersionBridge;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+
 /**
  * {@link LogFile} backed by one or more files in a {@link FileSystemAbstraction}.
  */
@@ -48,6 +54,8 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
     private final LogVersionBridge readerLogVersionBridge;
     private PositionAwarePhysicalFlushableChannel writer;
     private LogVersionRepository logVersionRepository;
+    // Transaction positions in the current log file, or null if not indexed. Guarded by the monitor of this log file.
+    private LogPositionIndex.Builder positionIndex;
 
     private volatile PhysicalLogVersionedStoreChannel channel;
 
@@ -77,8 +85,49 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
         long lastLogVersionUsed = logVersionRepository.getCurrentLogVersion();
         channel = logFiles.createLogChannelForVersion( lastLogVersionUsed, OpenMode.READ_WRITE, context::getLastCommittedTransactionId );
         // Move to the end
-        channel.position( channel.size() );
+        channel.position( endOfEntries( lastLogVersionUsed, channel.size() ) );
         writer = new PositionAwarePhysicalFlushableChannel( channel );
+        // Transactions already in the log file are not indexed here, the index for this file will rather be
+        // rebuilt from the whole file when it's needed
+        positionIndex = context.isIndexPositions() && channel.position() == LOG_HEADER_SIZE
+                        ? new LogPositionIndex.Builder() : null;
+    }
+
+    /**
+     * The end of a preallocated log file is where its zero filled remainder begins, which is found by reading
+     * the entries of the file. Files that don't end with a zero byte cannot have been preallocated.
+     */
+    private long endOfEntries( long version, long size ) throws IOException
+    {
+        ByteBuffer lastByte = ByteBuffer.allocate( 1 );
+        if ( size <= LOG_HEADER_SIZE || channel.read( lastByte, size - 1 ) != 1 || lastByte.get( 0 ) != 0 )
+        {
+            return size;
+        }
+
+        LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = context.getLogEntryReader();
+        try ( ReadAheadLogChannel reader = new ReadAheadLogChannel( logFiles.openForVersion( version ),
+                LogVersionBridge.NO_MORE_CHANNELS ) )
+        {
+            while ( logEntryReader.readLogEntry( reader ) != null )
+            {
+                // Just read through to the end
+            }
+            return reader.getCurrentPosition( new LogPositionMarker() ).getByteOffset();
+        }
+    }
+
+    /**
+     * Cuts off the zero filled remainder of a preallocated log file, which is only needed while the file is
+     * appended to.
+     */
+    private static void truncateToEndOfEntries( LogVersionedStoreChannel logChannel ) throws IOException
+    {
+        long endOfEntries = logChannel.position();
+        if ( logChannel.size() > endOfEntries )
+        {
+            logChannel.truncate( endOfEntries );
+        }
     }
 
     // In order to be able to write into a logfile after life.stop during shutdown sequence
@@ -89,6 +138,11 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
     {
         if ( writer != null )
         {
+            if ( context.isPreallocate() )
+            {
+                writer.prepareForFlush().flush();
+                truncateToEndOfEntries( channel );
+            }
             writer.close();
         }
         if ( channel != null )
@@ -170,6 +224,11 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
          * transaction complete in the log we're rotating away. Awesome.
          */
         writer.prepareForFlush().flush();
+        if ( context.isPreallocate() )
+        {
+            truncateToEndOfEntries( currentLog );
+        }
+        writePositionIndex( currentLog.getVersion() );
         /*
          * The log version is now in the store, flushed and persistent. If we crash
          * now, on recovery we'll attempt to open the version we're about to create
@@ -185,6 +244,31 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
         return newLog;
     }
 
+    private void writePositionIndex( long version )
+    {
+        if ( positionIndex != null )
+        {
+            try
+            {
+                logFiles.writePositionIndex( version, positionIndex );
+            }
+            catch ( IOException e )
+            {
+                // The index is merely an optimization, it will be rebuilt from the log file when needed
+            }
+        }
+        positionIndex = context.isIndexPositions() ? new LogPositionIndex.Builder() : null;
+    }
+
+    @Override
+    public synchronized void transactionAppended( long transactionId, LogPosition startPosition )
+    {
+        if ( positionIndex != null )
+        {
+            positionIndex.add( transactionId, startPosition.getByteOffset() );
+        }
+    }
+
     @Override
     public FlushablePositionAwareChannel getWriter()
     {
@@ -26,18 +26,29 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.function.LongSupplier;
 
+import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.log.LogHeaderCache;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogVersionBridge;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_COMMIT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_START;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter.writeLogHeader;
@@ -52,6 +63,7 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     public static final String DEFAULT_NAME = "neostore.transaction.db";
     public static final FilenameFilter DEFAULT_FILENAME_FILTER = TransactionLogFilesHelper.DEFAULT_FILENAME_FILTER;
     private static final File[] EMPTY_FILES_ARRAY = {};
+    private static final int PREALLOCATION_CHUNK_SIZE = (int) ByteUnit.mebiBytes( 1 );
 
     private final TransactionLogFilesContext logFilesContext;
     private final TransactionLogFileInformation logFileInformation;
@@ -62,6 +74,7 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     private final TransactionLogFilesHelper fileHelper;
     private final TransactionLogFile logFile;
     private final File logsDirectory;
+    private final Object positionIndexRebuildLock = new Object();
 
     TransactionLogFiles( File logsDirectory, String name, TransactionLogFilesContext context )
     {
@@ -155,7 +168,141 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     @Override
     public boolean hasAnyEntries( long version )
     {
-        return fileSystem.getFileSize( getLogFileForVersion( version ) ) > LOG_HEADER_SIZE;
+        File logFile = getLogFileForVersion( version );
+        if ( fileSystem.getFileSize( logFile ) <= LOG_HEADER_SIZE )
+        {
+            return false;
+        }
+        if ( !logFilesContext.isPreallocate() )
+        {
+            return true;
+        }
+        // A preallocated log file is zero filled beyond its last entry, and no entry starts with a zero byte
+        try ( StoreChannel channel = fileSystem.open( logFile, OpenMode.READ ) )
+        {
+            ByteBuffer firstByte = ByteBuffer.allocate( 1 );
+            return channel.read( firstByte, LOG_HEADER_SIZE ) == 1 && firstByte.get( 0 ) != 0;
+        }
+        catch ( IOException e )
+        {
+            return true;
+        }
+    }
+
+    @Override
+    public boolean recycle( long version ) throws IOException
+    {
+        File recycledLogFile = fileHelper.getRecycledLogFile();
+        if ( !logFilesContext.isPreallocate() || fileSystem.fileExists( recycledLogFile ) )
+        {
+            return false;
+        }
+
+        // Zero fill under another name first, so that a crash midway never leaves a recycled file with stale entries
+        File recyclingLogFile = fileHelper.getRecyclingLogFile();
+        fileSystem.renameFile( getLogFileForVersion( version ), recyclingLogFile, REPLACE_EXISTING );
+        try ( StoreChannel channel = fileSystem.open( recyclingLogFile, OpenMode.READ_WRITE ) )
+        {
+            long size = logFilesContext.getRotationThreshold().get();
+            if ( channel.size() > size )
+            {
+                channel.truncate( size );
+            }
+            zeroFill( channel, 0, size );
+            channel.force( true );
+        }
+        fileSystem.renameFile( recyclingLogFile, recycledLogFile );
+        fileSystem.deleteFile( getPositionIndexFileForVersion( version ) );
+        return true;
+    }
+
+    @Override
+    public File getPositionIndexFileForVersion( long version )
+    {
+        return fileHelper.getPositionIndexFileForVersion( version );
+    }
+
+    @Override
+    public LogPosition closestIndexedPosition( long transactionId, LogPosition logStart ) throws IOException
+    {
+        long version = logStart.getLogVersion();
+        if ( !logFilesContext.isIndexPositions() ||
+             version >= logFilesContext.getLogVersionRepository().getCurrentLogVersion() )
+        {
+            return logStart;
+        }
+
+        long previousCommittedTxId = extractHeader( version ).lastCommittedTxId;
+        long byteOffset = lookupPositionIndex( version, previousCommittedTxId, transactionId );
+        if ( byteOffset == LogPositionIndex.NO_INDEX )
+        {
+            try
+            {
+                byteOffset = rebuildPositionIndex( version, previousCommittedTxId, transactionId );
+            }
+            catch ( IOException e )
+            {
+                // The index is merely an optimization, the log file can still be searched from its start
+                return logStart;
+            }
+        }
+        return byteOffset == LogPositionIndex.NO_INDEX ? logStart : new LogPosition( version, byteOffset );
+    }
+
+    /**
+     * Writes the index of transaction positions collected while appending to the log file of the given version.
+     */
+    void writePositionIndex( long version, LogPositionIndex.Builder positionIndex ) throws IOException
+    {
+        positionIndex.write( fileSystem, fileHelper.getPositionIndexFileForVersion( version ),
+                fileHelper.getTemporaryPositionIndexFileForVersion( version ), version,
+                extractHeader( version ).lastCommittedTxId );
+    }
+
+    private long lookupPositionIndex( long version, long previousCommittedTxId, long transactionId )
+            throws IOException
+    {
+        return LogPositionIndex.lookup( fileSystem, fileHelper.getPositionIndexFileForVersion( version ), version,
+                previousCommittedTxId, fileSystem.getFileSize( getLogFileForVersion( version ) ), transactionId );
+    }
+
+    private long rebuildPositionIndex( long version, long previousCommittedTxId, long transactionId )
+            throws IOException
+    {
+        synchronized ( positionIndexRebuildLock )
+        {
+            // Another thread may just have rebuilt it
+            long byteOffset = lookupPositionIndex( version, previousCommittedTxId, transactionId );
+            if ( byteOffset != LogPositionIndex.NO_INDEX )
+            {
+                return byteOffset;
+            }
+
+            LogPositionIndex.Builder positionIndex = new LogPositionIndex.Builder();
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = logFilesContext.getLogEntryReader();
+            try ( ReadAheadLogChannel reader = new ReadAheadLogChannel( openForVersion( version ),
+                    LogVersionBridge.NO_MORE_CHANNELS ) )
+            {
+                long startOffset = LogPositionIndex.NO_INDEX;
+                LogEntry logEntry;
+                while ( (logEntry = logEntryReader.readLogEntry( reader )) != null )
+                {
+                    if ( logEntry.getType() == TX_START )
+                    {
+                        LogEntryStart startEntry = logEntry.as();
+                        startOffset = startEntry.getStartPosition().getByteOffset();
+                    }
+                    else if ( logEntry.getType() == TX_COMMIT && startOffset != LogPositionIndex.NO_INDEX )
+                    {
+                        LogEntryCommit commitEntry = logEntry.as();
+                        positionIndex.add( commitEntry.getTxId(), startOffset );
+                    }
+                }
+            }
+            positionIndex.write( fileSystem, fileHelper.getPositionIndexFileForVersion( version ),
+                    fileHelper.getRebuiltPositionIndexFileForVersion( version ), version, previousCommittedTxId );
+            return lookupPositionIndex( version, previousCommittedTxId, transactionId );
+        }
     }
 
     @Override
@@ -246,9 +393,17 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
             LongSupplier lastTransactionIdSupplier ) throws IOException
     {
         File toOpen = getLogFileForVersion( forVersion );
+        boolean preallocate = logFilesContext.isPreallocate();
+        boolean recycled = preallocate && !fileSystem.fileExists( toOpen ) && reuseRecycledLogFile( toOpen );
         StoreChannel storeChannel = fileSystem.open( toOpen, mode );
         ByteBuffer headerBuffer = ByteBuffer.allocate( LOG_HEADER_SIZE );
-        LogHeader header = readLogHeader( headerBuffer, storeChannel, false, toOpen );
+        LogHeader header = recycled ? null : readLogHeader( headerBuffer, storeChannel, false, toOpen );
+        if ( preallocate && header != null && (header.logVersion != forVersion || header.logFormatVersion == 0) )
+        {
+            // A zero filled recycled log file, crashed before the header of its new version was written
+            header = null;
+            storeChannel.position( 0 );
+        }
         if ( header == null )
         {
             // Either the header is not there in full or the file was new. Don't care
@@ -258,10 +413,51 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
             storeChannel.writeAll( headerBuffer );
             monitor.created( toOpen, forVersion, lastTxId );
         }
+        if ( preallocate )
+        {
+            preallocate( storeChannel );
+        }
         byte formatVersion = header == null ? CURRENT_LOG_VERSION : header.logFormatVersion;
         return new PhysicalLogVersionedStoreChannel( storeChannel, forVersion, formatVersion );
     }
 
+    private boolean reuseRecycledLogFile( File logFile ) throws IOException
+    {
+        File recycledLogFile = fileHelper.getRecycledLogFile();
+        if ( !fileSystem.fileExists( recycledLogFile ) )
+        {
+            return false;
+        }
+        fileSystem.renameFile( recycledLogFile, logFile );
+        return true;
+    }
+
+    /**
+     * Zero fills the log file up to the rotation threshold, so that appending to it doesn't change its size, which
+     * would otherwise have to be persisted by every force. Readers see the first zero byte as the end of the log.
+     */
+    private void preallocate( StoreChannel channel ) throws IOException
+    {
+        long size = channel.size();
+        long threshold = logFilesContext.getRotationThreshold().get();
+        if ( size < threshold )
+        {
+            zeroFill( channel, size, threshold );
+            channel.force( true );
+        }
+    }
+
+    private static void zeroFill( StoreChannel channel, long from, long to ) throws IOException
+    {
+        ByteBuffer zeros = ByteBuffer.allocate( (int) min( PREALLOCATION_CHUNK_SIZE, to - from ) );
+        for ( long position = from; position < to; position += zeros.capacity() )
+        {
+            zeros.clear();
+            zeros.limit( (int) min( zeros.capacity(), to - position ) );
+            channel.writeAll( zeros, position );
+        }
+    }
+
     @Override
     public void accept( LogHeaderVisitor visitor ) throws IOException
     {
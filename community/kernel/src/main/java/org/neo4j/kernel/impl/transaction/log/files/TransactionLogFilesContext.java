@@ -36,11 +36,13 @@ class TransactionLogFilesContext
     private final Supplier<LogVersionRepository> logVersionRepositorySupplier;
     private final LogFileCreationMonitor logFileCreationMonitor;
     private final FileSystemAbstraction fileSystem;
+    private final boolean preallocate;
+    private final boolean indexPositions;
 
     TransactionLogFilesContext( AtomicLong rotationThreshold, LogEntryReader logEntryReader,
             LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier,
             LogFileCreationMonitor logFileCreationMonitor, Supplier<LogVersionRepository> logVersionRepositorySupplier,
-            FileSystemAbstraction fileSystem )
+            FileSystemAbstraction fileSystem, boolean preallocate, boolean indexPositions )
     {
         this.rotationThreshold = rotationThreshold;
         this.logEntryReader = logEntryReader;
@@ -49,6 +51,8 @@ class TransactionLogFilesContext
         this.logVersionRepositorySupplier = logVersionRepositorySupplier;
         this.logFileCreationMonitor = logFileCreationMonitor;
         this.fileSystem = fileSystem;
+        this.preallocate = preallocate;
+        this.indexPositions = indexPositions;
     }
 
     AtomicLong getRotationThreshold()
@@ -85,4 +89,14 @@ class TransactionLogFilesContext
     {
         return fileSystem;
     }
+
+    boolean isPreallocate()
+    {
+        return preallocate;
+    }
+
+    boolean isIndexPositions()
+    {
+        return indexPositions;
+    }
 }
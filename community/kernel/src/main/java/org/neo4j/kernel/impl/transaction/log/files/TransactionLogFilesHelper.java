@@ -30,6 +30,11 @@ class TransactionLogFilesHelper
     private static final String REGEX_DEFAULT_NAME = "neostore\\.transaction\\.db";
     private static final String VERSION_SUFFIX = ".";
     private static final String REGEX_VERSION_SUFFIX = "\\.";
+    private static final String RECYCLED_PREFIX = "recycled.";
+    private static final String RECYCLING_PREFIX = "recycling.";
+    private static final String POSITION_INDEX_PREFIX = "index.";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String REBUILT_SUFFIX = ".rebuilt";
 
     static final FilenameFilter DEFAULT_FILENAME_FILTER = new LogicalLogFilenameFilter( REGEX_DEFAULT_NAME );
 
@@ -62,6 +67,52 @@ class TransactionLogFilesHelper
         return logBaseName.getParentFile();
     }
 
+    /**
+     * @return the file a pruned log file is kept as, zero filled, until a rotation reuses it.
+     * Its name doesn't match the {@link #getLogFilenameFilter() log file filter}.
+     */
+    File getRecycledLogFile()
+    {
+        return new File( getParentDirectory(), RECYCLED_PREFIX + logBaseName.getName() );
+    }
+
+    /**
+     * @return the file a pruned log file is zero filled in, before becoming the {@link #getRecycledLogFile()}.
+     */
+    File getRecyclingLogFile()
+    {
+        return new File( getParentDirectory(), RECYCLING_PREFIX + logBaseName.getName() );
+    }
+
+    /**
+     * @return the file with the {@link LogPositionIndex} of the log file of the given version.
+     * Its name doesn't match the {@link #getLogFilenameFilter() log file filter}.
+     */
+    File getPositionIndexFileForVersion( long version )
+    {
+        return new File( getParentDirectory(), POSITION_INDEX_PREFIX + getLogFileForVersion( version ).getName() );
+    }
+
+    /**
+     * @return the file a {@link LogPositionIndex} is written to at rotation, before being renamed to
+     * {@link #getPositionIndexFileForVersion(long)}.
+     */
+    File getTemporaryPositionIndexFileForVersion( long version )
+    {
+        return new File( getParentDirectory(), getPositionIndexFileForVersion( version ).getName() + TEMPORARY_SUFFIX );
+    }
+
+    /**
+     * @return the file a {@link LogPositionIndex} is written to when rebuilt on demand, before being renamed to
+     * {@link #getPositionIndexFileForVersion(long)}. Differs from {@link #getTemporaryPositionIndexFileForVersion(long)}
+     * so that a rebuild and a rotation never write to the same file.
+     */
+    File getRebuiltPositionIndexFileForVersion( long version )
+    {
+        return new File( getParentDirectory(),
+                getPositionIndexFileForVersion( version ).getName() + REBUILT_SUFFIX + TEMPORARY_SUFFIX );
+    }
+
     FilenameFilter getLogFilenameFilter()
     {
         return logFileFilter;
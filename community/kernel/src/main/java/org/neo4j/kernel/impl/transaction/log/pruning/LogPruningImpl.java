@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.log.pruning;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.Clock;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -87,8 +88,25 @@ public class LogPruningImpl implements LogPruning
         {
             fromVersion = fromVersion == NO_VERSION ? version : Math.min( fromVersion, version );
             toVersion = toVersion == NO_VERSION ? version : Math.max( toVersion, version );
-            File logFile = logFiles.getLogFileForVersion( version );
-            fs.deleteFile( logFile );
+            if ( !recycle( version ) )
+            {
+                File logFile = logFiles.getLogFileForVersion( version );
+                fs.deleteFile( logFile );
+            }
+            fs.deleteFile( logFiles.getPositionIndexFileForVersion( version ) );
+        }
+
+        private boolean recycle( long version )
+        {
+            try
+            {
+                return logFiles.recycle( version );
+            }
+            catch ( IOException e )
+            {
+                // Not being able to keep the file around for reuse is no reason not to prune it
+                return false;
+            }
         }
 
         public String describeResult()
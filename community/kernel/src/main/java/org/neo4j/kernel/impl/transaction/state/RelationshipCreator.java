@@ -57,6 +57,7 @@ public class RelationshipCreator
         // TODO could be unnecessary to mark as changed here already, dense nodes may not need to change
         NodeRecord firstNode = recordChangeSet.getNodeRecords().getOrLoad( firstNodeId, null ).forChangingLinkage();
         NodeRecord secondNode = recordChangeSet.getNodeRecords().getOrLoad( secondNodeId, null ).forChangingLinkage();
+        lockFirstRelationships( firstNode, secondNode, locks );
         convertNodeToDenseIfNecessary( firstNode, recordChangeSet.getRelRecords(),
                 recordChangeSet.getRelGroupRecords(), locks );
         convertNodeToDenseIfNecessary( secondNode, recordChangeSet.getRelRecords(),
@@ -69,6 +70,34 @@ public class RelationshipCreator
                 recordChangeSet.getRelGroupRecords(), locks );
     }
 
+    /**
+     * Locks the first relationship in the chain of each sparse node in one batch, in id order. Taking them one at
+     * a time in start node, end node order lets two transactions that connect to each others' chains deadlock.
+     */
+    private static void lockFirstRelationships( NodeRecord firstNode, NodeRecord secondNode, ResourceLocker locks )
+    {
+        long firstRelId = firstNode.isDense() ? Record.NO_NEXT_RELATIONSHIP.intValue() : firstNode.getNextRel();
+        long secondRelId = secondNode.isDense() ? Record.NO_NEXT_RELATIONSHIP.intValue() : secondNode.getNextRel();
+        if ( firstRelId == Record.NO_NEXT_RELATIONSHIP.intValue() || firstRelId == secondRelId )
+        {
+            firstRelId = secondRelId;
+            secondRelId = Record.NO_NEXT_RELATIONSHIP.intValue();
+        }
+        if ( firstRelId == Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            return;
+        }
+        if ( secondRelId == Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, firstRelId );
+        }
+        else
+        {
+            locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP,
+                    Math.min( firstRelId, secondRelId ), Math.max( firstRelId, secondRelId ) );
+        }
+    }
+
     public static int relCount( long nodeId, RelationshipRecord rel )
     {
         return (int) (nodeId == rel.getFirstNode() ? rel.getFirstPrevRel() : rel.getSecondPrevRel());
@@ -21,10 +21,30 @@ package org.neo4j.kernel.impl.transaction.tracing;
 
 public interface CheckPointTracer
 {
-    CheckPointTracer NULL = () -> LogCheckPointEvent.NULL;
+    CheckPointTracer NULL = new CheckPointTracer()
+    {
+        @Override
+        public LogCheckPointEvent beginCheckPoint()
+        {
+            return LogCheckPointEvent.NULL;
+        }
+
+        @Override
+        public void backgroundFlush( long dirtyPages, long flushedPages )
+        {
+        }
+    };
 
     /**
      * Begin a check point write to the log
      */
     LogCheckPointEvent beginCheckPoint();
+
+    /**
+     * Report that the dirty pages were flushed in the background, in between check points.
+     *
+     * @param dirtyPages the number of dirty pages in the page cache, before the flush.
+     * @param flushedPages the number of those pages that were written out.
+     */
+    void backgroundFlush( long dirtyPages, long flushedPages );
 }
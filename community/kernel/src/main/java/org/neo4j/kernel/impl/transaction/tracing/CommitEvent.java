@@ -31,6 +31,18 @@ public interface CommitEvent extends AutoCloseable
         {
         }
 
+        @Override
+        public LockAcquisitionEvent beginLockAcquisition()
+        {
+            return LockAcquisitionEvent.NULL;
+        }
+
+        @Override
+        public CommandExtractionEvent beginCommandExtraction()
+        {
+            return CommandExtractionEvent.NULL;
+        }
+
         @Override
         public LogAppendEvent beginLogAppend()
         {
@@ -50,6 +62,16 @@ public interface CommitEvent extends AutoCloseable
     @Override
     void close();
 
+    /**
+     * Begin acquiring the locks that the committing transaction has deferred until commit.
+     */
+    LockAcquisitionEvent beginLockAcquisition();
+
+    /**
+     * Begin extracting the commands of the committing transaction from its transaction state.
+     */
+    CommandExtractionEvent beginCommandExtraction();
+
     /**
      * Begin appending commands for the committing transaction, to the transaction log.
      */
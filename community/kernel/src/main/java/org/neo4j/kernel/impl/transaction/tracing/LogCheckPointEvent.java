@@ -38,12 +38,23 @@ public interface LogCheckPointEvent extends LogForceEvents, AutoCloseable
             return LogForceEvent.NULL;
         }
 
+        @Override
+        public void storeFlushed( long elapsedNanos )
+        {
+        }
+
         @Override
         public void close()
         {
         }
     };
 
+    /**
+     * Report the time it took to flush and force the store, which is the part of the check point that grows with the
+     * number of pages that were dirtied since the previous check point.
+     */
+    void storeFlushed( long elapsedNanos );
+
     /**
      * Marks the end of the check pointing process.
      */
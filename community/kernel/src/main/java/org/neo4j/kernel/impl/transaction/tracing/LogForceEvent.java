@@ -26,10 +26,25 @@ package org.neo4j.kernel.impl.transaction.tracing;
  */
 public interface LogForceEvent extends AutoCloseable
 {
-    LogForceEvent NULL = () ->
+    LogForceEvent NULL = new LogForceEvent()
     {
+        @Override
+        public void setGroupSize( int groupSize )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
     };
 
+    /**
+     * Note the number of committers, including the forcing one, whose appended transactions are made durable by this
+     * force call.
+     */
+    void setGroupSize( int groupSize );
+
     /**
      * Marks the end of the force call on the transaction log file.
      */
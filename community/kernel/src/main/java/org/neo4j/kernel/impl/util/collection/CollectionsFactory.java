@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+
+/**
+ * Makes the collections that the transaction state keeps its changes in, and decides where they live.
+ *
+ * @see CollectionsFactorySupplier
+ */
+public interface CollectionsFactory
+{
+    PrimitiveLongSet newLongSet();
+
+    /**
+     * @return rough heap cost of one element of the collections made by this factory, or {@code 0} if
+     * they are kept outside of the heap.
+     */
+    long heapBytesPerElement();
+
+    /**
+     * @return number of bytes of native memory held by the collections made by this factory.
+     */
+    long memoryUsage();
+
+    /**
+     * Releases the memory, and any files, of all collections made by this factory. They must not be used
+     * afterwards.
+     */
+    void release();
+}
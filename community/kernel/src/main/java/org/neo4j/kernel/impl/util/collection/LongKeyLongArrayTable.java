@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.neo4j.collection.primitive.hopscotch.PowerOfTwoQuantizedTable;
+import org.neo4j.collection.primitive.hopscotch.Table;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArray;
+
+import static org.neo4j.collection.primitive.Primitive.VALUE_MARKER;
+
+/**
+ * Hop-scotch table of long keys, for sets, kept in a {@link LongArray} from an {@link OffHeapCollectionsFactory}.
+ * Each entry takes up two longs: the hop bits, stored inverted like in
+ * {@link org.neo4j.collection.primitive.hopscotch.UnsafeTable} so that a cleared array holds no hop bits, and the key.
+ */
+class LongKeyLongArrayTable extends PowerOfTwoQuantizedTable<Object>
+{
+    private static final long CLEARED = -1L;
+
+    private final OffHeapCollectionsFactory collections;
+    private LongArray array;
+
+    LongKeyLongArrayTable( int capacity, OffHeapCollectionsFactory collections )
+    {
+        super( capacity, 32 );
+        this.collections = collections;
+        this.array = collections.newArray( this, 2L * this.capacity, CLEARED );
+    }
+
+    @Override
+    public long key( int index )
+    {
+        return array.get( keyIndex( index ) );
+    }
+
+    @Override
+    public Object value( int index )
+    {
+        return VALUE_MARKER;
+    }
+
+    @Override
+    public void put( int index, long key, Object value )
+    {
+        array.set( keyIndex( index ), key );
+        size++;
+    }
+
+    @Override
+    public Object putValue( int index, Object value )
+    {
+        return value;
+    }
+
+    @Override
+    public long move( int fromIndex, int toIndex )
+    {
+        long key = key( fromIndex );
+        array.set( keyIndex( fromIndex ), CLEARED );
+        array.set( keyIndex( toIndex ), key );
+        return key;
+    }
+
+    @Override
+    public Object remove( int index )
+    {
+        array.set( keyIndex( index ), CLEARED );
+        size--;
+        return VALUE_MARKER;
+    }
+
+    @Override
+    public long hopBits( int index )
+    {
+        return ~(array.get( hopBitsIndex( index ) ) | 0xFFFFFFFF00000000L);
+    }
+
+    @Override
+    public void putHopBit( int index, int hd )
+    {
+        long hopBitsIndex = hopBitsIndex( index );
+        array.set( hopBitsIndex, array.get( hopBitsIndex ) & ~(1L << hd) );
+    }
+
+    @Override
+    public void moveHopBit( int index, int hd, int delta )
+    {
+        long hopBitsIndex = hopBitsIndex( index );
+        array.set( hopBitsIndex, array.get( hopBitsIndex ) ^ ((1L << hd) | (1L << (hd + delta))) );
+    }
+
+    @Override
+    public void removeHopBit( int index, int hd )
+    {
+        long hopBitsIndex = hopBitsIndex( index );
+        array.set( hopBitsIndex, array.get( hopBitsIndex ) | (1L << hd) );
+    }
+
+    @Override
+    public void clear()
+    {
+        if ( !isEmpty() )
+        {
+            array.clear();
+        }
+        super.clear();
+    }
+
+    @Override
+    protected Table<Object> newInstance( int newCapacity )
+    {
+        return new LongKeyLongArrayTable( newCapacity, collections );
+    }
+
+    @Override
+    public void close()
+    {
+        collections.closed( this );
+        free();
+    }
+
+    /**
+     * Frees the array, after which any use of this table fails.
+     */
+    void free()
+    {
+        if ( array != null )
+        {
+            array.close();
+            array = null;
+        }
+    }
+
+    private static long hopBitsIndex( int index )
+    {
+        return 2L * index;
+    }
+
+    private static long keyIndex( int index )
+    {
+        return 2L * index + 1;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.collection.primitive.hopscotch.PrimitiveLongHashSet;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArray;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
+import org.neo4j.unsafe.impl.batchimport.cache.OffHeapLongArray;
+
+import static org.neo4j.collection.primitive.Primitive.VALUE_MARKER;
+import static org.neo4j.collection.primitive.hopscotch.HopScotchHashingAlgorithm.NO_MONITOR;
+
+/**
+ * Makes collections that are kept in native memory, tracked by a {@link LocalMemoryTracker} of their own.
+ * Once they take up more than a given amount of native memory, the tables of the collections that grow, or get
+ * created, after that are spilled to a {@link NumberArrayFactory}, typically one backed by temporary files in the
+ * page cache. Tables smaller than a page are never spilled, since they would take up a whole page and file anyway.
+ * <p>
+ * The collections are not thread safe, and are all freed by {@link #release()}. Using one of them after that fails,
+ * rather than reading memory that has been freed.
+ */
+public class OffHeapCollectionsFactory implements CollectionsFactory
+{
+    private static final long MIN_SPILLED_TABLE_BYTES = PageCache.PAGE_SIZE;
+
+    private final long maxMemory;
+    private final NumberArrayFactory spillFactory;
+    private final LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+    private final Set<LongKeyLongArrayTable> openTables = Collections.newSetFromMap( new IdentityHashMap<>() );
+
+    /**
+     * @param maxMemory number of bytes of native memory the collections may take up before they spill, or
+     * {@code 0} for no limit.
+     * @param spillFactory where the tables go once the collections take up {@code maxMemory}.
+     */
+    public OffHeapCollectionsFactory( long maxMemory, NumberArrayFactory spillFactory )
+    {
+        this.maxMemory = maxMemory;
+        this.spillFactory = spillFactory;
+    }
+
+    @Override
+    public PrimitiveLongSet newLongSet()
+    {
+        return new PrimitiveLongHashSet( new LongKeyLongArrayTable( Primitive.DEFAULT_HEAP_CAPACITY, this ),
+                VALUE_MARKER, NO_MONITOR );
+    }
+
+    @Override
+    public long heapBytesPerElement()
+    {
+        return 0;
+    }
+
+    @Override
+    public long memoryUsage()
+    {
+        return memoryTracker.usedDirectMemory();
+    }
+
+    @Override
+    public void release()
+    {
+        for ( LongKeyLongArrayTable table : openTables )
+        {
+            table.free();
+        }
+        openTables.clear();
+    }
+
+    LongArray newArray( LongKeyLongArrayTable table, long length, long defaultValue )
+    {
+        long bytes = length * Long.BYTES;
+        LongArray array = maxMemory == 0 || bytes < MIN_SPILLED_TABLE_BYTES ||
+                          memoryTracker.usedDirectMemory() + bytes <= maxMemory
+                          ? new OffHeapLongArray( length, defaultValue, 0, memoryTracker )
+                          : spillFactory.newLongArray( length, defaultValue );
+        openTables.add( table );
+        return array;
+    }
+
+    void closed( LongKeyLongArrayTable table )
+    {
+        openTables.remove( table );
+    }
+}
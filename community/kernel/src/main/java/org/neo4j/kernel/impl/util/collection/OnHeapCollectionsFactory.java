@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+
+/**
+ * Makes regular heap collections, left to the garbage collector.
+ */
+public class OnHeapCollectionsFactory implements CollectionsFactory
+{
+    public static final CollectionsFactory INSTANCE = new OnHeapCollectionsFactory();
+
+    /**
+     * The size of a slot in the primitive hash sets, counting the free slots that the table keeps around.
+     */
+    private static final long ELEMENT_BYTES = 24;
+
+    private OnHeapCollectionsFactory()
+    {
+    }
+
+    @Override
+    public PrimitiveLongSet newLongSet()
+    {
+        return Primitive.longSet();
+    }
+
+    @Override
+    public long heapBytesPerElement()
+    {
+        return ELEMENT_BYTES;
+    }
+
+    @Override
+    public long memoryUsage()
+    {
+        return 0;
+    }
+
+    @Override
+    public void release()
+    {   // Nothing to release, the garbage collector takes care of it
+    }
+}
@@ -19,8 +19,7 @@
  */
 package org.neo4j.kernel.impl.util.diffsets;
 
-import java.util.Set;
-
+import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.graphdb.Resource;
 import org.neo4j.kernel.impl.api.RelationshipVisitor;
 import org.neo4j.kernel.impl.api.store.RelationshipIterator;
@@ -29,13 +28,13 @@ import org.neo4j.kernel.impl.api.store.RelationshipIterator;
  * Applies a diffset to the given source {@link RelationshipIterator}.
  * If the given source is a {@link Resource}, then so is this {@link DiffApplyingRelationshipIterator}.
  */
-public class DiffApplyingRelationshipIterator extends DiffApplyingLongIterator implements RelationshipIterator
+public class DiffApplyingRelationshipIterator extends DiffApplyingPrimitiveLongIterator implements RelationshipIterator
 {
     private final RelationshipVisitor.Home sourceHome;
     private final RelationshipVisitor.Home addedHome;
 
     public DiffApplyingRelationshipIterator( RelationshipIterator source,
-                                             Set<?> addedElements, Set<?> removedElements,
+                                             PrimitiveLongSet addedElements, PrimitiveLongSet removedElements,
                                              RelationshipVisitor.Home addedHome )
     {
         super( source, addedElements, removedElements );
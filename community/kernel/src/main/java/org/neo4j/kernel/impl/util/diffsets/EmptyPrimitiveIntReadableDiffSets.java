@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.diffsets;
+
+import org.neo4j.collection.primitive.PrimitiveIntSet;
+import org.neo4j.storageengine.api.txstate.PrimitiveIntReadableDiffSets;
+
+import static org.neo4j.collection.primitive.PrimitiveIntCollections.emptySet;
+
+/**
+ * Empty implementation of {@link PrimitiveIntReadableDiffSets}.
+ *
+ * Use {@link #INSTANCE} to reference static singleton.
+ */
+public class EmptyPrimitiveIntReadableDiffSets implements PrimitiveIntReadableDiffSets
+{
+    public static final PrimitiveIntReadableDiffSets INSTANCE = new EmptyPrimitiveIntReadableDiffSets();
+
+    private EmptyPrimitiveIntReadableDiffSets()
+    {
+    }
+
+    @Override
+    public boolean isAdded( int element )
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoved( int element )
+    {
+        return false;
+    }
+
+    @Override
+    public PrimitiveIntSet getAdded()
+    {
+        return emptySet();
+    }
+
+    @Override
+    public PrimitiveIntSet getRemoved()
+    {
+        return emptySet();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return true;
+    }
+
+    @Override
+    public int delta()
+    {
+        return 0;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.diffsets;
+
+import java.util.Objects;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveIntSet;
+import org.neo4j.storageengine.api.txstate.PrimitiveIntReadableDiffSets;
+
+import static org.neo4j.collection.primitive.PrimitiveIntCollections.emptySet;
+
+/**
+ * Primitive int version of collection that with given a sequence of add and removal operations, tracks
+ * which elements need to actually be added and removed at minimum from some
+ * target collection such that the result is equivalent to just
+ * executing the sequence of additions and removals in order.
+ */
+public class PrimitiveIntDiffSets implements PrimitiveIntReadableDiffSets
+{
+    private PrimitiveIntSet addedElements;
+    private PrimitiveIntSet removedElements;
+
+    public PrimitiveIntDiffSets()
+    {
+        this( emptySet(), emptySet() );
+    }
+
+    public PrimitiveIntDiffSets( PrimitiveIntSet addedElements, PrimitiveIntSet removedElements )
+    {
+        this.addedElements = addedElements;
+        this.removedElements = removedElements;
+    }
+
+    @Override
+    public boolean isAdded( int element )
+    {
+        return addedElements.contains( element );
+    }
+
+    @Override
+    public boolean isRemoved( int element )
+    {
+        return removedElements.contains( element );
+    }
+
+    public void add( int element )
+    {
+        checkAddedElements();
+        boolean removed = removedElements.remove( element );
+        if ( !removed )
+        {
+            addedElements.add( element );
+        }
+    }
+
+    public boolean remove( int element )
+    {
+        checkRemovedElements();
+        boolean removed = addedElements.remove( element );
+        return removed || removedElements.add( element );
+    }
+
+    public void clear()
+    {
+        addedElements = emptySet();
+        removedElements = emptySet();
+    }
+
+    @Override
+    public int delta()
+    {
+        return addedElements.size() - removedElements.size();
+    }
+
+    @Override
+    public PrimitiveIntSet getAdded()
+    {
+        return addedElements;
+    }
+
+    @Override
+    public PrimitiveIntSet getRemoved()
+    {
+        return removedElements;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return addedElements.isEmpty() && removedElements.isEmpty();
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        PrimitiveIntDiffSets diffSets = (PrimitiveIntDiffSets) o;
+        return Objects.equals( addedElements, diffSets.addedElements ) &&
+                Objects.equals( removedElements, diffSets.removedElements );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( addedElements, removedElements );
+    }
+
+    private void checkAddedElements()
+    {
+        if ( emptySet() == addedElements )
+        {
+            addedElements = Primitive.intSet();
+        }
+    }
+
+    private void checkRemovedElements()
+    {
+        if ( emptySet() == removedElements )
+        {
+            removedElements = Primitive.intSet();
+        }
+    }
+}
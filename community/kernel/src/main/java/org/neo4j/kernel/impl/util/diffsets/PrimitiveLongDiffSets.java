@@ -21,9 +21,13 @@ package org.neo4j.kernel.impl.util.diffsets;
 
 import java.util.Objects;
 
-import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongResourceIterator;
 import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.internal.kernel.api.exceptions.schema.ConstraintValidationException;
+import org.neo4j.kernel.api.exceptions.schema.CreateConstraintFailureException;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
 import org.neo4j.storageengine.api.txstate.PrimitiveLongDiffSetsVisitor;
 import org.neo4j.storageengine.api.txstate.PrimitiveLongReadableDiffSets;
 
@@ -38,16 +42,32 @@ import static org.neo4j.collection.primitive.PrimitiveLongCollections.emptySet;
  */
 public class PrimitiveLongDiffSets implements PrimitiveLongReadableDiffSets
 {
+    private final CollectionsFactory collectionsFactory;
     private PrimitiveLongSet addedElements;
     private PrimitiveLongSet removedElements;
 
     public PrimitiveLongDiffSets()
     {
-        this( emptySet(), emptySet() );
+        this( OnHeapCollectionsFactory.INSTANCE );
+    }
+
+    /**
+     * @param collectionsFactory makes the sets of added and removed elements, once there are any.
+     */
+    public PrimitiveLongDiffSets( CollectionsFactory collectionsFactory )
+    {
+        this( collectionsFactory, emptySet(), emptySet() );
     }
 
     public PrimitiveLongDiffSets( PrimitiveLongSet addedElements, PrimitiveLongSet removedElements )
     {
+        this( OnHeapCollectionsFactory.INSTANCE, addedElements, removedElements );
+    }
+
+    private PrimitiveLongDiffSets( CollectionsFactory collectionsFactory, PrimitiveLongSet addedElements,
+            PrimitiveLongSet removedElements )
+    {
+        this.collectionsFactory = collectionsFactory;
         this.addedElements = addedElements;
         this.removedElements = removedElements;
     }
@@ -95,6 +115,7 @@ public class PrimitiveLongDiffSets implements PrimitiveLongReadableDiffSets
     }
 
     public void visit( PrimitiveLongDiffSetsVisitor visitor )
+            throws ConstraintValidationException, CreateConstraintFailureException
     {
         PrimitiveLongIterator addedItems = addedElements.iterator();
         while ( addedItems.hasNext() )
@@ -109,11 +130,17 @@ public class PrimitiveLongDiffSets implements PrimitiveLongReadableDiffSets
     }
 
     @Override
-    public PrimitiveLongIterator augment( PrimitiveLongIterator source )
+    public PrimitiveLongResourceIterator augment( PrimitiveLongIterator source )
     {
         return new DiffApplyingPrimitiveLongIterator( source, addedElements, removedElements );
     }
 
+    @Override
+    public PrimitiveLongResourceIterator augmentWithRemovals( PrimitiveLongIterator source )
+    {
+        return new DiffApplyingPrimitiveLongIterator( source, emptySet(), removedElements );
+    }
+
     @Override
     public int delta()
     {
@@ -185,7 +212,7 @@ public class PrimitiveLongDiffSets implements PrimitiveLongReadableDiffSets
     {
         if ( emptySet() == addedElements )
         {
-            addedElements = Primitive.longSet();
+            addedElements = collectionsFactory.newLongSet();
         }
     }
 
@@ -193,7 +220,7 @@ public class PrimitiveLongDiffSets implements PrimitiveLongReadableDiffSets
     {
         if ( emptySet() == removedElements )
         {
-            removedElements = Primitive.longSet();
+            removedElements = collectionsFactory.newLongSet();
         }
     }
 
@@ -19,9 +19,12 @@
  */
 package org.neo4j.kernel.monitoring.tracing;
 
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.api.DefaultTransactionTracer;
+import org.neo4j.kernel.impl.locking.DefaultLockTracer;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.DefaultCheckPointerTracer;
 import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
@@ -52,7 +55,11 @@ public class DefaultTracerFactory implements TracerFactory
     public TransactionTracer createTransactionTracer( Monitors monitors, JobScheduler jobScheduler )
     {
         DefaultTransactionTracer.Monitor monitor = monitors.newMonitor( DefaultTransactionTracer.Monitor.class );
-        return new DefaultTransactionTracer( monitor, jobScheduler );
+        DefaultTransactionTracer.LogForceMonitor logForceMonitor =
+                monitors.newMonitor( DefaultTransactionTracer.LogForceMonitor.class );
+        DefaultTransactionTracer.CommitMonitor commitMonitor =
+                monitors.newMonitor( DefaultTransactionTracer.CommitMonitor.class );
+        return new DefaultTransactionTracer( monitor, logForceMonitor, commitMonitor, jobScheduler );
     }
 
     @Override
@@ -61,4 +68,19 @@ public class DefaultTracerFactory implements TracerFactory
         DefaultCheckPointerTracer.Monitor monitor = monitors.newMonitor( DefaultCheckPointerTracer.Monitor.class );
         return new DefaultCheckPointerTracer( monitor, jobScheduler );
     }
+
+    @Override
+    public CheckPointTracer createCheckPointTracer( Monitors monitors, JobScheduler jobScheduler,
+            PageCacheCounters pageCacheCounters )
+    {
+        DefaultCheckPointerTracer.Monitor monitor = monitors.newMonitor( DefaultCheckPointerTracer.Monitor.class );
+        return new DefaultCheckPointerTracer( monitor, jobScheduler, pageCacheCounters );
+    }
+
+    @Override
+    public LockTracer createLockTracer( Monitors monitors, JobScheduler jobScheduler )
+    {
+        DefaultLockTracer.Monitor monitor = monitors.newMonitor( DefaultLockTracer.Monitor.class );
+        return new DefaultLockTracer( monitor );
+    }
 }
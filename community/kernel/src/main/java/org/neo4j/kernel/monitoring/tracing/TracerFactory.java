@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.monitoring.tracing;
 
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
@@ -72,6 +73,20 @@ public interface TracerFactory
      */
     CheckPointTracer createCheckPointTracer( Monitors monitors, JobScheduler jobScheduler );
 
+    /**
+     * Create a new CheckPointTracer instance, that can break the check points down by the files that they flush.
+     *
+     * @param monitors the monitoring manager
+     * @param jobScheduler a scheduler for async jobs
+     * @param pageCacheCounters the counters of the page cache that the check points flush
+     * @return The created instance.
+     */
+    default CheckPointTracer createCheckPointTracer( Monitors monitors, JobScheduler jobScheduler,
+            PageCacheCounters pageCacheCounters )
+    {
+        return createCheckPointTracer( monitors, jobScheduler );
+    }
+
     /**
      * Create a new LockTracer instance.
      *
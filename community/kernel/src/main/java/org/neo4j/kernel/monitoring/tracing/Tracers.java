@@ -157,7 +157,7 @@ public class Tracers
             pageCursorTracerSupplier = foundFactory.createPageCursorTracerSupplier( monitors, jobScheduler );
             pageCacheTracer = foundFactory.createPageCacheTracer( monitors, jobScheduler, clock, msgLog );
             transactionTracer = foundFactory.createTransactionTracer( monitors, jobScheduler );
-            checkPointTracer = foundFactory.createCheckPointTracer( monitors, jobScheduler );
+            checkPointTracer = foundFactory.createCheckPointTracer( monitors, jobScheduler, pageCacheTracer );
             lockTracer = foundFactory.createLockTracer( monitors, jobScheduler );
         }
     }
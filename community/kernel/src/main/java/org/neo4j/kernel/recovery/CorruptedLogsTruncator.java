@@ -86,8 +86,12 @@ public class CorruptedLogsTruncator
     {
         File lastRecoveredTransactionLog = logFiles.getLogFileForVersion( recoveredTransactionLogVersion );
         fs.truncate( lastRecoveredTransactionLog, recoveredTransactionOffset );
-        forEachSubsequentLogFile( recoveredTransactionLogVersion,
-                fileIndex -> fs.deleteFile( logFiles.getLogFileForVersion( fileIndex ) ) );
+        fs.deleteFile( logFiles.getPositionIndexFileForVersion( recoveredTransactionLogVersion ) );
+        forEachSubsequentLogFile( recoveredTransactionLogVersion, fileIndex ->
+        {
+            fs.deleteFile( logFiles.getLogFileForVersion( fileIndex ) );
+            fs.deleteFile( logFiles.getPositionIndexFileForVersion( fileIndex ) );
+        } );
     }
 
     private void forEachSubsequentLogFile( long recoveredTransactionLogVersion, LongConsumer action )
@@ -163,7 +167,44 @@ public class CorruptedLogsTruncator
     }
 
     private boolean isRecoveredLogCorrupted( long recoveredTransactionLogVersion, long recoveredTransactionOffset )
+            throws IOException
     {
-        return logFiles.getLogFileForVersion( recoveredTransactionLogVersion ).length() > recoveredTransactionOffset;
+        File logFile = logFiles.getLogFileForVersion( recoveredTransactionLogVersion );
+        if ( logFile.length() <= recoveredTransactionOffset )
+        {
+            return false;
+        }
+        try ( StoreChannel channel = fs.open( logFile, OpenMode.READ ) )
+        {
+            return !isZeroFilled( channel, recoveredTransactionOffset );
+        }
+    }
+
+    /**
+     * @return whether or not the channel contains nothing but zeros from the given position and onwards, which is
+     * how preallocated log files look beyond their last entry.
+     */
+    static boolean isZeroFilled( StoreChannel channel, long from ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( (int) ByteUnit.kibiBytes( 64 ) );
+        long size = channel.size();
+        for ( long position = from; position < size; )
+        {
+            buffer.clear();
+            int read = channel.read( buffer, position );
+            if ( read <= 0 )
+            {
+                return false;
+            }
+            for ( int i = 0; i < read; i++ )
+            {
+                if ( buffer.get( i ) != 0 )
+                {
+                    return false;
+                }
+            }
+            position += read;
+        }
+        return true;
     }
 }
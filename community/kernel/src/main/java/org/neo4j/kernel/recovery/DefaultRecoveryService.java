@@ -43,11 +43,26 @@ public class DefaultRecoveryService implements RecoveryService
     private final TransactionIdStore transactionIdStore;
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
+    private final int recoveryThreads;
+    private final RecoveryMonitor recoveryMonitor;
 
     public DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner,
             TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
             LogVersionRepository logVersionRepository, RecoveryStartInformationProvider.Monitor monitor )
     {
+        this( storageEngine, logTailScanner, transactionIdStore, logicalTransactionStore, logVersionRepository,
+                monitor, 1, new RecoveryMonitor()
+                {
+                } );
+    }
+
+    public DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner,
+            TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
+            LogVersionRepository logVersionRepository, RecoveryStartInformationProvider.Monitor monitor,
+            int recoveryThreads, RecoveryMonitor recoveryMonitor )
+    {
+        this.recoveryThreads = recoveryThreads;
+        this.recoveryMonitor = recoveryMonitor;
         this.storageEngine = storageEngine;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
@@ -75,6 +90,12 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode ) throws Exception
     {
+        // Reverse recovery only rewinds the neo store to the last check point and is comparatively cheap,
+        // so only forward recovery is worth spreading over multiple threads.
+        if ( mode == TransactionApplicationMode.RECOVERY && recoveryThreads > 1 )
+        {
+            return new ParallelRecoveryVisitor( storageEngine, mode, recoveryThreads, recoveryMonitor );
+        }
         return new RecoveryVisitor( storageEngine, mode );
     }
 
@@ -109,10 +130,21 @@ public class DefaultRecoveryService implements RecoveryService
         logVersionRepository.setCurrentLogVersion( recoveredTransactionLogVersion );
     }
 
+    static TransactionToApply transactionToApply( CommittedTransactionRepresentation transaction )
+    {
+        TransactionRepresentation txRepresentation = transaction.getTransactionRepresentation();
+        long txId = transaction.getCommitEntry().getTxId();
+        TransactionToApply tx = new TransactionToApply( txRepresentation, txId );
+        tx.commitment( NO_COMMITMENT, txId );
+        tx.logPosition( transaction.getStartEntry().getStartPosition() );
+        return tx;
+    }
+
     static class RecoveryVisitor implements RecoveryApplier
     {
         private final StorageEngine storageEngine;
         private final TransactionApplicationMode mode;
+        private CommittedTransactionRepresentation lastAppliedTransaction;
 
         RecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode )
         {
@@ -123,15 +155,17 @@ public class DefaultRecoveryService implements RecoveryService
         @Override
         public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
         {
-            TransactionRepresentation txRepresentation = transaction.getTransactionRepresentation();
-            long txId = transaction.getCommitEntry().getTxId();
-            TransactionToApply tx = new TransactionToApply( txRepresentation, txId );
-            tx.commitment( NO_COMMITMENT, txId );
-            tx.logPosition( transaction.getStartEntry().getStartPosition() );
-            storageEngine.apply( tx, mode );
+            storageEngine.apply( transactionToApply( transaction ), mode );
+            lastAppliedTransaction = transaction;
             return false;
         }
 
+        @Override
+        public CommittedTransactionRepresentation lastAppliedTransaction()
+        {
+            return lastAppliedTransaction;
+        }
+
         @Override
         public void close()
         {   // nothing to close
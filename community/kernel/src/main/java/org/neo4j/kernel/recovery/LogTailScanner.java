@@ -36,9 +36,11 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.util.FeatureToggles;
 
 import static org.neo4j.helpers.Exceptions.throwIfUnchecked;
 import static org.neo4j.kernel.impl.transaction.log.LogVersionRepository.INITIAL_LOG_VERSION;
+import static org.neo4j.kernel.recovery.ReverseCheckPointScanner.NO_CHECK_POINT;
 
 /**
  * This class collects information about the latest entries in the transaction log. Since the only way we have to collect
@@ -46,16 +48,26 @@ import static org.neo4j.kernel.impl.transaction.log.LogVersionRepository.INITIAL
  * result for others to consume.
  * <p>
  * Due to the nature of transaction logs and log rotation, a single transaction log file has to be scanned forward, and
- * if the required data is not found we search backwards through log file versions.
+ * if the required data is not found we search backwards through log file versions. To keep that forward scan short,
+ * the last check point of each log file is first looked for with a {@link ReverseCheckPointScanner}, and the scan
+ * starts from there when one is found.
  */
 public class LogTailScanner
 {
     static long NO_TRANSACTION_ID = -1;
+    private static final boolean REVERSE_SCAN = FeatureToggles.flag( LogTailScanner.class, "reverseScan", true );
+    private static final int REVERSE_SCAN_CHUNK_SIZE =
+            FeatureToggles.getInteger( LogTailScanner.class, "reverseScanChunkSize", 8 * 1024 * 1024 );
+    private static final int REVERSE_SCAN_THREADS = FeatureToggles.getInteger( LogTailScanner.class,
+            "reverseScanThreads", Math.min( 4, Runtime.getRuntime().availableProcessors() ) );
+
     private final LogFiles logFiles;
     private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
     private LogTailInformation logTailInformation;
     private final LogTailScannerMonitor monitor;
     private final boolean failOnCorruptedLogFiles;
+    private final ReverseCheckPointScanner checkPointScanner;
+    private long logFilesScanned;
 
     public LogTailScanner( LogFiles logFiles,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, Monitors monitors )
@@ -71,6 +83,10 @@ public class LogTailScanner
         this.logEntryReader = logEntryReader;
         this.monitor = monitors.newMonitor( LogTailScannerMonitor.class );
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
+        this.checkPointScanner = REVERSE_SCAN
+                                 ? new ReverseCheckPointScanner( logFiles, logEntryReader, REVERSE_SCAN_CHUNK_SIZE,
+                                         REVERSE_SCAN_THREADS )
+                                 : null;
     }
 
     private LogTailInformation findLogTail() throws IOException
@@ -88,11 +104,19 @@ public class LogTailScanner
         while ( version >= logFiles.getLowestLogVersion() && version >= INITIAL_LOG_VERSION )
         {
             oldestVersionFound = version;
+            logFilesScanned++;
             CheckPoint latestCheckPoint = null;
             try ( LogVersionedStoreChannel channel = logFiles.openForVersion( version );
                   ReadAheadLogChannel readAheadLogChannel = new ReadAheadLogChannel( channel );
                   LogEntryCursor cursor = new LogEntryCursor( logEntryReader, readAheadLogChannel ) )
             {
+                long lastCheckPointPosition =
+                        checkPointScanner != null ? checkPointScanner.findLastCheckPoint( channel ) : NO_CHECK_POINT;
+                if ( lastCheckPointPosition != NO_CHECK_POINT )
+                {
+                    // Entries before the last check point can not affect the outcome, so skip over them
+                    channel.position( lastCheckPointPosition );
+                }
                 LogEntry entry;
                 long maxEntryReadPosition = 0;
                 while ( cursor.next() )
@@ -165,7 +189,9 @@ public class LogTailScanner
 
     private boolean hasUnreadableBytes( LogVersionedStoreChannel channel, long maxEntryReadEndPosition ) throws IOException
     {
-        return channel.position() > maxEntryReadEndPosition;
+        // Preallocated log files are zero filled beyond their last entry, which is not a sign of corruption
+        return channel.position() > maxEntryReadEndPosition &&
+                !CorruptedLogsTruncator.isZeroFilled( channel, maxEntryReadEndPosition );
     }
 
     protected LogTailInformation checkpointTailInformation( long highestLogVersion, LogEntryStart latestStartEntry,
@@ -252,7 +278,9 @@ public class LogTailScanner
         {
             try
             {
+                long startTime = System.currentTimeMillis();
                 logTailInformation = findLogTail();
+                monitor.tailScanned( logFilesScanned, System.currentTimeMillis() - startTime );
             }
             catch ( IOException e )
             {
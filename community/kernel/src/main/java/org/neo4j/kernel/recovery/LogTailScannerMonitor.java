@@ -22,4 +22,12 @@ package org.neo4j.kernel.recovery;
 public interface LogTailScannerMonitor
 {
     void corruptedLogFile( long version, Throwable t );
+
+    /**
+     * Called when the tail of the transaction log has been found.
+     *
+     * @param logFiles the number of log files that were scanned, from the latest and backwards.
+     * @param elapsedMillis the time it took to find the tail.
+     */
+    void tailScanned( long logFiles, long elapsedMillis );
 }
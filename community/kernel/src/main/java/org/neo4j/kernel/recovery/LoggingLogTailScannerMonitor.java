@@ -35,4 +35,11 @@ public class LoggingLogTailScannerMonitor implements LogTailScannerMonitor
     {
         log.warn( String.format( "Fail to read transaction log version %d.", version ), t );
     }
+
+    @Override
+    public void tailScanned( long logFiles, long elapsedMillis )
+    {
+        log.info( String.format( "Found the tail of the transaction log in %d ms, after scanning %d log file(s).",
+                elapsedMillis, logFiles ) );
+    }
 }
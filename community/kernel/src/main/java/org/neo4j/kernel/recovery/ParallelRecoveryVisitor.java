@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIntMap;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCountsCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.PropertyCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipCountsCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipGroupCommand;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.kernel.recovery.DefaultRecoveryService.transactionToApply;
+
+/**
+ * Applies recovered transactions to the store using multiple threads.
+ * <p>
+ * Transactions are read from the log by the recovery thread and placed into partitions, based on which records and
+ * entities their commands touch. A transaction that touches anything already placed in a partition goes into that
+ * same partition, after the transactions already there, and otherwise into the least loaded partition. Once enough
+ * transactions have been gathered, each partition is applied as one batch by its own thread, which also lets the
+ * index and counts updates of all transactions in a partition be applied together. The recovery thread meanwhile
+ * continues reading ahead and partitioning the following transactions, which are applied once the previous batches
+ * have completed.
+ * <p>
+ * A transaction that spans more than one partition ends the current group of batches, as does a transaction that
+ * removes or changes values of existing nodes, since a later transaction may add the same values to another node
+ * and unique indexes must not see the add before the removal. Transactions with commands that are not tied to
+ * specific records, like schema and token changes, are applied on their own between groups of batches.
+ */
+class ParallelRecoveryVisitor implements RecoveryApplier
+{
+    private static final int MAX_TRANSACTIONS_PER_GROUP = 1_000;
+
+    private static final int NODE = 0;
+    private static final int RELATIONSHIP = 1;
+    private static final int RELATIONSHIP_GROUP = 2;
+    private static final int PROPERTY = 3;
+    private static final int DYNAMIC_LABELS = 4;
+    private static final int DYNAMIC_PROPERTY_VALUE = 5;
+    private static final int KEY_TYPE_BITS = 3;
+
+    private static final int NO_PARTITION = -1;
+    private static final int MANY_PARTITIONS = -2;
+
+    private final StorageEngine storageEngine;
+    private final TransactionApplicationMode mode;
+    private final RecoveryMonitor monitor;
+    private final ExecutorService executor;
+    private final Partition[] partitions;
+    private final PrimitiveLongIntMap partitionByKey = Primitive.longIntMap();
+    private final TransactionKeys transactionKeys = new TransactionKeys();
+    private final List<Future<?>> applyingBatches = new ArrayList<>();
+
+    private int groupedTransactions;
+    private CommittedTransactionRepresentation lastGroupedTransaction;
+    private int applyingTransactions;
+    private CommittedTransactionRepresentation lastApplyingTransaction;
+    private CommittedTransactionRepresentation lastAppliedTransaction;
+    private boolean failed;
+
+    ParallelRecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode, int threads,
+            RecoveryMonitor monitor )
+    {
+        this.storageEngine = storageEngine;
+        this.mode = mode;
+        this.monitor = monitor;
+        this.executor = Executors.newFixedThreadPool( threads, new NamedThreadFactory( "recovery" ) );
+        this.partitions = new Partition[threads];
+        for ( int i = 0; i < threads; i++ )
+        {
+            partitions[i] = new Partition();
+        }
+    }
+
+    @Override
+    public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+    {
+        TransactionToApply tx = transactionToApply( transaction );
+        transactionKeys.clear();
+        tx.transactionRepresentation().accept( transactionKeys );
+
+        if ( transactionKeys.requiresSerialApplication )
+        {
+            applyGroup();
+            awaitApplyingBatches();
+            storageEngine.apply( tx, mode );
+            lastAppliedTransaction = transaction;
+            monitor.transactionsApplied( tx.transactionId(), 1, 1 );
+            return false;
+        }
+
+        int partition = partitionOf( transactionKeys.keys );
+        if ( partition == MANY_PARTITIONS || groupedTransactions == MAX_TRANSACTIONS_PER_GROUP )
+        {
+            applyGroup();
+            partition = NO_PARTITION;
+        }
+        if ( partition == NO_PARTITION )
+        {
+            partition = leastLoadedPartition();
+        }
+        partitions[partition].add( tx );
+        PrimitiveLongIterator keys = transactionKeys.keys.iterator();
+        while ( keys.hasNext() )
+        {
+            partitionByKey.put( keys.next(), partition );
+        }
+        groupedTransactions++;
+        lastGroupedTransaction = transaction;
+
+        if ( transactionKeys.removesNodeValues )
+        {
+            applyGroup();
+        }
+        return false;
+    }
+
+    /**
+     * Transactions that have been visited, but not yet applied, are left unapplied if the application of a batch
+     * fails, so after a failure this is the transaction that recovery got to.
+     */
+    @Override
+    public CommittedTransactionRepresentation lastAppliedTransaction()
+    {
+        return lastAppliedTransaction;
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        try
+        {
+            if ( !failed )
+            {
+                applyGroup();
+                awaitApplyingBatches();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private int partitionOf( PrimitiveLongSet keys )
+    {
+        int partition = NO_PARTITION;
+        PrimitiveLongIterator iterator = keys.iterator();
+        while ( iterator.hasNext() )
+        {
+            long key = iterator.next();
+            if ( partitionByKey.containsKey( key ) )
+            {
+                int keyPartition = partitionByKey.get( key );
+                if ( partition == NO_PARTITION )
+                {
+                    partition = keyPartition;
+                }
+                else if ( partition != keyPartition )
+                {
+                    return MANY_PARTITIONS;
+                }
+            }
+        }
+        return partition;
+    }
+
+    private int leastLoadedPartition()
+    {
+        int leastLoaded = 0;
+        for ( int i = 1; i < partitions.length; i++ )
+        {
+            if ( partitions[i].size < partitions[leastLoaded].size )
+            {
+                leastLoaded = i;
+            }
+        }
+        return leastLoaded;
+    }
+
+    /**
+     * Hands the currently grouped transactions over to the applying threads, one batch per partition, once the
+     * previous group has been applied. Doesn't wait for the new group to be applied.
+     */
+    private void applyGroup() throws Exception
+    {
+        awaitApplyingBatches();
+        if ( groupedTransactions == 0 )
+        {
+            return;
+        }
+
+        for ( Partition partition : partitions )
+        {
+            if ( partition.size > 0 )
+            {
+                TransactionToApply batch = partition.first;
+                applyingBatches.add( executor.submit( () ->
+                {
+                    storageEngine.apply( batch, mode );
+                    return null;
+                } ) );
+                partition.clear();
+            }
+        }
+        applyingTransactions = groupedTransactions;
+        lastApplyingTransaction = lastGroupedTransaction;
+        groupedTransactions = 0;
+        partitionByKey.clear();
+    }
+
+    private void awaitApplyingBatches() throws Exception
+    {
+        if ( applyingBatches.isEmpty() )
+        {
+            return;
+        }
+
+        Throwable failure = null;
+        for ( Future<?> batch : applyingBatches )
+        {
+            try
+            {
+                batch.get();
+            }
+            catch ( ExecutionException e )
+            {
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        int numberOfPartitions = applyingBatches.size();
+        applyingBatches.clear();
+
+        if ( failure != null )
+        {
+            failed = true;
+            if ( failure instanceof Exception )
+            {
+                throw (Exception) failure;
+            }
+            throw (Error) failure;
+        }
+        lastAppliedTransaction = lastApplyingTransaction;
+        monitor.transactionsApplied( lastAppliedTransaction.getCommitEntry().getTxId(), applyingTransactions,
+                numberOfPartitions );
+    }
+
+    private static class Partition
+    {
+        private TransactionToApply first;
+        private TransactionToApply last;
+        private int size;
+
+        void add( TransactionToApply tx )
+        {
+            if ( first == null )
+            {
+                first = tx;
+            }
+            else
+            {
+                last.next( tx );
+            }
+            last = tx;
+            size++;
+        }
+
+        void clear()
+        {
+            first = last = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * Collects keys for the records and entities that the commands of a transaction touch, and notes whether or
+     * not the transaction needs special care when it comes to ordering.
+     */
+    private static class TransactionKeys implements Visitor<StorageCommand,IOException>
+    {
+        private final PrimitiveLongSet keys = Primitive.longSet();
+        private boolean requiresSerialApplication;
+        private boolean removesNodeValues;
+
+        void clear()
+        {
+            keys.clear();
+            requiresSerialApplication = false;
+            removesNodeValues = false;
+        }
+
+        @Override
+        public boolean visit( StorageCommand command )
+        {
+            if ( command instanceof NodeCommand )
+            {
+                visitNode( (NodeCommand) command );
+            }
+            else if ( command instanceof RelationshipCommand )
+            {
+                keys.add( key( RELATIONSHIP, ((RelationshipCommand) command).getKey() ) );
+            }
+            else if ( command instanceof RelationshipGroupCommand )
+            {
+                keys.add( key( RELATIONSHIP_GROUP, ((RelationshipGroupCommand) command).getKey() ) );
+            }
+            else if ( command instanceof PropertyCommand )
+            {
+                visitProperty( (PropertyCommand) command );
+            }
+            else if ( !(command instanceof NodeCountsCommand || command instanceof RelationshipCountsCommand) )
+            {
+                // Counts updates are deltas and so can be applied in any order, but other commands, like schema,
+                // token and explicit index commands, aren't tied to specific records.
+                requiresSerialApplication = true;
+            }
+            return false;
+        }
+
+        private void visitNode( NodeCommand command )
+        {
+            NodeRecord before = command.getBefore();
+            NodeRecord after = command.getAfter();
+            keys.add( key( NODE, command.getKey() ) );
+            addDynamicRecordKeys( DYNAMIC_LABELS, before.getDynamicLabelRecords() );
+            addDynamicRecordKeys( DYNAMIC_LABELS, after.getDynamicLabelRecords() );
+            if ( before.inUse() && (!after.inUse() || before.getLabelField() != after.getLabelField() ||
+                    !after.getDynamicLabelRecords().isEmpty()) )
+            {
+                // Deleting a node or changing its labels may remove index entries for its values
+                removesNodeValues = true;
+            }
+        }
+
+        private void visitProperty( PropertyCommand command )
+        {
+            PropertyRecord before = command.getBefore();
+            PropertyRecord after = command.getAfter();
+            keys.add( key( PROPERTY, command.getKey() ) );
+            if ( command.getNodeId() != -1 )
+            {
+                keys.add( key( NODE, command.getNodeId() ) );
+            }
+            if ( command.getRelId() != -1 )
+            {
+                keys.add( key( RELATIONSHIP, command.getRelId() ) );
+            }
+            addDynamicRecordKeys( DYNAMIC_PROPERTY_VALUE, after.getDeletedRecords() );
+            for ( PropertyBlock block : before )
+            {
+                addDynamicRecordKeys( DYNAMIC_PROPERTY_VALUE, block.getValueRecords() );
+                if ( command.getNodeId() != -1 && before.inUse() && !isUnchangedIn( after, block ) )
+                {
+                    removesNodeValues = true;
+                }
+            }
+            for ( PropertyBlock block : after )
+            {
+                addDynamicRecordKeys( DYNAMIC_PROPERTY_VALUE, block.getValueRecords() );
+            }
+        }
+
+        private static boolean isUnchangedIn( PropertyRecord record, PropertyBlock block )
+        {
+            if ( !record.inUse() )
+            {
+                return false;
+            }
+            PropertyBlock other = record.getPropertyBlock( block.getKeyIndexId() );
+            return other != null && other.hasSameContentsAs( block );
+        }
+
+        private void addDynamicRecordKeys( int type, Iterable<DynamicRecord> records )
+        {
+            for ( DynamicRecord record : records )
+            {
+                keys.add( key( type, record.getId() ) );
+            }
+        }
+
+        private static long key( int type, long id )
+        {
+            return (id << KEY_TYPE_BITS) | type;
+        }
+    }
+}
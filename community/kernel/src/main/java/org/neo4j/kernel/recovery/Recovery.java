@@ -19,6 +19,10 @@
  */
 package org.neo4j.kernel.recovery;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.neo4j.helpers.collection.Pair;
 import org.neo4j.kernel.impl.core.StartupStatisticsProvider;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
@@ -45,6 +49,9 @@ public class Recovery extends LifecycleAdapter
     private final CorruptedLogsTruncator logsTruncator;
     private final ProgressReporter progressReporter;
     private final boolean failOnCorruptedLogFiles;
+    private final Deque<Pair<CommittedTransactionRepresentation,LogPosition>> unappliedTransactions =
+            new ArrayDeque<>();
+    private Pair<CommittedTransactionRepresentation,LogPosition> lastAppliedTransaction;
     private int numberOfRecoveredTransactions;
 
     public Recovery( RecoveryService recoveryService, StartupStatisticsProvider startupStatistics,
@@ -76,6 +83,7 @@ public class Recovery extends LifecycleAdapter
         LogPosition recoveryToPosition = recoveryPosition;
         CommittedTransactionRepresentation lastTransaction = null;
         CommittedTransactionRepresentation lastReversedTransaction = null;
+        RecoveryApplier forwardRecoveryApplier = null;
         try
         {
             long lowestRecoveredTxId = TransactionIdStore.BASE_TX_ID;
@@ -99,20 +107,23 @@ public class Recovery extends LifecycleAdapter
             monitor.reverseStoreRecoveryCompleted( lowestRecoveredTxId );
 
             try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryPosition );
-                    RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY ) )
+                    RecoveryApplier recoveryVisitor = forwardRecoveryApplier =
+                            recoveryService.getRecoveryApplier( RECOVERY ) )
             {
                 while ( transactionsToRecover.next() )
                 {
-                    lastTransaction = transactionsToRecover.get();
-                    long txId = lastTransaction.getCommitEntry().getTxId();
-                    recoveryVisitor.visit( lastTransaction );
+                    CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                    long txId = transaction.getCommitEntry().getTxId();
+                    recoveryVisitor.visit( transaction );
                     monitor.transactionRecovered( txId );
-                    numberOfRecoveredTransactions++;
-                    recoveryToPosition = transactionsToRecover.position();
+                    unappliedTransactions.add( Pair.of( transaction, transactionsToRecover.position() ) );
+                    collectAppliedTransactions( recoveryVisitor );
                     reportProgress();
                 }
                 recoveryToPosition = transactionsToRecover.position();
             }
+            collectAppliedTransactions( forwardRecoveryApplier );
+            lastTransaction = lastAppliedTransaction == null ? null : lastAppliedTransaction.first();
         }
         catch ( Throwable t )
         {
@@ -121,8 +132,15 @@ public class Recovery extends LifecycleAdapter
                 throwIfUnchecked( t );
                 throw new RuntimeException( t );
             }
-            if ( lastTransaction != null )
+            // Transactions may have been visited without being applied, so only keep what has been applied
+            if ( forwardRecoveryApplier != null )
             {
+                collectAppliedTransactions( forwardRecoveryApplier );
+            }
+            if ( lastAppliedTransaction != null )
+            {
+                lastTransaction = lastAppliedTransaction.first();
+                recoveryToPosition = lastAppliedTransaction.other();
                 LogEntryCommit commitEntry = lastTransaction.getCommitEntry();
                 monitor.failToRecoverTransactionsAfterCommit( t, commitEntry, recoveryToPosition );
             }
@@ -140,6 +158,26 @@ public class Recovery extends LifecycleAdapter
         monitor.recoveryCompleted( numberOfRecoveredTransactions );
     }
 
+    /**
+     * Moves the transactions that the given applier has applied by now from the unapplied transactions over to
+     * the recovered ones, since an applier may apply transactions some time after they have been visited.
+     */
+    private void collectAppliedTransactions( RecoveryApplier applier )
+    {
+        CommittedTransactionRepresentation applied = applier.lastAppliedTransaction();
+        if ( applied == null )
+        {
+            return;
+        }
+        long appliedTxId = applied.getCommitEntry().getTxId();
+        while ( !unappliedTransactions.isEmpty() &&
+                unappliedTransactions.peekFirst().first().getCommitEntry().getTxId() <= appliedTxId )
+        {
+            lastAppliedTransaction = unappliedTransactions.pollFirst();
+            numberOfRecoveredTransactions++;
+        }
+    }
+
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
@@ -27,4 +27,11 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * Transactions may be applied some time after they have been visited, but always in the order they were
+     * visited in, so all transactions visited before the returned one have been applied as well.
+     *
+     * @return the last visited transaction that has been applied to the store, or {@code null} if none has been.
+     */
+    CommittedTransactionRepresentation lastAppliedTransaction();
 }
@@ -34,6 +34,18 @@ public interface RecoveryMonitor
         //noop
     }
 
+    /**
+     * Called when a group of recovered transactions has been applied to the store by parallel recovery.
+     *
+     * @param lastTxId the highest id of the transactions in the group.
+     * @param numberOfTransactions the number of transactions in the group.
+     * @param numberOfPartitions the number of partitions the group was applied in concurrently.
+     */
+    default void transactionsApplied( long lastTxId, int numberOfTransactions, int numberOfPartitions )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions )
     {
         //noop
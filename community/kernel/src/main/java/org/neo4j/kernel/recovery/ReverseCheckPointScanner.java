@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongList;
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.kernel.impl.transaction.log.LogEntryCursor;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.CheckPoint;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.CHECK_POINT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+
+/**
+ * Finds the last check point entry in a log file without parsing all the entries that come before it.
+ * <p>
+ * The file is read backwards, in large chunks, and each chunk is searched for byte sequences that could be a check
+ * point entry: a known log entry version followed by the check point type, and a check pointed position that lies
+ * before the candidate itself. When the file spans more than one chunk, a round of chunks is read and searched by a
+ * number of threads at the same time. Since the same bytes can just as well be part of a command, every candidate is
+ * verified by parsing the log entries from its check pointed position, which is known to be where an entry starts,
+ * up to the candidate. The candidates are verified from the end of the file and backwards, so the first one that
+ * passes is the last check point in the file.
+ */
+class ReverseCheckPointScanner
+{
+    static final long NO_CHECK_POINT = -1;
+    /** version (1B), type (1B), log version (8B) and byte offset (8B) of the check pointed position. */
+    static final int CHECK_POINT_ENTRY_SIZE = 2 + 2 * Long.BYTES;
+
+    private static final byte NEWEST_ENTRY_VERSION = LogEntryVersion.CURRENT.byteCode();
+    private static final byte OLDEST_ENTRY_VERSION = LogEntryVersion.V2_3.byteCode();
+
+    private final LogFiles logFiles;
+    private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
+    private final int chunkSize;
+    private final int threads;
+
+    ReverseCheckPointScanner( LogFiles logFiles, LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader,
+            int chunkSize, int threads )
+    {
+        this.logFiles = logFiles;
+        this.logEntryReader = logEntryReader;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    /**
+     * @param channel channel of the log file to search. Its position is left untouched.
+     * @return the position of the last check point entry in the log file, or {@link #NO_CHECK_POINT} if there is none.
+     */
+    long findLastCheckPoint( LogVersionedStoreChannel channel ) throws IOException
+    {
+        long version = channel.getVersion();
+        long fileSize = channel.size();
+        int chunksPerRound = threads > 1 && fileSize - LOG_HEADER_SIZE > chunkSize ? threads : 1;
+        ByteBuffer[] buffers = new ByteBuffer[chunksPerRound];
+        ExecutorService executor = chunksPerRound > 1
+                                   ? Executors.newFixedThreadPool( threads, new NamedThreadFactory( "log-tail-scan" ) )
+                                   : null;
+        try
+        {
+            long end = fileSize;
+            while ( end > LOG_HEADER_SIZE )
+            {
+                // Read and search a round of chunks, ordered from the end of the file and backwards
+                List<Future<PrimitiveLongList>> round = new ArrayList<>( chunksPerRound );
+                for ( int i = 0; i < chunksPerRound && end > LOG_HEADER_SIZE; i++ )
+                {
+                    long start = Math.max( LOG_HEADER_SIZE, end - chunkSize );
+                    if ( buffers[i] == null )
+                    {
+                        buffers[i] = ByteBuffer.allocate( chunkSize + CHECK_POINT_ENTRY_SIZE - 1 );
+                    }
+                    ChunkSearch search = new ChunkSearch( channel, version, fileSize, start, end, buffers[i] );
+                    round.add( executor != null ? executor.submit( search ) : completedFuture( search.call() ) );
+                    end = start;
+                }
+
+                for ( Future<PrimitiveLongList> chunk : round )
+                {
+                    PrimitiveLongList candidates = awaitSearch( chunk );
+                    for ( int i = candidates.size() - 1; i >= 0; i-- )
+                    {
+                        long candidate = candidates.get( i );
+                        if ( isCheckPoint( version, candidate, checkPointedPosition( channel, candidate ) ) )
+                        {
+                            return candidate;
+                        }
+                    }
+                }
+            }
+            return NO_CHECK_POINT;
+        }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static PrimitiveLongList awaitSearch( Future<PrimitiveLongList> search ) throws IOException
+    {
+        try
+        {
+            return search.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while scanning the transaction log", e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            throw new IOException( "Failed to scan the transaction log", cause );
+        }
+    }
+
+    private static LogPosition checkPointedPosition( LogVersionedStoreChannel channel, long candidate )
+            throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( 2 * Long.BYTES );
+        readFully( channel, buffer, candidate + 2 );
+        return new LogPosition( buffer.getLong( 0 ), buffer.getLong( Long.BYTES ) );
+    }
+
+    /**
+     * Parses the log entries from the check pointed position of the candidate, or from the start of the file if
+     * that position is in an earlier log file, and checks that one of them starts exactly at the candidate and is
+     * the same check point.
+     */
+    private boolean isCheckPoint( long version, long candidate, LogPosition checkPointedPosition )
+    {
+        long parseFrom = checkPointedPosition.getLogVersion() == version
+                         ? checkPointedPosition.getByteOffset()
+                         : LOG_HEADER_SIZE;
+        try ( LogVersionedStoreChannel channel = logFiles.openForVersion( version ) )
+        {
+            channel.position( parseFrom );
+            try ( ReadAheadLogChannel readAheadLogChannel = new ReadAheadLogChannel( channel );
+                  LogEntryCursor cursor = new LogEntryCursor( logEntryReader, readAheadLogChannel ) )
+            {
+                long entryStart = parseFrom;
+                while ( entryStart < candidate && cursor.next() )
+                {
+                    entryStart = readAheadLogChannel.position();
+                }
+                if ( entryStart != candidate || !cursor.next() )
+                {
+                    return false;
+                }
+                LogEntry entry = cursor.get();
+                return entry instanceof CheckPoint &&
+                       ((CheckPoint) entry).getLogPosition().equals( checkPointedPosition );
+            }
+        }
+        catch ( Exception e )
+        {
+            // The candidate was made up of bytes in some other entry, which sent the parsing astray
+            return false;
+        }
+    }
+
+    private static void readFully( LogVersionedStoreChannel channel, ByteBuffer buffer, long position )
+            throws IOException
+    {
+        while ( buffer.hasRemaining() )
+        {
+            if ( channel.read( buffer, position + buffer.position() ) == -1 )
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Searches the check point candidates that start within {@code [start, end)}. The bytes following {@code end}
+     * are read as well, such that candidates that cross into the next chunk are not missed.
+     */
+    private static class ChunkSearch implements Callable<PrimitiveLongList>
+    {
+        private final LogVersionedStoreChannel channel;
+        private final long version;
+        private final long fileSize;
+        private final long start;
+        private final long end;
+        private final ByteBuffer buffer;
+
+        ChunkSearch( LogVersionedStoreChannel channel, long version, long fileSize, long start, long end,
+                ByteBuffer buffer )
+        {
+            this.channel = channel;
+            this.version = version;
+            this.fileSize = fileSize;
+            this.start = start;
+            this.end = end;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public PrimitiveLongList call() throws IOException
+        {
+            buffer.clear();
+            buffer.limit( (int) (Math.min( fileSize, end + CHECK_POINT_ENTRY_SIZE - 1 ) - start) );
+            readFully( channel, buffer, start );
+
+            PrimitiveLongList candidates = Primitive.longList();
+            int lastCandidate = Math.min( (int) (end - start), buffer.position() - CHECK_POINT_ENTRY_SIZE + 1 );
+            for ( int i = 0; i < lastCandidate; i++ )
+            {
+                if ( buffer.get( i + 1 ) == CHECK_POINT && isEntryVersion( buffer.get( i ) ) )
+                {
+                    long candidate = start + i;
+                    long logVersion = buffer.getLong( i + 2 );
+                    long byteOffset = buffer.getLong( i + 2 + Long.BYTES );
+                    if ( isCheckPointedPosition( candidate, logVersion, byteOffset ) )
+                    {
+                        candidates.add( candidate );
+                    }
+                }
+            }
+            return candidates;
+        }
+
+        private static boolean isEntryVersion( byte entryVersion )
+        {
+            return entryVersion >= NEWEST_ENTRY_VERSION && entryVersion <= OLDEST_ENTRY_VERSION;
+        }
+
+        private boolean isCheckPointedPosition( long candidate, long logVersion, long byteOffset )
+        {
+            return logVersion >= 0 && byteOffset >= LOG_HEADER_SIZE &&
+                   (logVersion < version || (logVersion == version && byteOffset <= candidate));
+        }
+    }
+}
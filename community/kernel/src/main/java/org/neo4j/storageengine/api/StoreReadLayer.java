@@ -59,6 +59,11 @@ public interface StoreReadLayer
      */
     StorageStatement newStatement();
 
+    /**
+     * @return a number that changes every time the schema, i.e. the indexes and constraints, in storage changes.
+     */
+    long schemaVersion();
+
     /**
      * @param labelId label to list indexes for.
      * @return {@link IndexDescriptor} associated with the given {@code labelId}.
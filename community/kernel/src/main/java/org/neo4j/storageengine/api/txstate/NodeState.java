@@ -19,8 +19,6 @@
  */
 package org.neo4j.storageengine.api.txstate;
 
-import java.util.Set;
-
 import org.neo4j.collection.primitive.PrimitiveIntSet;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.internal.kernel.api.exceptions.schema.ConstraintValidationException;
@@ -30,8 +28,8 @@ import org.neo4j.storageengine.api.Direction;
 /**
  * Represents the transactional changes to a node:
  * <ul>
- * <li>{@linkplain #labelDiffSets() Labels} that have been {@linkplain ReadableDiffSets#getAdded() added}
- * or {@linkplain ReadableDiffSets#getRemoved() removed}.</li>
+ * <li>{@linkplain #labelDiffSets() Labels} that have been {@linkplain PrimitiveIntReadableDiffSets#getAdded() added}
+ * or {@linkplain PrimitiveIntReadableDiffSets#getRemoved() removed}.</li>
  * <li>Added and removed relationships.</li>
  * <li>{@linkplain PropertyContainerState Changes to properties}.</li>
  * </ul>
@@ -40,11 +38,11 @@ public interface NodeState extends PropertyContainerState
 {
     interface Visitor extends PropertyContainerState.Visitor
     {
-        void visitLabelChanges( long nodeId, Set<Integer> added, Set<Integer> removed )
+        void visitLabelChanges( long nodeId, PrimitiveIntSet added, PrimitiveIntSet removed )
                 throws ConstraintValidationException;
     }
 
-    ReadableDiffSets<Integer> labelDiffSets();
+    PrimitiveIntReadableDiffSets labelDiffSets();
 
     int augmentDegree( Direction direction, int degree );
 
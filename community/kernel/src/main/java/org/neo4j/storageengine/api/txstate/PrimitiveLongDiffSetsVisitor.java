@@ -27,7 +27,20 @@ import org.neo4j.kernel.api.exceptions.schema.CreateConstraintFailureException;
  */
 public interface PrimitiveLongDiffSetsVisitor
 {
-    void visitAdded( long element );
+    void visitAdded( long element ) throws ConstraintValidationException, CreateConstraintFailureException;
 
-    void visitRemoved( long element );
+    void visitRemoved( long element ) throws ConstraintValidationException;
+
+    class Adapter implements PrimitiveLongDiffSetsVisitor
+    {
+        @Override
+        public void visitAdded( long element )
+        {   // Ignore
+        }
+
+        @Override
+        public void visitRemoved( long element )
+        {   // Ignore
+        }
+    }
 }
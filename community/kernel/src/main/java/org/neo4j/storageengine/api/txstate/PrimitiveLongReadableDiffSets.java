@@ -20,6 +20,7 @@
 package org.neo4j.storageengine.api.txstate;
 
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongResourceIterator;
 import org.neo4j.collection.primitive.PrimitiveLongSet;
 
 /**
@@ -80,5 +81,13 @@ public interface PrimitiveLongReadableDiffSets
      * @param elements elements to augment with
      * @return iterator that will iterate over augmented elements as well as over diff set
      */
-    PrimitiveLongIterator augment( PrimitiveLongIterator elements );
+    PrimitiveLongResourceIterator augment( PrimitiveLongIterator elements );
+
+    /**
+     * Augment current diff sets with elements, only filtering out the removed ones. Elements added in
+     * this diff set are not appended.
+     * @param elements elements to augment with
+     * @return iterator that will iterate over provided elements that are not removed in this diff set
+     */
+    PrimitiveLongResourceIterator augmentWithRemovals( PrimitiveLongIterator elements );
 }
@@ -56,27 +56,27 @@ public interface ReadableTransactionState
     /**
      * Returns all nodes that, in this tx, have had the labels changed.
      */
-    ReadableDiffSets<Long> nodesWithLabelChanged( int label );
+    PrimitiveLongReadableDiffSets nodesWithLabelChanged( int label );
 
     /**
      * Returns all nodes that, in this tx, have had any of the labels changed.
      */
-    ReadableDiffSets<Long> nodesWithAnyOfLabelsChanged( int... labels );
+    PrimitiveLongReadableDiffSets nodesWithAnyOfLabelsChanged( int... labels );
 
     /**
      * Returns all nodes that, in this tx, have had all the labels changed.
      */
-    ReadableDiffSets<Long> nodesWithAllLabelsChanged( int... labels );
+    PrimitiveLongReadableDiffSets nodesWithAllLabelsChanged( int... labels );
 
     /**
      * Returns nodes that have been added and removed in this tx.
      */
-    ReadableDiffSets<Long> addedAndRemovedNodes();
+    PrimitiveLongReadableDiffSets addedAndRemovedNodes();
 
     /**
      * Returns rels that have been added and removed in this tx.
      */
-    ReadableRelationshipDiffSets<Long> addedAndRemovedRelationships();
+    PrimitiveLongReadableDiffSets addedAndRemovedRelationships();
 
     /**
      * Nodes that have had labels, relationships, or properties modified in this tx.
@@ -92,7 +92,7 @@ public interface ReadableTransactionState
 
     boolean relationshipIsDeletedInThisTx( long relationshipId );
 
-    ReadableDiffSets<Integer> nodeStateLabelDiffSets( long nodeId );
+    PrimitiveIntReadableDiffSets nodeStateLabelDiffSets( long nodeId );
 
     Iterator<StorageProperty> augmentGraphProperties( Iterator<StorageProperty> original );
 
@@ -20,8 +20,8 @@
 package org.neo4j.storageengine.api.txstate;
 
 import java.util.Iterator;
-import java.util.Set;
 
+import org.neo4j.collection.primitive.PrimitiveIntSet;
 import org.neo4j.internal.kernel.api.exceptions.schema.ConstraintValidationException;
 import org.neo4j.internal.kernel.api.schema.constraints.ConstraintDescriptor;
 import org.neo4j.kernel.api.exceptions.schema.CreateConstraintFailureException;
@@ -52,7 +52,7 @@ public interface TxStateVisitor extends AutoCloseable
     void visitGraphPropertyChanges( Iterator<StorageProperty> added, Iterator<StorageProperty> changed,
                                     Iterator<Integer> removed );
 
-    void visitNodeLabelChanges( long id, Set<Integer> added, Set<Integer> removed ) throws
+    void visitNodeLabelChanges( long id, PrimitiveIntSet added, PrimitiveIntSet removed ) throws
             ConstraintValidationException;
 
     void visitAddedIndex( IndexDescriptor element );
@@ -113,7 +113,7 @@ public interface TxStateVisitor extends AutoCloseable
         }
 
         @Override
-        public void visitNodeLabelChanges( long id, Set<Integer> added, Set<Integer> removed )
+        public void visitNodeLabelChanges( long id, PrimitiveIntSet added, PrimitiveIntSet removed )
         {
         }
 
@@ -218,7 +218,7 @@ public interface TxStateVisitor extends AutoCloseable
         }
 
         @Override
-        public void visitNodeLabelChanges( long id, Set<Integer> added, Set<Integer> removed )
+        public void visitNodeLabelChanges( long id, PrimitiveIntSet added, PrimitiveIntSet removed )
                 throws ConstraintValidationException
         {
             actual.visitNodeLabelChanges( id, added, removed );
@@ -32,6 +32,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
@@ -50,6 +51,7 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.TransactionFailureException;
 import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
 import org.neo4j.graphdb.factory.GraphDatabaseBuilder.DatabaseCreator;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.helpers.collection.Iterators;
@@ -226,6 +228,111 @@ public class RecoveryIT
         recoveredDatabase.shutdown();
     }
 
+    @Test
+    public void shouldRecoverTransactionsUsingMultipleThreads() throws IOException
+    {
+        GraphDatabaseService database = startDatabase( directory.graphDbDir() );
+        Label label = Label.label( "Person" );
+        String key = "id";
+        int numberOfPairs = 100;
+        try ( Transaction transaction = database.beginTx() )
+        {
+            database.schema().constraintFor( label ).assertPropertyIsUnique( key ).create();
+            transaction.success();
+        }
+        for ( int i = 0; i < numberOfPairs; i++ )
+        {
+            try ( Transaction transaction = database.beginTx() )
+            {
+                Node first = database.createNode( label );
+                first.setProperty( key, i * 2 );
+                Node second = database.createNode( label );
+                second.setProperty( key, i * 2 + 1 );
+                first.createRelationshipTo( second, withName( "KNOWS" ) );
+                transaction.success();
+            }
+        }
+        // Hand unique values over from one node to another, which recovery must apply in order
+        for ( int i = 0; i < 10; i++ )
+        {
+            try ( Transaction transaction = database.beginTx() )
+            {
+                database.findNode( label, key, i ).setProperty( key, -i - 1 );
+                transaction.success();
+            }
+            try ( Transaction transaction = database.beginTx() )
+            {
+                database.findNode( label, key, numberOfPairs * 2 - 1 - i ).setProperty( key, i );
+                transaction.success();
+            }
+        }
+        Map<Integer,Long> nodeByValue = new HashMap<>();
+        try ( Transaction transaction = database.beginTx() )
+        {
+            for ( Node node : database.getAllNodes() )
+            {
+                nodeByValue.put( (Integer) node.getProperty( key ), node.getId() );
+            }
+            transaction.success();
+        }
+
+        File restoreDbStoreDir = copyTransactionLogs();
+        Monitors monitors = new Monitors();
+        AtomicInteger maxPartitions = new AtomicInteger();
+        monitors.addMonitorListener( new RecoveryMonitor()
+        {
+            @Override
+            public void transactionsApplied( long lastTxId, int numberOfTransactions, int numberOfPartitions )
+            {
+                maxPartitions.accumulateAndGet( numberOfPartitions, Math::max );
+            }
+        } );
+        GraphDatabaseService recoveredDatabase = new TestGraphDatabaseFactory()
+                .setMonitors( monitors )
+                .setInternalLogProvider( logProvider )
+                .newEmbeddedDatabaseBuilder( restoreDbStoreDir )
+                .setConfig( GraphDatabaseSettings.recovery_threads, "4" )
+                .newGraphDatabase();
+        try ( Transaction transaction = recoveredDatabase.beginTx() )
+        {
+            assertEquals( numberOfPairs * 2, Iterables.count( recoveredDatabase.getAllNodes() ) );
+            assertEquals( numberOfPairs, Iterables.count( recoveredDatabase.getAllRelationships() ) );
+            for ( Map.Entry<Integer,Long> entry : nodeByValue.entrySet() )
+            {
+                Node node = recoveredDatabase.findNode( label, key, entry.getKey() );
+                assertNotNull( node );
+                assertEquals( entry.getValue().longValue(), node.getId() );
+            }
+            transaction.success();
+        }
+        assertTrue( maxPartitions.get() > 1 );
+
+        database.shutdown();
+        recoveredDatabase.shutdown();
+    }
+
+    @Test
+    public void shouldRecoverFromPreallocatedTransactionLogsAndContinueAfterTheirLastEntry() throws IOException
+    {
+        GraphDatabaseService database = startPreallocatingDatabase( directory.graphDbDir() );
+        createNodes( database, 10 );
+
+        // copying only transaction log simulate non clean shutdown db that should be able to recover just from logs
+        File restoreDbStoreDir = copyTransactionLogs();
+
+        GraphDatabaseService recoveredDatabase = startPreallocatingDatabase( restoreDbStoreDir );
+        createNodes( recoveredDatabase, 5 );
+        recoveredDatabase.shutdown();
+        recoveredDatabase = startPreallocatingDatabase( restoreDbStoreDir );
+        try ( Transaction ignored = recoveredDatabase.beginTx() )
+        {
+            assertEquals( 15, Iterables.count( recoveredDatabase.getAllNodes() ) );
+        }
+
+        database.shutdown();
+        recoveredDatabase.shutdown();
+    }
+
     @Test( timeout = 60_000 )
     public void recoveryShouldFixPartiallyAppliedSchemaIndexUpdates()
     {
@@ -799,6 +906,27 @@ public class RecoveryIT
         return new TestGraphDatabaseFactory().setInternalLogProvider( logProvider ).newEmbeddedDatabase( storeDir );
     }
 
+    private GraphDatabaseService startPreallocatingDatabase( File storeDir )
+    {
+        return new TestGraphDatabaseFactory().setInternalLogProvider( logProvider )
+                .newEmbeddedDatabaseBuilder( storeDir )
+                .setConfig( GraphDatabaseSettings.preallocate_logical_logs, "true" )
+                .setConfig( GraphDatabaseSettings.logical_log_rotation_threshold, "1M" )
+                .newGraphDatabase();
+    }
+
+    private static void createNodes( GraphDatabaseService database, int numberOfNodes )
+    {
+        for ( int i = 0; i < numberOfNodes; i++ )
+        {
+            try ( Transaction transaction = database.beginTx() )
+            {
+                database.createNode();
+                transaction.success();
+            }
+        }
+    }
+
     private File copyTransactionLogs() throws IOException
     {
         File restoreDbStoreDir = this.directory.directory( "restore-db" );
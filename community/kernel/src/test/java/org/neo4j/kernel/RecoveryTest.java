@@ -33,10 +33,14 @@ import java.util.function.Consumer;
 import org.neo4j.helpers.collection.Pair;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.io.fs.OpenMode;
+import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.core.StartupStatisticsProvider;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.command.Command;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
@@ -72,13 +76,17 @@ import org.neo4j.storageengine.api.TransactionApplicationMode;
 import org.neo4j.test.rule.TestDirectory;
 import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.neo4j.kernel.impl.transaction.log.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter.writeLogHeader;
@@ -193,6 +201,12 @@ public class RecoveryTest
                             actual.close();
                         }
 
+                        @Override
+                        public CommittedTransactionRepresentation lastAppliedTransaction()
+                        {
+                            return actual.lastAppliedTransaction();
+                        }
+
                         @Override
                         public boolean visit( CommittedTransactionRepresentation tx ) throws Exception
                         {
@@ -403,6 +417,75 @@ public class RecoveryTest
         assertEquals( marker.getByteOffset(), lastClosedTransaction[2] );
     }
 
+    @Test
+    public void shouldTruncateLogAfterLastAppliedTransactionWhenParallelRecoveryFailsMidGroup() throws Exception
+    {
+        // GIVEN
+        File file = logFiles.getLogFileForVersion( logVersion );
+        final LogPositionMarker marker = new LogPositionMarker();
+
+        writeSomeData( file, pair ->
+        {
+            LogEntryWriter writer = pair.first();
+            Consumer<LogPositionMarker> consumer = pair.other();
+
+            writeTransaction( writer, 6L, createNode( 10 ) );
+            // applied on its own, after the group with the transaction above
+            writeTransaction( writer, 7L, new Command.LabelTokenCommand( new LabelTokenRecord( 0 ),
+                    new LabelTokenRecord( 0 ) ) );
+            consumer.accept( marker ); // <-- marker has the position after the last applied transaction
+
+            // grouped together, and the application of the group fails
+            writeTransaction( writer, 8L, createNode( 11 ) );
+            writeTransaction( writer, 9L, createNode( 12 ) );
+            return true;
+        } );
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        doAnswer( invocation ->
+        {
+            TransactionToApply batch = invocation.getArgument( 0 );
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                if ( tx.transactionId() == 9L && invocation.getArgument( 1 ) == TransactionApplicationMode.RECOVERY )
+                {
+                    throw new IOException( "Failed to apply transaction 9" );
+                }
+            }
+            return null;
+        } ).when( storageEngine ).apply( any(), any() );
+
+        // WHEN
+        LifeSupport life = new LifeSupport();
+        RecoveryMonitor monitor = mock( RecoveryMonitor.class );
+        try
+        {
+            final LogEntryReader<ReadableClosablePositionAwareChannel> reader = new VersionAwareLogEntryReader<>();
+            LogTailScanner tailScanner = getTailScanner( logFiles, reader );
+            TransactionMetadataCache metadataCache = new TransactionMetadataCache( 100 );
+            LogicalTransactionStore txStore = new PhysicalLogicalTransactionStore( logFiles, metadataCache, reader,
+                    monitors, false );
+            CorruptedLogsTruncator logPruner = new CorruptedLogsTruncator( storeDir, logFiles, fileSystemRule.get() );
+            life.add( new Recovery( new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
+                    txStore, versionRepository, NO_MONITOR, 2, monitor ), new StartupStatisticsProvider(), logPruner,
+                    monitor, SilentProgressReporter.INSTANCE, false ) );
+
+            life.start();
+        }
+        finally
+        {
+            life.shutdown();
+        }
+
+        // THEN
+        verify( monitor ).failToRecoverTransactionsAfterCommit( any( IOException.class ),
+                eq( new LogEntryCommit( 7L, 7L ) ), eq( marker.newPosition() ) );
+        verify( monitor ).recoveryCompleted( 2 );
+        assertEquals( marker.getByteOffset(), file.length() );
+        long[] lastClosedTransaction = transactionIdStore.getLastClosedTransaction();
+        assertEquals( 7L, lastClosedTransaction[0] );
+        assertEquals( marker.getByteOffset(), lastClosedTransaction[2] );
+    }
+
     private boolean recover( File storeDir, LogFiles logFiles )
     {
         LifeSupport life = new LifeSupport();
@@ -442,6 +525,20 @@ public class RecoveryTest
         return new LogTailScanner( logFiles, reader, monitors, false );
     }
 
+    private static void writeTransaction( LogEntryWriter writer, long txId, Command command ) throws IOException
+    {
+        writer.writeStartEntry( 0, 1, txId, txId - 1, new byte[0] );
+        writer.serialize( singletonList( command ) );
+        writer.writeCommitEntry( txId, txId );
+    }
+
+    private static Command createNode( long id )
+    {
+        NodeRecord after = new NodeRecord( id );
+        after.setInUse( true );
+        return new Command.NodeCommand( new NodeRecord( id ), after );
+    }
+
     private void writeSomeData( File file,
             Visitor<Pair<LogEntryWriter,Consumer<LogPositionMarker>>,IOException> visitor ) throws IOException
     {
@@ -24,10 +24,17 @@ import org.junit.Test;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
+import org.neo4j.kernel.impl.api.DefaultTransactionTracer.CommitMonitor;
+import org.neo4j.kernel.impl.api.DefaultTransactionTracer.LogForceMonitor;
 import org.neo4j.kernel.impl.api.DefaultTransactionTracer.Monitor;
+import org.neo4j.kernel.impl.transaction.tracing.CommandExtractionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LockAcquisitionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.test.OnDemandJobScheduler;
 import org.neo4j.time.Clocks;
@@ -76,6 +83,88 @@ public class DefaultTransactionTracerTest
         verifyZeroInteractions( monitor );
     }
 
+    @Test
+    public void shouldReportDurationAndGroupSizeOfLogForce()
+    {
+        LogForceMonitor logForceMonitor = mock( LogForceMonitor.class );
+        DefaultTransactionTracer tracer = new DefaultTransactionTracer( clock, monitor, logForceMonitor, jobScheduler );
+
+        try ( TransactionEvent txEvent = tracer.beginTransaction();
+              CommitEvent commitEvent = txEvent.beginCommitEvent();
+              LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+        {
+            try ( LogForceEvent logForceEvent = logAppendEvent.beginLogForce() )
+            {
+                clock.forward( 3, TimeUnit.MILLISECONDS );
+                logForceEvent.setGroupSize( 7 );
+            }
+        }
+
+        verify( logForceMonitor, times( 1 ) ).logForced( TimeUnit.MILLISECONDS.toNanos( 3 ), 7 );
+        verifyZeroInteractions( monitor );
+    }
+
+    @Test
+    public void shouldReportTimeSpentInEachCommitPhase()
+    {
+        CommitMonitor commitMonitor = mock( CommitMonitor.class );
+        DefaultTransactionTracer tracer =
+                new DefaultTransactionTracer( clock, monitor, LogForceMonitor.NULL, commitMonitor, jobScheduler );
+
+        try ( TransactionEvent txEvent = tracer.beginTransaction();
+              CommitEvent commitEvent = txEvent.beginCommitEvent() )
+        {
+            clock.forward( 1, TimeUnit.MILLISECONDS );
+            try ( LockAcquisitionEvent lockAcquisitionEvent = commitEvent.beginLockAcquisition() )
+            {
+                clock.forward( 2, TimeUnit.MILLISECONDS );
+            }
+            try ( CommandExtractionEvent commandExtractionEvent = commitEvent.beginCommandExtraction() )
+            {
+                clock.forward( 3, TimeUnit.MILLISECONDS );
+            }
+            try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+            {
+                clock.forward( 4, TimeUnit.MILLISECONDS );
+                try ( LogForceWaitEvent logForceWaitEvent = logAppendEvent.beginLogForceWait() )
+                {
+                    clock.forward( 5, TimeUnit.MILLISECONDS );
+                }
+            }
+            try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
+            {
+                clock.forward( 6, TimeUnit.MILLISECONDS );
+            }
+        }
+
+        verify( commitMonitor, times( 1 ) ).transactionCommitted( millis( 2 ), millis( 3 ), millis( 4 ), millis( 5 ),
+                millis( 6 ), millis( 21 ) );
+    }
+
+    @Test
+    public void shouldNotReportCommitPhasesOfTransactionsThatWereNotAppended()
+    {
+        CommitMonitor commitMonitor = mock( CommitMonitor.class );
+        DefaultTransactionTracer tracer =
+                new DefaultTransactionTracer( clock, monitor, LogForceMonitor.NULL, commitMonitor, jobScheduler );
+
+        try ( TransactionEvent txEvent = tracer.beginTransaction();
+              CommitEvent commitEvent = txEvent.beginCommitEvent() )
+        {
+            try ( LockAcquisitionEvent lockAcquisitionEvent = commitEvent.beginLockAcquisition() )
+            {
+                clock.forward( 2, TimeUnit.MILLISECONDS );
+            }
+        }
+
+        verifyZeroInteractions( commitMonitor );
+    }
+
+    private static long millis( long millis )
+    {
+        return TimeUnit.MILLISECONDS.toNanos( millis );
+    }
+
     private void triggerEvent( DefaultTransactionTracer tracer, int eventDuration )
     {
         try ( TransactionEvent txEvent = tracer.beginTransaction() )
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.neo4j.graphdb.TransactionTerminatedException;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
+
+public class KernelTransactionLockFreeSchemaReadsTest extends KernelTransactionTestBase
+{
+    private final Locks.Client locks = mock( Locks.Client.class );
+
+    @Before
+    public void enableLockFreeSchemaReads()
+    {
+        config.augment( GraphDatabaseSettings.lock_free_schema_reads, "true" );
+    }
+
+    @Test
+    public void shouldNotLockSchemaReadsBeforeWriting()
+    {
+        // given
+        KernelTransactionImplementation transaction = newTransaction( AUTH_DISABLED, locks );
+
+        // when
+        boolean labelLockSkipped = transaction.skipSharedSchemaLock( ResourceTypes.LABEL, 1 );
+        boolean typeLockSkipped = transaction.skipSharedSchemaLock( ResourceTypes.RELATIONSHIP_TYPE, 2 );
+
+        // then
+        assertTrue( labelLockSkipped );
+        assertTrue( typeLockSkipped );
+        verify( locks, never() ).acquireShared( any(), any(), anyLong() );
+    }
+
+    @Test
+    public void shouldTakeSkippedSchemaLocksWhenStartingToWrite() throws Exception
+    {
+        // given
+        KernelTransactionImplementation transaction = newTransaction( AUTH_DISABLED, locks );
+        transaction.skipSharedSchemaLock( ResourceTypes.LABEL, 1 );
+        transaction.skipSharedSchemaLock( ResourceTypes.RELATIONSHIP_TYPE, 2 );
+
+        // when
+        transaction.upgradeToDataWrites();
+
+        // then
+        verify( locks ).acquireShared( any(), eq( ResourceTypes.LABEL ), eq( 1L ) );
+        verify( locks ).acquireShared( any(), eq( ResourceTypes.RELATIONSHIP_TYPE ), eq( 2L ) );
+    }
+
+    @Test
+    public void shouldNotSkipSchemaLocksAfterWriting() throws Exception
+    {
+        // given
+        KernelTransactionImplementation transaction = newTransaction( AUTH_DISABLED, locks );
+        transaction.upgradeToDataWrites();
+
+        // when
+        boolean lockSkipped = transaction.skipSharedSchemaLock( ResourceTypes.LABEL, 1 );
+
+        // then
+        assertFalse( lockSkipped );
+    }
+
+    @Test
+    public void shouldTerminateTransactionThatStartsToWriteAfterTheSchemaItReadChanged() throws Exception
+    {
+        // given
+        when( readLayer.schemaVersion() ).thenReturn( 1L, 2L );
+        KernelTransactionImplementation transaction = newTransaction( AUTH_DISABLED, locks );
+        transaction.skipSharedSchemaLock( ResourceTypes.LABEL, 1 );
+
+        try
+        {
+            // when
+            transaction.upgradeToDataWrites();
+            fail( "Should have failed" );
+        }
+        catch ( TransactionTerminatedException e )
+        {
+            // then
+            assertEquals( Status.Transaction.Outdated, e.status() );
+            assertEquals( Status.Transaction.Outdated, transaction.getReasonIfTerminated().get() );
+        }
+    }
+
+    @Test
+    public void shouldStartToWriteWhenTheSchemaItReadIsUnchanged() throws Exception
+    {
+        // given
+        when( readLayer.schemaVersion() ).thenReturn( 1L );
+        KernelTransactionImplementation transaction = newTransaction( AUTH_DISABLED, locks );
+        transaction.skipSharedSchemaLock( ResourceTypes.LABEL, 1 );
+
+        // when
+        transaction.upgradeToSchemaWrites();
+
+        // then
+        verify( locks ).acquireShared( any(), eq( ResourceTypes.LABEL ), eq( 1L ) );
+        assertFalse( transaction.getReasonIfTerminated().isPresent() );
+    }
+}
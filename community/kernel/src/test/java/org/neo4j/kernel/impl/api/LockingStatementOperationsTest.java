@@ -343,8 +343,7 @@ public class LockingStatementOperationsTest
         lockingOps.relationshipCreate( state, 1, 2, 3 );
 
         // then
-        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 2 );
-        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 3 );
+        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 2, 3 );
         order.verify( entityWriteOps ).relationshipCreate( state, 1, 2, 3 );
     }
 
@@ -361,8 +360,7 @@ public class LockingStatementOperationsTest
 
             // THEN
             InOrder lockingOrder = inOrder( locks );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId, highId );
             lockingOrder.verifyNoMoreInteractions();
             reset( locks );
         }
@@ -373,8 +371,7 @@ public class LockingStatementOperationsTest
 
             // THEN
             InOrder lockingOrder = inOrder( locks );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId, highId );
             lockingOrder.verifyNoMoreInteractions();
         }
     }
@@ -403,8 +400,7 @@ public class LockingStatementOperationsTest
 
             // THEN
             InOrder lockingOrder = inOrder( locks );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId, highId );
             lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relationshipId );
             lockingOrder.verifyNoMoreInteractions();
             reset( locks );
@@ -425,8 +421,7 @@ public class LockingStatementOperationsTest
 
             // THEN
             InOrder lockingOrder = inOrder( locks );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId, highId );
             lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relationshipId );
             lockingOrder.verifyNoMoreInteractions();
         }
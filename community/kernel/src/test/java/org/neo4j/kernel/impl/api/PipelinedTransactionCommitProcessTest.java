@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TestableTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.rule.concurrent.ThreadingRule;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.helpers.Exceptions.contains;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+import static org.neo4j.test.rule.concurrent.ThreadingRule.waitingWhileIn;
+
+public class PipelinedTransactionCommitProcessTest
+{
+    @Rule
+    public final ThreadingRule threading = new ThreadingRule();
+
+    private final CommitEvent commitEvent = CommitEvent.NULL;
+    private final TransactionIdStore transactionIdStore = new SimpleTransactionIdStore();
+    private final TransactionAppender appender = new TestableTransactionAppender( transactionIdStore );
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final CountingMonitor monitor = new CountingMonitor();
+    private final PipelinedTransactionCommitProcess commitProcess =
+            new PipelinedTransactionCommitProcess( appender, storageEngine, monitor );
+
+    @Test
+    public void shouldFailWithProperMessageOnAppendException() throws Exception
+    {
+        TransactionAppender appender = mock( TransactionAppender.class );
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( new IOException( rootCause ) ).when( appender ).append( any( TransactionToApply.class ),
+                any( LogAppendEvent.class ) );
+        TransactionCommitProcess commitProcess =
+                new PipelinedTransactionCommitProcess( appender, storageEngine, monitor );
+
+        try
+        {
+            commitProcess.commit( transaction(), commitEvent, INTERNAL );
+            fail( "Should have failed, something is wrong with the mocking in this test" );
+        }
+        catch ( TransactionFailureException e )
+        {
+            assertThat( e.getMessage(), containsString( "Could not append transaction representation to log" ) );
+            assertTrue( contains( e, rootCause.getMessage(), rootCause.getClass() ) );
+        }
+    }
+
+    @Test
+    public void shouldCloseTransactionRegardlessOfWhetherOrNotItAppliedCorrectly() throws Exception
+    {
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( new IOException( rootCause ) ).when( storageEngine ).apply(
+                any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        TransactionToApply transaction = transaction();
+        AtomicBoolean closed = new AtomicBoolean();
+        transaction.onClose( txId -> closed.set( true ) );
+
+        try
+        {
+            commitProcess.commit( transaction, commitEvent, INTERNAL );
+            fail( "Should have failed, something is wrong with the mocking in this test" );
+        }
+        catch ( TransactionFailureException e )
+        {
+            assertThat( e.getMessage(), containsString( "Could not apply the transaction to the store" ) );
+            assertTrue( contains( e, rootCause.getMessage(), rootCause.getClass() ) );
+        }
+
+        assertTrue( closed.get() );
+        assertEquals( transactionIdStore.getLastCommittedTransactionId(),
+                transactionIdStore.getLastClosedTransactionId() );
+    }
+
+    @Test
+    public void shouldApplyBatchesThatQueueUpWhileAnotherBatchIsBeingAppliedAsOneGroup() throws Exception
+    {
+        // GIVEN a batch that is being applied, and blocks the apply stage
+        CountDownLatch applying = new CountDownLatch( 1 );
+        CountDownLatch releaseApply = new CountDownLatch( 1 );
+        List<Integer> appliedGroupSizes = new CopyOnWriteArrayList<>();
+        doAnswer( invocation ->
+        {
+            TransactionToApply batch = invocation.getArgument( 0 );
+            int size = 0;
+            for ( ; batch != null; batch = batch.next() )
+            {
+                size++;
+            }
+            appliedGroupSizes.add( size );
+            if ( appliedGroupSizes.size() == 1 )
+            {
+                applying.countDown();
+                releaseApply.await();
+            }
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        Future<Long> first = threading.execute( this::commit, transaction() );
+        applying.await();
+
+        // WHEN two more batches are appended to the log, and queue up for the apply stage
+        TransactionToApply second = transaction();
+        TransactionToApply third = transaction();
+        third.next( transaction() );
+        Future<Long> secondCommit = threading.executeAndAwait( this::commit, second,
+                waitingWhileIn( PipelinedTransactionCommitProcess.class, "applyToStore" ), 1, TimeUnit.MINUTES );
+        Future<Long> thirdCommit = threading.executeAndAwait( this::commit, third,
+                waitingWhileIn( PipelinedTransactionCommitProcess.class, "applyToStore" ), 1, TimeUnit.MINUTES );
+        releaseApply.countDown();
+        first.get();
+        secondCommit.get();
+        thirdCommit.get();
+
+        // THEN the queued up batches are applied together, and unlinked from each other afterwards
+        assertEquals( asList( 1, 3 ), appliedGroupSizes );
+        assertNull( second.next() );
+        assertEquals( 4, transactionIdStore.getLastClosedTransactionId() - TransactionIdStore.BASE_TX_ID );
+        assertEquals( 3, monitor.appends.get() );
+        assertEquals( 4, monitor.appliedTransactions.get() );
+        assertEquals( 2, monitor.appliedGroups.get() );
+    }
+
+    @Test
+    public void shouldApplyAllTransactionsFromConcurrentCommits() throws Exception
+    {
+        AtomicInteger appliedTransactions = new AtomicInteger();
+        doAnswer( invocation ->
+        {
+            for ( TransactionToApply batch = invocation.getArgument( 0 ); batch != null; batch = batch.next() )
+            {
+                appliedTransactions.incrementAndGet();
+            }
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+
+        List<Future<Long>> commits = threading.multiple( 8, ignore ->
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                commit( transaction() );
+            }
+            return 0L;
+        }, null );
+        ThreadingRule.await( commits );
+
+        assertEquals( 800, appliedTransactions.get() );
+        assertEquals( 800, transactionIdStore.getLastClosedTransactionId() - TransactionIdStore.BASE_TX_ID );
+    }
+
+    private long commit( TransactionToApply batch ) throws TransactionFailureException
+    {
+        return commitProcess.commit( batch, commitEvent, INTERNAL );
+    }
+
+    private static TransactionToApply transaction()
+    {
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( emptyList() );
+        transaction.setHeader( new byte[0], -1, -1, -1, -1, -1, -1 );
+        return new TransactionToApply( transaction );
+    }
+
+    private static class CountingMonitor implements PipelinedTransactionCommitProcess.Monitor
+    {
+        final AtomicLong appends = new AtomicLong();
+        final AtomicLong appliedGroups = new AtomicLong();
+        final AtomicLong appliedTransactions = new AtomicLong();
+
+        @Override
+        public void logAppended( long appendNanos )
+        {
+            appends.incrementAndGet();
+        }
+
+        @Override
+        public void applyStageWaited( long waitNanos )
+        {
+        }
+
+        @Override
+        public void storeApplied( int transactions, long applyNanos )
+        {
+            appliedGroups.incrementAndGet();
+            appliedTransactions.addAndGet( transactions );
+        }
+    }
+}
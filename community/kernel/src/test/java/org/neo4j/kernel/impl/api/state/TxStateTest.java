@@ -19,11 +19,14 @@
  */
 package org.neo4j.kernel.impl.api.state;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.RuleChain;
 import org.junit.rules.TestRule;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -31,19 +34,28 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.collection.primitive.PrimitiveIntCollections;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.cursor.Cursor;
+import org.neo4j.graphdb.TransactionTerminatedException;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.helpers.collection.Pair;
 import org.neo4j.internal.kernel.api.schema.constraints.ConstraintDescriptor;
+import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.api.schema.constaints.ConstraintDescriptorFactory;
 import org.neo4j.kernel.api.schema.constaints.UniquenessConstraintDescriptor;
 import org.neo4j.kernel.api.schema.index.IndexDescriptor;
 import org.neo4j.kernel.api.schema.index.IndexDescriptorFactory;
 import org.neo4j.kernel.api.txstate.TransactionState;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
 import org.neo4j.storageengine.api.Direction;
 import org.neo4j.storageengine.api.RelationshipItem;
 import org.neo4j.storageengine.api.txstate.PrimitiveLongReadableDiffSets;
@@ -51,6 +63,7 @@ import org.neo4j.storageengine.api.txstate.ReadableDiffSets;
 import org.neo4j.storageengine.api.txstate.TxStateVisitor;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.test.rule.RepeatRule;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueTuple;
 import org.neo4j.values.storable.Values;
@@ -73,10 +86,25 @@ import static org.neo4j.helpers.collection.Pair.of;
 import static org.neo4j.kernel.impl.api.state.StubCursors.cursor;
 import static org.neo4j.kernel.impl.api.state.StubCursors.relationship;
 
+@RunWith( Parameterized.class )
 public class TxStateTest
 {
     public final RandomRule random = new RandomRule();
 
+    @Parameterized.Parameter( 0 )
+    public String collectionsName;
+
+    @Parameterized.Parameter( 1 )
+    public CollectionsFactorySupplier collectionsFactorySupplier;
+
+    @Parameterized.Parameters( name = "{0}" )
+    public static List<Object[]> data()
+    {
+        CollectionsFactorySupplier offHeap = () -> new OffHeapCollectionsFactory( 0, NumberArrayFactory.HEAP );
+        return asList( new Object[]{"on heap", CollectionsFactorySupplier.ON_HEAP},
+                new Object[]{"off heap", offHeap} );
+    }
+
     @Rule
     public final TestRule repeatWithDifferentRandomization()
     {
@@ -94,7 +122,8 @@ public class TxStateTest
         state.nodeDoAddLabel( 2, 1 );
 
         // WHEN
-        Set<Integer> addedLabels = state.nodeStateLabelDiffSets( 1 ).getAdded();
+        Set<Integer> addedLabels =
+                PrimitiveIntCollections.toSet( state.nodeStateLabelDiffSets( 1 ).getAdded().iterator() );
 
         // THEN
         assertEquals( asSet( 1, 2 ), addedLabels );
@@ -109,7 +138,8 @@ public class TxStateTest
         state.nodeDoRemoveLabel( 2, 1 );
 
         // WHEN
-        Set<Integer> removedLabels = state.nodeStateLabelDiffSets( 1 ).getRemoved();
+        Set<Integer> removedLabels =
+                PrimitiveIntCollections.toSet( state.nodeStateLabelDiffSets( 1 ).getRemoved().iterator() );
 
         // THEN
         assertEquals( asSet( 1, 2 ), removedLabels );
@@ -127,7 +157,8 @@ public class TxStateTest
         state.nodeDoRemoveLabel( 1, 1 );
 
         // THEN
-        assertEquals( asSet( 2 ), state.nodeStateLabelDiffSets( 1 ).getAdded() );
+        assertEquals( asSet( 2 ),
+                PrimitiveIntCollections.toSet( state.nodeStateLabelDiffSets( 1 ).getAdded().iterator() ) );
     }
 
     @Test
@@ -142,7 +173,8 @@ public class TxStateTest
         state.nodeDoAddLabel( 1, 1 );
 
         // THEN
-        assertEquals( asSet( 2 ), state.nodeStateLabelDiffSets( 1 ).getRemoved() );
+        assertEquals( asSet( 2 ),
+                PrimitiveIntCollections.toSet( state.nodeStateLabelDiffSets( 1 ).getRemoved().iterator() ) );
     }
 
     @Test
@@ -157,12 +189,12 @@ public class TxStateTest
         state.nodeDoAddLabel( 3, 5 );
 
         // WHEN
-        Set<Long> removed = state.nodesWithAllLabelsChanged( 1, 2, 3 ).getRemoved();
-        Set<Long> added = state.nodesWithAllLabelsChanged( 1, 2, 3 ).getAdded();
+        PrimitiveLongSet removed = state.nodesWithAllLabelsChanged( 1, 2, 3 ).getRemoved();
+        PrimitiveLongSet added = state.nodesWithAllLabelsChanged( 1, 2, 3 ).getAdded();
 
         // THEN
-        assertEquals( asSet( 0L, 1L, 2L ), Iterables.asSet( removed ) );
-        assertEquals( asSet( 3L, 4L, 5L ), Iterables.asSet( added ) );
+        assertEquals( asSet( 0L, 1L, 2L ), toSet( removed ) );
+        assertEquals( asSet( 3L, 4L, 5L ), toSet( added ) );
     }
 
     @Test
@@ -176,10 +208,10 @@ public class TxStateTest
         state.nodeDoRemoveLabel( 2, 2 );
 
         // WHEN
-        Set<Long> nodes = state.nodesWithLabelChanged( 2 ).getRemoved();
+        PrimitiveLongSet nodes = state.nodesWithLabelChanged( 2 ).getRemoved();
 
         // THEN
-        assertEquals( asSet( 0L, 2L ), Iterables.asSet( nodes ) );
+        assertEquals( asSet( 0L, 2L ), toSet( nodes ) );
     }
 
     //endregion
@@ -921,7 +953,7 @@ public class TxStateTest
         state.nodeDoDelete( nodeId );
 
         // Then
-        assertThat( Iterables.asSet( state.addedAndRemovedNodes().getRemoved() ), equalTo( asSet( nodeId ) ) );
+        assertThat( toSet( state.addedAndRemovedNodes().getRemoved().iterator() ), equalTo( asSet( nodeId ) ) );
     }
 
     @Test
@@ -1553,6 +1585,93 @@ public class TxStateTest
         return false;
     }
 
+    @Test
+    public void shouldEstimateMemoryUsageOfChanges()
+    {
+        // GIVEN
+        assertEquals( 0, state.estimatedMemoryUsage() );
+
+        // WHEN
+        state.nodeDoCreate( 1 );
+        long afterNode = state.estimatedMemoryUsage();
+        state.nodeDoAddProperty( 1, 2, Values.stringValue( "a short string" ) );
+        long afterShortString = state.estimatedMemoryUsage();
+        state.nodeDoAddProperty( 1, 3, Values.stringValue( "a considerably longer string than the short one" ) );
+        long afterLongString = state.estimatedMemoryUsage();
+
+        // THEN
+        assertTrue( afterNode > 0 );
+        assertTrue( afterShortString > afterNode );
+        assertTrue( afterLongString - afterShortString > afterShortString - afterNode );
+    }
+
+    @Test
+    public void shouldNotEstimateMemoryUsageOfReads()
+    {
+        // GIVEN
+        state.nodeDoCreate( 1 );
+        state.nodeDoAddLabel( 2, 1 );
+        long estimate = state.estimatedMemoryUsage();
+
+        // WHEN
+        state.nodeIsAddedInThisTx( 1 );
+        state.nodeStateLabelDiffSets( 1 );
+
+        // THEN
+        assertEquals( estimate, state.estimatedMemoryUsage() );
+    }
+
+    @Test
+    public void shouldFailTheChangeThatExceedsTheMaximumEstimatedMemoryUsage()
+    {
+        // GIVEN
+        AtomicBoolean exceeded = new AtomicBoolean();
+        TxState limitedState = new TxState( 200, () -> exceeded.set( true ) );
+        limitedState.nodeDoCreate( 1 );
+        limitedState.nodeDoCreate( 2 );
+        assertFalse( exceeded.get() );
+
+        try
+        {
+            // WHEN
+            limitedState.nodeDoAddProperty( 1, 2, Values.stringValue( "a string that does not fit any more" ) );
+            fail( "Should have failed to exceed the maximum estimated memory usage" );
+        }
+        catch ( TransactionTerminatedException e )
+        {
+            // THEN
+            assertEquals( Status.Transaction.TransactionStateTooLarge, e.status() );
+        }
+        assertTrue( exceeded.get() );
+        assertTrue( limitedState.estimatedMemoryUsage() > 200 );
+    }
+
+    @Test
+    public void shouldNotCountDiffSetsKeptInNativeMemoryTowardsTheMaximumEstimatedMemoryUsage()
+    {
+        // GIVEN
+        OffHeapCollectionsFactory offHeapCollections = new OffHeapCollectionsFactory( 0, NumberArrayFactory.HEAP );
+        TxState limitedState = new TxState( offHeapCollections, 200,
+                () -> fail( "Should not have exceeded the maximum estimated memory usage" ) );
+        try
+        {
+            // WHEN
+            for ( long nodeId = 0; nodeId < 1_000; nodeId++ )
+            {
+                limitedState.nodeDoCreate( nodeId );
+            }
+
+            // THEN
+            assertTrue( limitedState.nodeIsAddedInThisTx( 999 ) );
+            assertTrue( offHeapCollections.memoryUsage() > 0 );
+            assertEquals( offHeapCollections.memoryUsage(), limitedState.estimatedMemoryUsage() );
+        }
+        finally
+        {
+            offHeapCollections.release();
+        }
+    }
+
     //endregion
 
     abstract class VisitationOrder extends TxStateVisitor.Adapter
@@ -1624,12 +1743,20 @@ public class TxStateTest
     private final IndexDescriptor indexOn_1_2 = IndexDescriptorFactory.forLabel( 1, 2 );
     private final IndexDescriptor indexOn_2_1 = IndexDescriptorFactory.forLabel( 2, 1 );
 
+    private CollectionsFactory collectionsFactory;
     private TransactionState state;
 
     @Before
     public void before()
     {
-        state = new TxState();
+        collectionsFactory = collectionsFactorySupplier.create();
+        state = new TxState( collectionsFactory, 0, () -> {} );
+    }
+
+    @After
+    public void after()
+    {
+        collectionsFactory.release();
     }
 
     private interface IndexUpdater
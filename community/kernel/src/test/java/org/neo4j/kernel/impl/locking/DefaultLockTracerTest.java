@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.LABEL;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+
+public class DefaultLockTracerTest
+{
+    private final FakeClock clock = Clocks.fakeClock();
+    private final DefaultLockTracer.Monitor monitor = mock( DefaultLockTracer.Monitor.class );
+    private final DefaultLockTracer tracer = new DefaultLockTracer( clock, monitor );
+
+    @Test
+    public void shouldReportWaitTimeWithResourceTypeWhenWaitEnds()
+    {
+        // given
+        LockWaitEvent nodeWait = tracer.waitForLock( true, NODE, 42 );
+        clock.forward( 3, TimeUnit.MILLISECONDS );
+        LockWaitEvent labelWait = tracer.waitForLock( false, LABEL, 1 );
+        clock.forward( 2, TimeUnit.MILLISECONDS );
+        verifyZeroInteractions( monitor );
+
+        // when
+        labelWait.close();
+        nodeWait.close();
+
+        // then
+        verify( monitor ).lockWaited( LABEL, false, TimeUnit.MILLISECONDS.toNanos( 2 ) );
+        verify( monitor ).lockWaited( NODE, true, TimeUnit.MILLISECONDS.toNanos( 5 ) );
+        verifyNoMoreInteractions( monitor );
+    }
+
+    @Test
+    public void shouldReportDeadlocksWithResourceType()
+    {
+        // when
+        tracer.deadlockDetected( NODE, 42 );
+
+        // then
+        verify( monitor ).deadlockDetected( NODE );
+        verifyNoMoreInteractions( monitor );
+    }
+}
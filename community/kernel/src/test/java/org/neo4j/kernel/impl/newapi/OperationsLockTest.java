@@ -136,8 +136,7 @@ public class OperationsLockTest
         long rId = operations.relationshipCreate( 1, 2, 3 );
 
         // then
-        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 1 );
-        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 3 );
+        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 1, 3 );
         order.verify( txState ).relationshipDoCreate( rId, 2, 1, 3 );
     }
 
@@ -155,8 +154,7 @@ public class OperationsLockTest
 
             // THEN
             InOrder lockingOrder = inOrder( locks );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId, highId );
             lockingOrder.verifyNoMoreInteractions();
             reset( locks );
         }
@@ -167,12 +165,27 @@ public class OperationsLockTest
 
             // THEN
             InOrder lockingOrder = inOrder( locks );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId, highId );
             lockingOrder.verifyNoMoreInteractions();
         }
     }
 
+    @Test
+    public void shouldOnlyLockTheNodeNotCreatedInThisTransactionWhenCreatingRelationship() throws Exception
+    {
+        // given
+        when( transaction.hasTxStateWithChanges() ).thenReturn( true );
+        txState.nodeDoCreate( 3 );
+
+        // when
+        operations.relationshipCreate( 3, 0, 5 );
+
+        // then
+        verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 5 );
+        verify( locks, never() ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 3 );
+        verify( locks, never() ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 3, 5 );
+    }
+
     @Test
     public void shouldAcquireNodeLocksWhenDeletingRelationshipInOrderOfAscendingId() throws Exception
     {
@@ -191,8 +204,7 @@ public class OperationsLockTest
 
             // THEN
             InOrder lockingOrder = inOrder( locks );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId, highId );
             lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relationshipId );
             lockingOrder.verifyNoMoreInteractions();
             reset( locks );
@@ -207,8 +219,7 @@ public class OperationsLockTest
 
             // THEN
             InOrder lockingOrder = inOrder( locks );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+            lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId, highId );
             lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relationshipId );
             lockingOrder.verifyNoMoreInteractions();
         }
@@ -23,9 +23,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import org.neo4j.graphdb.config.InvalidSettingException;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.mmap.MemoryMappedPageCache;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.PageCacheQuotas;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
@@ -37,9 +40,16 @@ import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_file_quotas;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_pages;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory_mapped;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_numa_partitions;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.read_only;
 import static org.neo4j.helpers.collection.MapUtil.stringMap;
 import static org.neo4j.kernel.impl.pagecache.PageSwapperFactoryForTesting.TEST_PAGESWAPPER_NAME;
 
@@ -77,6 +87,30 @@ public class ConfiguringPageCacheFactoryTest
         }
     }
 
+    @Test
+    public void shouldFitAsManyPagesAsItCanInPartitionedMemory()
+    {
+        // Given
+        long pageCount = 60;
+        long memory = MuninnPageCache.memoryRequiredForPages( pageCount );
+        Config config = Config.defaults( stringMap(
+                pagecache_memory.name(), Long.toString( memory ),
+                pagecache_huge_pages.name(), "true",
+                pagecache_numa_partitions.name(), "3" ) );
+
+        // When
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory(
+                fsRule.get(), config, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL,
+                NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY );
+
+        // Then
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( cache.pageSize(), equalTo( PageCache.PAGE_SIZE ) );
+            assertThat( cache.maxCachedPages(), equalTo( pageCount ) );
+        }
+    }
+
     @Test
     public void shouldWarnWhenCreatedWithConfiguredPageCache()
     {
@@ -133,4 +167,67 @@ public class ConfiguringPageCacheFactoryTest
         new ConfiguringPageCacheFactory( fsRule.get(), config, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL,
                 NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY ).getOrCreatePageCache().close();
     }
+
+    @Test
+    public void mustMemoryMapStoreFilesOfReadOnlyDatabasesWhenConfigured()
+    {
+        Config config = Config.defaults( stringMap(
+                pagecache_memory.name(), "8m",
+                pagecache_memory_mapped.name(), "true",
+                read_only.name(), "true" ) );
+
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory( fsRule.get(), config,
+                PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, NullLog.getInstance(),
+                EmptyVersionContextSupplier.EMPTY );
+
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( cache, instanceOf( MemoryMappedPageCache.class ) );
+        }
+    }
+
+    @Test
+    public void mustIgnoreMemoryMappingWhenDatabaseIsNotReadOnly()
+    {
+        Config config = Config.defaults( stringMap(
+                pagecache_memory.name(), "8m",
+                pagecache_memory_mapped.name(), "true" ) );
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory( fsRule.get(), config,
+                PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, logProvider.getLog( PageCache.class ),
+                EmptyVersionContextSupplier.EMPTY );
+
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( cache, instanceOf( MuninnPageCache.class ) );
+            logProvider.assertContainsMessageContaining( pagecache_memory_mapped.name() );
+        }
+    }
+
+    @Test
+    public void mustParseFileQuotas()
+    {
+        Config config = Config.defaults( pagecache_file_quotas, "neostore.propertystore.db*=25%, *.index = 10" );
+
+        assertThat( ConfiguringPageCacheFactory.buildQuotas( config ), is( not( PageCacheQuotas.NONE ) ) );
+    }
+
+    @Test
+    public void mustHaveNoQuotasByDefault()
+    {
+        assertThat( ConfiguringPageCacheFactory.buildQuotas( Config.defaults() ), is( PageCacheQuotas.NONE ) );
+    }
+
+    @Test( expected = InvalidSettingException.class )
+    public void mustThrowOnFileQuotaWithoutPercentage()
+    {
+        ConfiguringPageCacheFactory.buildQuotas( Config.defaults( pagecache_file_quotas, "neostore.nodestore.db" ) );
+    }
+
+    @Test( expected = InvalidSettingException.class )
+    public void mustThrowOnFileQuotaAboveHundredPercent()
+    {
+        ConfiguringPageCacheFactory.buildQuotas( Config.defaults( pagecache_file_quotas, "neostore.nodestore.db=150%" ) );
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.mmap.MemoryMappedPageCache;
+import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class MemoryMappedReadOnlyDatabaseIT
+{
+    private static final Label LABEL = Label.label( "Person" );
+    private static final int NODES = 100;
+
+    @Rule
+    public final TestDirectory directory = TestDirectory.testDirectory();
+
+    @Test
+    public void mustStartAndStopReadOnlyDatabaseWithMemoryMappedStoreFiles()
+    {
+        File storeDir = directory.graphDbDir();
+        createSomeData( storeDir );
+
+        GraphDatabaseService db = new TestGraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder( storeDir )
+                .setConfig( GraphDatabaseSettings.read_only, Settings.TRUE )
+                .setConfig( GraphDatabaseSettings.pagecache_memory_mapped, Settings.TRUE )
+                .newGraphDatabase();
+        try
+        {
+            PageCache pageCache = ((GraphDatabaseAPI) db).getDependencyResolver().resolveDependency( PageCache.class );
+            assertThat( pageCache, instanceOf( MemoryMappedPageCache.class ) );
+            try ( Transaction tx = db.beginTx() )
+            {
+                assertEquals( NODES, db.getAllNodes().stream().count() );
+                assertEquals( NODES, db.findNodes( LABEL ).stream().count() );
+                Node node = db.findNode( LABEL, "id", 42 );
+                assertEquals( 42, node.getProperty( "id" ) );
+                tx.success();
+            }
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private static void createSomeData( File storeDir )
+    {
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabase( storeDir );
+        try
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                db.schema().indexFor( LABEL ).on( "id" ).create();
+                tx.success();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                db.schema().awaitIndexesOnline( 1, TimeUnit.MINUTES );
+                tx.success();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < NODES; i++ )
+                {
+                    db.createNode( LABEL ).setProperty( "id", i );
+                }
+                tx.success();
+            }
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+}
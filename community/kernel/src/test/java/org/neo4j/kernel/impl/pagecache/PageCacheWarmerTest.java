@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+
+import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.test.OnDemandJobScheduler;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+public class PageCacheWarmerTest
+{
+    private static final int PAGE_COUNT = 20;
+    private static final long[] HOT_PAGES = {1, 3, 4, 5, 17};
+
+    private final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+    private final PageCacheRule pageCacheRule = new PageCacheRule();
+
+    @Rule
+    public final RuleChain rules = RuleChain.outerRule( fsRule ).around( pageCacheRule );
+
+    private FileSystemAbstraction fs;
+    private OnDemandJobScheduler scheduler;
+    private PageCacheWarmerMonitor monitor;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        fs = fsRule.get();
+        scheduler = new OnDemandJobScheduler();
+        monitor = mock( PageCacheWarmerMonitor.class );
+        file = new File( "store" ).getAbsoluteFile();
+        fs.mkdirs( file.getParentFile() );
+
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize(), CREATE );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < PAGE_COUNT; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    @Test
+    public void mustReheatProfiledPages() throws Exception
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( long pageId : HOT_PAGES )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                }
+            }
+            PageCacheWarmer warmer = newWarmer( pageCache );
+            assertEquals( HOT_PAGES.length, warmer.profile() );
+            verify( monitor ).profileCompleted( eq( (long) HOT_PAGES.length ), anyLong() );
+        }
+        assertTrue( fs.fileExists( new File( file.getParentFile(), file.getName() + PageCacheWarmer.PROFILE_SUFFIX ) ) );
+
+        pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = newWarmer( pageCache );
+            assertEquals( HOT_PAGES.length, warmer.reheat() );
+            verify( monitor ).warmupStarted( HOT_PAGES.length );
+            verify( monitor ).warmupCompleted( eq( (long) HOT_PAGES.length ), anyLong() );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                for ( long pageId : HOT_PAGES )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    assertNotEquals( UNBOUND_PAGE_ID, cursor.getCurrentPageId() );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mustNotOverwriteProfilesBeforeWarmupHasCompleted() throws Throwable
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = newWarmer( pageCache );
+            warmer.start();
+            warmer.stop();
+            verify( monitor, never() ).profileCompleted( anyLong(), anyLong() );
+            assertFalse( fs.fileExists( new File( file.getParentFile(), file.getName() + PageCacheWarmer.PROFILE_SUFFIX ) ) );
+
+            warmer.start();
+            scheduler.runJob();
+            warmer.stop();
+            verify( monitor, atLeastOnce() ).warmupCompleted( eq( 0L ), anyLong() );
+            assertTrue( fs.fileExists( new File( file.getParentFile(), file.getName() + PageCacheWarmer.PROFILE_SUFFIX ) ) );
+        }
+    }
+
+    @Test
+    public void mustReportProfilesThatCannotBeSaved() throws Exception
+    {
+        IOException failure = new IOException( "No space left on device" );
+        FileSystemAbstraction failingFs = new DelegatingFileSystemAbstraction( fs )
+        {
+            @Override
+            public OutputStream openAsOutputStream( File fileName, boolean append ) throws IOException
+            {
+                throw failure;
+            }
+        };
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( failingFs, pageCache, scheduler, monitor,
+                    Duration.ofMinutes( 1 ) );
+            assertEquals( 0, warmer.profile() );
+            verify( monitor ).profileFailed( failure );
+            assertFalse( fs.fileExists( new File( file.getParentFile(), file.getName() + PageCacheWarmer.PROFILE_SUFFIX ) ) );
+        }
+    }
+
+    private PageCacheWarmer newWarmer( PageCache pageCache )
+    {
+        return new PageCacheWarmer( fs, pageCache, scheduler, monitor, Duration.ofMinutes( 1 ) );
+    }
+}
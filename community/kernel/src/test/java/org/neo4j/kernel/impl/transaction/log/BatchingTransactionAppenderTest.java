@@ -28,6 +28,9 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
@@ -43,9 +46,12 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 import org.neo4j.kernel.internal.DatabaseHealth;
 import org.neo4j.kernel.lifecycle.LifeRule;
 import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.Race;
 import org.neo4j.test.rule.CleanupRule;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -53,8 +59,10 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyByte;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -63,6 +71,7 @@ import static org.mockito.Mockito.RETURNS_MOCKS;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -149,6 +158,30 @@ public class BatchingTransactionAppenderTest
         assertNull( tx.next() );
     }
 
+    @Test
+    public void shouldAppendSameBytesWhenSerializingCommandsConcurrently() throws Throwable
+    {
+        for ( boolean compressCommands : new boolean[]{false, true} )
+        {
+            // GIVEN
+            InMemoryClosableChannel serializedInLog = new InMemoryClosableChannel( 1_000_000 );
+            InMemoryClosableChannel serializedConcurrently = new InMemoryClosableChannel( 1_000_000 );
+
+            // WHEN
+            appendBatchOfTransactions( serializedInLog, compressCommands, false );
+            appendBatchOfTransactions( serializedConcurrently, compressCommands, true );
+
+            // THEN
+            assertTrue( serializedInLog.writerPosition() > 0 );
+            assertEquals( serializedInLog.writerPosition(), serializedConcurrently.writerPosition() );
+            byte[] expected = new byte[serializedInLog.writerPosition()];
+            byte[] actual = new byte[expected.length];
+            serializedInLog.get( expected, expected.length );
+            serializedConcurrently.get( actual, actual.length );
+            assertArrayEquals( expected, actual );
+        }
+    }
+
     @Test
     public void shouldAppendCommittedTransactions() throws Exception
     {
@@ -381,6 +414,82 @@ public class BatchingTransactionAppenderTest
 
     }
 
+    @Test
+    public void shouldReportGroupSizeOfLogForce() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        TransactionAppender appender = life.add( createTransactionAppender() );
+        GroupSizeCountingLogAppendEvent appendEvent = new GroupSizeCountingLogAppendEvent();
+
+        // WHEN
+        appender.append( new TransactionToApply( transaction( singleCreateNodeCommand( 0 ), new byte[0], 0, 0, 0, 1,
+                0 ) ), appendEvent );
+
+        // THEN
+        assertEquals( 1, appendEvent.forces.get() );
+        assertEquals( 1, appendEvent.forcedCommitters.get() );
+    }
+
+    @Test
+    public void shouldForceEveryCommitterExactlyOnceWhenHoldingBackForcesForGroupCommit() throws Throwable
+    {
+        // GIVEN
+        FlushablePositionAwareChannel channel = mock( FlushablePositionAwareChannel.class, RETURNS_MOCKS );
+        Flushable slowFlushable = () -> LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        when( channel.prepareForFlush() ).thenReturn( slowFlushable );
+        when( channel.putLong( anyLong() ) ).thenReturn( channel );
+        when( logFile.getWriter() ).thenReturn( channel );
+        BatchingTransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION,
+                positionCache, transactionIdStore, BYPASS, databaseHealth, TimeUnit.MILLISECONDS.toNanos( 10 ) ) );
+        GroupSizeCountingLogAppendEvent checkPointEvent = new GroupSizeCountingLogAppendEvent();
+        int threads = 8;
+        int checkPointsPerThread = 50;
+
+        // WHEN
+        Race race = new Race();
+        race.addContestants( threads, Race.throwing( () ->
+        {
+            for ( int i = 0; i < checkPointsPerThread; i++ )
+            {
+                appender.checkPoint( new LogPosition( 1L, 2L ), checkPointEvent );
+            }
+        } ) );
+        race.go();
+
+        // THEN
+        assertEquals( threads * checkPointsPerThread, checkPointEvent.forcedCommitters.get() );
+        assertTrue( checkPointEvent.forces.get() <= checkPointEvent.forcedCommitters.get() );
+        verify( databaseHealth, never() ).panic( any() );
+    }
+
+    private void appendBatchOfTransactions( FlushablePositionAwareChannel channel, boolean compressCommands,
+            boolean concurrentSerialization ) throws Throwable
+    {
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L, 3L, 4L );
+        BatchingTransactionAppender appender = new BatchingTransactionAppender( logFiles, NO_ROTATION,
+                positionCache, transactionIdStore, BYPASS, databaseHealth, 0, compressCommands,
+                concurrentSerialization );
+        appender.start();
+        try
+        {
+            Collection<StorageCommand> manyCommands = new ArrayList<>();
+            for ( int i = 0; i < 5_000; i++ )
+            {
+                manyCommands.addAll( singleCreateNodeCommand( i ) );
+            }
+            appender.append( batchOf(
+                    transaction( singleCreateNodeCommand( 0 ), new byte[]{1, 2, 5}, 2, 1, 12345, 1, 12355 ),
+                    transaction( manyCommands, new byte[0], 0, 0, 0, 1, 0 ),
+                    transaction( singleCreateNodeCommand( 2 ), new byte[0], 0, 0, 0, 1, 0 ) ), logAppendEvent );
+        }
+        finally
+        {
+            appender.stop();
+        }
+    }
+
     private BatchingTransactionAppender createTransactionAppender()
     {
         return new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore, BYPASS, databaseHealth );
@@ -424,4 +533,40 @@ public class BatchingTransactionAppenderTest
         }
         return first;
     }
+
+    private static class GroupSizeCountingLogAppendEvent extends LogAppendEvent.Empty implements LogCheckPointEvent
+    {
+        private final AtomicInteger forces = new AtomicInteger();
+        private final AtomicInteger forcedCommitters = new AtomicInteger();
+
+        @Override
+        public LogForceWaitEvent beginLogForceWait()
+        {
+            return LogForceWaitEvent.NULL;
+        }
+
+        @Override
+        public LogForceEvent beginLogForce()
+        {
+            forces.incrementAndGet();
+            return new LogForceEvent()
+            {
+                @Override
+                public void setGroupSize( int groupSize )
+                {
+                    forcedCommitters.addAndGet( groupSize );
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+
+        @Override
+        public void storeFlushed( long elapsedNanos )
+        {
+        }
+    }
 }
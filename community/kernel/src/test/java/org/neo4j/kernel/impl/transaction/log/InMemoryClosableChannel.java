@@ -126,6 +126,13 @@ public class InMemoryClosableChannel implements ReadableClosablePositionAwareCha
         return this;
     }
 
+    @Override
+    public InMemoryClosableChannel putAll( ByteBuffer source )
+    {
+        writer.putAll( source );
+        return this;
+    }
+
     public boolean isOpen()
     {
         return true;
@@ -415,6 +422,13 @@ public class InMemoryClosableChannel implements ReadableClosablePositionAwareCha
             return this;
         }
 
+        @Override
+        public Writer putAll( ByteBuffer source )
+        {
+            buffer.put( source );
+            return this;
+        }
+
         @Override
         public Flushable prepareForFlush()
         {
@@ -118,6 +118,37 @@ public class PhysicalFlushableChannelTest
         assertArrayEquals( bytes, writtenBytes );
     }
 
+    @Test
+    public void shouldBeAbleToWriteBufferGreaterThanTheBufferSize() throws IOException
+    {
+        final File firstFile = new File( directory.directory(), "file1" );
+        StoreChannel storeChannel = fileSystemRule.get().open( firstFile, OpenMode.READ_WRITE );
+        PhysicalLogVersionedStoreChannel versionedStoreChannel =
+                new PhysicalLogVersionedStoreChannel( storeChannel, 1, (byte) -1 /* ignored */ );
+        PhysicalFlushableChannel channel = new PhysicalFlushableChannel( versionedStoreChannel );
+
+        int length = 1_000_000;
+        byte[] bytes = generateBytes( length );
+        ByteBuffer source = ByteBuffer.allocateDirect( length + 10 );
+        source.put( bytes );
+        source.flip();
+
+        channel.put( (byte) 1 );
+        channel.putAll( source );
+        channel.close();
+
+        assertEquals( 0, source.remaining() );
+        assertEquals( length, source.limit() );
+        byte[] writtenBytes = new byte[length];
+        try ( InputStream in = new FileInputStream( firstFile ) )
+        {
+            assertEquals( 1, in.read() );
+            in.read( writtenBytes );
+        }
+
+        assertArrayEquals( bytes, writtenBytes );
+    }
+
     private byte[] generateBytes( int length )
     {
         Random random = new Random();
@@ -30,10 +30,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.core.StartupStatisticsProvider;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.command.Command;
@@ -42,6 +47,8 @@ import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotationImpl;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.util.monitoring.SilentProgressReporter;
 import org.neo4j.kernel.internal.DatabaseHealth;
@@ -60,6 +67,7 @@ import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -363,6 +371,87 @@ public class PhysicalLogicalTransactionStoreTest
 
     }
 
+    @Test
+    public void shouldFindTransactionsInOlderLogFilesThroughTheirPositionIndex() throws Exception
+    {
+        // GIVEN
+        TransactionIdStore transactionIdStore = new SimpleTransactionIdStore();
+        TransactionMetadataCache positionCache = new TransactionMetadataCache( 100 );
+        FileSystemAbstraction fs = fileSystemRule.get();
+        LifeSupport life = new LifeSupport();
+        LogFiles logFiles = LogFilesBuilder.builder( testDir, fs )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withRotationThreshold( ByteUnit.kibiBytes( 512 ) )
+                .withConfig( Config.defaults( GraphDatabaseSettings.tx_log_position_index, "true" ) ).build();
+        life.add( logFiles );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles,
+                new LogRotationImpl( mock( LogRotation.Monitor.class ), logFiles, DATABASE_HEALTH ), positionCache,
+                transactionIdStore, BYPASS, DATABASE_HEALTH ) );
+        life.start();
+        try
+        {
+            while ( logFiles.getHighestLogVersion() < 3 )
+            {
+                PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation(
+                        createNodeCommands( transactionIdStore.getLastCommittedTransactionId(), 10 ) );
+                transaction.setHeader( new byte[0], 1, 1, 0, transactionIdStore.getLastCommittedTransactionId(),
+                        0, -1 );
+                appender.append( new TransactionToApply( transaction ), LogAppendEvent.NULL );
+            }
+            LogicalTransactionStore store = new PhysicalLogicalTransactionStore( logFiles, positionCache,
+                    new VersionAwareLogEntryReader<>(), monitors, true );
+            File firstIndexFile = logFiles.getPositionIndexFileForVersion( 0 );
+            assertTrue( fs.fileExists( firstIndexFile ) );
+            assertFalse( fs.fileExists( logFiles.getPositionIndexFileForVersion( 3 ) ) );
+
+            // WHEN/THEN
+            long lastTransactionId = transactionIdStore.getLastCommittedTransactionId();
+            assertFindsTransactions( store, positionCache, lastTransactionId );
+
+            // WHEN/THEN an index which has gone missing is rebuilt
+            fs.deleteFile( firstIndexFile );
+            assertFindsTransactions( store, positionCache, lastTransactionId );
+            assertTrue( fs.fileExists( firstIndexFile ) );
+
+            // WHEN/THEN an index which doesn't belong to its log file is not used
+            fs.copyFile( firstIndexFile, logFiles.getPositionIndexFileForVersion( 1 ) );
+            assertFindsTransactions( store, positionCache, lastTransactionId );
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
+    private void assertFindsTransactions( LogicalTransactionStore store, TransactionMetadataCache positionCache,
+            long lastTransactionId ) throws IOException
+    {
+        for ( long transactionId = TransactionIdStore.BASE_TX_ID + 1; transactionId <= lastTransactionId;
+              transactionId += 7 )
+        {
+            positionCache.clear();
+            try ( TransactionCursor cursor = store.getTransactions( transactionId ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( transactionId, cursor.get().getCommitEntry().getTxId() );
+            }
+        }
+    }
+
+    private Collection<StorageCommand> createNodeCommands( long firstId, int count )
+    {
+        Collection<StorageCommand> commands = new ArrayList<>();
+        for ( long id = firstId; id < firstId + count; id++ )
+        {
+            NodeRecord before = new NodeRecord( id );
+            NodeRecord after = new NodeRecord( id );
+            after.setInUse( true );
+            commands.add( new Command.NodeCommand( before, after ) );
+        }
+        return commands;
+    }
+
     private void addATransactionAndRewind( LifeSupport life, LogFiles logFiles,
                                            TransactionMetadataCache positionCache,
                                            TransactionIdStore transactionIdStore,
@@ -426,6 +515,7 @@ public class PhysicalLogicalTransactionStoreTest
         private final long timeCommitted;
         private final long latestCommittedTxWhenStarted;
         private int visitedTransactions;
+        private CommittedTransactionRepresentation lastVisitedTransaction;
 
         FakeRecoveryVisitor( byte[] additionalHeader, int masterId, int authorId, long timeStarted, long timeCommitted,
                 long latestCommittedTxWhenStarted )
@@ -449,9 +539,16 @@ public class PhysicalLogicalTransactionStoreTest
             assertEquals( timeCommitted, transaction.getTimeCommitted() );
             assertEquals( latestCommittedTxWhenStarted, transaction.getLatestCommittedTxWhenStarted() );
             visitedTransactions++;
+            lastVisitedTransaction = tx;
             return false;
         }
 
+        @Override
+        public CommittedTransactionRepresentation lastAppliedTransaction()
+        {
+            return lastVisitedTransaction;
+        }
+
         int getVisitedTransactions()
         {
             return visitedTransactions;
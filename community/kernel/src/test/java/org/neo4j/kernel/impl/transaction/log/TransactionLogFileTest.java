@@ -28,12 +28,15 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.entry.IncompleteLogHeaderException;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
@@ -44,6 +47,7 @@ import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -64,6 +68,8 @@ public class TransactionLogFileTest
     @Rule
     public RuleChain ruleChain = RuleChain.outerRule( directory ).around( fileSystemRule ).around( life );
 
+    private static final long PREALLOCATED_SIZE = 10_000;
+
     private final LogVersionRepository logVersionRepository = new SimpleLogVersionRepository( 1L );
     private final TransactionIdStore transactionIdStore =
             new SimpleTransactionIdStore( 2L, 0, BASE_TX_COMMIT_TIMESTAMP, 0, 0 );
@@ -284,6 +290,93 @@ public class TransactionLogFileTest
         }
     }
 
+    @Test
+    public void shouldPreallocateLogFileAndTruncateItToItsEntriesOnShutdown() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fileSystemRule.get();
+        LogFiles logFiles = preallocatingLogFiles( fs );
+        life.add( logFiles );
+        File file = logFiles.getLogFileForVersion( logVersionRepository.getCurrentLogVersion() );
+        assertEquals( PREALLOCATED_SIZE, fs.getFileSize( file ) );
+
+        // WHEN
+        LogPosition endOfEntries = writeCheckPoint( logFiles );
+        life.shutdown();
+
+        // THEN
+        assertEquals( endOfEntries.getByteOffset(), fs.getFileSize( file ) );
+    }
+
+    @Test
+    public void shouldContinueAfterLastEntryOfPreallocatedLogFileWhenStartingWithoutCleanShutdown() throws Throwable
+    {
+        // GIVEN a preallocated log file with an entry, which is still open and so hasn't been truncated
+        FileSystemAbstraction fs = fileSystemRule.get();
+        LogFiles logFiles = preallocatingLogFiles( fs );
+        life.add( logFiles );
+        LogPosition endOfEntries = writeCheckPoint( logFiles );
+
+        // WHEN
+        LogFiles restartedLogFiles = preallocatingLogFiles( fs );
+        restartedLogFiles.init();
+        restartedLogFiles.start();
+
+        // THEN
+        LogPositionMarker positionMarker = new LogPositionMarker();
+        restartedLogFiles.getLogFile().getWriter().getCurrentPosition( positionMarker );
+        assertEquals( endOfEntries, positionMarker.newPosition() );
+        assertTrue( restartedLogFiles.hasAnyEntries( endOfEntries.getLogVersion() ) );
+    }
+
+    @Test
+    public void shouldReusePrunedLogFileForRotation() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fileSystemRule.get();
+        LogFiles logFiles = preallocatingLogFiles( fs );
+        life.add( logFiles );
+        long prunedVersion = logVersionRepository.getCurrentLogVersion();
+        writeCheckPoint( logFiles );
+        logFiles.getLogFile().rotate();
+        logFiles.getLogFile().rotate();
+
+        // WHEN
+        assertTrue( logFiles.recycle( prunedVersion ) );
+
+        // THEN only one log file is kept around for reuse
+        assertFalse( fs.fileExists( logFiles.getLogFileForVersion( prunedVersion ) ) );
+        assertFalse( logFiles.recycle( prunedVersion + 1 ) );
+        int filesInDirectory = fs.listFiles( directory.directory() ).length;
+
+        // and the rotation reuses the kept log file, zero filled beyond its new header
+        logFiles.getLogFile().rotate();
+        assertEquals( filesInDirectory, fs.listFiles( directory.directory() ).length );
+        long newVersion = logVersionRepository.getCurrentLogVersion();
+        assertEquals( newVersion, logFiles.extractHeader( newVersion ).logVersion );
+        assertFalse( logFiles.hasAnyEntries( newVersion ) );
+        assertEquals( PREALLOCATED_SIZE, fs.getFileSize( logFiles.getLogFileForVersion( newVersion ) ) );
+    }
+
+    private LogFiles preallocatingLogFiles( FileSystemAbstraction fs ) throws IOException
+    {
+        return LogFilesBuilder.builder( directory.directory(), fs )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withConfig( Config.defaults( GraphDatabaseSettings.preallocate_logical_logs, "true" ) )
+                .withRotationThreshold( PREALLOCATED_SIZE ).build();
+    }
+
+    private static LogPosition writeCheckPoint( LogFiles logFiles ) throws IOException
+    {
+        FlushablePositionAwareChannel writer = logFiles.getLogFile().getWriter();
+        new TransactionLogWriter( new LogEntryWriter( writer ) ).checkPoint( LogPosition.start( 0 ) );
+        writer.prepareForFlush().flush();
+        LogPositionMarker positionMarker = new LogPositionMarker();
+        writer.getCurrentPosition( positionMarker );
+        return positionMarker.newPosition();
+    }
+
     private byte[] readBytes( ReadableClosableChannel reader, int length ) throws IOException
     {
         byte[] result = new byte[length];
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.OnDemandJobScheduler;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.impl.transaction.log.checkpoint.BackgroundPageFlusher.FLUSH_PERIOD_MILLIS;
+import static org.neo4j.scheduler.JobScheduler.Groups.checkPoint;
+
+public class BackgroundPageFlusherTest
+{
+    private static final long CHECK_POINT_INTERVAL_MILLIS = 10 * FLUSH_PERIOD_MILLIS;
+
+    private final PageCache pageCache = mock( PageCache.class );
+    private final CheckPointer checkPointer = mock( CheckPointer.class );
+    private final IOLimiter ioLimiter = mock( IOLimiter.class );
+    private final OnDemandJobScheduler jobScheduler = spy( new OnDemandJobScheduler() );
+    private final FakeClock clock = Clocks.fakeClock();
+    private final CheckPointTracer tracer = mock( CheckPointTracer.class );
+    private final BackgroundPageFlusher flusher = new BackgroundPageFlusher( pageCache, checkPointer, ioLimiter,
+            jobScheduler, clock, CHECK_POINT_INTERVAL_MILLIS, tracer, NullLogProvider.getInstance() );
+
+    @Test
+    public void shouldSpreadTheDirtyPagesOverTheTimeLeftUntilTheNextCheckPoint() throws IOException
+    {
+        // given
+        when( pageCache.countDirtyPages() ).thenReturn( 1000L );
+        when( pageCache.flushDirtyPages( anyLong(), any( IOLimiter.class ) ) ).thenReturn( 100L );
+        flusher.start();
+
+        // when
+        flusher.flush();
+        clock.forward( CHECK_POINT_INTERVAL_MILLIS / 2, TimeUnit.MILLISECONDS );
+        flusher.flush();
+        clock.forward( CHECK_POINT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS );
+        flusher.flush();
+
+        // then
+        verify( pageCache ).flushDirtyPages( eq( 100L ), any( IOLimiter.class ) );
+        verify( pageCache ).flushDirtyPages( eq( 200L ), any( IOLimiter.class ) );
+        verify( pageCache ).flushDirtyPages( eq( 1000L ), any( IOLimiter.class ) );
+        verify( tracer, times( 3 ) ).backgroundFlush( 1000, 100 );
+    }
+
+    @Test
+    public void shouldExpectCheckPointsAsOftenAsTheyHaveBeenHappening() throws IOException
+    {
+        // given
+        when( pageCache.countDirtyPages() ).thenReturn( 1000L );
+        when( checkPointer.lastCheckPointedTransactionId() ).thenReturn( 1L );
+        flusher.start();
+
+        // when
+        clock.forward( 4 * FLUSH_PERIOD_MILLIS, TimeUnit.MILLISECONDS );
+        when( checkPointer.lastCheckPointedTransactionId() ).thenReturn( 42L );
+        flusher.flush();
+        clock.forward( FLUSH_PERIOD_MILLIS, TimeUnit.MILLISECONDS );
+        flusher.flush();
+
+        // then
+        verify( pageCache ).flushDirtyPages( eq( 250L ), any( IOLimiter.class ) );
+        verify( pageCache ).flushDirtyPages( eq( 334L ), any( IOLimiter.class ) );
+    }
+
+    @Test
+    public void shouldNotFlushWhenThereAreNoDirtyPages() throws IOException
+    {
+        // given
+        flusher.start();
+
+        // when
+        flusher.flush();
+
+        // then
+        verify( pageCache, never() ).flushDirtyPages( anyLong(), any( IOLimiter.class ) );
+        verify( tracer ).backgroundFlush( 0, 0 );
+    }
+
+    @Test
+    public void shouldRescheduleTheJobEvenIfTheFlushFails() throws IOException
+    {
+        // given
+        when( pageCache.countDirtyPages() ).thenReturn( 1000L );
+        when( pageCache.flushDirtyPages( anyLong(), any( IOLimiter.class ) ) ).thenThrow( new IOException( "boom" ) );
+        flusher.start();
+        assertNotNull( jobScheduler.getJob() );
+
+        // when
+        jobScheduler.runJob();
+
+        // then
+        verify( pageCache ).flushDirtyPages( anyLong(), any( IOLimiter.class ) );
+        verify( jobScheduler, times( 2 ) ).schedule( eq( checkPoint ), any( Runnable.class ),
+                eq( FLUSH_PERIOD_MILLIS ), eq( TimeUnit.MILLISECONDS ) );
+    }
+
+    @Test
+    public void shouldStopLimitingItsOwnFlushWithoutTouchingTheSharedLimiterWhenStopped() throws IOException
+    {
+        // given
+        Flushable flushable = mock( Flushable.class );
+        when( pageCache.countDirtyPages() ).thenReturn( 1000L );
+        when( ioLimiter.maybeLimitIO( anyLong(), anyInt(), any( Flushable.class ) ) ).thenReturn( 7L );
+        flusher.start();
+        flusher.flush();
+        ArgumentCaptor<IOLimiter> limiter = ArgumentCaptor.forClass( IOLimiter.class );
+        verify( pageCache ).flushDirtyPages( anyLong(), limiter.capture() );
+        assertEquals( 7L, limiter.getValue().maybeLimitIO( IOLimiter.INITIAL_STAMP, 1, flushable ) );
+        verify( ioLimiter ).maybeLimitIO( IOLimiter.INITIAL_STAMP, 1, flushable );
+        reset( ioLimiter );
+
+        // when
+        flusher.stop();
+
+        // then
+        assertEquals( 7L, limiter.getValue().maybeLimitIO( 7L, 1, flushable ) );
+        verify( ioLimiter, never() ).maybeLimitIO( anyLong(), anyInt(), any( Flushable.class ) );
+        verify( ioLimiter, never() ).disableLimit();
+        verify( ioLimiter, never() ).enableLimit();
+    }
+}
@@ -21,20 +21,28 @@ package org.neo4j.kernel.impl.transaction.log.checkpoint;
 
 import org.junit.Test;
 
+import java.io.File;
+import java.util.Collections;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.DefaultCheckPointerTracer.Monitor;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
 import org.neo4j.test.OnDemandJobScheduler;
 import org.neo4j.time.Clocks;
 import org.neo4j.time.FakeClock;
 
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
 
 public class DefaultCheckPointerTracerTest
 {
@@ -60,6 +68,49 @@ public class DefaultCheckPointerTracerTest
         verify( monitor, times( 1 ) ).lastCheckPointEventDuration( 30L );
     }
 
+    @Test
+    public void shouldBreakCheckPointsDownByFlushedFile()
+    {
+        File fileA = new File( "a" );
+        File fileB = new File( "b" );
+        PagedFileCounters countersA = mock( PagedFileCounters.class );
+        PagedFileCounters countersB = mock( PagedFileCounters.class );
+        when( countersA.file() ).thenReturn( fileA );
+        when( countersB.file() ).thenReturn( fileB );
+        when( countersA.flushTimeNanos() ).thenReturn( 0L, MILLISECONDS.toNanos( 7 ) );
+        when( countersA.flushWrites() ).thenReturn( 0L, 2L );
+        when( countersA.flushedBytes() ).thenReturn( 0L, 1000L );
+        when( countersB.flushTimeNanos() ).thenReturn( MILLISECONDS.toNanos( 5 ) );
+        when( countersB.flushWrites() ).thenReturn( 3L, 5L );
+        when( countersB.flushedBytes() ).thenReturn( 500L, 1000L );
+        PageCacheCounters pageCacheCounters = mock( PageCacheCounters.class );
+        when( pageCacheCounters.pagedFileCounters() ).thenReturn( asList( countersA, countersB ) );
+        DefaultCheckPointerTracer tracer = new DefaultCheckPointerTracer( clock, monitor, jobScheduler, pageCacheCounters );
+
+        triggerEvent( tracer, 20 );
+
+        // File b was not flushed by the check point, and the 1500 bytes were written in 4 write calls.
+        assertEquals( Collections.singletonMap( fileA, 7L ), tracer.lastCheckPointFileFlushTimeMillis() );
+        assertEquals( 375, tracer.checkPointBytesPerWrite() );
+    }
+
+    @Test
+    public void shouldTrackStoreFlushTimeAndBackgroundFlushes()
+    {
+        DefaultCheckPointerTracer tracer = new DefaultCheckPointerTracer( clock, monitor, jobScheduler );
+
+        tracer.backgroundFlush( 1000, 100 );
+        tracer.backgroundFlush( 900, 150 );
+        try ( LogCheckPointEvent event = tracer.beginCheckPoint() )
+        {
+            event.storeFlushed( MILLISECONDS.toNanos( 12 ) );
+        }
+
+        assertEquals( 900, tracer.dirtyPages() );
+        assertEquals( 250, tracer.backgroundFlushedPages() );
+        assertEquals( 12, tracer.lastCheckPointStoreFlushTimeMillis() );
+    }
+
     @Test
     public void shouldReturnZeroIfNoDataIsAvailable()
     {
@@ -69,6 +120,11 @@ public class DefaultCheckPointerTracerTest
 
         assertEquals( 0, tracer.numberOfCheckPointEvents() );
         assertEquals( 0, tracer.checkPointAccumulatedTotalTimeMillis() );
+        assertEquals( 0, tracer.checkPointBytesPerWrite() );
+        assertEquals( 0, tracer.lastCheckPointStoreFlushTimeMillis() );
+        assertEquals( 0, tracer.dirtyPages() );
+        assertEquals( 0, tracer.backgroundFlushedPages() );
+        assertTrue( tracer.lastCheckPointFileFlushTimeMillis().isEmpty() );
         verifyZeroInteractions( monitor );
     }
 
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class LogEntryWriterTest
+{
+    private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+
+    @Test
+    public void shouldWriteCommandsOfLargeTransactionAsOneCompressedEntry() throws IOException
+    {
+        // given
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 100_000 );
+        List<StorageCommand> commands = nodeCommands( 100 );
+
+        // when
+        new TransactionLogWriter( new LogEntryWriter( channel, true ) ).append( transaction( commands ), 42 );
+
+        // then
+        assertThat( logEntryReader.readLogEntry( channel ), instanceOf( LogEntryStart.class ) );
+        LogEntryCompressedCommands compressed = logEntryReader.readLogEntry( channel ).as();
+        assertEquals( commands, commandsOf( compressed.getCommands() ) );
+        assertThat( logEntryReader.readLogEntry( channel ), instanceOf( LogEntryCommit.class ) );
+        assertThat( channel.writerPosition(), lessThan( uncompressedSize( commands ) ) );
+    }
+
+    @Test
+    public void shouldWriteCommandsOfSmallTransactionUncompressed() throws IOException
+    {
+        // given
+        InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        List<StorageCommand> commands = nodeCommands( 1 );
+
+        // when
+        new TransactionLogWriter( new LogEntryWriter( channel, true ) ).append( transaction( commands ), 42 );
+
+        // then
+        assertThat( logEntryReader.readLogEntry( channel ), instanceOf( LogEntryStart.class ) );
+        LogEntryCommand command = logEntryReader.readLogEntry( channel ).as();
+        assertEquals( commands.get( 0 ), command.getCommand() );
+        assertThat( logEntryReader.readLogEntry( channel ), instanceOf( LogEntryCommit.class ) );
+    }
+
+    @Test
+    public void shouldReadCompressedAndUncompressedTransactionsThroughTheSameCursor() throws IOException
+    {
+        // given
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 100_000 );
+        List<StorageCommand> first = nodeCommands( 100 );
+        List<StorageCommand> second = nodeCommands( 50 );
+        List<StorageCommand> third = nodeCommands( 80 );
+        new TransactionLogWriter( new LogEntryWriter( channel, true ) ).append( transaction( first ), 1 );
+        new TransactionLogWriter( new LogEntryWriter( channel, false ) ).append( transaction( second ), 2 );
+        new TransactionLogWriter( new LogEntryWriter( channel, true ) ).append( transaction( third ), 3 );
+
+        // when
+        try ( PhysicalTransactionCursor<ReadableClosablePositionAwareChannel> cursor =
+                new PhysicalTransactionCursor<>( channel, logEntryReader ) )
+        {
+            // then
+            assertNextTransaction( cursor, 1, first );
+            assertNextTransaction( cursor, 2, second );
+            assertNextTransaction( cursor, 3, third );
+        }
+    }
+
+    @Test
+    public void closingCompressingWriterMustLeaveTheChannelOpen() throws IOException
+    {
+        // given
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 100_000 );
+        List<StorageCommand> commands = nodeCommands( 100 );
+        LogEntryWriter writer = new LogEntryWriter( channel, true );
+        new TransactionLogWriter( writer ).append( transaction( commands ), 42 );
+
+        // when
+        writer.close();
+        new TransactionLogWriter( new LogEntryWriter( channel, false ) ).append( transaction( commands ), 43 );
+
+        // then
+        try ( PhysicalTransactionCursor<ReadableClosablePositionAwareChannel> cursor =
+                new PhysicalTransactionCursor<>( channel, logEntryReader ) )
+        {
+            assertNextTransaction( cursor, 42, commands );
+            assertNextTransaction( cursor, 43, commands );
+        }
+    }
+
+    private static void assertNextTransaction( PhysicalTransactionCursor<?> cursor, long txId,
+            List<StorageCommand> expectedCommands ) throws IOException
+    {
+        assertTrue( cursor.next() );
+        CommittedTransactionRepresentation tx = cursor.get();
+        assertEquals( txId, tx.getCommitEntry().getTxId() );
+        List<StorageCommand> commands = new ArrayList<>();
+        tx.getTransactionRepresentation().accept( command ->
+        {
+            commands.add( command );
+            return false;
+        } );
+        assertEquals( expectedCommands, commands );
+    }
+
+    private static int uncompressedSize( List<StorageCommand> commands ) throws IOException
+    {
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 100_000 );
+        new TransactionLogWriter( new LogEntryWriter( channel ) ).append( transaction( commands ), 42 );
+        return channel.writerPosition();
+    }
+
+    private static List<StorageCommand> commandsOf( List<LogEntryCommand> entries )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( LogEntryCommand entry : entries )
+        {
+            commands.add( entry.getCommand() );
+        }
+        return commands;
+    }
+
+    private static List<StorageCommand> nodeCommands( int count )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            NodeRecord after = new NodeRecord( i, false, i * 2, i * 3 );
+            after.setInUse( true );
+            commands.add( new Command.NodeCommand( new NodeRecord( i ), after ) );
+        }
+        return commands;
+    }
+
+    private static PhysicalTransactionRepresentation transaction( List<StorageCommand> commands )
+    {
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( commands );
+        tx.setHeader( new byte[0], 1, 2, 3, 4, 5, 6 );
+        return tx;
+    }
+}
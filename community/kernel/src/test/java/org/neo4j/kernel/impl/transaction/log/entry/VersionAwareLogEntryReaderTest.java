@@ -125,6 +125,31 @@ public class VersionAwareLogEntryReaderTest
         assertEquals( checkPoint, logEntry );
     }
 
+    @Test
+    public void shouldReturnNullAtZeroFilledRemainderOfPreallocatedLog() throws IOException
+    {
+        // given
+        LogEntryVersion version = LogEntryVersion.CURRENT;
+        final CheckPoint checkPoint = new CheckPoint( version, new LogPosition( 42, 43 ) );
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+
+        channel.put( version.byteCode() );
+        channel.put( LogEntryByteCodes.CHECK_POINT );
+        channel.putLong( 42 );
+        channel.putLong( 43 );
+        int endOfEntries = channel.writerPosition();
+        channel.put( new byte[100], 100 );
+
+        // when
+        final LogEntry logEntry = logEntryReader.readLogEntry( channel.reader() );
+        final LogEntry endOfLog = logEntryReader.readLogEntry( channel.reader() );
+
+        // then
+        assertEquals( checkPoint, logEntry );
+        assertNull( endOfLog );
+        assertEquals( endOfEntries, channel.readerPosition() );
+    }
+
     @Test
     public void shouldReturnNullWhenThereIsNoCommand() throws IOException
     {
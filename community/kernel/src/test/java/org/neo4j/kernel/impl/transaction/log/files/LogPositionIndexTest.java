@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.files.LogPositionIndex.INDEX_INTERVAL;
+import static org.neo4j.kernel.impl.transaction.log.files.LogPositionIndex.NO_INDEX;
+
+public class LogPositionIndexTest
+{
+    private static final long LOG_VERSION = 3;
+    private static final long PREVIOUS_COMMITTED_TX_ID = 99;
+    private static final long LOG_FILE_SIZE = INDEX_INTERVAL * 10L;
+
+    @Rule
+    public final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+
+    private final File indexFile = new File( "index" );
+    private final File temporaryIndexFile = new File( "index.tmp" );
+
+    @Test
+    public void shouldFindClosestIndexedTransactionAtOrBeforeTheGivenOne() throws IOException
+    {
+        // given transactions 100, 101, ... each taking a quarter of the index interval
+        LogPositionIndex.Builder builder = new LogPositionIndex.Builder();
+        for ( int i = 0; i < 36; i++ )
+        {
+            builder.add( 100 + i, LOG_HEADER_SIZE + i * (INDEX_INTERVAL / 4) );
+        }
+        builder.write( fs(), indexFile, temporaryIndexFile, LOG_VERSION, PREVIOUS_COMMITTED_TX_ID );
+
+        // then only every fourth transaction is indexed
+        assertEquals( LOG_HEADER_SIZE, lookup( 100 ) );
+        assertEquals( LOG_HEADER_SIZE, lookup( 103 ) );
+        assertEquals( LOG_HEADER_SIZE + INDEX_INTERVAL, lookup( 104 ) );
+        assertEquals( LOG_HEADER_SIZE + INDEX_INTERVAL, lookup( 107 ) );
+        assertEquals( LOG_HEADER_SIZE + 8 * INDEX_INTERVAL, lookup( 135 ) );
+        assertEquals( LOG_HEADER_SIZE + 8 * INDEX_INTERVAL, lookup( 200 ) );
+        assertEquals( LOG_HEADER_SIZE, lookup( 50 ) );
+        assertFalse( fs().fileExists( temporaryIndexFile ) );
+    }
+
+    @Test
+    public void shouldNotUseIndexOfAnotherLogFile() throws IOException
+    {
+        // given
+        LogPositionIndex.Builder builder = new LogPositionIndex.Builder();
+        builder.add( 100, LOG_HEADER_SIZE );
+        builder.write( fs(), indexFile, temporaryIndexFile, LOG_VERSION, PREVIOUS_COMMITTED_TX_ID );
+
+        // then
+        assertEquals( NO_INDEX, LogPositionIndex.lookup( fs(), indexFile, LOG_VERSION + 1, PREVIOUS_COMMITTED_TX_ID,
+                LOG_FILE_SIZE, 100 ) );
+        assertEquals( NO_INDEX, LogPositionIndex.lookup( fs(), indexFile, LOG_VERSION, PREVIOUS_COMMITTED_TX_ID + 1,
+                LOG_FILE_SIZE, 100 ) );
+        assertEquals( NO_INDEX, LogPositionIndex.lookup( fs(), new File( "missing" ), LOG_VERSION,
+                PREVIOUS_COMMITTED_TX_ID, LOG_FILE_SIZE, 100 ) );
+    }
+
+    @Test
+    public void shouldNotUseIndexPointingBeyondTheEndOfTheLogFile() throws IOException
+    {
+        // given
+        LogPositionIndex.Builder builder = new LogPositionIndex.Builder();
+        builder.add( 100, LOG_HEADER_SIZE );
+        builder.add( 200, LOG_FILE_SIZE );
+        builder.write( fs(), indexFile, temporaryIndexFile, LOG_VERSION, PREVIOUS_COMMITTED_TX_ID );
+
+        // then
+        assertEquals( LOG_HEADER_SIZE, lookup( 150 ) );
+        assertEquals( NO_INDEX, lookup( 200 ) );
+    }
+
+    private long lookup( long transactionId ) throws IOException
+    {
+        return LogPositionIndex.lookup( fs(), indexFile, LOG_VERSION, PREVIOUS_COMMITTED_TX_ID, LOG_FILE_SIZE,
+                transactionId );
+    }
+
+    private EphemeralFileSystemAbstraction fs()
+    {
+        return fsRule.get();
+    }
+}
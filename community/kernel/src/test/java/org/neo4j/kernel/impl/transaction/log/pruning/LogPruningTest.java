@@ -41,6 +41,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -60,6 +61,8 @@ public class LogPruningTest
         logFiles = mock( LogFiles.class );
         doAnswer( inv -> new File( String.valueOf( inv.getArguments()[0] ) ) )
                 .when( logFiles ).getLogFileForVersion( anyLong() );
+        doAnswer( inv -> new File( "index." + inv.getArguments()[0] ) )
+                .when( logFiles ).getPositionIndexFileForVersion( anyLong() );
         logProvider = NullLogProvider.getInstance();
         clock = mock( Clock.class );
         factory = mock( LogPruneStrategyFactory.class );
@@ -74,11 +77,27 @@ public class LogPruningTest
         pruning.pruneLogs( 5 );
         InOrder order = inOrder( fs );
         order.verify( fs ).deleteFile( new File( "3" ) );
+        order.verify( fs ).deleteFile( new File( "index.3" ) );
         order.verify( fs ).deleteFile( new File( "4" ) );
+        order.verify( fs ).deleteFile( new File( "index.4" ) );
         // Log file 5 is not deleted; it's the lowest version expected to remain after pruning.
         verifyNoMoreInteractions( fs );
     }
 
+    @Test
+    public void mustNotDeleteLogFilesThatAreKeptForReuse() throws Exception
+    {
+        when( factory.strategyFromConfigValue( eq( fs ), eq( logFiles ), eq( clock ), anyString() ) )
+                .thenReturn( upTo -> LongStream.range( 3, upTo ) );
+        when( logFiles.recycle( 3 ) ).thenReturn( true );
+        LogPruning pruning = new LogPruningImpl( fs, logFiles, logProvider, factory, clock, config );
+        pruning.pruneLogs( 5 );
+        verify( fs ).deleteFile( new File( "index.3" ) );
+        verify( fs ).deleteFile( new File( "4" ) );
+        verify( fs ).deleteFile( new File( "index.4" ) );
+        verifyNoMoreInteractions( fs );
+    }
+
     @Test
     public void mustHaveLogFilesToPruneIfStrategyFindsFiles()
     {
@@ -23,7 +23,9 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -54,6 +56,7 @@ import org.neo4j.test.rule.DatabaseRule;
 import org.neo4j.test.rule.ImpermanentDatabaseRule;
 import org.neo4j.unsafe.batchinsert.internal.DirectRecordAccessSet;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -94,6 +97,35 @@ public class RelationshipCreatorTest
         assertFalse( tracker.relationshipLocksAcquired.isEmpty() );
     }
 
+    @Test
+    public void shouldLockFirstRelationshipsOfBothNodesInOneBatchInIdOrder()
+    {
+        // GIVEN
+        long endNodeId = createNodeWithRelationships( 2 );
+        long startNodeId = createNodeWithRelationships( 2 );
+        NeoStores neoStores = flipToNeoStores();
+
+        Tracker tracker = new Tracker( neoStores );
+        RelationshipGroupGetter groupGetter = new RelationshipGroupGetter( neoStores.getRelationshipGroupStore() );
+        RelationshipCreator relationshipCreator = new RelationshipCreator( groupGetter, 5 );
+        long startNodeFirstRelId = firstRelationship( tracker, startNodeId );
+        long endNodeFirstRelId = firstRelationship( tracker, endNodeId );
+
+        // WHEN
+        relationshipCreator.relationshipCreate( idGeneratorFactory.get( IdType.RELATIONSHIP ).nextId(), 0,
+                startNodeId, endNodeId, tracker, tracker );
+
+        // THEN
+        assertTrue( endNodeFirstRelId < startNodeFirstRelId );
+        assertArrayEquals( new long[]{endNodeFirstRelId, startNodeFirstRelId},
+                tracker.relationshipLockBatches.get( 0 ) );
+    }
+
+    private static long firstRelationship( RecordAccessSet records, long nodeId )
+    {
+        return records.getNodeRecords().getOrLoad( nodeId, null ).forReadingLinkage().getNextRel();
+    }
+
     private NeoStores flipToNeoStores()
     {
         return dbRule.getGraphDatabaseAPI().getDependencyResolver().resolveDependency(
@@ -121,6 +153,7 @@ public class RelationshipCreatorTest
         private final TrackingRecordAccess<RelationshipRecord, Void> relRecords;
         private final Set<Long> relationshipLocksAcquired = new HashSet<>();
         private final Set<Long> changedRelationships = new HashSet<>();
+        private final List<long[]> relationshipLockBatches = new ArrayList<>();
 
         Tracker( NeoStores neoStores )
         {
@@ -133,6 +166,7 @@ public class RelationshipCreatorTest
                 throws AcquireLockTimeoutException
         {
             assertEquals( ResourceTypes.RELATIONSHIP, resourceType );
+            relationshipLockBatches.add( resourceIds.clone() );
             for ( long resourceId : resourceIds )
             {
                 relationshipLocksAcquired.add( resourceId );
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
+import org.neo4j.unsafe.impl.batchimport.cache.PageCachedNumberArrayFactory;
+
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapCollectionsFactoryTest
+{
+    private static final int COUNT = 100_000;
+    private static final long MAX_MEMORY = 64 * 1024;
+
+    private final DefaultFileSystemRule fs = new DefaultFileSystemRule();
+    private final TestDirectory dir = TestDirectory.testDirectory();
+    private final RandomRule random = new RandomRule();
+    private final PageCacheRule pageCacheRule = new PageCacheRule();
+
+    @Rule
+    public final RuleChain ruleChain = RuleChain.outerRule( fs ).around( dir ).around( random ).around( pageCacheRule );
+
+    @Test
+    public void shouldKeepLongSetsInNativeMemory()
+    {
+        OffHeapCollectionsFactory collections = new OffHeapCollectionsFactory( 0, NumberArrayFactory.HEAP );
+
+        verifyLongSet( collections.newLongSet() );
+        assertThat( collections.memoryUsage(), greaterThan( 0L ) );
+
+        collections.release();
+        assertEquals( 0, collections.memoryUsage() );
+    }
+
+    @Test
+    public void shouldSpillLongSetsThatGrowPastMaxMemory()
+    {
+        OffHeapCollectionsFactory collections = new OffHeapCollectionsFactory( MAX_MEMORY, NumberArrayFactory.HEAP );
+
+        verifyLongSet( collections.newLongSet() );
+        assertThat( collections.memoryUsage(), lessThanOrEqualTo( MAX_MEMORY ) );
+
+        collections.release();
+        assertEquals( 0, collections.memoryUsage() );
+    }
+
+    @Test
+    public void shouldSpillLongSetsToThePageCacheAndDeleteTheFilesOnRelease()
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        OffHeapCollectionsFactory collections = new OffHeapCollectionsFactory( MAX_MEMORY,
+                new PageCachedNumberArrayFactory( pageCache, dir.directory() ) );
+
+        verifyLongSet( collections.newLongSet() );
+        assertThat( collections.memoryUsage(), lessThanOrEqualTo( MAX_MEMORY ) );
+
+        collections.release();
+        assertThat( dir.directory().list(), emptyArray() );
+    }
+
+    private void verifyLongSet( PrimitiveLongSet set )
+    {
+        Set<Long> expected = new HashSet<>();
+        for ( int i = 0; i < COUNT; i++ )
+        {
+            long value = random.nextLong( COUNT * 4L );
+            if ( random.nextInt( 4 ) == 0 )
+            {
+                assertEquals( expected.remove( value ), set.remove( value ) );
+            }
+            else
+            {
+                assertEquals( expected.add( value ), set.add( value ) );
+            }
+        }
+
+        assertEquals( expected.size(), set.size() );
+        for ( long value = 0; value < COUNT * 4L; value++ )
+        {
+            assertEquals( expected.contains( value ), set.contains( value ) );
+        }
+        Set<Long> visited = new HashSet<>();
+        set.visitKeys( value -> !visited.add( value ) );
+        assertEquals( expected, visited );
+
+        set.clear();
+        assertTrue( set.isEmpty() );
+        assertFalse( set.contains( expected.isEmpty() ? 0 : expected.iterator().next() ) );
+    }
+}
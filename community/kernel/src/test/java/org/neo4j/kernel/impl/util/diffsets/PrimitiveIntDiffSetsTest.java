@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.diffsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.collection.primitive.PrimitiveIntCollections.toSet;
+import static org.neo4j.helpers.collection.Iterators.asSet;
+
+public class PrimitiveIntDiffSetsTest
+{
+    @Test
+    public void newDiffSetIsEmpty()
+    {
+        assertTrue( new PrimitiveIntDiffSets().isEmpty() );
+    }
+
+    @Test
+    public void removeAndAddElementsToDiffSets()
+    {
+        PrimitiveIntDiffSets diffSets = new PrimitiveIntDiffSets();
+
+        diffSets.remove( 1 );
+        diffSets.remove( 2 );
+        diffSets.add( 1 );
+        diffSets.add( 2 );
+        diffSets.add( 3 );
+        diffSets.remove( 4 );
+
+        assertFalse( diffSets.isEmpty() );
+        assertEquals( asSet( 4 ), toSet( diffSets.getRemoved().iterator() ) );
+        assertEquals( asSet( 3 ), toSet( diffSets.getAdded().iterator() ) );
+        assertTrue( diffSets.isAdded( 3 ) );
+        assertTrue( diffSets.isRemoved( 4 ) );
+        assertFalse( diffSets.isAdded( 1 ) );
+        assertFalse( diffSets.isRemoved( 1 ) );
+        assertEquals( 0, diffSets.delta() );
+    }
+
+    @Test
+    public void clearRemovesAllChanges()
+    {
+        PrimitiveIntDiffSets diffSets = new PrimitiveIntDiffSets();
+        diffSets.add( 1 );
+        diffSets.remove( 2 );
+
+        diffSets.clear();
+
+        assertTrue( diffSets.isEmpty() );
+        assertFalse( diffSets.isAdded( 1 ) );
+        assertFalse( diffSets.isRemoved( 2 ) );
+    }
+}
@@ -152,7 +152,18 @@ public class PrimitiveLongDiffSetsTest
     }
 
     @Test
-    public void visitAddedAndRemovedElements()
+    public void augmentWithRemovalsOnlyFiltersRemovedElements()
+    {
+        PrimitiveLongDiffSets diffSet = createDiffSet();
+        diffSet.addAll( PrimitiveLongCollections.iterator( 9L, 10L ) );
+        diffSet.removeAll( PrimitiveLongCollections.iterator( 1L, 2L ) );
+
+        PrimitiveLongIterator augmentedIterator = diffSet.augmentWithRemovals( iterator( 1L, 5L, 6L ) );
+        assertEquals( asSet( 5L, 6L ), toSet( augmentedIterator ) );
+    }
+
+    @Test
+    public void visitAddedAndRemovedElements() throws Exception
     {
         PrimitiveLongDiffSets diffSet = createDiffSet();
         diffSet.addAll( PrimitiveLongCollections.iterator( 9L, 10L, 11L ) );
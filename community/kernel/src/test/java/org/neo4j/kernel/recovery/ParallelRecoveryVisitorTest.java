@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.storageengine.api.StorageEngine;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+
+public class ParallelRecoveryVisitorTest
+{
+    private final List<List<Long>> appliedBatches = Collections.synchronizedList( new ArrayList<>() );
+    private final StorageEngine storageEngine = batchRecordingStorageEngine();
+
+    @Test
+    public void shouldApplyTransactionsTouchingTheSameNodeInOrderInTheSameBatch() throws Exception
+    {
+        // when
+        try ( ParallelRecoveryVisitor visitor = new ParallelRecoveryVisitor( storageEngine, RECOVERY, 2,
+                new RecoveryMonitor()
+                {
+                } ) )
+        {
+            visitor.visit( transaction( 1, createNode( 10 ) ) );
+            visitor.visit( transaction( 2, createNode( 11 ) ) );
+            visitor.visit( transaction( 3, updateNode( 10 ) ) );
+        }
+
+        // then
+        assertThat( appliedBatches, containsInAnyOrder( asList( 1L, 3L ), singletonList( 2L ) ) );
+    }
+
+    @Test
+    public void shouldApplyTransactionsWithoutRecordCommandsOnTheirOwn() throws Exception
+    {
+        // when
+        try ( ParallelRecoveryVisitor visitor = new ParallelRecoveryVisitor( storageEngine, RECOVERY, 2,
+                new RecoveryMonitor()
+                {
+                } ) )
+        {
+            visitor.visit( transaction( 1, createNode( 10 ) ) );
+            visitor.visit( transaction( 2, new Command.LabelTokenCommand( new LabelTokenRecord( 0 ),
+                    new LabelTokenRecord( 0 ) ) ) );
+            visitor.visit( transaction( 3, createNode( 11 ) ) );
+        }
+
+        // then
+        assertEquals( asList( singletonList( 1L ), singletonList( 2L ), singletonList( 3L ) ), appliedBatches );
+    }
+
+    @Test
+    public void shouldNotApplyTransactionsAfterOneRemovingNodeValuesTogetherWithIt() throws Exception
+    {
+        // when
+        try ( ParallelRecoveryVisitor visitor = new ParallelRecoveryVisitor( storageEngine, RECOVERY, 2,
+                new RecoveryMonitor()
+                {
+                } ) )
+        {
+            visitor.visit( transaction( 1, createNode( 10 ) ) );
+            visitor.visit( transaction( 2, deleteNode( 11 ) ) );
+            visitor.visit( transaction( 3, createNode( 12 ) ) );
+        }
+
+        // then
+        assertEquals( 3, appliedBatches.size() );
+        assertThat( appliedBatches.subList( 0, 2 ), containsInAnyOrder( singletonList( 1L ), singletonList( 2L ) ) );
+        assertEquals( singletonList( 3L ), appliedBatches.get( 2 ) );
+    }
+
+    @Test
+    public void shouldOnlyReportTransactionsOfGroupsThatHaveBeenAppliedWhenApplyingAGroupFails() throws Exception
+    {
+        // given
+        StorageEngine failingEngine = mock( StorageEngine.class );
+        doAnswer( invocation ->
+        {
+            TransactionToApply batch = invocation.getArgument( 0 );
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                if ( tx.transactionId() == 4 )
+                {
+                    throw new IOException( "Failed to apply transaction 4" );
+                }
+            }
+            return null;
+        } ).when( failingEngine ).apply( any(), any() );
+        ParallelRecoveryVisitor visitor = new ParallelRecoveryVisitor( failingEngine, RECOVERY, 2,
+                new RecoveryMonitor()
+                {
+                } );
+
+        // when
+        visitor.visit( transaction( 1, createNode( 10 ) ) );
+        visitor.visit( transaction( 2, new Command.LabelTokenCommand( new LabelTokenRecord( 0 ),
+                new LabelTokenRecord( 0 ) ) ) );
+        assertEquals( 2, visitor.lastAppliedTransaction().getCommitEntry().getTxId() );
+        visitor.visit( transaction( 3, createNode( 11 ) ) );
+        visitor.visit( transaction( 4, createNode( 12 ) ) );
+        try
+        {
+            visitor.close();
+            fail( "Should have failed to apply the last group" );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertEquals( "Failed to apply transaction 4", e.getMessage() );
+        }
+        assertEquals( 2, visitor.lastAppliedTransaction().getCommitEntry().getTxId() );
+    }
+
+    private StorageEngine batchRecordingStorageEngine()
+    {
+        StorageEngine engine = mock( StorageEngine.class );
+        try
+        {
+            doAnswer( invocation ->
+            {
+                List<Long> txIds = new ArrayList<>();
+                TransactionToApply tx = invocation.getArgument( 0 );
+                while ( tx != null )
+                {
+                    txIds.add( tx.transactionId() );
+                    tx = tx.next();
+                }
+                appliedBatches.add( txIds );
+                return null;
+            } ).when( engine ).apply( any(), any() );
+        }
+        catch ( Exception e )
+        {
+            throw new AssertionError( e );
+        }
+        return engine;
+    }
+
+    private static Command createNode( long id )
+    {
+        NodeRecord after = new NodeRecord( id );
+        after.setInUse( true );
+        return new Command.NodeCommand( new NodeRecord( id ), after );
+    }
+
+    private static Command updateNode( long id )
+    {
+        NodeRecord before = new NodeRecord( id );
+        before.setInUse( true );
+        NodeRecord after = new NodeRecord( id );
+        after.setInUse( true );
+        after.setNextRel( 5 );
+        return new Command.NodeCommand( before, after );
+    }
+
+    private static Command deleteNode( long id )
+    {
+        NodeRecord before = new NodeRecord( id );
+        before.setInUse( true );
+        return new Command.NodeCommand( before, new NodeRecord( id ) );
+    }
+
+    private static CommittedTransactionRepresentation transaction( long txId, Command command )
+    {
+        PhysicalTransactionRepresentation representation =
+                new PhysicalTransactionRepresentation( singletonList( command ) );
+        representation.setHeader( new byte[0], 0, 0, 0, 0, 0, 0 );
+        LogEntryStart start = new LogEntryStart( 0, 0, 0, 0, new byte[0], LogPosition.UNSPECIFIED );
+        return new CommittedTransactionRepresentation( start, representation, new LogEntryCommit( txId, 0 ) );
+    }
+}
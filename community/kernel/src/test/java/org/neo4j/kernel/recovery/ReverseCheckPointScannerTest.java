@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.log.FlushablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
+import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.CHECK_POINT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+import static org.neo4j.kernel.recovery.ReverseCheckPointScanner.CHECK_POINT_ENTRY_SIZE;
+import static org.neo4j.kernel.recovery.ReverseCheckPointScanner.NO_CHECK_POINT;
+
+public class ReverseCheckPointScannerTest
+{
+    private static final int CHUNK_SIZE = 100;
+
+    @Rule
+    public final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+    @Rule
+    public final PageCacheRule pageCacheRule = new PageCacheRule();
+    private final File directory = new File( "/somewhere" );
+    private final LogEntryReader<ReadableClosablePositionAwareChannel> reader = new VersionAwareLogEntryReader<>();
+    private final LogVersionRepository logVersionRepository = new SimpleLogVersionRepository();
+    private final LifeSupport life = new LifeSupport();
+    private LogFiles logFiles;
+    private FlushablePositionAwareChannel channel;
+    private LogEntryWriter writer;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        fsRule.get().mkdirs( directory );
+        logFiles = LogFilesBuilder
+                .activeFilesBuilder( directory, fsRule, pageCacheRule.getPageCache( fsRule ) )
+                .withLogVersionRepository( logVersionRepository )
+                .build();
+        life.add( logFiles );
+        life.start();
+        channel = logFiles.getLogFile().getWriter();
+        writer = new LogEntryWriter( channel );
+    }
+
+    @Test
+    public void shouldFindNoCheckPointInLogWithoutCheckPoints() throws IOException
+    {
+        // given
+        for ( int i = 0; i < 50; i++ )
+        {
+            writeTransaction( i );
+        }
+
+        // when/then
+        assertEquals( NO_CHECK_POINT, findLastCheckPoint( 4 ) );
+    }
+
+    @Test
+    public void shouldFindLastCheckPointAmongManyChunks() throws IOException
+    {
+        // given check points at all kinds of offsets relative to the chunk boundaries
+        long lastCheckPoint = NO_CHECK_POINT;
+        for ( int i = 0; i < 50; i++ )
+        {
+            LogPosition checkPointed = writeTransaction( i );
+            if ( i % 7 == 3 )
+            {
+                lastCheckPoint = writeCheckPoint( checkPointed );
+            }
+        }
+        writeTransaction( 50 );
+
+        // when/then
+        for ( int threads = 1; threads <= 4; threads++ )
+        {
+            assertEquals( lastCheckPoint, findLastCheckPoint( threads ) );
+        }
+    }
+
+    @Test
+    public void shouldFindCheckPointAtTheVeryEndOfTheLog() throws IOException
+    {
+        // given
+        for ( int i = 0; i < 20; i++ )
+        {
+            writeTransaction( i );
+        }
+        long lastCheckPoint = writeCheckPoint( position() );
+
+        // when/then
+        assertEquals( lastCheckPoint, findLastCheckPoint( 2 ) );
+    }
+
+    @Test
+    public void shouldFindCheckPointPointingToPreviousLogFile() throws IOException
+    {
+        // given
+        LogPosition checkPointed = writeTransaction( 0 );
+        logFiles.getLogFile().rotate();
+        channel = logFiles.getLogFile().getWriter();
+        writer = new LogEntryWriter( channel );
+        for ( int i = 1; i < 20; i++ )
+        {
+            writeTransaction( i );
+        }
+        long lastCheckPoint = writeCheckPoint( checkPointed );
+        writeTransaction( 20 );
+
+        // when/then
+        assertEquals( lastCheckPoint, findLastCheckPoint( 2 ) );
+    }
+
+    @Test
+    public void shouldIgnoreCheckPointLookalikesInsideOtherEntries() throws IOException
+    {
+        // given a start entry, after the last check point, with header data that looks exactly like a check point
+        for ( int i = 0; i < 10; i++ )
+        {
+            writeTransaction( i );
+        }
+        long lastCheckPoint = writeCheckPoint( position() );
+        writeTransaction( 10 );
+        ByteBuffer lookalike = ByteBuffer.allocate( CHECK_POINT_ENTRY_SIZE );
+        lookalike.put( LogEntryVersion.CURRENT.byteCode() ).put( CHECK_POINT )
+                .putLong( logVersionRepository.getCurrentLogVersion() ).putLong( LOG_HEADER_SIZE );
+        writer.writeStartEntry( 0, 0, 0, 0, lookalike.array() );
+        writer.writeCommitEntry( 11, 0 );
+        writeTransaction( 12 );
+
+        // when/then
+        assertEquals( lastCheckPoint, findLastCheckPoint( 2 ) );
+    }
+
+    private long findLastCheckPoint( int threads ) throws IOException
+    {
+        channel.prepareForFlush().flush();
+        ReverseCheckPointScanner scanner = new ReverseCheckPointScanner( logFiles, reader, CHUNK_SIZE, threads );
+        try ( LogVersionedStoreChannel logChannel =
+                      logFiles.openForVersion( logVersionRepository.getCurrentLogVersion() ) )
+        {
+            return scanner.findLastCheckPoint( logChannel );
+        }
+    }
+
+    private LogPosition writeTransaction( long txId ) throws IOException
+    {
+        writer.writeStartEntry( 0, 0, 0, 0, new byte[0] );
+        writer.writeCommitEntry( txId, 0 );
+        return position();
+    }
+
+    private long writeCheckPoint( LogPosition checkPointed ) throws IOException
+    {
+        long entryPosition = position().getByteOffset();
+        writer.writeCheckPointEntry( checkPointed );
+        return entryPosition;
+    }
+
+    private LogPosition position() throws IOException
+    {
+        return channel.getCurrentPosition( new LogPositionMarker() ).newPosition();
+    }
+}
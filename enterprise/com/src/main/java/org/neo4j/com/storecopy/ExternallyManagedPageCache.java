@@ -93,6 +93,18 @@ public class ExternallyManagedPageCache implements PageCache
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public long flushDirtyPages( long maxPages, IOLimiter limiter ) throws IOException
+    {
+        return delegate.flushDirtyPages( maxPages, limiter );
+    }
+
+    @Override
+    public long countDirtyPages()
+    {
+        return delegate.countDirtyPages();
+    }
+
     @Override
     public int pageSize()
     {
@@ -64,6 +64,7 @@ public class TransactionStatusResult
     public final Long allocatedBytes;
     public final long pageHits;
     public final long pageFaults;
+    public final long estimatedTxStateBytes;
 
     public TransactionStatusResult( KernelTransactionHandle transaction,
             TransactionDependenciesResolver transactionDependenciesResolver,
@@ -83,6 +84,7 @@ public class TransactionStatusResult
         idleTimeMillis = statistic.getIdleTimeMillis();
         pageHits = statistic.getPageHits();
         pageFaults = statistic.getPageFaults();
+        estimatedTxStateBytes = statistic.getEstimatedTxStateBytes();
 
         if ( !querySnapshots.isEmpty() )
         {
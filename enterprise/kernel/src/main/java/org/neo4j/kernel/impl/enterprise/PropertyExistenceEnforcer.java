@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.function.Function;
 
 import org.neo4j.collection.primitive.Primitive;
@@ -170,7 +169,7 @@ class PropertyExistenceEnforcer
         }
 
         @Override
-        public void visitNodeLabelChanges( long id, Set<Integer> added, Set<Integer> removed )
+        public void visitNodeLabelChanges( long id, PrimitiveIntSet added, PrimitiveIntSet removed )
                 throws ConstraintValidationException
         {
             validateNode( id );
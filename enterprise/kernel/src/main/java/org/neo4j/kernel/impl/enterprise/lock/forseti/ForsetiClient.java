@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.enterprise.lock.forseti;
 
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -187,7 +188,7 @@ public class ForsetiClient implements Locks.Client
             PrimitiveLongIntMap heldShareLocks = sharedLockCounts[resourceType.typeId()];
             PrimitiveLongIntMap heldExclusiveLocks = exclusiveLockCounts[resourceType.typeId()];
 
-            for ( long resourceId : resourceIds )
+            for ( long resourceId : sorted( resourceIds ) )
             {
                 // First, check if we already hold this as a shared lock
                 int heldCount = heldShareLocks.get( resourceId );
@@ -266,11 +267,12 @@ public class ForsetiClient implements Locks.Client
                         waitEvent = tracer.waitForLock( false, resourceType, resourceId );
                     }
                     // And take note of who we are waiting for. This is used for deadlock detection.
-                    waitFor( existingLock, resourceType, resourceId, tries++ );
+                    waitFor( tracer, existingLock, resourceType, resourceId, tries++ );
                 }
 
                 // Make a local note about the fact that we now hold this lock
                 heldShareLocks.put( resourceId, 1 );
+                waitEvent = closeWaitEvent( waitEvent );
             }
         }
         finally
@@ -298,7 +300,7 @@ public class ForsetiClient implements Locks.Client
             ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
             PrimitiveLongIntMap heldLocks = exclusiveLockCounts[resourceType.typeId()];
 
-            for ( long resourceId : resourceIds )
+            for ( long resourceId : sorted( resourceIds ) )
             {
                 int heldCount = heldLocks.get( resourceId );
                 if ( heldCount != -1 )
@@ -335,10 +337,11 @@ public class ForsetiClient implements Locks.Client
                     {
                         waitEvent = tracer.waitForLock( true, resourceType, resourceId );
                     }
-                    waitFor( existingLock, resourceType, resourceId, tries++ );
+                    waitFor( tracer, existingLock, resourceType, resourceId, tries++ );
                 }
 
                 heldLocks.put( resourceId, 1 );
+                waitEvent = closeWaitEvent( waitEvent );
             }
         }
         finally
@@ -353,6 +356,37 @@ public class ForsetiClient implements Locks.Client
         }
     }
 
+    /**
+     * Resources are locked in ascending id order, such that clients locking overlapping batches of resources queue up
+     * behind each other, rather than each getting a part of the batch and then having to wait for the rest of it.
+     */
+    private static long[] sorted( long[] resourceIds )
+    {
+        for ( int i = 1; i < resourceIds.length; i++ )
+        {
+            if ( resourceIds[i - 1] > resourceIds[i] )
+            {
+                long[] sortedIds = resourceIds.clone();
+                Arrays.sort( sortedIds );
+                return sortedIds;
+            }
+        }
+        return resourceIds;
+    }
+
+    /**
+     * Ends the wait for a resource once it is locked, such that the wait for each resource in a batch is traced on
+     * its own.
+     */
+    private static LockWaitEvent closeWaitEvent( LockWaitEvent waitEvent )
+    {
+        if ( waitEvent != null )
+        {
+            waitEvent.close();
+        }
+        return null;
+    }
+
     @Override
     public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
     {
@@ -931,7 +965,7 @@ public class ForsetiClient implements Locks.Client
                     {
                         waitEvent = tracer.waitForLock( true, resourceType, resourceId );
                     }
-                    waitFor( sharedLock, resourceType, resourceId, tries++ );
+                    waitFor( tracer, sharedLock, resourceType, resourceId, tries++ );
                 }
 
                 return true;
@@ -963,7 +997,8 @@ public class ForsetiClient implements Locks.Client
         waitListCheckPoint = waitList.checkPointAndPut( waitListCheckPoint, clientId );
     }
 
-    private void waitFor( ForsetiLockManager.Lock lock, ResourceType type, long resourceId, int tries )
+    private void waitFor( LockTracer tracer, ForsetiLockManager.Lock lock, ResourceType type, long resourceId,
+            int tries )
     {
         waitingForLock = lock;
         clearWaitList();
@@ -995,6 +1030,7 @@ public class ForsetiClient implements Locks.Client
                 if ( isDeadlockReal( lock, tries ) )
                 {
                     // After checking several times, this really does look like a real deadlock.
+                    tracer.deadlockDetected( type, resourceId );
                     throw new DeadlockDetectedException( message );
                 }
             }
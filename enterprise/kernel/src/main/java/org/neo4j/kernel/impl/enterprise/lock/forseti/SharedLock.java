@@ -20,7 +20,6 @@
 package org.neo4j.kernel.impl.enterprise.lock.forseti;
 
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.neo4j.kernel.impl.util.collection.SimpleBitSet;
@@ -29,7 +28,7 @@ import org.neo4j.kernel.impl.util.collection.SimpleBitSet;
  * A Forseti share lock. Can be upgraded to an update lock, which will block new attempts at acquiring shared lock,
  * but will allow existing holders to complete.
  */
-class SharedLock implements ForsetiLockManager.Lock
+class SharedLock extends SharedLockRefCount implements ForsetiLockManager.Lock
 {
     /**
      * The update lock flag is inlined into the ref count integer, in order to allow common CAS operations across
@@ -44,10 +43,9 @@ class SharedLock implements ForsetiLockManager.Lock
      */
     private static final int MAX_HOLDERS = 4680;
 
-    // TODO Investigate inlining and padding the refCount.
-    // TODO My gut feeling tells me there's a high chance of false-sharing
-    // TODO on these unpadded AtomicIntegers.
-    private final AtomicInteger refCount = new AtomicInteger( 1 );
+    /** Padding after the reference count, see {@link SharedLockRefCount}. */
+    @SuppressWarnings( "unused" )
+    private long p8, p9, p10, p11, p12, p13, p14;
 
     /**
      * When reading this, keep in mind the main design goals here: Releasing and acquiring this lock should not require
@@ -147,10 +145,10 @@ class SharedLock implements ForsetiLockManager.Lock
     {
         while ( true )
         {
-            int refs = refCount.get();
+            int refs = refCount();
             if ( refs > 0 /* UPDATE_LOCK flips the sign bit, so refs will be < 0 if it is an update lock. */ )
             {
-                if ( refCount.compareAndSet( refs, refs | UPDATE_LOCK_FLAG ) )
+                if ( compareAndSetRefCount( refs, refs | UPDATE_LOCK_FLAG ) )
                 {
                     updateHolder = client;
                     return true;
@@ -167,9 +165,9 @@ class SharedLock implements ForsetiLockManager.Lock
     {
         while ( true )
         {
-            int refs = refCount.get();
+            int refs = refCount();
             cleanUpdateHolder();
-            if ( refCount.compareAndSet( refs, refs & ~UPDATE_LOCK_FLAG ) )
+            if ( compareAndSetRefCount( refs, refs & ~UPDATE_LOCK_FLAG ) )
             {
                 return;
             }
@@ -183,12 +181,12 @@ class SharedLock implements ForsetiLockManager.Lock
 
     public int numberOfHolders()
     {
-        return refCount.get() & ~UPDATE_LOCK_FLAG;
+        return refCount() & ~UPDATE_LOCK_FLAG;
     }
 
     public boolean isUpdateLock()
     {
-        return (refCount.get() & UPDATE_LOCK_FLAG) == UPDATE_LOCK_FLAG;
+        return (refCount() & UPDATE_LOCK_FLAG) == UPDATE_LOCK_FLAG;
     }
 
     @Override
@@ -239,7 +237,7 @@ class SharedLock implements ForsetiLockManager.Lock
         {
             return "UpdateLock{" +
                    "objectId=" + System.identityHashCode( this ) +
-                   ", refCount=" + (refCount.get() & ~UPDATE_LOCK_FLAG) +
+                   ", refCount=" + (refCount() & ~UPDATE_LOCK_FLAG) +
                    ", holder=" + updateHolder +
                    '}';
         }
@@ -247,7 +245,7 @@ class SharedLock implements ForsetiLockManager.Lock
         {
             return "SharedLock{" +
                    "objectId=" + System.identityHashCode( this ) +
-                   ", refCount=" + refCount +
+                   ", refCount=" + refCount() +
                    '}';
         }
     }
@@ -311,11 +309,11 @@ class SharedLock implements ForsetiLockManager.Lock
     {
         while ( true )
         {
-            int refs = refCount.get();
+            int refs = refCount();
             // UPDATE_LOCK flips the sign bit, so refs will be < 0 if it is an update lock.
             if ( refs > 0 && refs < MAX_HOLDERS )
             {
-                if ( refCount.compareAndSet( refs, refs + 1 ) )
+                if ( compareAndSetRefCount( refs, refs + 1 ) )
                 {
                     return true;
                 }
@@ -331,9 +329,9 @@ class SharedLock implements ForsetiLockManager.Lock
     {
         while ( true )
         {
-            int refAndUpdateFlag = refCount.get();
+            int refAndUpdateFlag = refCount();
             int newRefCount = (refAndUpdateFlag & ~UPDATE_LOCK_FLAG) - 1;
-            if ( refCount.compareAndSet( refAndUpdateFlag, newRefCount | (refAndUpdateFlag & UPDATE_LOCK_FLAG) ) )
+            if ( compareAndSetRefCount( refAndUpdateFlag, newRefCount | (refAndUpdateFlag & UPDATE_LOCK_FLAG) ) )
             {
                 return newRefCount == 0;
             }
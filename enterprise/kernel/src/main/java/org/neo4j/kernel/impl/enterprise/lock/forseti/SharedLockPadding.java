@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.lock.forseti;
+
+/**
+ * Padding that goes in front of the {@link SharedLockRefCount reference count} of a {@link SharedLock}. Fields of a
+ * super class are laid out before the fields of its sub classes, so these keep the reference count off the cache line
+ * of whatever object was allocated just before the lock.
+ */
+abstract class SharedLockPadding
+{
+    @SuppressWarnings( "unused" )
+    private long p1, p2, p3, p4, p5, p6, p7;
+}
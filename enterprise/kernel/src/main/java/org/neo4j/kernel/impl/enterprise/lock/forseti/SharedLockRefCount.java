@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.lock.forseti;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * The reference count of a {@link SharedLock}, which every client that takes or releases the lock does a CAS on.
+ * It is padded on both sides, by {@link SharedLockPadding} and by {@link SharedLock} itself, such that contended
+ * locks do not invalidate the cache lines of their neighbours, nor of the read-mostly fields of the lock itself.
+ */
+abstract class SharedLockRefCount extends SharedLockPadding
+{
+    private static final AtomicIntegerFieldUpdater<SharedLockRefCount> REF_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater( SharedLockRefCount.class, "refCount" );
+
+    private volatile int refCount = 1;
+
+    final int refCount()
+    {
+        return refCount;
+    }
+
+    final boolean compareAndSetRefCount( int expect, int update )
+    {
+        return REF_COUNT.compareAndSet( this, expect, update );
+    }
+}
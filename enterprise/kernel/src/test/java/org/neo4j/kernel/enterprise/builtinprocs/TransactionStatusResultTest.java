@@ -125,6 +125,7 @@ public class TransactionStatusResultTest
         assertEquals( Long.valueOf( 1 ), statusResult.allocatedBytes );
         assertEquals( 0L, statusResult.pageHits );
         assertEquals( 0L, statusResult.pageFaults );
+        assertEquals( 0L, statusResult.estimatedTxStateBytes );
     }
 
     private void checkTransactionStatus( TransactionStatusResult statusResult, String currentQuery,
@@ -149,6 +150,7 @@ public class TransactionStatusResultTest
         assertEquals( Long.valueOf( 1 ), statusResult.allocatedBytes );
         assertEquals( 0, statusResult.pageHits );
         assertEquals( 0, statusResult.pageFaults );
+        assertEquals( 0, statusResult.estimatedTxStateBytes );
     }
 
     private QuerySnapshot createQuerySnapshot( long queryId )
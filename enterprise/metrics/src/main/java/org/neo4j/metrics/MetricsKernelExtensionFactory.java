@@ -26,7 +26,6 @@ import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.spi.KernelContext;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.metrics.source.Neo4jMetricsBuilder;
-import org.neo4j.scheduler.JobScheduler;
 
 public class MetricsKernelExtensionFactory extends KernelExtensionFactory<MetricsKernelExtensionFactory.Dependencies>
 {
@@ -37,8 +36,6 @@ public class MetricsKernelExtensionFactory extends KernelExtensionFactory<Metric
         LogService logService();
 
         FileSystemAbstraction fileSystemAbstraction();
-
-        JobScheduler scheduler();
     }
 
     public MetricsKernelExtensionFactory()
@@ -95,6 +95,11 @@ public class MetricsSettings implements LoadableConfig
     public static Setting<Boolean> neoLogRotationEnabled = buildSetting(
             "metrics.neo4j.logrotation.enabled", BOOLEAN ).inherits( neoEnabled ).build();
 
+    @Description( "Enable reporting metrics about locking; how much time transactions spend waiting for locks on " +
+                  "each type of resource." )
+    public static Setting<Boolean> neoLocksEnabled = buildSetting(
+            "metrics.neo4j.locks.enabled", BOOLEAN ).inherits( neoEnabled ).build();
+
     @Description( "Enable reporting metrics about HA cluster info." )
     public static Setting<Boolean> neoClusterEnabled = buildSetting(
             "metrics.neo4j.cluster.enabled", BOOLEAN ).inherits( neoEnabled ).build();
@@ -49,6 +49,7 @@ import org.neo4j.metrics.source.db.BoltMetrics;
 import org.neo4j.metrics.source.db.CheckPointingMetrics;
 import org.neo4j.metrics.source.db.CypherMetrics;
 import org.neo4j.metrics.source.db.EntityCountMetrics;
+import org.neo4j.metrics.source.db.LockMetrics;
 import org.neo4j.metrics.source.db.LogRotationMetrics;
 import org.neo4j.metrics.source.db.PageCacheMetrics;
 import org.neo4j.metrics.source.db.TransactionMetrics;
@@ -57,6 +58,7 @@ import org.neo4j.metrics.source.jvm.MemoryBuffersMetrics;
 import org.neo4j.metrics.source.jvm.MemoryPoolMetrics;
 import org.neo4j.metrics.source.jvm.ThreadMetrics;
 import org.neo4j.metrics.source.server.ServerMetrics;
+import org.neo4j.scheduler.JobScheduler;
 
 public class Neo4jMetricsBuilder
 {
@@ -87,6 +89,8 @@ public class Neo4jMetricsBuilder
         Supplier<CoreMetaData> raft();
 
         Supplier<TransactionIdStore> transactionIdStore();
+
+        JobScheduler scheduler();
     }
 
     public Neo4jMetricsBuilder( MetricRegistry registry, EventReporter reporter, Config config, LogService logService,
@@ -106,14 +110,14 @@ public class Neo4jMetricsBuilder
         boolean result = false;
         if ( config.get( MetricsSettings.neoTxEnabled ) )
         {
-            life.add( new TransactionMetrics( registry, dependencies.transactionIdStore(),
+            life.add( new TransactionMetrics( registry, dependencies.monitors(), dependencies.transactionIdStore(),
                     dependencies.transactionCounters() ) );
             result = true;
         }
 
         if ( config.get( MetricsSettings.neoPageCacheEnabled ) )
         {
-            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters() ) );
+            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters(), dependencies.scheduler() ) );
             result = true;
         }
 
@@ -131,6 +135,12 @@ public class Neo4jMetricsBuilder
             result = true;
         }
 
+        if ( config.get( MetricsSettings.neoLocksEnabled ) )
+        {
+            life.add( new LockMetrics( registry, dependencies.monitors() ) );
+            result = true;
+        }
+
         if ( config.get( MetricsSettings.neoCountsEnabled ) )
         {
             if ( kernelContext.databaseInfo().edition != Edition.community &&
@@ -45,6 +45,19 @@ public class CheckPointingMetrics extends LifecycleAdapter
     public static final String CHECK_POINT_TOTAL_TIME = name( CHECK_POINT_PREFIX, "total_time" );
     @Documented( "The duration of the check point event" )
     public static final String CHECK_POINT_DURATION = name( CHECK_POINT_PREFIX, "check_point_duration" );
+    @Documented( "The average number of bytes written per write call, when flushing the store files in check points" )
+    public static final String CHECK_POINT_BYTES_PER_WRITE = name( CHECK_POINT_PREFIX, "bytes_per_write" );
+    @Documented( "The time spent flushing each of the store files in the check point" )
+    public static final String CHECK_POINT_FILE_FLUSH_TIME = name( CHECK_POINT_PREFIX, "file", "flush_time" );
+    @Documented( "The time the check point spent flushing and forcing the store files, which is how long it held up " +
+                 "the writing of the check point to the transaction log" )
+    public static final String CHECK_POINT_STALL_TIME = name( CHECK_POINT_PREFIX, "stall_time" );
+    @Documented( "The number of dirty pages in the page cache, as last counted by the background flushing in between " +
+                 "check points" )
+    public static final String CHECK_POINT_DIRTY_PAGES = name( CHECK_POINT_PREFIX, "dirty_pages" );
+    @Documented( "The total number of pages written by the background flushing in between check points" )
+    public static final String CHECK_POINT_BACKGROUND_FLUSHED_PAGES =
+            name( CHECK_POINT_PREFIX, "background_flushed_pages" );
 
     private final MetricRegistry registry;
     private final Monitors monitors;
@@ -61,6 +74,10 @@ public class CheckPointingMetrics extends LifecycleAdapter
         {
             TreeMap<String,Gauge> gauges = new TreeMap<>();
             gauges.put( CHECK_POINT_DURATION, () -> durationMillis );
+            long stallTimeMillis = checkPointerMonitor.lastCheckPointStoreFlushTimeMillis();
+            gauges.put( CHECK_POINT_STALL_TIME, () -> stallTimeMillis );
+            checkPointerMonitor.lastCheckPointFileFlushTimeMillis().forEach( ( file, flushTimeMillis ) ->
+                    gauges.put( name( CHECK_POINT_FILE_FLUSH_TIME, file.getName() ), () -> flushTimeMillis ) );
             reporter.report( gauges, emptySortedMap(), emptySortedMap(), emptySortedMap(), emptySortedMap() );
         };
     }
@@ -73,6 +90,10 @@ public class CheckPointingMetrics extends LifecycleAdapter
         registry.register( CHECK_POINT_EVENTS, (Gauge<Long>) checkPointerMonitor::numberOfCheckPointEvents );
         registry.register( CHECK_POINT_TOTAL_TIME,
                 (Gauge<Long>) checkPointerMonitor::checkPointAccumulatedTotalTimeMillis );
+        registry.register( CHECK_POINT_BYTES_PER_WRITE, (Gauge<Long>) checkPointerMonitor::checkPointBytesPerWrite );
+        registry.register( CHECK_POINT_DIRTY_PAGES, (Gauge<Long>) checkPointerMonitor::dirtyPages );
+        registry.register( CHECK_POINT_BACKGROUND_FLUSHED_PAGES,
+                (Gauge<Long>) checkPointerMonitor::backgroundFlushedPages );
     }
 
     @Override
@@ -82,5 +103,8 @@ public class CheckPointingMetrics extends LifecycleAdapter
 
         registry.remove( CHECK_POINT_EVENTS );
         registry.remove( CHECK_POINT_TOTAL_TIME );
+        registry.remove( CHECK_POINT_BYTES_PER_WRITE );
+        registry.remove( CHECK_POINT_DIRTY_PAGES );
+        registry.remove( CHECK_POINT_BACKGROUND_FLUSHED_PAGES );
     }
 }
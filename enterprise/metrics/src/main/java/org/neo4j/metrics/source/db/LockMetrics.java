@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.locking.DefaultLockTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Documented( ".Database Lock Metrics" )
+public class LockMetrics extends LifecycleAdapter
+{
+    private static final String LOCKS_PREFIX = "neo4j.locks";
+
+    @Documented( "The time spent waiting for locks, with one timer per type of locked resource, " +
+                 "for instance `neo4j.locks.wait.node`" )
+    public static final String LOCK_WAIT = name( LOCKS_PREFIX, "wait" );
+
+    @Documented( "The total number of transactions that failed because waiting for a lock would have deadlocked, " +
+                 "and that are typically retried" )
+    public static final String DEADLOCKS = name( LOCKS_PREFIX, "deadlocks" );
+
+    private final MetricRegistry registry;
+    private final Monitors monitors;
+    private final LockWaitMonitor lockWaitMonitor = new LockWaitMonitor();
+
+    public LockMetrics( MetricRegistry registry, Monitors monitors )
+    {
+        this.registry = registry;
+        this.monitors = monitors;
+    }
+
+    @Override
+    public void start()
+    {
+        monitors.addMonitorListener( lockWaitMonitor );
+        registry.register( DEADLOCKS, (Gauge<Long>) lockWaitMonitor.deadlocks::get );
+    }
+
+    @Override
+    public void stop()
+    {
+        monitors.removeMonitorListener( lockWaitMonitor );
+        lockWaitMonitor.waitTimers.clear();
+        registry.removeMatching( ( name, metric ) -> name.startsWith( LOCK_WAIT + "." ) );
+        registry.remove( DEADLOCKS );
+    }
+
+    private class LockWaitMonitor implements DefaultLockTracer.Monitor
+    {
+        final ConcurrentMap<String,Timer> waitTimers = new ConcurrentHashMap<>();
+        final AtomicLong deadlocks = new AtomicLong();
+
+        @Override
+        public void lockWaited( ResourceType resourceType, boolean exclusive, long waitNanos )
+        {
+            Timer waitTimer = waitTimers.computeIfAbsent( resourceType.name(),
+                    type -> registry.timer( name( LOCK_WAIT, type.toLowerCase() ) ) );
+            waitTimer.update( waitNanos, TimeUnit.NANOSECONDS );
+        }
+
+        @Override
+        public void deadlockDetected( ResourceType resourceType )
+        {
+            deadlocks.incrementAndGet();
+        }
+    }
+}
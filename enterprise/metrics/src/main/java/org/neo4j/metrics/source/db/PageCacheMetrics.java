@@ -22,9 +22,17 @@ package org.neo4j.metrics.source.db;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.kernel.impl.annotations.Documented;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.JobScheduler;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
@@ -52,13 +60,35 @@ public class PageCacheMetrics extends LifecycleAdapter
     @Documented( "The ratio of number of used pages to total number of available pages" )
     public static final String PC_USAGE_RATIO = name( PAGE_CACHE_PREFIX, "usage_ratio" );
 
+    private static final String PC_POLICY_PREFIX = name( PAGE_CACHE_PREFIX, "policy" );
+    @Documented( "The ratio of hits to the total number of lookups in the page cache, for the eviction policy " +
+                 "that the page cache uses, such that hit ratios observed under different policies can be told apart" )
+    public static final String PC_POLICY_HIT_RATIO = name( PC_POLICY_PREFIX, "hit_ratio" );
+
+    private static final String PC_FILE_PREFIX = name( PAGE_CACHE_PREFIX, "file" );
+    @Documented( "The number of pages of each mapped file, that are currently in the page cache" )
+    public static final String PC_FILE_RESIDENT_PAGES = name( PC_FILE_PREFIX, "resident_pages" );
+    @Documented( "The total number of page faults happened in the page cache, for each mapped file" )
+    public static final String PC_FILE_PAGE_FAULTS = name( PC_FILE_PREFIX, "page_faults" );
+    @Documented( "The total number of page evictions executed by the page cache, for each mapped file" )
+    public static final String PC_FILE_EVICTIONS = name( PC_FILE_PREFIX, "evictions" );
+
+    // Files are mapped and unmapped while the database is running, so the per-file metrics are kept up to date by
+    // a recurring job.
+    private static final long FILE_METRICS_UPDATE_INTERVAL_SECONDS = 1;
+
     private final MetricRegistry registry;
     private final PageCacheCounters pageCacheCounters;
+    private final JobScheduler scheduler;
+    private final Map<String,PagedFileCounters> registeredFileCounters = new HashMap<>();
+    private JobScheduler.JobHandle fileMetricsUpdater;
+    private String policyHitRatioName;
 
-    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters )
+    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters, JobScheduler scheduler )
     {
         this.registry = registry;
         this.pageCacheCounters = pageCacheCounters;
+        this.scheduler = scheduler;
     }
 
     @Override
@@ -73,6 +103,15 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.register( PC_EVICTION_EXCEPTIONS, (Gauge<Long>) pageCacheCounters::evictionExceptions );
         registry.register( PC_HIT_RATIO, (Gauge<Double>) pageCacheCounters::hitRatio );
         registry.register( PC_USAGE_RATIO, (Gauge<Double>) pageCacheCounters::usageRatio );
+        String evictionPolicy = pageCacheCounters.evictionPolicy();
+        if ( !evictionPolicy.isEmpty() )
+        {
+            policyHitRatioName = policyHitRatioName( evictionPolicy );
+            registry.register( policyHitRatioName, (Gauge<Double>) pageCacheCounters::hitRatio );
+        }
+        updateFileMetrics();
+        fileMetricsUpdater = scheduler.scheduleRecurring( JobScheduler.Groups.metricsEvent, this::updateFileMetrics,
+                FILE_METRICS_UPDATE_INTERVAL_SECONDS, TimeUnit.SECONDS );
     }
 
     @Override
@@ -87,5 +126,81 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.remove( PC_EVICTION_EXCEPTIONS );
         registry.remove( PC_HIT_RATIO );
         registry.remove( PC_USAGE_RATIO );
+        if ( policyHitRatioName != null )
+        {
+            registry.remove( policyHitRatioName );
+            policyHitRatioName = null;
+        }
+        if ( fileMetricsUpdater != null )
+        {
+            fileMetricsUpdater.cancel( false );
+            fileMetricsUpdater = null;
+        }
+        removeAllFileMetrics();
+    }
+
+    /**
+     * Register the metrics of newly mapped files, and remove the metrics of files that are no longer mapped.
+     */
+    synchronized void updateFileMetrics()
+    {
+        Map<String,PagedFileCounters> mappedFileCounters = new HashMap<>();
+        for ( PagedFileCounters counters : pageCacheCounters.pagedFileCounters() )
+        {
+            mappedFileCounters.putIfAbsent( fileMetricName( counters ), counters );
+        }
+
+        Iterator<Map.Entry<String,PagedFileCounters>> registered = registeredFileCounters.entrySet().iterator();
+        while ( registered.hasNext() )
+        {
+            Map.Entry<String,PagedFileCounters> entry = registered.next();
+            if ( mappedFileCounters.get( entry.getKey() ) != entry.getValue() )
+            {
+                removeFileMetrics( entry.getKey() );
+                registered.remove();
+            }
+        }
+
+        for ( Map.Entry<String,PagedFileCounters> entry : mappedFileCounters.entrySet() )
+        {
+            String fileName = entry.getKey();
+            PagedFileCounters counters = entry.getValue();
+            if ( !registeredFileCounters.containsKey( fileName ) )
+            {
+                registry.register( name( PC_FILE_RESIDENT_PAGES, fileName ), (Gauge<Long>) counters::residentPages );
+                registry.register( name( PC_FILE_PAGE_FAULTS, fileName ), (Gauge<Long>) counters::faults );
+                registry.register( name( PC_FILE_EVICTIONS, fileName ), (Gauge<Long>) counters::evictions );
+                registeredFileCounters.put( fileName, counters );
+            }
+        }
+    }
+
+    private synchronized void removeAllFileMetrics()
+    {
+        registeredFileCounters.keySet().forEach( this::removeFileMetrics );
+        registeredFileCounters.clear();
+    }
+
+    private void removeFileMetrics( String fileName )
+    {
+        registry.remove( name( PC_FILE_RESIDENT_PAGES, fileName ) );
+        registry.remove( name( PC_FILE_PAGE_FAULTS, fileName ) );
+        registry.remove( name( PC_FILE_EVICTIONS, fileName ) );
+    }
+
+    /**
+     * The name of the hit ratio metric of the given eviction policy,
+     * such as {@code neo4j.page_cache.policy.hit_ratio.clock}.
+     */
+    public static String policyHitRatioName( String evictionPolicy )
+    {
+        String policyName = evictionPolicy.toLowerCase( Locale.ROOT ).replaceAll( "[^a-z0-9_\\-]", "_" );
+        return name( PC_POLICY_HIT_RATIO, policyName );
+    }
+
+    private static String fileMetricName( PagedFileCounters counters )
+    {
+        // Dots separate the parts of metric names, so they cannot be used within the file name part.
+        return counters.file().getName().replaceAll( "[^A-Za-z0-9_\\-]", "_" );
     }
 }
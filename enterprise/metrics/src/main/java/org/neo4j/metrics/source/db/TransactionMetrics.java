@@ -20,14 +20,20 @@
 package org.neo4j.metrics.source.db;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.api.DefaultTransactionTracer;
+import org.neo4j.kernel.impl.api.PipelinedTransactionCommitProcess;
 import org.neo4j.kernel.impl.transaction.TransactionCounters;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
@@ -74,14 +80,52 @@ public class TransactionMetrics extends LifecycleAdapter
     @Documented( "The ID of the last closed transaction" )
     public static final String LAST_CLOSED_TX_ID = name( TRANSACTION_PREFIX, "last_closed_tx_id" );
 
+    @Documented( "The time spent appending batches of committing transactions to the transaction log, including " +
+                 "forcing the log, when pipelined commits are enabled" )
+    public static final String COMMIT_LOG_APPEND = name( TRANSACTION_PREFIX, "commit", "log_append" );
+    @Documented( "The time batches of committed transactions wait for the store apply stage, when pipelined " +
+                 "commits are enabled" )
+    public static final String COMMIT_APPLY_WAIT = name( TRANSACTION_PREFIX, "commit", "apply_wait" );
+    @Documented( "The time spent applying groups of committed transactions to the store, when pipelined commits are " +
+                 "enabled" )
+    public static final String COMMIT_STORE_APPLY = name( TRANSACTION_PREFIX, "commit", "store_apply" );
+    @Documented( "The number of transactions in each group applied to the store, when pipelined commits are enabled" )
+    public static final String COMMIT_APPLY_GROUP_SIZE = name( TRANSACTION_PREFIX, "commit", "apply_group_size" );
+    @Documented( "The time spent forcing the transaction log to disk" )
+    public static final String COMMIT_LOG_FORCE = name( TRANSACTION_PREFIX, "commit", "log_force" );
+    @Documented( "The number of committers whose transactions were made durable by each force of the transaction log" )
+    public static final String COMMIT_FORCE_GROUP_SIZE = name( TRANSACTION_PREFIX, "commit", "force_group_size" );
+
+    @Documented( "The time each committing write transaction spends acquiring the locks deferred until commit" )
+    public static final String COMMIT_PHASE_LOCK_ACQUISITION =
+            name( TRANSACTION_PREFIX, "commit", "phase", "lock_acquisition" );
+    @Documented( "The time each committing write transaction spends turning its transaction state into commands" )
+    public static final String COMMIT_PHASE_COMMAND_EXTRACTION =
+            name( TRANSACTION_PREFIX, "commit", "phase", "command_extraction" );
+    @Documented( "The time each committing write transaction spends appending its commands to the transaction log, " +
+                 "not counting the wait for the log to be forced" )
+    public static final String COMMIT_PHASE_LOG_APPEND = name( TRANSACTION_PREFIX, "commit", "phase", "log_append" );
+    @Documented( "The time each committing write transaction waits for the transaction log to be forced" )
+    public static final String COMMIT_PHASE_LOG_FORCE_WAIT =
+            name( TRANSACTION_PREFIX, "commit", "phase", "log_force_wait" );
+    @Documented( "The time each committing write transaction spends being applied to the store and indexes" )
+    public static final String COMMIT_PHASE_STORE_APPLY = name( TRANSACTION_PREFIX, "commit", "phase", "store_apply" );
+    @Documented( "The total time each write transaction spends committing" )
+    public static final String COMMIT_PHASE_TOTAL = name( TRANSACTION_PREFIX, "commit", "phase", "total" );
+
     private final MetricRegistry registry;
+    private final Monitors monitors;
     private final TransactionCounters transactionCounters;
     private final Supplier<TransactionIdStore> transactionIdStore;
+    private final CommitStagesMonitor commitStagesMonitor = new CommitStagesMonitor();
+    private final LogForceMonitor logForceMonitor = new LogForceMonitor();
+    private final CommitMonitor commitMonitor = new CommitMonitor();
 
-    public TransactionMetrics( MetricRegistry registry,
+    public TransactionMetrics( MetricRegistry registry, Monitors monitors,
             Supplier<TransactionIdStore> transactionIdStore, TransactionCounters transactionCounters )
     {
         this.registry = registry;
+        this.monitors = monitors;
         this.transactionIdStore = transactionIdStore;
         this.transactionCounters = transactionCounters;
     }
@@ -89,6 +133,22 @@ public class TransactionMetrics extends LifecycleAdapter
     @Override
     public void start()
     {
+        commitStagesMonitor.logAppend = registry.timer( COMMIT_LOG_APPEND );
+        commitStagesMonitor.applyWait = registry.timer( COMMIT_APPLY_WAIT );
+        commitStagesMonitor.storeApply = registry.timer( COMMIT_STORE_APPLY );
+        commitStagesMonitor.applyGroupSize = registry.histogram( COMMIT_APPLY_GROUP_SIZE );
+        monitors.addMonitorListener( commitStagesMonitor );
+        logForceMonitor.logForce = registry.timer( COMMIT_LOG_FORCE );
+        logForceMonitor.forceGroupSize = registry.histogram( COMMIT_FORCE_GROUP_SIZE );
+        monitors.addMonitorListener( logForceMonitor );
+        commitMonitor.lockAcquisition = registry.timer( COMMIT_PHASE_LOCK_ACQUISITION );
+        commitMonitor.commandExtraction = registry.timer( COMMIT_PHASE_COMMAND_EXTRACTION );
+        commitMonitor.logAppend = registry.timer( COMMIT_PHASE_LOG_APPEND );
+        commitMonitor.logForceWait = registry.timer( COMMIT_PHASE_LOG_FORCE_WAIT );
+        commitMonitor.storeApply = registry.timer( COMMIT_PHASE_STORE_APPLY );
+        commitMonitor.total = registry.timer( COMMIT_PHASE_TOTAL );
+        monitors.addMonitorListener( commitMonitor );
+
         registry.register( TX_STARTED, (Gauge<Long>) transactionCounters::getNumberOfStartedTransactions );
         registry.register( TX_PEAK_CONCURRENT,
                 (Gauge<Long>) transactionCounters::getPeakConcurrentNumberOfTransactions );
@@ -123,6 +183,22 @@ public class TransactionMetrics extends LifecycleAdapter
     @Override
     public void stop()
     {
+        monitors.removeMonitorListener( commitStagesMonitor );
+        registry.remove( COMMIT_LOG_APPEND );
+        registry.remove( COMMIT_APPLY_WAIT );
+        registry.remove( COMMIT_STORE_APPLY );
+        registry.remove( COMMIT_APPLY_GROUP_SIZE );
+        monitors.removeMonitorListener( logForceMonitor );
+        registry.remove( COMMIT_LOG_FORCE );
+        registry.remove( COMMIT_FORCE_GROUP_SIZE );
+        monitors.removeMonitorListener( commitMonitor );
+        registry.remove( COMMIT_PHASE_LOCK_ACQUISITION );
+        registry.remove( COMMIT_PHASE_COMMAND_EXTRACTION );
+        registry.remove( COMMIT_PHASE_LOG_APPEND );
+        registry.remove( COMMIT_PHASE_LOG_FORCE_WAIT );
+        registry.remove( COMMIT_PHASE_STORE_APPLY );
+        registry.remove( COMMIT_PHASE_TOTAL );
+
         registry.remove( TX_STARTED );
         registry.remove( TX_PEAK_CONCURRENT );
 
@@ -145,4 +221,66 @@ public class TransactionMetrics extends LifecycleAdapter
         registry.remove( LAST_COMMITTED_TX_ID );
         registry.remove( LAST_CLOSED_TX_ID );
     }
+
+    private static class CommitStagesMonitor implements PipelinedTransactionCommitProcess.Monitor
+    {
+        volatile Timer logAppend;
+        volatile Timer applyWait;
+        volatile Timer storeApply;
+        volatile Histogram applyGroupSize;
+
+        @Override
+        public void logAppended( long appendNanos )
+        {
+            logAppend.update( appendNanos, TimeUnit.NANOSECONDS );
+        }
+
+        @Override
+        public void applyStageWaited( long waitNanos )
+        {
+            applyWait.update( waitNanos, TimeUnit.NANOSECONDS );
+        }
+
+        @Override
+        public void storeApplied( int transactions, long applyNanos )
+        {
+            storeApply.update( applyNanos, TimeUnit.NANOSECONDS );
+            applyGroupSize.update( transactions );
+        }
+    }
+
+    private static class LogForceMonitor implements DefaultTransactionTracer.LogForceMonitor
+    {
+        volatile Timer logForce;
+        volatile Histogram forceGroupSize;
+
+        @Override
+        public void logForced( long forceNanos, int groupSize )
+        {
+            logForce.update( forceNanos, TimeUnit.NANOSECONDS );
+            forceGroupSize.update( groupSize );
+        }
+    }
+
+    private static class CommitMonitor implements DefaultTransactionTracer.CommitMonitor
+    {
+        volatile Timer lockAcquisition;
+        volatile Timer commandExtraction;
+        volatile Timer logAppend;
+        volatile Timer logForceWait;
+        volatile Timer storeApply;
+        volatile Timer total;
+
+        @Override
+        public void transactionCommitted( long lockAcquisitionNanos, long commandExtractionNanos, long logAppendNanos,
+                long logForceWaitNanos, long storeApplyNanos, long totalNanos )
+        {
+            lockAcquisition.update( lockAcquisitionNanos, TimeUnit.NANOSECONDS );
+            commandExtraction.update( commandExtractionNanos, TimeUnit.NANOSECONDS );
+            logAppend.update( logAppendNanos, TimeUnit.NANOSECONDS );
+            logForceWait.update( logForceWaitNanos, TimeUnit.NANOSECONDS );
+            storeApply.update( storeApplyNanos, TimeUnit.NANOSECONDS );
+            total.update( totalNanos, TimeUnit.NANOSECONDS );
+        }
+    }
 }
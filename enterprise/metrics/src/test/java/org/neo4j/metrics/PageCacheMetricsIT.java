@@ -44,6 +44,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.neo4j.io.pagecache.impl.muninn.EvictionPolicy.CLOCK;
 import static org.neo4j.metrics.MetricsTestHelper.metricsCsv;
 import static org.neo4j.metrics.MetricsTestHelper.readDoubleValue;
 import static org.neo4j.metrics.MetricsTestHelper.readLongValue;
@@ -56,6 +57,7 @@ import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_PAGE_FAULTS;
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_PINS;
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_UNPINS;
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_USAGE_RATIO;
+import static org.neo4j.metrics.source.db.PageCacheMetrics.policyHitRatioName;
 import static org.neo4j.test.assertion.Assert.assertEventually;
 
 public class PageCacheMetricsIT
@@ -116,6 +118,12 @@ public class PageCacheMetricsIT
                 lessThanOrEqualTo( 1.0 ),
                 5, SECONDS );
 
+        assertEventually(
+                "Metrics report should include page cache hit ratio of the default eviction policy",
+                () -> readDoubleValue( metricsCsv( metricsDirectory, policyHitRatioName( CLOCK.name() ) ) ),
+                lessThanOrEqualTo( 1.0 ),
+                5, SECONDS );
+
         assertEventually(
                 "Metrics report should include page cache usage ratio",
                 () -> readDoubleValue( metricsCsv( metricsDirectory, PC_USAGE_RATIO ) ),
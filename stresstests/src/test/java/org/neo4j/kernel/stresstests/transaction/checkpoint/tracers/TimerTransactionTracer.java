@@ -25,7 +25,9 @@ import java.io.PrintStream;
 import java.util.concurrent.TimeUnit;
 
 import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.kernel.impl.transaction.tracing.CommandExtractionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LockAcquisitionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
@@ -61,6 +63,11 @@ public class TimerTransactionTracer implements TransactionTracer, CheckPointTrac
 
     private static final LogForceEvent LOG_FORCE_EVENT = new LogForceEvent()
     {
+        @Override
+        public void setGroupSize( int groupSize )
+        {
+        }
+
         @Override
         public void close()
         {
@@ -84,6 +91,11 @@ public class TimerTransactionTracer implements TransactionTracer, CheckPointTrac
             return LOG_FORCE_EVENT;
         }
 
+        @Override
+        public void storeFlushed( long elapsedNanos )
+        {
+        }
+
         @Override
         public void close()
         {
@@ -148,6 +160,18 @@ public class TimerTransactionTracer implements TransactionTracer, CheckPointTrac
         {
         }
 
+        @Override
+        public LockAcquisitionEvent beginLockAcquisition()
+        {
+            return LockAcquisitionEvent.NULL;
+        }
+
+        @Override
+        public CommandExtractionEvent beginCommandExtraction()
+        {
+            return CommandExtractionEvent.NULL;
+        }
+
         @Override
         public LogAppendEvent beginLogAppend()
         {
@@ -207,4 +231,9 @@ public class TimerTransactionTracer implements TransactionTracer, CheckPointTrac
         logCheckPointBegin = System.nanoTime();
         return LOG_CHECK_POINT_EVENT;
     }
+
+    @Override
+    public void backgroundFlush( long dirtyPages, long flushedPages )
+    {
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.stresstests.transaction.relationship;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransientFailureException;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.kernel.impl.locking.DefaultLockTracer;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.System.getProperty;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.function.Suppliers.untilTimeExpired;
+import static org.neo4j.helper.StressTestingHelper.ensureExistsAndEmpty;
+import static org.neo4j.helper.StressTestingHelper.fromEnv;
+
+/**
+ * Concurrent transactions each connect a handful of new nodes to randomly picked supernodes, in random order, and
+ * retry when they fail transiently. Reports how many transactions were failed because of deadlocks, which is what
+ * the ordered, batched locking of relationship creation keeps down, and checks that every committed relationship
+ * made it to its supernode.
+ * <p>
+ * Notice the class name: this is _not_ going to be run as part of the main build.
+ */
+public class SupernodeRelationshipCreationStressTesting
+{
+    private static final String DEFAULT_DURATION_IN_MINUTES = "5";
+    private static final String DEFAULT_WORKING_DIR = new File( getProperty( "java.io.tmpdir" ), "working" ).getPath();
+    private static final String DEFAULT_NUM_THREADS = "10";
+    private static final String DEFAULT_NUM_SUPERNODES = "4";
+    private static final String DEFAULT_RELATIONSHIPS_PER_TRANSACTION = "10";
+
+    private static final RelationshipType TYPE = RelationshipType.withName( "TYPE" );
+
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong deadlocks = new AtomicLong();
+
+    private File workingDirectory;
+    private GraphDatabaseAPI db;
+
+    @Before
+    public void setUp()
+    {
+        workingDirectory = ensureExistsAndEmpty(
+                new File( fromEnv( "SUPERNODE_RELATIONSHIPS_WORKING_DIRECTORY", DEFAULT_WORKING_DIR ) ) );
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newEmbeddedDatabase( workingDirectory );
+        db.getDependencyResolver().resolveDependency( Monitors.class ).addMonitorListener( new DeadlockCounter() );
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        db.shutdown();
+        FileUtils.deleteRecursively( workingDirectory );
+    }
+
+    @Test
+    public void shouldBehaveCorrectlyUnderStress() throws Exception
+    {
+        int durationInMinutes =
+                parseInt( fromEnv( "SUPERNODE_RELATIONSHIPS_STRESS_DURATION", DEFAULT_DURATION_IN_MINUTES ) );
+        int threads = parseInt( fromEnv( "SUPERNODE_RELATIONSHIPS_NUM_THREADS", DEFAULT_NUM_THREADS ) );
+        int numberOfSupernodes =
+                parseInt( fromEnv( "SUPERNODE_RELATIONSHIPS_NUM_SUPERNODES", DEFAULT_NUM_SUPERNODES ) );
+        int relationshipsPerTransaction = parseInt(
+                fromEnv( "SUPERNODE_RELATIONSHIPS_PER_TRANSACTION", DEFAULT_RELATIONSHIPS_PER_TRANSACTION ) );
+        BooleanSupplier keepGoing = untilTimeExpired( durationInMinutes, MINUTES );
+
+        long[] supernodes = createSupernodes( numberOfSupernodes );
+        AtomicLongArray expectedDegrees = new AtomicLongArray( numberOfSupernodes );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                futures.add( executor.submit( () ->
+                        connectToSupernodes( keepGoing, supernodes, relationshipsPerTransaction, expectedDegrees ) ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        System.out.println( String.format( "Committed: %d, retried: %d, failed on deadlocks: %d",
+                committed.get(), retries.get(), deadlocks.get() ) );
+        assertTrue( committed.get() > 0 );
+        assertTrue( deadlocks.get() <= retries.get() );
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < supernodes.length; i++ )
+            {
+                assertEquals( expectedDegrees.get( i ), db.getNodeById( supernodes[i] ).getDegree( TYPE ) );
+            }
+            tx.success();
+        }
+    }
+
+    private long[] createSupernodes( int count )
+    {
+        long[] supernodes = new long[count];
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                supernodes[i] = db.createNode().getId();
+            }
+            tx.success();
+        }
+        return supernodes;
+    }
+
+    private void connectToSupernodes( BooleanSupplier keepGoing, long[] supernodes, int relationshipsPerTransaction,
+            AtomicLongArray expectedDegrees )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] connected = new int[supernodes.length];
+        while ( keepGoing.getAsBoolean() )
+        {
+            Arrays.fill( connected, 0 );
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < relationshipsPerTransaction; i++ )
+                {
+                    int supernode = random.nextInt( supernodes.length );
+                    Node node = db.createNode();
+                    if ( random.nextBoolean() )
+                    {
+                        node.createRelationshipTo( db.getNodeById( supernodes[supernode] ), TYPE );
+                    }
+                    else
+                    {
+                        db.getNodeById( supernodes[supernode] ).createRelationshipTo( node, TYPE );
+                    }
+                    connected[supernode]++;
+                }
+                tx.success();
+            }
+            catch ( TransientFailureException e )
+            {
+                retries.incrementAndGet();
+                continue;
+            }
+            for ( int i = 0; i < connected.length; i++ )
+            {
+                expectedDegrees.addAndGet( i, connected[i] );
+            }
+            committed.incrementAndGet();
+        }
+    }
+
+    private class DeadlockCounter implements DefaultLockTracer.Monitor
+    {
+        @Override
+        public void lockWaited( ResourceType resourceType, boolean exclusive, long waitNanos )
+        {
+        }
+
+        @Override
+        public void deadlockDetected( ResourceType resourceType )
+        {
+            deadlocks.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2002-2018 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.stresstests.transaction.schema;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransactionTerminatedException;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.graphdb.schema.ConstraintDefinition;
+import org.neo4j.helpers.collection.Iterables;
+import org.neo4j.helpers.collection.Iterators;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.System.getProperty;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.function.Suppliers.untilTimeExpired;
+import static org.neo4j.helper.StressTestingHelper.ensureExistsAndEmpty;
+import static org.neo4j.helper.StressTestingHelper.fromEnv;
+
+/**
+ * Readers that look at the constraints of a label, and sometimes go on to create a node with it, race a schema writer
+ * that keeps creating and dropping a uniqueness constraint on that label, with lock free schema reads enabled.
+ * A reader that starts to write after the constraint changed must be terminated as outdated, and every node that got
+ * created must still be there, with a unique key, at the end.
+ * <p>
+ * Notice the class name: this is _not_ going to be run as part of the main build.
+ */
+public class LockFreeSchemaReadsStressTesting
+{
+    private static final String DEFAULT_DURATION_IN_MINUTES = "5";
+    private static final String DEFAULT_WORKING_DIR = new File( getProperty( "java.io.tmpdir" ), "working" ).getPath();
+    private static final String DEFAULT_NUM_THREADS = "10";
+
+    private static final Label LABEL = Label.label( "Label" );
+    private static final String KEY = "key";
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong outdated = new AtomicLong();
+    private final AtomicLong schemaChanges = new AtomicLong();
+    private final AtomicLong nextKey = new AtomicLong();
+
+    private File workingDirectory;
+    private GraphDatabaseService db;
+
+    @Before
+    public void setUp()
+    {
+        workingDirectory = ensureExistsAndEmpty(
+                new File( fromEnv( "LOCK_FREE_SCHEMA_READS_WORKING_DIRECTORY", DEFAULT_WORKING_DIR ) ) );
+        db = new TestGraphDatabaseFactory().newEmbeddedDatabaseBuilder( workingDirectory )
+                .setConfig( GraphDatabaseSettings.lock_free_schema_reads, "true" )
+                .newGraphDatabase();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        db.shutdown();
+        FileUtils.deleteRecursively( workingDirectory );
+    }
+
+    @Test
+    public void shouldBehaveCorrectlyUnderStress() throws Exception
+    {
+        int durationInMinutes =
+                parseInt( fromEnv( "LOCK_FREE_SCHEMA_READS_STRESS_DURATION", DEFAULT_DURATION_IN_MINUTES ) );
+        int threads = parseInt( fromEnv( "LOCK_FREE_SCHEMA_READS_NUM_THREADS", DEFAULT_NUM_THREADS ) );
+        BooleanSupplier keepGoing = untilTimeExpired( durationInMinutes, MINUTES );
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads + 1 );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add( executor.submit( () -> changeSchema( keepGoing ) ) );
+            for ( int i = 0; i < threads; i++ )
+            {
+                futures.add( executor.submit( () -> readAndSometimesWrite( keepGoing ) ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        System.out.println( String.format( "Reads: %d, created: %d, outdated: %d, schema changes: %d",
+                reads.get(), created.get(), outdated.get(), schemaChanges.get() ) );
+        assertTrue( reads.get() > 0 );
+        assertTrue( schemaChanges.get() > 0 );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( created.get(), Iterators.count( db.findNodes( LABEL ) ) );
+            tx.success();
+        }
+    }
+
+    private void changeSchema( BooleanSupplier keepGoing )
+    {
+        while ( keepGoing.getAsBoolean() )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                db.schema().constraintFor( LABEL ).assertPropertyIsUnique( KEY ).create();
+                tx.success();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                db.schema().getConstraints( LABEL ).forEach( ConstraintDefinition::drop );
+                tx.success();
+            }
+            schemaChanges.incrementAndGet();
+        }
+    }
+
+    private void readAndSometimesWrite( BooleanSupplier keepGoing )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while ( keepGoing.getAsBoolean() )
+        {
+            boolean write = random.nextInt( 10 ) == 0;
+            try ( Transaction tx = db.beginTx() )
+            {
+                Iterables.count( db.schema().getConstraints( LABEL ) );
+                reads.incrementAndGet();
+                if ( write )
+                {
+                    Node node = db.createNode( LABEL );
+                    node.setProperty( KEY, nextKey.incrementAndGet() );
+                }
+                tx.success();
+            }
+            catch ( TransactionTerminatedException e )
+            {
+                assertEquals( Status.Transaction.Outdated, e.status() );
+                outdated.incrementAndGet();
+                continue;
+            }
+            if ( write )
+            {
+                created.incrementAndGet();
+            }
+        }
+    }
+}